@@ -0,0 +1,69 @@
+#!/bin/bash
+
+# Compares handler execution modes (event loop, worker, virtual threads) on the same build.
+# Every mode is forced through kneo.handler.execution-mode, the server is restarted per mode and
+# loaded with hey (https://github.com/rakyll/hey).
+#
+# TaskController.getAll is a reactive @Route and always runs on the event loop, it is the baseline.
+# The consumings list is registered through AbstractController.handler and follows the forced mode.
+#
+# Usage: TOKEN=<bearer token> ORG=<org> ./bench_handler_modes.sh [duration] [concurrency]
+
+# Define variables
+REPO_DIR="/home/keypractica/be_server"
+PORT=8090
+DURATION=${1:-30s}
+CONCURRENCY=${2:-64}
+RESULTS="bench-handler-modes-$(date +%Y%m%d-%H%M%S).txt"
+
+JAR_FILE=$(find $REPO_DIR -name "*-runner.jar" | head -n 1)
+
+if [ -z "$JAR_FILE" ]; then
+  echo "No JAR file found. Please build the project first."
+  exit 1
+fi
+
+if [ -z "$TOKEN" ] || [ -z "$ORG" ]; then
+  echo "TOKEN and ORG must be set."
+  exit 1
+fi
+
+if ! command -v hey > /dev/null; then
+  echo "hey is not installed."
+  exit 1
+fi
+
+run() {
+  local mode=$1
+  local name=$2
+  local path=$3
+  # Warm up, then measure
+  hey -z 5s -c "$CONCURRENCY" -H "Authorization: Bearer $TOKEN" "http://localhost:$PORT$path" > /dev/null
+  echo "== $mode $name c=$CONCURRENCY $DURATION" >> "$RESULTS"
+  hey -z "$DURATION" -c "$CONCURRENCY" -H "Authorization: Bearer $TOKEN" "http://localhost:$PORT$path" \
+    | grep -E "Requests/sec|Average|Slowest|90%|99%|\[[0-9]{3}\]" >> "$RESULTS"
+}
+
+for MODE in EVENT_LOOP WORKER VIRTUAL_THREAD; do
+  echo "Starting server with kneo.handler.execution-mode=$MODE..."
+  /usr/bin/java \
+    -Dquarkus.profile=prod \
+    -Dquarkus.config.locations=file:/home/keypractica/application-prod.properties \
+    -Dquarkus.http.port=$PORT \
+    -Dkneo.handler.execution-mode=$MODE \
+    -jar "$JAR_FILE" > /dev/null 2>&1 &
+  SERVER_PID=$!
+
+  until curl -sf "http://localhost:$PORT/q/health/ready" > /dev/null; do
+    sleep 1
+  done
+
+  run "$MODE" "tasks" "/api/$ORG/tasks?page=1&size=20"
+  run "$MODE" "consumings" "/api/$ORG/consumings?page=1&size=20"
+
+  kill $SERVER_PID
+  wait $SERVER_PID 2> /dev/null
+done
+
+echo "Results written to $RESULTS"
+cat "$RESULTS"
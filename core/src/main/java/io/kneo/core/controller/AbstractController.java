@@ -1,10 +1,12 @@
 
 package io.kneo.core.controller;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.kneo.core.dto.actions.ActionBox;
 import io.kneo.core.dto.actions.ActionsFactory;
+import io.kneo.core.dto.actions.CachedActionBox;
 import io.kneo.core.dto.cnst.PayloadType;
 import io.kneo.core.dto.form.FormPage;
 import io.kneo.core.dto.view.View;
@@ -13,15 +15,22 @@ import io.kneo.core.localization.LanguageCode;
 import io.kneo.core.model.user.AnonymousUser;
 import io.kneo.core.model.user.IUser;
 import io.kneo.core.model.user.UndefinedUser;
+import io.kneo.core.repository.IdempotencyRepository;
 import io.kneo.core.repository.exception.DocumentModificationAccessException;
 import io.kneo.core.repository.exception.UserNotFoundException;
+import io.kneo.core.server.HandlerExecutor;
+import io.kneo.core.server.cnst.ExecutionMode;
+import io.kneo.core.server.security.UserContextFilter;
 import io.kneo.core.service.AbstractService;
 import io.kneo.core.service.IRESTService;
 import io.kneo.core.service.UserService;
 import io.kneo.core.util.RuntimeUtil;
+import io.netty.buffer.ByteBufInputStream;
 import io.quarkus.security.UnauthorizedException;
 import io.smallrye.jwt.auth.principal.DefaultJWTCallerPrincipal;
 import io.smallrye.mutiny.Uni;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.auth.User;
 import io.vertx.ext.web.RoutingContext;
@@ -32,10 +41,19 @@ import jakarta.ws.rs.core.Response;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.util.List;
+import java.util.Locale;
 import java.util.Random;
 import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
 
 import static io.kneo.core.util.RuntimeUtil.countMaxPage;
 
@@ -46,15 +64,45 @@ public abstract class AbstractController<T, V> {
     @Deprecated
     protected static final String USER_NAME_CLAIM = "preferred_username";
     protected static final String USER_NAME = "username";
+    protected static final String ETAG = "ETag";
+    protected static final String IF_NONE_MATCH = "If-None-Match";
+    protected static final String CACHE_CONTROL = "Cache-Control";
+    protected static final String CONTENT_TYPE = "Content-Type";
+    protected static final String JSON_TYPE = "application/json";
+    protected static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    protected static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
 
     UserService userService;
 
+    @Inject
+    protected HandlerExecutor handlerExecutor;
+
+    @Inject
+    protected ObjectMapper mapper;
+
+    @Inject
+    protected IdempotencyRepository idempotencyRepository;
+
     @Inject
     public AbstractController(UserService userService) {
         this.userService = userService;
     }
 
+    protected Handler<RoutingContext> handler(Handler<RoutingContext> handler) {
+        RouteExecution execution = this.getClass().getAnnotation(RouteExecution.class);
+        return handler(execution == null ? ExecutionMode.EVENT_LOOP : execution.value(), handler);
+    }
+
+    protected Handler<RoutingContext> handler(ExecutionMode mode, Handler<RoutingContext> handler) {
+        return handlerExecutor.wrap(mode, handler);
+    }
+
     protected void getAll(IRESTService<V> service, RoutingContext rc) {
+        IUser user = rc.get(UserContextFilter.USER_KEY);
+        conditional(rc, service.getWatermark(user), ctx -> renderAll(service, ctx));
+    }
+
+    private void renderAll(IRESTService<V> service, RoutingContext rc) {
         int page = Integer.parseInt(rc.request().getParam("page", "0"));
         int size = Integer.parseInt(rc.request().getParam("size", "10"));
         service.getAllCount()
@@ -66,56 +114,252 @@ public abstract class AbstractController<T, V> {
                     return service.getAll(size, offset, languageCode)
                             .onItem().transform(dtoList -> {
                                 ViewPage viewPage = new ViewPage();
-                                viewPage.addPayload(PayloadType.CONTEXT_ACTIONS, ActionsFactory.getDefaultViewActions(languageCode));
+                                viewPage.addPayload(PayloadType.CONTEXT_ACTIONS, ActionsFactory.getCachedDefaultViewActions(languageCode));
                                 View<V> dtoEntries = new View<>(dtoList, count, pageNum, maxPage, size);
                                 viewPage.addPayload(PayloadType.VIEW_DATA, dtoEntries);
                                 return viewPage;
                             });
                 })
                 .subscribe().with(
-                        viewPage -> rc.response().setStatusCode(200).end(JsonObject.mapFrom(viewPage).encode()),
+                        viewPage -> sendConditionalJson(rc, viewPage),
                         rc::fail
                 );
 
     }
 
     protected void getById(IRESTService<V> service, RoutingContext rc) {
+        UUID id = UUID.fromString(rc.pathParam("id"));
+        IUser user = getUser(rc);
+        conditional(rc, service.getVersion(id, user), ctx -> renderById(service, id, user, ctx));
+    }
+
+    private void renderById(IRESTService<V> service, UUID id, IUser user, RoutingContext rc) {
         FormPage page = new FormPage();
-        page.addPayload(PayloadType.CONTEXT_ACTIONS, new ActionBox());
-        service.getDTO(UUID.fromString(rc.pathParam("id")), getUser(rc), resolveLanguage(rc))
+        page.addPayload(PayloadType.CONTEXT_ACTIONS, CachedActionBox.EMPTY);
+        service.getDTO(id, user, resolveLanguage(rc))
                 .onItem().transform(dto -> {
                     page.addPayload(PayloadType.DOC_DATA, dto);
                     return page;
                 })
                 .subscribe().with(
-                        formPage -> rc.response().setStatusCode(200).end(JsonObject.mapFrom(formPage).encode()),
+                        formPage -> sendConditionalJson(rc, formPage),
                         rc::fail
                 );
     }
 
-    protected void upsert(IRESTService<V> service, String id, RoutingContext rc) {
-        JsonObject jsonObject = rc.body().asJsonObject();
+    protected void sendViewPage(RoutingContext rc, Uni<Integer> countUni, BiFunction<Integer, Integer, Uni<Buffer>> entriesLoader, ActionBox actions) {
+        sendViewPage(rc, countUni, entriesLoader, CachedActionBox.of(actions));
+    }
 
-        ObjectMapper mapper = new ObjectMapper();
-        V dto = mapper.convertValue(jsonObject, new TypeReference<V>() {
-        });
+    protected void sendViewPage(RoutingContext rc, Uni<Integer> countUni, BiFunction<Integer, Integer, Uni<Buffer>> entriesLoader, CachedActionBox actions) {
+        int page = Integer.parseInt(rc.request().getParam("page", "0"));
+        int size = Integer.parseInt(rc.request().getParam("size", "10"));
+        int pageNum = (page == 0) ? 1 : page;
+        int offset = RuntimeUtil.calcStartEntry(pageNum, size);
+        Uni.combine().all().unis(countUni, entriesLoader.apply(size, offset)).asTuple()
+                .onItem().transform(tuple -> {
+                    int count = tuple.getItem1();
+                    return toViewPageBuffer(actions, count, pageNum, countMaxPage(count, size), size, tuple.getItem2());
+                })
+                .subscribe().with(
+                        buffer -> sendConditional(rc, buffer),
+                        rc::fail
+                );
+    }
+
+    protected Buffer toViewPageBuffer(CachedActionBox actions, int count, int pageNum, int maxPage, int pageSize, Buffer entries) {
+        return Buffer.buffer("{\"payload\":{\"" + PayloadType.CONTEXT_ACTIONS.getAlias() + "\":")
+                .appendBuffer(actions.getBuffer(mapper))
+                .appendString(",\"" + PayloadType.VIEW_DATA.getAlias() + "\":{\"count\":" + count + ",\"pageNum\":" + pageNum +
+                        ",\"maxPage\":" + maxPage + ",\"pageSize\":" + pageSize + ",\"entries\":")
+                .appendBuffer(entries)
+                .appendString("}}}");
+    }
 
-        service.upsert(id, dto, getUser(rc), resolveLanguage(rc))
+    protected Buffer toFormPageBuffer(CachedActionBox actions, Buffer docData) {
+        return Buffer.buffer("{\"payload\":{\"" + PayloadType.CONTEXT_ACTIONS.getAlias() + "\":")
+                .appendBuffer(actions.getBuffer(mapper))
+                .appendString(",\"" + PayloadType.DOC_DATA.getAlias() + "\":")
+                .appendBuffer(docData)
+                .appendString("}}");
+    }
+
+    /**
+     * Sends a GET response, or 304 when the client already has it. When {@link #conditional} has set an ETag from
+     * the data version, that tag is kept, otherwise the tag is a hash of the rendered body.
+     */
+    protected void sendConditional(RoutingContext rc, Buffer body) {
+        String etag = rc.response().headers().get(ETAG);
+        if (etag == null) {
+            etag = "W/\"" + UUID.nameUUIDFromBytes(body.getBytes()) + "\"";
+            rc.response()
+                    .putHeader(ETAG, etag)
+                    .putHeader(CACHE_CONTROL, "private, no-cache");
+        }
+        if (matchesETag(rc.request().getHeader(IF_NONE_MATCH), etag)) {
+            rc.response().setStatusCode(304).end();
+        } else {
+            rc.response()
+                    .setStatusCode(200)
+                    .putHeader(CONTENT_TYPE, JSON_TYPE)
+                    .end(body);
+        }
+    }
+
+    protected void sendConditionalJson(RoutingContext rc, Object value) {
+        sendConditional(rc, toJson(value));
+    }
+
+    protected void conditional(RoutingContext rc, Uni<String> versionUni, Handler<RoutingContext> render) {
+        conditional(rc, versionUni, (ctx, version) -> render.handle(ctx));
+    }
+
+    /**
+     * Answers 304 before rendering when the version of the requested data still matches the client's ETag, so a
+     * refreshing client costs one version query instead of loading and enriching the data. When there is no version
+     * (e.g. the row is not in the live table) the renderer runs and the ETag falls back to the body hash.
+     * The version is handed to the renderer, so it does not have to be queried again.
+     */
+    protected void conditional(RoutingContext rc, Uni<String> versionUni, BiConsumer<RoutingContext, String> render) {
+        versionUni.subscribe().with(
+                version -> {
+                    if (version == null) {
+                        render.accept(rc, null);
+                        return;
+                    }
+                    String etag = toWeakETag(rc, version);
+                    rc.response()
+                            .putHeader(ETAG, etag)
+                            .putHeader(CACHE_CONTROL, "private, no-cache");
+                    if (matchesETag(rc.request().getHeader(IF_NONE_MATCH), etag)) {
+                        rc.response().setStatusCode(304).end();
+                    } else {
+                        render.accept(rc, version);
+                    }
+                },
+                rc::fail
+        );
+    }
+
+    private static String toWeakETag(RoutingContext rc, String version) {
+        String query = rc.request().query();
+        String source = version + "|" + resolveLanguage(rc) + "|" + (query == null ? "" : query);
+        return "W/\"" + UUID.nameUUIDFromBytes(source.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private static boolean matchesETag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        String opaque = etag.substring(2);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag) || value.equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Runs the action and sends its result as JSON. With an Idempotency-Key header a repeated request
+     * gets the stored response of the first one instead of running the action again.
+     */
+    protected <R> void idempotent(RoutingContext rc, int statusCode, Supplier<Uni<R>> action) {
+        String key = rc.request().getHeader(IDEMPOTENCY_KEY);
+        if (key == null || key.isBlank()) {
+            action.get().subscribe().with(
+                    result -> sendJson(rc, statusCode, result),
+                    rc::fail
+            );
+            return;
+        }
+        idempotencyRepository.execute(getUser(rc).getId(), key, requestHash(rc),
+                        () -> action.get().onItem().transform(result -> new IdempotencyRepository.StoredResponse(statusCode, toJson(result), false)))
                 .subscribe().with(
-                        doc -> {
-                            int statusCode = (id == null) ? 201 : 200;
+                        response -> {
+                            if (response.replayed()) {
+                                rc.response().putHeader(IDEMPOTENT_REPLAYED, "true");
+                            }
                             rc.response()
-                                    .setStatusCode(statusCode)
-                                    .end(JsonObject.mapFrom(doc).encode());
+                                    .setStatusCode(response.statusCode())
+                                    .putHeader(CONTENT_TYPE, JSON_TYPE)
+                                    .end(response.body());
                         },
                         rc::fail
                 );
     }
 
+    private static byte[] requestHash(RoutingContext rc) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((rc.request().method().name() + " " + rc.request().path() + "\n").getBytes(StandardCharsets.UTF_8));
+            Buffer body = rc.body().buffer();
+            if (body != null) {
+                digest.update(body.getBytes());
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    protected void upsert(IRESTService<V> service, Class<V> type, String id, RoutingContext rc) {
+        V dto = readBody(rc, type);
+        idempotent(rc, (id == null || id.isEmpty()) ? 201 : 200, () -> service.upsert(id, dto, getUser(rc), resolveLanguage(rc)));
+    }
+
+    protected <D> D readBody(RoutingContext rc, Class<D> type) {
+        Buffer body = rc.body().buffer();
+        if (body == null || body.length() == 0) {
+            throw new IllegalArgumentException("Request body is empty");
+        }
+        try (ByteBufInputStream in = new ByteBufInputStream(body.getByteBuf())) {
+            return mapper.readValue((InputStream) in, type);
+        } catch (IOException e) {
+            throw malformedBody(type.getSimpleName(), e);
+        }
+    }
+
+    /**
+     * The parser's message names classes and quotes the input, so it is only logged. The client gets the type
+     * and, for mapping errors, the path of the offending field.
+     */
+    protected IllegalArgumentException malformedBody(String typeName, IOException e) {
+        LOGGER.warn("Malformed {} in request body: {}", typeName, e.getMessage());
+        StringBuilder message = new StringBuilder("Malformed ").append(typeName);
+        if (e instanceof JsonMappingException mappingException && !mappingException.getPath().isEmpty()) {
+            message.append(" at ");
+            for (JsonMappingException.Reference reference : mappingException.getPath()) {
+                if (reference.getFieldName() != null) {
+                    message.append(message.charAt(message.length() - 1) == ' ' ? "" : ".").append(reference.getFieldName());
+                } else {
+                    message.append('[').append(reference.getIndex()).append(']');
+                }
+            }
+        }
+        return new IllegalArgumentException(message.toString());
+    }
+
+    protected Buffer toJson(Object value) {
+        try {
+            return Buffer.buffer(mapper.writeValueAsBytes(value));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    protected void sendJson(RoutingContext rc, int statusCode, Object value) {
+        rc.response()
+                .setStatusCode(statusCode)
+                .putHeader(CONTENT_TYPE, JSON_TYPE)
+                .end(toJson(value));
+    }
+
     @Deprecated
     protected Uni<Response> getAll(IRESTService<V> service, ContainerRequestContext requestContext, int page, int size) throws UserNotFoundException {
         IUser user = getUserId(requestContext);
-        String languageHeader = requestContext.getHeaderString("Accept-Language");
+        LanguageCode language = resolveLanguage(requestContext);
         Uni<Integer> countUni = service.getAllCount();
         Uni<Integer> maxPageUni = countUni.onItem().transform(c -> countMaxPage(c, size));
         Uni<Integer> pageNumUni = Uni.createFrom().item(page);
@@ -123,7 +367,7 @@ public abstract class AbstractController<T, V> {
                 .unis(pageNumUni, Uni.createFrom().item(user.getPageSize()))
                 .asTuple()
                 .map(tuple -> RuntimeUtil.calcStartEntry(tuple.getItem1(), tuple.getItem2()));
-        Uni<List<V>> unis = offsetUni.onItem().transformToUni(offset -> service.getAll(size, offset, LanguageCode.ENG));
+        Uni<List<V>> unis = offsetUni.onItem().transformToUni(offset -> service.getAll(size, offset, language));
         return Uni.combine().all()
                 .unis(unis, offsetUni, pageNumUni, countUni, maxPageUni)
                 .asTuple()
@@ -135,7 +379,7 @@ public abstract class AbstractController<T, V> {
                     int maxPage = tuple.getItem5();
 
                     ViewPage viewPage = new ViewPage();
-                    viewPage.addPayload(PayloadType.CONTEXT_ACTIONS, ActionsFactory.getDefaultViewActions(LanguageCode.ENG));
+                    viewPage.addPayload(PayloadType.CONTEXT_ACTIONS, ActionsFactory.getDefaultViewActions(language));
                     if (pageNum == 0) pageNum = 1;
                     View<V> dtoEntries = new View<>(dtoList, count, pageNum, maxPage, size);
                     viewPage.addPayload(PayloadType.VIEW_DATA, dtoEntries);
@@ -148,9 +392,10 @@ public abstract class AbstractController<T, V> {
     protected Uni<Response> getById(IRESTService<V> service, String id, ContainerRequestContext requestContext) throws UserNotFoundException {
         IUser user = getUserId(requestContext);
         if (user != null) {
+            LanguageCode language = resolveLanguage(requestContext);
             FormPage page = new FormPage();
-            page.addPayload(PayloadType.CONTEXT_ACTIONS, ActionsFactory.getDefaultFormActions(LanguageCode.ENG));
-            return service.getDTO(UUID.fromString(id), user, LanguageCode.ENG)
+            page.addPayload(PayloadType.CONTEXT_ACTIONS, ActionsFactory.getDefaultFormActions(language));
+            return service.getDTO(UUID.fromString(id), user, language)
                     .onItem().transform(p -> {
                         page.addPayload(PayloadType.DOC_DATA, p);
                         return Response.ok(page).build();
@@ -201,6 +446,10 @@ public abstract class AbstractController<T, V> {
     }
 
     protected Uni<IUser> getContextUser(RoutingContext rc) {
+        IUser resolved = rc.get(UserContextFilter.USER_KEY);
+        if (resolved != null) {
+            return Uni.createFrom().item(resolved);
+        }
         User vertxUser = rc.user();
         if (vertxUser == null) {
             return Uni.createFrom().item(UndefinedUser.Build());
@@ -216,6 +465,10 @@ public abstract class AbstractController<T, V> {
 
     @Deprecated
     protected IUser getUser(RoutingContext rc) {
+        IUser resolved = rc.get(UserContextFilter.USER_KEY);
+        if (resolved != null) {
+            return resolved;
+        }
         try {
             User vertxUser = rc.user();
             if (vertxUser == null) {
@@ -301,4 +554,16 @@ public abstract class AbstractController<T, V> {
             return LanguageCode.ENG;
         }
     }
+
+    protected static LanguageCode resolveLanguage(ContainerRequestContext requestContext) {
+        for (Locale locale : requestContext.getAcceptableLanguages()) {
+            String tag = locale.getLanguage();
+            for (LanguageCode code : LanguageCode.values()) {
+                if (code.name().equalsIgnoreCase(tag) || code.getAlternateCode().equals(tag)) {
+                    return code;
+                }
+            }
+        }
+        return LanguageCode.ENG;
+    }
 }
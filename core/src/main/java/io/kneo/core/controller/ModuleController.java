@@ -11,7 +11,6 @@ import io.kneo.core.service.ModuleService;
 import io.kneo.core.service.UserService;
 import io.kneo.core.util.RuntimeUtil;
 import io.vertx.core.http.HttpMethod;
-import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -68,7 +67,7 @@ public class ModuleController extends AbstractSecuredController<Module, ModuleDT
                             });
                 })
                 .subscribe().with(
-                        viewPage -> rc.response().setStatusCode(200).end(JsonObject.mapFrom(viewPage).encode()),
+                        viewPage -> sendJson(rc, 200, viewPage),
                         rc::fail
                 );
     }
@@ -78,14 +77,14 @@ public class ModuleController extends AbstractSecuredController<Module, ModuleDT
         LanguageCode languageCode = resolveLanguage(rc);
         service.getDTO(UUID.fromString(id), getUser(rc), languageCode)
                 .subscribe().with(
-                        module -> rc.response().setStatusCode(200).end(JsonObject.mapFrom(module).encode()),
+                        module -> sendJson(rc, 200, module),
                         rc::fail
                 );
     }
 
     private void upsert(RoutingContext rc)  {
         String id = rc.pathParam("id");
-        ModuleDTO dto = rc.body().asJsonObject().mapTo(ModuleDTO.class);
+        ModuleDTO dto = readBody(rc, ModuleDTO.class);
         LanguageCode languageCode = resolveLanguage(rc);
 
         service.upsert(id, dto, getUser(rc), languageCode)
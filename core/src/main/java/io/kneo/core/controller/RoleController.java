@@ -14,7 +14,6 @@ import io.kneo.core.service.RoleService;
 import io.kneo.core.service.UserService;
 import io.kneo.core.util.RuntimeUtil;
 import io.vertx.core.http.HttpMethod;
-import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -67,7 +66,7 @@ public class RoleController extends AbstractSecuredController<Role, RoleDTO> {
                             });
                 })
                 .subscribe().with(
-                        viewPage -> rc.response().setStatusCode(200).end(JsonObject.mapFrom(viewPage).encode()),
+                        viewPage -> sendJson(rc, 200, viewPage),
                         rc::fail
                 );
     }
@@ -83,13 +82,13 @@ public class RoleController extends AbstractSecuredController<Role, RoleDTO> {
                     return page;
                 })
                 .subscribe().with(
-                        formPage -> rc.response().setStatusCode(200).end(JsonObject.mapFrom(formPage).encode()),
+                        formPage -> sendJson(rc, 200, formPage),
                         rc::fail
                 );
     }
 
     private void create(RoutingContext rc) {
-        RoleDTO dto = rc.body().asJsonObject().mapTo(RoleDTO.class);
+        RoleDTO dto = readBody(rc, RoleDTO.class);
 
         service.add(dto)
                 .subscribe().with(
@@ -100,7 +99,7 @@ public class RoleController extends AbstractSecuredController<Role, RoleDTO> {
 
     private void update(RoutingContext rc) {
         String id = rc.pathParam("id");
-        RoleDTO dto = rc.body().asJsonObject().mapTo(RoleDTO.class);
+        RoleDTO dto = readBody(rc, RoleDTO.class);
 
         service.update(id, dto)
                 .subscribe().with(
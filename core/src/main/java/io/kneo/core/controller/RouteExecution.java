@@ -0,0 +1,23 @@
+package io.kneo.core.controller;
+
+import io.kneo.core.server.cnst.ExecutionMode;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Selects where the handlers registered through {@link AbstractController#handler} are executed.
+ * Controllers without the annotation stay on the event loop.
+ */
+@Target(TYPE)
+@Retention(RUNTIME)
+@Documented
+@Inherited
+public @interface RouteExecution {
+    ExecutionMode value() default ExecutionMode.VIRTUAL_THREAD;
+}
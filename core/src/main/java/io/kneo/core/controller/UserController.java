@@ -5,7 +5,6 @@ import io.kneo.core.dto.document.UserDTO;
 import io.kneo.core.dto.view.ViewPage;
 import io.kneo.core.model.user.User;
 import io.kneo.core.service.UserService;
-import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -43,10 +42,7 @@ public class UserController extends AbstractController<User, UserDTO> {
                 .subscribe().with(
                         userList -> {
                             viewPage.addPayload(PayloadType.VIEW_DATA, userList);
-                            rc.response()
-                                    .setStatusCode(200)
-                                    .putHeader("Content-Type", "application/json")
-                                    .end(JsonObject.mapFrom(viewPage).encode());
+                            sendJson(rc, 200, viewPage);
                         },
                         failure -> {
                             LOGGER.error(failure.getMessage(), failure);
@@ -59,8 +55,7 @@ public class UserController extends AbstractController<User, UserDTO> {
 
     private void create(RoutingContext rc) {
         try {
-            JsonObject jsonObject = rc.getBodyAsJson();
-            UserDTO userDTO = jsonObject.mapTo(UserDTO.class);
+            UserDTO userDTO = readBody(rc, UserDTO.class);
 
             service.add(userDTO)
                     .subscribe().with(
@@ -85,8 +80,7 @@ public class UserController extends AbstractController<User, UserDTO> {
     private void update(RoutingContext rc) {
         String id = rc.pathParam("id");
         try {
-            JsonObject jsonObject = rc.getBodyAsJson();
-            UserDTO userDTO = jsonObject.mapTo(UserDTO.class);
+            UserDTO userDTO = readBody(rc, UserDTO.class);
 
             service.update(id, userDTO)
                     .subscribe().with(
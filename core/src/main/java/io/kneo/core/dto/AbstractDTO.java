@@ -26,5 +26,6 @@ public abstract class AbstractDTO implements IDTO {
     @JsonView(Views.DetailView.class)
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd.MM.yyyy HH:mm")
     protected ZonedDateTime lastModifiedDate;
+    protected Long version;
 
 }
@@ -0,0 +1,75 @@
+package io.kneo.core.dto.actions;
+
+import io.kneo.core.localization.LanguageCode;
+import io.kneo.core.localization.TranslationCatalog;
+import io.kneo.core.model.user.IRole;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+public final class ActionBoxCache {
+    private static final int MAX_ENTRIES = 4096;
+    private static final String[] NO_ROLES = new String[0];
+    private static final Map<Key, Entry> CACHE = new ConcurrentHashMap<>();
+    private static volatile long translationVersion = TranslationCatalog.version();
+
+    private record Key(String module, String view, LanguageCode lang, int roleSetHash) {}
+
+    private record Entry(String[] roles, CachedActionBox actions) {}
+
+    private ActionBoxCache() {
+    }
+
+    public static CachedActionBox get(String module, String view, LanguageCode lang, Supplier<ActionBox> factory) {
+        return get(module, view, lang, NO_ROLES, factory);
+    }
+
+    public static CachedActionBox get(String module, String view, LanguageCode lang, List<IRole> roles, Supplier<ActionBox> factory) {
+        return get(module, view, lang, roleNames(roles), factory);
+    }
+
+    public static void invalidate() {
+        CACHE.clear();
+    }
+
+    public static int size() {
+        return CACHE.size();
+    }
+
+    private static CachedActionBox get(String module, String view, LanguageCode lang, String[] roles, Supplier<ActionBox> factory) {
+        long version = TranslationCatalog.version();
+        if (version != translationVersion) {
+            CACHE.clear();
+            translationVersion = version;
+        }
+        Key key = new Key(module, view, lang, Arrays.hashCode(roles));
+        Entry entry = CACHE.get(key);
+        if (entry != null) {
+            if (Arrays.equals(entry.roles, roles)) {
+                return entry.actions;
+            }
+            return CachedActionBox.of(factory.get());
+        }
+        if (CACHE.size() >= MAX_ENTRIES) {
+            CACHE.clear();
+        }
+        entry = new Entry(roles, CachedActionBox.of(factory.get()));
+        Entry existing = CACHE.putIfAbsent(key, entry);
+        return existing != null && Arrays.equals(existing.roles, roles) ? existing.actions : entry.actions;
+    }
+
+    private static String[] roleNames(List<IRole> roles) {
+        if (roles == null || roles.isEmpty()) {
+            return NO_ROLES;
+        }
+        String[] names = new String[roles.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = String.valueOf(roles.get(i).getName());
+        }
+        Arrays.sort(names);
+        return names;
+    }
+}
@@ -2,13 +2,17 @@ package io.kneo.core.dto.actions;
 
 import io.kneo.core.dto.actions.cnst.ActionType;
 import io.kneo.core.localization.LanguageCode;
+import io.kneo.core.localization.TranslationCatalog;
 
 public class ActionsFactory {
+    public static final String CORE_MODULE = "core";
+    private static final int AVAILABLE_ACTIONS = TranslationCatalog.key("available_actions", "Available actions");
+    private static final int AVAILABLE_ACTIONS_HINT = TranslationCatalog.key("available_actions_hint", "The actions available actions based on your credentials");
 
     public static ActionBox getDefaultViewActions(LanguageCode lang) {
         ActionBox bar = new ActionBox();
-        bar.setCaption("Available actions");
-        bar.setHint("The actions available actions based on your credentials");
+        bar.setCaption(TranslationCatalog.get(AVAILABLE_ACTIONS, lang));
+        bar.setHint(TranslationCatalog.get(AVAILABLE_ACTIONS_HINT, lang));
         bar.addAction(new Action(ActionType.CREATE.getAlias()));
         bar.addAction(new Action(ActionType.DELETE.getAlias()));
         return bar;
@@ -16,10 +20,18 @@ public class ActionsFactory {
 
     public static ActionBox getDefaultFormActions(LanguageCode lang) {
         ActionBox bar = new ActionBox();
-        bar.setCaption("Available actions");
-        bar.setHint("The actions available actions based on your credentials");
+        bar.setCaption(TranslationCatalog.get(AVAILABLE_ACTIONS, lang));
+        bar.setHint(TranslationCatalog.get(AVAILABLE_ACTIONS_HINT, lang));
         bar.addAction(new Action(ActionType.SAVE.getAlias()));
         bar.addAction(new Action(ActionType.CLOSE.getAlias()));
         return bar;
     }
+
+    public static CachedActionBox getCachedDefaultViewActions(LanguageCode lang) {
+        return ActionBoxCache.get(CORE_MODULE, "default_view", lang, () -> getDefaultViewActions(lang));
+    }
+
+    public static CachedActionBox getCachedDefaultFormActions(LanguageCode lang) {
+        return ActionBoxCache.get(CORE_MODULE, "default_form", lang, () -> getDefaultFormActions(lang));
+    }
 }
@@ -0,0 +1,65 @@
+package io.kneo.core.dto.actions;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import io.vertx.core.buffer.Buffer;
+
+import java.io.IOException;
+
+/**
+ * An {@link ActionBox} that is encoded once and then written as raw JSON. The encoding is done lazily by the
+ * application's ObjectMapper, either the one passed to {@link #getBuffer(ObjectMapper)} or the one that serializes
+ * the enclosing page, so cached actions follow the same naming, date and inclusion settings as the rest of the body.
+ */
+@JsonSerialize(using = CachedActionBox.Serializer.class)
+public final class CachedActionBox {
+    public static final CachedActionBox EMPTY = of(new ActionBox());
+
+    private final ActionBox actions;
+    private volatile String json;
+
+    private CachedActionBox(ActionBox actions) {
+        this.actions = actions;
+    }
+
+    public static CachedActionBox of(ActionBox actions) {
+        return new CachedActionBox(actions);
+    }
+
+    public String getJson(ObjectMapper mapper) throws JsonProcessingException {
+        String encoded = json;
+        if (encoded == null) {
+            encoded = mapper.writeValueAsString(actions);
+            json = encoded;
+        }
+        return encoded;
+    }
+
+    public Buffer getBuffer(ObjectMapper mapper) {
+        try {
+            return Buffer.buffer(getJson(mapper));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static class Serializer extends StdSerializer<CachedActionBox> {
+
+        public Serializer() {
+            super(CachedActionBox.class);
+        }
+
+        @Override
+        public void serialize(CachedActionBox value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            if (gen.getCodec() instanceof ObjectMapper mapper) {
+                gen.writeRawValue(value.getJson(mapper));
+            } else {
+                provider.defaultSerializeValue(value.actions, gen);
+            }
+        }
+    }
+}
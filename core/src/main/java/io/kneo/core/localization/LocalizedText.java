@@ -0,0 +1,202 @@
+package io.kneo.core.localization;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@JsonSerialize(using = LocalizedText.Serializer.class)
+public final class LocalizedText {
+    public static final LocalizedText EMPTY = new LocalizedText(new String[LanguageCode.values().length]);
+
+    private static final LanguageCode[] CODES = LanguageCode.values();
+    private static final Map<String, LanguageCode> BY_NAME = new HashMap<>();
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int POOL_LIMIT = 16384;
+    private static final Map<String, String> POOL = new ConcurrentHashMap<>();
+
+    static {
+        for (LanguageCode code : CODES) {
+            BY_NAME.put(code.name(), code);
+        }
+    }
+
+    private final String[] values;
+
+    private LocalizedText(String[] values) {
+        this.values = values;
+    }
+
+    public String get(LanguageCode code) {
+        return values[code.ordinal()];
+    }
+
+    public String getOrDefault(LanguageCode code, String defaultValue) {
+        String value = values[code.ordinal()];
+        return value == null || value.isEmpty() ? defaultValue : value;
+    }
+
+    public boolean isEmpty() {
+        for (String value : values) {
+            if (value != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public LocalizedText with(LanguageCode code, String value) {
+        String[] copy = values.clone();
+        copy[code.ordinal()] = intern(value);
+        return new LocalizedText(copy);
+    }
+
+    public EnumMap<LanguageCode, String> toEnumMap() {
+        EnumMap<LanguageCode, String> map = new EnumMap<>(LanguageCode.class);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                map.put(CODES[i], values[i]);
+            }
+        }
+        return map;
+    }
+
+    public JsonObject toJsonObject() {
+        JsonObject json = new JsonObject();
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                json.put(CODES[i].name(), values[i]);
+            }
+        }
+        return json;
+    }
+
+    public static LocalizedText of(Map<LanguageCode, String> map) {
+        if (map == null || map.isEmpty()) {
+            return EMPTY;
+        }
+        String[] values = new String[CODES.length];
+        map.forEach((code, value) -> values[code.ordinal()] = intern(value));
+        return new LocalizedText(values);
+    }
+
+    public static LocalizedText from(Object columnValue) {
+        if (columnValue == null) {
+            return EMPTY;
+        } else if (columnValue instanceof JsonObject json) {
+            return from(json);
+        } else if (columnValue instanceof Buffer buffer) {
+            return parse(buffer.getBytes());
+        } else if (columnValue instanceof String text) {
+            return parse(text.getBytes(StandardCharsets.UTF_8));
+        }
+        throw new IllegalArgumentException("Unsupported localized value: " + columnValue.getClass().getName());
+    }
+
+    public static LocalizedText from(JsonObject json) {
+        if (json == null || json.isEmpty()) {
+            return EMPTY;
+        }
+        String[] values = new String[CODES.length];
+        for (Map.Entry<String, Object> entry : json) {
+            if (entry.getValue() != null) {
+                values[resolve(entry.getKey()).ordinal()] = intern(String.valueOf(entry.getValue()));
+            }
+        }
+        return new LocalizedText(values);
+    }
+
+    public static LocalizedText parse(byte[] json) {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return EMPTY;
+            }
+            String[] values = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                LanguageCode code = resolve(parser.currentName());
+                JsonToken token = parser.nextToken();
+                if (token.isStructStart()) {
+                    parser.skipChildren();
+                } else if (token != JsonToken.VALUE_NULL) {
+                    if (values == null) {
+                        values = new String[CODES.length];
+                    }
+                    values[code.ordinal()] = intern(parser.getText());
+                }
+            }
+            return values == null ? EMPTY : new LocalizedText(values);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static LanguageCode resolve(String key) {
+        LanguageCode code = BY_NAME.get(key);
+        if (code == null) {
+            code = BY_NAME.getOrDefault(key.toUpperCase(), LanguageCode.UNKNOWN);
+        }
+        return code;
+    }
+
+    private static String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String pooled = POOL.get(value);
+        if (pooled != null) {
+            return pooled;
+        }
+        if (POOL.size() >= POOL_LIMIT) {
+            return value;
+        }
+        pooled = POOL.putIfAbsent(value, value);
+        return pooled == null ? value : pooled;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof LocalizedText other && Arrays.equals(values, other.values));
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return toEnumMap().toString();
+    }
+
+    public static class Serializer extends StdSerializer<LocalizedText> {
+
+        public Serializer() {
+            super(LocalizedText.class);
+        }
+
+        @Override
+        public void serialize(LocalizedText value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            for (int i = 0; i < value.values.length; i++) {
+                if (value.values[i] != null) {
+                    gen.writeStringField(CODES[i].name(), value.values[i]);
+                }
+            }
+            gen.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package io.kneo.core.localization;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Translations compiled into arrays. Keywords registered by code with {@link #key(String, String)} get stable ids
+ * and are looked up by index; keywords that only come from the database live in the catalog that loaded them and
+ * are gone once a reload no longer has them.
+ */
+public final class TranslationCatalog {
+    private static final LanguageCode[] LANGUAGES = LanguageCode.values();
+    private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static volatile String[] keys = new String[0];
+    private static volatile String[] defaults = new String[0];
+    private static volatile TranslationCatalog current = new TranslationCatalog(new String[LANGUAGES.length][], Map.of(), 0);
+    private static volatile long version;
+
+    private final String[][] tables;
+    private final Map<String, String[]> unregistered;
+    private final int size;
+
+    private TranslationCatalog(String[][] tables, Map<String, String[]> unregistered, int size) {
+        this.tables = tables;
+        this.unregistered = unregistered;
+        this.size = size;
+    }
+
+    public static int key(String keyword) {
+        return key(keyword, null);
+    }
+
+    public static synchronized int key(String keyword, String defaultText) {
+        Integer id = IDS.get(keyword);
+        if (id == null) {
+            id = keys.length;
+            String[] newKeys = Arrays.copyOf(keys, id + 1);
+            String[] newDefaults = Arrays.copyOf(defaults, id + 1);
+            newKeys[id] = keyword;
+            newDefaults[id] = defaultText != null ? defaultText : keyword;
+            defaults = newDefaults;
+            keys = newKeys;
+            IDS.put(keyword, id);
+        } else if (defaultText != null) {
+            String[] newDefaults = defaults.clone();
+            newDefaults[id] = defaultText;
+            defaults = newDefaults;
+        }
+        return id;
+    }
+
+    public static int idOf(String keyword) {
+        Integer id = IDS.get(keyword);
+        return id == null ? -1 : id;
+    }
+
+    public static String get(int id, LanguageCode lang) {
+        String word = current.find(id, lang);
+        return word != null ? word : defaults[id];
+    }
+
+    public static String get(String keyword, LanguageCode lang) {
+        String word = find(keyword, lang);
+        if (word != null) {
+            return word;
+        }
+        int id = idOf(keyword);
+        return id == -1 ? keyword : defaults[id];
+    }
+
+    /**
+     * Returns the translation of the keyword, falling back to English, or null when the catalog has neither.
+     */
+    public static String find(String keyword, LanguageCode lang) {
+        int id = idOf(keyword);
+        return id == -1 ? current.findUnregistered(keyword, lang) : current.find(id, lang);
+    }
+
+    public static boolean contains(String keyword) {
+        return IDS.containsKey(keyword) || current.unregistered.containsKey(keyword);
+    }
+
+    public static TranslationCatalog current() {
+        return current;
+    }
+
+    public static long version() {
+        return version;
+    }
+
+    public static synchronized void install(TranslationCatalog catalog) {
+        current = catalog;
+        version++;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private String find(int id, LanguageCode lang) {
+        String word = word(id, lang);
+        if (word == null && lang != LanguageCode.ENG) {
+            word = word(id, LanguageCode.ENG);
+        }
+        return word;
+    }
+
+    private String word(int id, LanguageCode lang) {
+        String[] table = tables[lang.ordinal()];
+        if (table != null && id < table.length) {
+            return table[id];
+        }
+        String[] words = unregistered.get(keys[id]);
+        return words == null ? null : words[lang.ordinal()];
+    }
+
+    private String findUnregistered(String keyword, LanguageCode lang) {
+        String[] words = unregistered.get(keyword);
+        if (words == null) {
+            return null;
+        }
+        String word = words[lang.ordinal()];
+        return word == null ? words[LanguageCode.ENG.ordinal()] : word;
+    }
+
+    public static class Builder {
+        private final Map<String, String[]> words = new HashMap<>();
+        private int size;
+
+        public Builder put(String keyword, LanguageCode lang, String word) {
+            if (word == null || word.isEmpty()) {
+                return this;
+            }
+            String[] byLang = words.computeIfAbsent(keyword, k -> new String[LANGUAGES.length]);
+            if (byLang[lang.ordinal()] == null) {
+                size++;
+            }
+            byLang[lang.ordinal()] = word;
+            return this;
+        }
+
+        public TranslationCatalog build() {
+            String[] registered = keys;
+            String[][] tables = new String[LANGUAGES.length][];
+            Map<String, String[]> unregistered = new HashMap<>();
+            words.forEach((keyword, byLang) -> {
+                Integer id = IDS.get(keyword);
+                if (id == null || id >= registered.length) {
+                    unregistered.put(keyword, byLang);
+                    return;
+                }
+                for (int lang = 0; lang < byLang.length; lang++) {
+                    if (byLang[lang] != null) {
+                        if (tables[lang] == null) {
+                            tables[lang] = new String[registered.length];
+                        }
+                        tables[lang][id] = byLang[lang];
+                    }
+                }
+            });
+            return new TranslationCatalog(tables, unregistered, size);
+        }
+    }
+}
@@ -68,6 +68,10 @@ public class Vocabulary {
     }
 
     public String getWord(String keyword, LanguageCode lang) {
+        String word = TranslationCatalog.find(keyword, lang);
+        if (word != null) {
+            return word;
+        }
         try {
             Sentence sent = words.get(keyword);
             if (sent == null) {
@@ -13,6 +13,7 @@ public abstract class DataEntity<K> implements IDataEntity<K> {
     private ZonedDateTime regDate;
     private ZonedDateTime lastModifiedDate;
     private long lastModifier;
+    private Long version;
 
     @Override
     public K getId() {
@@ -1,39 +1,35 @@
 package io.kneo.core.model;
 
 import io.kneo.core.localization.LanguageCode;
+import io.kneo.core.localization.LocalizedText;
 import io.kneo.core.server.Environment;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.util.EnumMap;
+import java.util.Map;
 import java.util.UUID;
 
 @Setter
 public class SimpleReferenceEntity extends DataEntity<UUID> {
     @Getter
     protected String identifier;
-    protected EnumMap<LanguageCode, String> localizedName = new EnumMap<>(LanguageCode.class);
+    @Getter
+    protected LocalizedText localizedText = LocalizedText.EMPTY;
 
     public EnumMap<LanguageCode, String> getLocalizedName() {
+        EnumMap<LanguageCode, String> localizedName = localizedText.toEnumMap();
         for (LanguageCode code : Environment.AVAILABLE_LANGUAGES) {
-            if (!localizedName.containsKey(code)) {
-                localizedName.put(code, "");
-            }
+            localizedName.putIfAbsent(code, "");
         }
-
         return localizedName;
     }
 
+    public void setLocalizedName(Map<LanguageCode, String> localizedName) {
+        this.localizedText = LocalizedText.of(localizedName);
+    }
+
     public String getLocalizedName(LanguageCode lang) {
-        try {
-            String val = localizedName.get(lang);
-            if (val != null && !val.isEmpty()) {
-                return val;
-            } else {
-                return identifier;
-            }
-        } catch (Exception e) {
-            return identifier;
-        }
+        return localizedText.getOrDefault(lang, identifier);
     }
 }
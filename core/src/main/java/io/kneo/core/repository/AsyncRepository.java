@@ -1,31 +1,36 @@
 package io.kneo.core.repository;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.kneo.core.localization.LanguageCode;
+import io.kneo.core.localization.LocalizedText;
 import io.kneo.core.model.DataEntity;
 import io.kneo.core.model.SimpleReferenceEntity;
 import io.kneo.core.model.embedded.RLS;
 import io.kneo.core.model.user.IUser;
+import io.kneo.core.model.user.UndefinedUser;
 import io.kneo.core.repository.exception.DocumentHasNotFoundException;
 import io.kneo.core.repository.exception.DocumentModificationAccessException;
+import io.kneo.core.repository.exception.DocumentModificationConflictException;
 import io.kneo.core.repository.rls.RLSRepository;
 import io.kneo.core.repository.table.EntityData;
 import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
 import io.vertx.mutiny.pgclient.PgPool;
 import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.SqlClient;
 import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.*;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 public class AsyncRepository {
 
@@ -37,11 +42,15 @@ public class AsyncRepository {
     protected static final String COLUMN_IDENTIFIER = "identifier";
     protected static final String COLUMN_RANK = "rank";
     protected static final String COLUMN_LOCALIZED_NAME = "loc_name";
+    protected static final String COLUMN_VERSION = "version";
 
     protected PgPool client;
     protected ObjectMapper mapper;
     protected RLSRepository rlsRepository;
 
+    @Inject
+    protected ReplicaRouter replicaRouter;
+
     public AsyncRepository() {
 
     }
@@ -52,23 +61,49 @@ public class AsyncRepository {
         this.rlsRepository = rlsRepository;
     }
 
+    /**
+     * Runs a read-only query on the replica if the user may read from it, otherwise on the primary.
+     */
+    protected <T> Uni<T> read(Long userID, Function<SqlClient, Uni<T>> query) {
+        if (replicaRouter == null) {
+            return query.apply(client);
+        }
+        return replicaRouter.read(userID, client, query);
+    }
+
     protected Uni<Integer> getAllCount(long userID, String mainTable, String aclTable) {
         String sql = String.format("SELECT count(m.id) FROM %s as m, %s as acl WHERE m.id = acl.entity_id AND acl.reader = $1", mainTable, aclTable);
-        return client.preparedQuery(sql)
+        return read(userID, db -> db.preparedQuery(sql)
                 .execute(Tuple.of(userID))
-                .onItem().transform(rows -> rows.iterator().next().getInteger(0));
+                .onItem().transform(rows -> rows.iterator().next().getInteger(0)));
     }
 
     public Uni<Integer> getAllCount(String mainTable) {
         String sql = String.format("SELECT count(m.id) FROM %s as m", mainTable);
-        return client.preparedQuery(sql)
+        return read(null, db -> db.preparedQuery(sql)
                 .execute()
-                .onItem().transform(rows -> rows.iterator().next().getInteger(0));
+                .onItem().transform(rows -> rows.iterator().next().getInteger(0)));
+    }
+
+    protected Uni<Buffer> getAllAsJson(EntityData entityData, String jsonExpression, int limit, int offset, Long userID) {
+        String sql = String.format("SELECT json_strip_nulls(%s) AS doc FROM %s m", jsonExpression, entityData.getTableName());
+        Tuple params = Tuple.tuple();
+        if (entityData.getRlsName() != null && userID != null) {
+            sql += String.format(" JOIN %s acl ON m.id = acl.entity_id WHERE acl.reader = $1", entityData.getRlsName());
+            params.addLong(userID);
+        }
+        if (limit > 0) {
+            sql += String.format(" LIMIT %s OFFSET %s", limit, offset);
+        }
+        String query = "SELECT convert_to(COALESCE(json_agg(x.doc), '[]'::json)::text, 'UTF8') AS entries FROM (" + sql + ") x";
+        return read(userID, db -> db.preparedQuery(query)
+                .execute(params)
+                .onItem().transform(rows -> rows.iterator().next().getBuffer("entries").getDelegate()));
     }
 
     public <R> Uni<R> findById(UUID uuid, EntityData entityData, Function<Row, R> fromFunc) {
-        return client.preparedQuery("SELECT * FROM " + entityData.getTableName() + " se WHERE se.id = $1")
-                .execute(Tuple.of(uuid))
+        return read(null, db -> db.preparedQuery("SELECT * FROM " + entityData.getTableName() + " se WHERE se.id = $1")
+                .execute(Tuple.of(uuid)))
                 .onItem().transformToUni(rowSet -> {
                     var iterator = rowSet.iterator();
                     if (iterator.hasNext()) {
@@ -92,10 +127,100 @@ public class AsyncRepository {
                 });
     }
 
+    public Uni<String> getVersion(UUID uuid, EntityData entityData, Long userID) {
+        return getVersion(uuid, entityData, userID, false);
+    }
+
+    /**
+     * Version of one row for conditional GETs: its last_mod_date, its version counter for tables that have one,
+     * and for RLS tables the reader's own row, so a change of the reader's rights changes the version too.
+     * Null when the row is not there or not readable.
+     */
+    public Uni<String> getVersion(UUID uuid, EntityData entityData, Long userID, boolean versioned) {
+        String columns = "m." + COLUMN_LAST_MOD_DATE + (versioned ? ", m.version" : "");
+        if (entityData.getRlsName() == null || userID == null) {
+            String sql = String.format("SELECT %s FROM %s m WHERE m.id = $1", columns, entityData.getTableName());
+            return read(userID, db -> db.preparedQuery(sql)
+                    .execute(Tuple.of(uuid)))
+                    .onItem().transform(rows -> {
+                        var iterator = rows.iterator();
+                        if (!iterator.hasNext()) {
+                            return null;
+                        }
+                        return toVersion(uuid, iterator.next(), versioned);
+                    });
+        }
+        String sql = String.format("SELECT %s, acl.can_edit, acl.can_delete FROM %s m JOIN %s acl ON m.id = acl.entity_id " +
+                "WHERE m.id = $1 AND acl.reader = $2", columns, entityData.getTableName(), entityData.getRlsName());
+        return read(userID, db -> db.preparedQuery(sql)
+                .execute(Tuple.of(uuid, userID)))
+                .onItem().transform(rows -> {
+                    var iterator = rows.iterator();
+                    if (!iterator.hasNext()) {
+                        return null;
+                    }
+                    Row row = iterator.next();
+                    return toVersion(uuid, row, versioned) + ":" + userID + ":" + row.getValue("can_edit") + ":" + row.getValue("can_delete");
+                });
+    }
+
+    private static String toVersion(UUID uuid, Row row, boolean versioned) {
+        String version = uuid + ":" + toEpochMilli(row.getLocalDateTime(COLUMN_LAST_MOD_DATE));
+        return versioned ? version + ":" + row.getLong("version") : version;
+    }
+
+    public Uni<String> getWatermark(EntityData entityData, Long userID) {
+        if (entityData.getRlsName() == null || userID == null) {
+            String sql = String.format("SELECT count(m.id) AS cnt, max(m.%s) AS watermark FROM %s m",
+                    COLUMN_LAST_MOD_DATE, entityData.getTableName());
+            return read(userID, db -> db.preparedQuery(sql)
+                    .execute())
+                    .onItem().transform(rows -> toWatermark(entityData, rows.iterator().next(), null));
+        }
+        String sql = String.format("SELECT count(m.id) AS cnt, max(m.%s) AS watermark FROM %s m JOIN %s acl ON m.id = acl.entity_id " +
+                "WHERE acl.reader = $1", COLUMN_LAST_MOD_DATE, entityData.getTableName(), entityData.getRlsName());
+        return read(userID, db -> db.preparedQuery(sql)
+                .execute(Tuple.of(userID)))
+                .onItem().transform(rows -> toWatermark(entityData, rows.iterator().next(), userID));
+    }
+
+    private static String toWatermark(EntityData entityData, Row row, Long userID) {
+        return entityData.getTableName() + ":" + row.getLong("cnt") + ":" + toEpochMilli(row.getLocalDateTime("watermark")) + ":" + userID;
+    }
+
+    private static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime == null ? 0 : dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    protected <R> Uni<R> resolveUpdateFailure(UUID uuid, Long expectedVersion, EntityData entityData, IUser user) {
+        String sql;
+        Tuple params;
+        if (entityData.getRlsName() == null) {
+            sql = String.format("SELECT true AS can_edit FROM %s m WHERE m.id = $1", entityData.getTableName());
+            params = Tuple.of(uuid);
+        } else {
+            sql = String.format("SELECT acl.can_edit::int = 1 AS can_edit FROM %s m LEFT JOIN %s acl ON m.id = acl.entity_id " +
+                    "AND acl.reader = $2 WHERE m.id = $1", entityData.getTableName(), entityData.getRlsName());
+            params = Tuple.of(uuid, user.getId());
+        }
+        return client.preparedQuery(sql)
+                .execute(params)
+                .onItem().transformToUni(rows -> {
+                    var iterator = rows.iterator();
+                    if (!iterator.hasNext()) {
+                        return Uni.createFrom().failure(new DocumentHasNotFoundException(uuid));
+                    }
+                    if (!Boolean.TRUE.equals(iterator.next().getBoolean("can_edit"))) {
+                        return Uni.createFrom().failure(new DocumentModificationAccessException("User does not have edit permission", user.getUserName(), uuid));
+                    }
+                    return Uni.createFrom().failure(new DocumentModificationConflictException(uuid, expectedVersion));
+                });
+    }
+
     public Uni<List<RLS>> getAllReaders(UUID uuid, EntityData entityData) {
         String sql = String.format("SELECT reader, reading_time, can_edit, can_delete FROM %s t, %s rls WHERE t.id = rls.entity_id AND t.id = $1", entityData.getTableName(), entityData.getRlsName());
-        return client.preparedQuery(sql)
-                .execute(Tuple.of(uuid))
+        return read(null, db -> db.preparedQuery(sql)
+                .execute(Tuple.of(uuid)))
                 .onItem().transformToMulti(rows -> Multi.createFrom().iterable(rows))
                 .onItem().transform(row -> new RLS(
                         Optional.ofNullable(row.getLocalDateTime("reading_time"))
@@ -147,59 +272,87 @@ public class AsyncRepository {
                 });
     }
 
+    protected Uni<LinkDiff> syncLinks(SqlClient tx, String linkTable, String ownerColumn, String targetColumn,
+                                      UUID owner, Collection<UUID> targets) {
+        if (targets == null) {
+            return Uni.createFrom().item(LinkDiff.NONE);
+        }
+        UUID[] wanted = targets.stream().filter(Objects::nonNull).distinct().toArray(UUID[]::new);
+        String delete = String.format("DELETE FROM %1$s WHERE %2$s = $1 AND NOT (%3$s = ANY($2::uuid[])) RETURNING %3$s",
+                linkTable, ownerColumn, targetColumn);
+        String insert = String.format("INSERT INTO %1$s (%2$s, %3$s) SELECT $1, t.target FROM unnest($2::uuid[]) AS t(target) " +
+                "ON CONFLICT DO NOTHING RETURNING %3$s", linkTable, ownerColumn, targetColumn);
+        Tuple params = Tuple.of(owner, wanted);
+        return tx.preparedQuery(delete).execute(params)
+                .onItem().transformToUni(removedRows -> tx.preparedQuery(insert).execute(params)
+                        .onItem().transform(addedRows -> new LinkDiff(targetsOf(addedRows, targetColumn), targetsOf(removedRows, targetColumn))));
+    }
+
+    private static List<UUID> targetsOf(RowSet<Row> rows, String column) {
+        List<UUID> targets = new ArrayList<>(rows.rowCount());
+        rows.forEach(row -> targets.add(row.getUUID(column)));
+        return targets;
+    }
+
+    protected static String jsonDefaultFields(String alias) {
+        return String.format("'id', %1$s.id, 'author', %2$s, 'regDate', %3$s, 'lastModifier', %4$s, 'lastModifiedDate', %5$s",
+                alias,
+                jsonUserName(alias + "." + COLUMN_AUTHOR),
+                jsonDateTime(alias + "." + COLUMN_REG_DATE),
+                jsonUserName(alias + "." + COLUMN_LAST_MOD_USER),
+                jsonDateTime(alias + "." + COLUMN_LAST_MOD_DATE));
+    }
+
+    protected static String jsonUserName(String userIdExpression) {
+        return String.format("COALESCE((SELECT u.login FROM _users u WHERE u.id = %s), '%s')", userIdExpression, UndefinedUser.USER_NAME);
+    }
+
+    /**
+     * Same text as the {@code dd.MM.yyyy HH:mm} pattern of the DTO date fields.
+     */
+    protected static String jsonDateTime(String expression) {
+        return String.format("to_char(%s, 'DD.MM.YYYY HH24:MI')", expression);
+    }
+
+    protected static String jsonLanguageCode(String codeExpression) {
+        StringBuilder caseExpression = new StringBuilder("CASE ").append(codeExpression);
+        for (LanguageCode languageCode : LanguageCode.values()) {
+            caseExpression.append(" WHEN ").append(languageCode.getCode()).append(" THEN '").append(languageCode.name()).append("'");
+        }
+        return caseExpression.append(" END").toString();
+    }
+
     protected static void setDefaultFields(DataEntity<UUID> entity, Row row) {
         entity.setId(row.getUUID("id"));
         entity.setAuthor(row.getLong(COLUMN_AUTHOR));
         entity.setRegDate(row.getLocalDateTime(COLUMN_REG_DATE).atZone(ZoneId.systemDefault()));
         entity.setLastModifier(row.getLong(COLUMN_LAST_MOD_USER));
         entity.setLastModifiedDate(row.getLocalDateTime(COLUMN_LAST_MOD_DATE).atZone(ZoneId.systemDefault()));
+        if (row.getColumnIndex(COLUMN_VERSION) != -1) {
+            entity.setVersion(row.getLong(COLUMN_VERSION));
+        }
     }
 
     protected static void setLocalizedNames(SimpleReferenceEntity entity, Row row) {
         setLocalizedNames(entity, row, COLUMN_LOCALIZED_NAME);
-        JsonObject localizedNameJson = row.getJsonObject(COLUMN_LOCALIZED_NAME);
-        if (localizedNameJson != null) {
-            EnumMap<LanguageCode, String> localizedName = new EnumMap<>(LanguageCode.class);
-            localizedNameJson.getMap().forEach((key, value) -> localizedName.put(LanguageCode.valueOf(key), (String) value));
-            entity.setLocalizedName(localizedName);
-        }
     }
 
     protected static void setLocalizedNames(SimpleReferenceEntity entity, Row row, String fieldName) {
-        JsonObject localizedNameJson = row.getJsonObject(COLUMN_LOCALIZED_NAME);
-        if (localizedNameJson != null) {
-            EnumMap<LanguageCode, String> localizedName = new EnumMap<>(LanguageCode.class);
-            localizedNameJson.getMap().forEach((key, value) -> localizedName.put(LanguageCode.valueOf(key), (String) value));
-            entity.setLocalizedName(localizedName);
-        }
+        entity.setLocalizedText(getLocalizedText(row, fieldName));
+    }
+
+    protected static LocalizedText getLocalizedText(Row row, String fieldName) {
+        return LocalizedText.from(row.getValue(fieldName));
     }
 
     @Deprecated
     protected EnumMap<LanguageCode, String> extractLanguageMap(Row row) {
-        EnumMap<LanguageCode, String> map;
-        try {
-            map = mapper.readValue(row.getJsonObject("loc_name").toString(), new TypeReference<>() {
-            });
-        } catch (JsonProcessingException e) {
-            LOGGER.error(e.getMessage());
-            throw new RuntimeException(e);
-        }
-        return map;
+        return getLocalizedText(row, COLUMN_LOCALIZED_NAME).toEnumMap();
     }
 
     @Deprecated
     protected static EnumMap<LanguageCode, String> getLocalizedData(JsonObject json) {
-        if (json != null) {
-            Map<LanguageCode, String> map = json.getMap().entrySet().stream()
-                    .collect(Collectors.toMap(
-                            entry -> LanguageCode.valueOf(entry.getKey()),
-                            entry -> String.valueOf(entry.getValue()),
-                            (existing, replacement) -> existing));
-            if (!map.isEmpty()) {
-                return new EnumMap<>(map);
-            }
-        }
-        return new EnumMap<>(LanguageCode.class);
+        return LocalizedText.from(json).toEnumMap();
     }
 
     protected static String getBaseSelect(String baseRequest, final int limit, final int offset) {
@@ -213,25 +366,9 @@ public class AsyncRepository {
     @Deprecated
     protected EnumMap<LanguageCode, String> getLocalizedNameFromDb(Row row) {
         try {
-            JsonObject localizedNameJson = row.getJsonObject(COLUMN_LOCALIZED_NAME);
-            return convertToEnumMap(localizedNameJson.getMap());
+            return getLocalizedText(row, COLUMN_LOCALIZED_NAME).toEnumMap();
         } catch (Exception e) {
             return new EnumMap<>(LanguageCode.class);
         }
     }
-
-    private static EnumMap<LanguageCode, String> convertToEnumMap(Map<String, Object> linkedHashMap) {
-        EnumMap<LanguageCode, String> enumMap = new EnumMap<>(LanguageCode.class);
-
-        for (Map.Entry<String, Object> entry : linkedHashMap.entrySet()) {
-            try {
-                LanguageCode key = LanguageCode.valueOf(entry.getKey().toUpperCase());
-                enumMap.put(key, (String) entry.getValue());
-            } catch (IllegalArgumentException e) {
-                enumMap.put(LanguageCode.UNKNOWN, (String) entry.getValue());
-            }
-        }
-
-        return enumMap;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,150 @@
+package io.kneo.core.repository;
+
+import io.kneo.core.repository.exception.IdempotencyKeyReuseException;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static io.kneo.core.repository.cnst.Tables.IDEMPOTENCY_KEYS_TABLE_NAME;
+
+/**
+ * Responses of idempotent requests, keyed by user and Idempotency-Key. Recent ones are kept in memory,
+ * all of them in the database until they expire. Concurrent requests with the same key wait for the first one.
+ */
+@ApplicationScoped
+public class IdempotencyRepository {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdempotencyRepository.class);
+
+    @Inject
+    PgPool client;
+
+    @Inject
+    Vertx vertx;
+
+    @ConfigProperty(name = "kneo.idempotency.ttl", defaultValue = "86400")
+    long ttl;
+
+    @ConfigProperty(name = "kneo.idempotency.cache-size", defaultValue = "10000")
+    int cacheSize;
+
+    private final Map<Key, Entry> completed = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > cacheSize;
+        }
+    });
+    private final Map<Key, Uni<Execution>> inFlight = new ConcurrentHashMap<>();
+
+    public record StoredResponse(int statusCode, Buffer body, boolean replayed) {}
+
+    private record Key(long user, String idempotencyKey) {}
+
+    private record Entry(byte[] requestHash, int statusCode, Buffer body, long expiresAt) {}
+
+    private record Execution(Entry entry, boolean executed) {}
+
+    void onStart(@Observes StartupEvent ev) {
+        vertx.setPeriodic(Math.max(ttl / 24, 60) * 1000, id -> purge().subscribe().with(
+                count -> LOGGER.debug("Purged {} expired idempotency keys", count),
+                failure -> LOGGER.warn("Idempotency keys purge failed: {}", failure.getMessage())
+        ));
+    }
+
+    public Uni<StoredResponse> execute(long user, String idempotencyKey, byte[] requestHash, Supplier<Uni<StoredResponse>> action) {
+        Key key = new Key(user, idempotencyKey);
+        Entry cached = completed.get(key);
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            return replay(key, cached, requestHash, true);
+        }
+        boolean[] started = {false};
+        Uni<Execution> execution = inFlight.computeIfAbsent(key, k -> {
+            started[0] = true;
+            return resolve(k, requestHash, action);
+        });
+        return execution.onItem().transformToUni(result -> replay(key, result.entry(), requestHash, !(started[0] && result.executed())));
+    }
+
+    private Uni<Execution> resolve(Key key, byte[] requestHash, Supplier<Uni<StoredResponse>> action) {
+        return find(key)
+                .onItem().transformToUni(stored -> stored != null
+                        ? Uni.createFrom().item(new Execution(stored, false))
+                        : action.get().onItem().transformToUni(response -> save(key, requestHash, response))
+                        .onItem().transform(entry -> new Execution(entry, true)))
+                .onItem().invoke(result -> completed.put(key, result.entry()))
+                .onTermination().invoke(() -> inFlight.remove(key))
+                .memoize().indefinitely();
+    }
+
+    private Uni<StoredResponse> replay(Key key, Entry entry, byte[] requestHash, boolean replayed) {
+        if (!Arrays.equals(entry.requestHash(), requestHash)) {
+            return Uni.createFrom().failure(new IdempotencyKeyReuseException(key.idempotencyKey()));
+        }
+        return Uni.createFrom().item(new StoredResponse(entry.statusCode(), entry.body(), replayed));
+    }
+
+    private Uni<Entry> find(Key key) {
+        String sql = String.format("SELECT request_hash, status, body, reg_date FROM %s " +
+                "WHERE user_id = $1 AND idempotency_key = $2 AND reg_date > $3", IDEMPOTENCY_KEYS_TABLE_NAME);
+        return client.preparedQuery(sql)
+                .execute(Tuple.of(key.user(), key.idempotencyKey(), expiredBefore()))
+                .onItem().transform(rows -> rows.iterator().hasNext() ? from(rows.iterator().next()) : null);
+    }
+
+    private Uni<Entry> save(Key key, byte[] requestHash, StoredResponse response) {
+        Entry entry = new Entry(requestHash, response.statusCode(), response.body(), System.currentTimeMillis() + ttl * 1000);
+        String sql = String.format("INSERT INTO %s (user_id, idempotency_key, request_hash, status, body, reg_date) " +
+                "VALUES ($1, $2, $3, $4, $5, $6) ON CONFLICT (user_id, idempotency_key) DO UPDATE SET " +
+                "request_hash = EXCLUDED.request_hash, status = EXCLUDED.status, body = EXCLUDED.body, reg_date = EXCLUDED.reg_date",
+                IDEMPOTENCY_KEYS_TABLE_NAME);
+        Tuple params = Tuple.of(key.user(), key.idempotencyKey(),
+                        io.vertx.mutiny.core.buffer.Buffer.buffer(requestHash), response.statusCode())
+                .addBuffer(io.vertx.mutiny.core.buffer.Buffer.newInstance(response.body()))
+                .addValue(ZonedDateTime.now().toLocalDateTime());
+        return client.preparedQuery(sql)
+                .execute(params)
+                .onItem().transform(rows -> entry)
+                .onFailure().recoverWithItem(failure -> {
+                    LOGGER.warn("Idempotency key {} is not stored: {}", key.idempotencyKey(), failure.getMessage());
+                    return entry;
+                });
+    }
+
+    private Uni<Integer> purge() {
+        long now = System.currentTimeMillis();
+        completed.values().removeIf(entry -> entry.expiresAt() <= now);
+        String sql = String.format("DELETE FROM %s WHERE reg_date <= $1", IDEMPOTENCY_KEYS_TABLE_NAME);
+        return client.preparedQuery(sql)
+                .execute(Tuple.of(expiredBefore()))
+                .onItem().transform(rows -> rows.rowCount());
+    }
+
+    private LocalDateTime expiredBefore() {
+        return ZonedDateTime.now().toLocalDateTime().minusSeconds(ttl);
+    }
+
+    private Entry from(Row row) {
+        long expiresAt = row.getLocalDateTime("reg_date").plusSeconds(ttl)
+                .atZone(ZonedDateTime.now().getZone()).toInstant().toEpochMilli();
+        return new Entry(row.getBuffer("request_hash").getBytes(), row.getInteger("status"),
+                row.getBuffer("body").getDelegate(), expiresAt);
+    }
+}
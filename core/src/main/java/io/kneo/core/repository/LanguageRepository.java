@@ -9,7 +9,6 @@ import io.kneo.core.repository.table.EntityData;
 import io.kneo.core.repository.table.TableNameResolver;
 import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
-import io.vertx.core.json.JsonObject;
 import io.vertx.mutiny.pgclient.PgPool;
 import io.vertx.mutiny.sqlclient.Row;
 import io.vertx.mutiny.sqlclient.RowSet;
@@ -91,7 +90,7 @@ public class LanguageRepository extends AsyncRepository {
         LocalDateTime nowTime = ZonedDateTime.now().toLocalDateTime();
         String sql = "INSERT INTO _langs (author, code, reg_date, position, last_mod_date, last_mod_user, loc_name, is_on) VALUES($1, $2, $3, $4, $5, $6, $7, $8) RETURNING id";
         Tuple params = Tuple.of(user.getId(), doc.getCode(), nowTime, doc.getPosition(), nowTime, user.getId());
-        Tuple finalParams = params.addJsonObject(JsonObject.mapFrom(doc.getLocalizedName())).addBoolean(doc.isOn());
+        Tuple finalParams = params.addJsonObject(doc.getLocalizedText().toJsonObject()).addBoolean(doc.isOn());
 
         return client.preparedQuery(sql)
                 .execute(finalParams)
@@ -105,7 +104,7 @@ public class LanguageRepository extends AsyncRepository {
     public Uni<Language> update(UUID id, Language doc, IUser user) {
         LocalDateTime nowTime = ZonedDateTime.now().toLocalDateTime();
         String sql = "UPDATE _langs SET code=$1, position=$2, last_mod_date=$3, last_mod_user=$4, is_on=$5, loc_name=$6 WHERE id=$7";
-        Tuple params = Tuple.of(doc.getCode(), doc.getPosition(), nowTime, user.getId(), doc.isOn(), JsonObject.mapFrom(doc.getLocalizedName()));
+        Tuple params = Tuple.of(doc.getCode(), doc.getPosition(), nowTime, user.getId(), doc.isOn(), doc.getLocalizedText().toJsonObject());
         Tuple finalParams = params.addUUID(id);
         return client.preparedQuery(sql)
                 .execute(finalParams)
@@ -0,0 +1,12 @@
+package io.kneo.core.repository;
+
+import java.util.List;
+import java.util.UUID;
+
+public record LinkDiff(List<UUID> added, List<UUID> removed) {
+    public static final LinkDiff NONE = new LinkDiff(List.of(), List.of());
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty();
+    }
+}
@@ -134,7 +134,7 @@ public class ModuleRepository extends AsyncRepository {
         Module doc = new Module();
         setDefaultFields(doc, row);
         doc.setIdentifier(row.getString("identifier"));
-        doc.setLocalizedName(extractLanguageMap(row));
+        setLocalizedNames(doc, row);
         doc.setOn(row.getBoolean("is_on"));
         return doc;
     }
@@ -143,7 +143,7 @@ public class ModuleRepository extends AsyncRepository {
         LocalDateTime nowTime = ZonedDateTime.now().toLocalDateTime();
         String sql = "INSERT INTO _modules (author, is_on, identifier, reg_date, last_mod_date, last_mod_user, loc_name, loc_descr) VALUES($1, $2, $3, $4, $5, $6, $7, $8) RETURNING id";
         Tuple params = Tuple.of(user, doc.isOn(), doc.getIdentifier(), nowTime, nowTime, user);
-        Tuple finalParams = params.addJsonObject(JsonObject.mapFrom(doc.getLocalizedName())).addJsonObject(JsonObject.mapFrom(doc.getLocalizedDescription()));
+        Tuple finalParams = params.addJsonObject(doc.getLocalizedText().toJsonObject()).addJsonObject(JsonObject.mapFrom(doc.getLocalizedDescription()));
         return client.withTransaction(tx -> tx.preparedQuery(sql)
                 .execute(finalParams)
                 .onItem().transform(result -> result.iterator().next().getUUID("id"))
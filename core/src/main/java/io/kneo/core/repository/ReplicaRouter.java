@@ -0,0 +1,182 @@
+package io.kneo.core.repository;
+
+import io.kneo.core.model.user.IUser;
+import io.kneo.core.server.security.UserContextFilter;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.vertx.web.RouteFilter;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Context;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.SqlClient;
+import io.vertx.pgclient.PgConnectOptions;
+import io.vertx.pgclient.PgException;
+import io.vertx.sqlclient.PoolOptions;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Sends read-only queries to the replica when one is configured. A request that modifies data, and requests of
+ * the same user during the sticky window after it, stay on the primary so they read their own writes.
+ * The replica is left out while it fails health checks or lags behind the primary more than allowed.
+ */
+@ApplicationScoped
+public class ReplicaRouter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaRouter.class);
+    private static final String PRIMARY_ONLY = "kneo.primary-only";
+    private static final Set<HttpMethod> READ_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+
+    @Inject
+    Vertx vertx;
+
+    @ConfigProperty(name = "kneo.datasource.replica.url")
+    Optional<String> url;
+
+    @ConfigProperty(name = "kneo.datasource.replica.username")
+    Optional<String> username;
+
+    @ConfigProperty(name = "kneo.datasource.replica.password")
+    Optional<String> password;
+
+    @ConfigProperty(name = "quarkus.datasource.username")
+    Optional<String> primaryUsername;
+
+    @ConfigProperty(name = "quarkus.datasource.password")
+    Optional<String> primaryPassword;
+
+    @ConfigProperty(name = "kneo.datasource.replica.max-size", defaultValue = "20")
+    int maxSize;
+
+    @ConfigProperty(name = "kneo.datasource.replica.sticky-window", defaultValue = "2000")
+    long stickyWindow;
+
+    @ConfigProperty(name = "kneo.datasource.replica.max-lag", defaultValue = "1000")
+    long maxLag;
+
+    @ConfigProperty(name = "kneo.datasource.replica.health-interval", defaultValue = "5000")
+    long healthInterval;
+
+    @ConfigProperty(name = "kneo.datasource.replica.failure-threshold", defaultValue = "2")
+    int failureThreshold;
+
+    private PgPool replica;
+    private volatile boolean healthy;
+    private final AtomicInteger failures = new AtomicInteger();
+    private final Map<Long, Long> stickyUntil = new ConcurrentHashMap<>();
+
+    void onStart(@Observes StartupEvent ev) {
+        if (url.isEmpty()) {
+            return;
+        }
+        PgConnectOptions options = PgConnectOptions.fromUri(url.get());
+        username.or(() -> primaryUsername).ifPresent(options::setUser);
+        password.or(() -> primaryPassword).ifPresent(options::setPassword);
+        replica = PgPool.pool(vertx, options, new PoolOptions().setMaxSize(maxSize));
+        healthy = true;
+        vertx.setPeriodic(healthInterval, id -> check());
+        LOGGER.info("Read replica {}:{} is enabled", options.getHost(), options.getPort());
+    }
+
+    @PreDestroy
+    void close() {
+        if (replica != null) {
+            replica.closeAndForget();
+        }
+    }
+
+    @RouteFilter(80)
+    void stickAfterWrite(RoutingContext rc) {
+        if (replica != null && !READ_METHODS.contains(rc.request().method())) {
+            Context context = io.vertx.core.Vertx.currentContext();
+            if (context != null) {
+                context.putLocal(PRIMARY_ONLY, Boolean.TRUE);
+            }
+            IUser user = rc.get(UserContextFilter.USER_KEY);
+            if (user != null) {
+                markWrite(user.getId());
+                rc.addEndHandler(v -> markWrite(user.getId()));
+            }
+        }
+        rc.next();
+    }
+
+    public void markWrite(long userID) {
+        stickyUntil.put(userID, System.currentTimeMillis() + stickyWindow);
+    }
+
+    public <T> Uni<T> read(Long userID, SqlClient primary, Function<SqlClient, Uni<T>> query) {
+        if (!useReplica(userID)) {
+            return query.apply(primary);
+        }
+        return query.apply(replica)
+                .onFailure(failure -> !(failure instanceof PgException)).recoverWithUni(failure -> {
+                    LOGGER.warn("Replica read failed, retried on primary: {}", failure.getMessage());
+                    failed();
+                    return query.apply(primary);
+                });
+    }
+
+    private boolean useReplica(Long userID) {
+        if (replica == null || !healthy) {
+            return false;
+        }
+        Context context = io.vertx.core.Vertx.currentContext();
+        if (context != null && context.getLocal(PRIMARY_ONLY) != null) {
+            return false;
+        }
+        if (userID != null) {
+            Long until = stickyUntil.get(userID);
+            return until == null || until < System.currentTimeMillis();
+        }
+        return true;
+    }
+
+    private void check() {
+        long now = System.currentTimeMillis();
+        stickyUntil.values().removeIf(until -> until < now);
+        replica.query("SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+                        "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END::bigint AS lag")
+                .execute()
+                .subscribe().with(
+                        rows -> {
+                            long lag = rows.iterator().next().getLong("lag");
+                            if (lag > maxLag) {
+                                if (healthy) {
+                                    LOGGER.warn("Replica lags {} ms behind the primary, reads go to the primary", lag);
+                                }
+                                healthy = false;
+                            } else {
+                                failures.set(0);
+                                if (!healthy) {
+                                    LOGGER.info("Replica is back, lag {} ms", lag);
+                                }
+                                healthy = true;
+                            }
+                        },
+                        failure -> {
+                            LOGGER.warn("Replica health check failed: {}", failure.getMessage());
+                            failed();
+                        });
+    }
+
+    private void failed() {
+        if (failures.incrementAndGet() >= failureThreshold && healthy) {
+            healthy = false;
+            LOGGER.warn("Replica is marked down after {} failures, reads go to the primary", failures.get());
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package io.kneo.core.repository;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.kneo.core.localization.LanguageCode;
 import io.kneo.core.model.user.Role;
 import io.kneo.core.repository.table.EntityData;
 import io.kneo.core.repository.table.TableNameResolver;
@@ -19,7 +18,6 @@ import org.slf4j.LoggerFactory;
 
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
-import java.util.EnumMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -69,12 +67,7 @@ public class RoleRepository extends AsyncRepository {
         doc.setIdentifier(row.getString(COLUMN_IDENTIFIER));
         //doc.setRoleType(row.getString("role_type"));
 
-        JsonObject localizedNameJson = row.getJsonObject(COLUMN_LOCALIZED_NAME);
-        if (localizedNameJson != null) {
-            EnumMap<LanguageCode, String> localizedName = new EnumMap<>(LanguageCode.class);
-            localizedNameJson.getMap().forEach((key, value) -> localizedName.put(LanguageCode.valueOf(key), (String) value));
-            doc.setLocalizedName(localizedName);
-        }
+        setLocalizedNames(doc, row);
 
         return doc;
     }
@@ -83,7 +76,7 @@ public class RoleRepository extends AsyncRepository {
         LocalDateTime nowTime = ZonedDateTime.now().toLocalDateTime();
         String sql = String.format("INSERT INTO %s (author, identifier, reg_date, last_mod_date, last_mod_user, loc_name, loc_descr) VALUES($1, $2, $3, $4, $5, $6, $7, $8) RETURNING id", entityData.getTableName());
         Tuple params = Tuple.of(user, doc.getIdentifier(), nowTime, nowTime, user);
-        Tuple finalParams = params.addJsonObject(JsonObject.mapFrom(doc.getLocalizedName())).addJsonObject(JsonObject.mapFrom(doc.getLocalizedDescription()));
+        Tuple finalParams = params.addJsonObject(doc.getLocalizedText().toJsonObject()).addJsonObject(JsonObject.mapFrom(doc.getLocalizedDescription()));
         return client.withTransaction(tx -> tx.preparedQuery(sql)
                 .execute(finalParams)
                 .onItem().transform(result -> result.iterator().next().getUUID("id"))
@@ -97,7 +90,7 @@ public class RoleRepository extends AsyncRepository {
     public Uni<Integer> update(Role doc, long user) {
         LocalDateTime nowTime = ZonedDateTime.now().toLocalDateTime();
         String sql = String.format("UPDATE %s SET identifier=$1, last_mod_date=$2, last_mod_user=$3, loc_name=$4, localized_descr=$5 WHERE id=$6", entityData.getTableName());
-        Tuple params = Tuple.of(doc.getIdentifier(), nowTime, user, JsonObject.mapFrom(doc.getLocalizedName()), JsonObject.mapFrom(doc.getLocalizedDescription()));
+        Tuple params = Tuple.of(doc.getIdentifier(), nowTime, user, doc.getLocalizedText().toJsonObject(), JsonObject.mapFrom(doc.getLocalizedDescription()));
         Tuple finalParams = params.addUUID(doc.getId());
         return client.withTransaction(tx -> tx.preparedQuery(sql)
                 .execute(finalParams)
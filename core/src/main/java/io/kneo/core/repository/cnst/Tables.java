@@ -6,4 +6,6 @@ public class Tables {
     public static final String MODULES_ENTITY_NAME = "module";
     public static final String LANGUAGES_TABLE_NAME = "_langs";
     public static final String LANGUAGES_ENTITY_NAME = "language";
+    public static final String TRANSLATIONS_TABLE_NAME = "_translations";
+    public static final String IDEMPOTENCY_KEYS_TABLE_NAME = "_idempotency_keys";
 }
@@ -0,0 +1,21 @@
+package io.kneo.core.repository.exception;
+
+import lombok.Getter;
+
+import java.util.UUID;
+
+@Getter
+public class DocumentModificationConflictException extends Exception {
+    private final String docId;
+    private final Long expectedVersion;
+
+    public DocumentModificationConflictException(UUID id, Long expectedVersion) {
+        super(String.format("Document %s has been modified by another user", id));
+        this.docId = String.valueOf(id);
+        this.expectedVersion = expectedVersion;
+    }
+
+    public String getDeveloperMessage() {
+        return String.format(" %s, id: %s, expected version: %s ", getMessage(), docId, expectedVersion);
+    }
+}
@@ -0,0 +1,8 @@
+package io.kneo.core.repository.exception;
+
+public class IdempotencyKeyReuseException extends Exception {
+
+    public IdempotencyKeyReuseException(String key) {
+        super(String.format("Idempotency-Key '%s' has already been used for a different request", key));
+    }
+}
@@ -1,4 +1,59 @@
 package io.kneo.core.repository.nosql;
 
-public class TranslationRepository {
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.kneo.core.localization.LanguageCode;
+import io.kneo.core.localization.TranslationCatalog;
+import io.kneo.core.repository.AsyncRepository;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.Row;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import static io.kneo.core.repository.cnst.Tables.TRANSLATIONS_TABLE_NAME;
+
+@ApplicationScoped
+public class TranslationRepository extends AsyncRepository {
+    private volatile String loadedMark;
+
+    @Inject
+    public TranslationRepository(PgPool client, ObjectMapper mapper) {
+        super(client, mapper, null);
+    }
+
+    public Uni<Boolean> reload() {
+        String sql = "SELECT max(last_mod_date) AS wm, count(*) AS cnt FROM " + TRANSLATIONS_TABLE_NAME;
+        return client.query(sql)
+                .execute()
+                .onItem().transformToUni(rows -> {
+                    Row row = rows.iterator().next();
+                    String mark = row.getLocalDateTime("wm") + "|" + row.getLong("cnt");
+                    if (mark.equals(loadedMark)) {
+                        return Uni.createFrom().item(false);
+                    }
+                    return load().onItem().transform(catalog -> {
+                        TranslationCatalog.install(catalog);
+                        loadedMark = mark;
+                        LOGGER.info("Translation catalog loaded: {} entries", catalog.size());
+                        return true;
+                    });
+                });
+    }
+
+    public Uni<TranslationCatalog> load() {
+        String sql = "SELECT keyword, lang, word FROM " + TRANSLATIONS_TABLE_NAME;
+        return client.query(sql)
+                .execute()
+                .onItem().transform(rows -> {
+                    TranslationCatalog.Builder builder = TranslationCatalog.builder();
+                    for (Row row : rows) {
+                        try {
+                            builder.put(row.getString("keyword"), LanguageCode.valueOf(row.getString("lang")), row.getString("word"));
+                        } catch (IllegalArgumentException e) {
+                            LOGGER.warn("Skip translation of \"{}\" to unknown language {}", row.getString("keyword"), row.getString("lang"));
+                        }
+                    }
+                    return builder.build();
+                });
+    }
 }
@@ -18,10 +18,16 @@ public class RLSRepository {
 
     protected final Logger LOGGER = LoggerFactory.getLogger(this.getClass().getSimpleName());
     private final PgPool client;
+    private final ReadMarkBuffer readMarks;
 
     @Inject
-    public RLSRepository(PgPool client) {
+    public RLSRepository(PgPool client, ReadMarkBuffer readMarks) {
         this.client = client;
+        this.readMarks = readMarks;
+    }
+
+    public void markRead(String accessTableName, long reader, UUID uuid) {
+        readMarks.mark(accessTableName, reader, uuid);
     }
 
     public Uni<boolean[]> findById(String accessTableName, Long userID, UUID uuid) {
@@ -0,0 +1,203 @@
+package io.kneo.core.repository.rls;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write-behind buffer of reading_time marks. Repeated reads of the same document by the same reader
+ * collapse into one mark, marks are written per reader table with one UPDATE per batch.
+ */
+@ApplicationScoped
+public class ReadMarkBuffer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReadMarkBuffer.class);
+
+    @Inject
+    PgPool client;
+
+    @Inject
+    Vertx vertx;
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "kneo.rls.read-marks.flush-interval", defaultValue = "2000")
+    long flushInterval;
+
+    @ConfigProperty(name = "kneo.rls.read-marks.batch-size", defaultValue = "1000")
+    int batchSize;
+
+    @ConfigProperty(name = "kneo.rls.read-marks.max-pending", defaultValue = "100000")
+    int maxPending;
+
+    @ConfigProperty(name = "kneo.rls.read-marks.drain-timeout", defaultValue = "10")
+    long drainTimeout;
+
+    private final Map<String, Map<Mark, LocalDateTime>> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private Counter recorded;
+    private Counter coalesced;
+    private Counter dropped;
+    private Counter written;
+    private Counter failed;
+    private Timer flushTimer;
+
+    private record Mark(long reader, UUID entity) {}
+
+    private record Batch(String table, List<Mark> marks, List<LocalDateTime> times) {}
+
+    @PostConstruct
+    void init() {
+        recorded = registry.counter("kneo.rls.read_marks.recorded");
+        coalesced = registry.counter("kneo.rls.read_marks.coalesced");
+        dropped = registry.counter("kneo.rls.read_marks.dropped");
+        written = registry.counter("kneo.rls.read_marks.written");
+        failed = registry.counter("kneo.rls.read_marks.failed");
+        flushTimer = registry.timer("kneo.rls.read_marks.flush");
+        registry.gauge("kneo.rls.read_marks.pending", size);
+    }
+
+    void onStart(@Observes StartupEvent ev) {
+        if (flushInterval > 0) {
+            vertx.setPeriodic(flushInterval, id -> flushInBackground());
+        }
+    }
+
+    public void mark(String rlsTable, long reader, UUID entity) {
+        recorded.increment();
+        Map<Mark, LocalDateTime> marks = pending.computeIfAbsent(rlsTable, k -> new ConcurrentHashMap<>());
+        Mark mark = new Mark(reader, entity);
+        if (size.get() >= maxPending && !marks.containsKey(mark)) {
+            dropped.increment();
+            return;
+        }
+        if (marks.put(mark, ZonedDateTime.now().toLocalDateTime()) != null) {
+            coalesced.increment();
+        } else if (size.incrementAndGet() >= batchSize) {
+            flushInBackground();
+        }
+    }
+
+    public Uni<Integer> flush() {
+        List<Batch> batches = takeBatches();
+        if (batches.isEmpty()) {
+            return Uni.createFrom().item(0);
+        }
+        Timer.Sample sample = Timer.start(registry);
+        return Multi.createFrom().iterable(batches)
+                .onItem().transformToUniAndConcatenate(this::write)
+                .collect().asList()
+                .onItem().transform(counts -> counts.stream().mapToInt(Integer::intValue).sum())
+                .onTermination().invoke(() -> sample.stop(flushTimer));
+    }
+
+    public void drain() {
+        try {
+            int count = flush().await().atMost(Duration.ofSeconds(drainTimeout));
+            LOGGER.info("Read marks drained, {} rows updated", count);
+        } catch (Exception e) {
+            LOGGER.warn("Read marks drain failed, {} marks lost: {}", size.get(), e.getMessage());
+        }
+    }
+
+    private void flushInBackground() {
+        flush().subscribe().with(
+                count -> LOGGER.debug("Read marks flushed, {} rows updated", count),
+                failure -> LOGGER.warn("Read marks flush failed: {}", failure.getMessage())
+        );
+    }
+
+    private List<Batch> takeBatches() {
+        List<Batch> batches = new ArrayList<>();
+        for (Map.Entry<String, Map<Mark, LocalDateTime>> entry : pending.entrySet()) {
+            Map<Mark, LocalDateTime> marks = entry.getValue();
+            List<Mark> taken = new ArrayList<>();
+            List<LocalDateTime> times = new ArrayList<>();
+            for (Mark mark : marks.keySet().stream()
+                    .sorted(Comparator.comparing(Mark::entity).thenComparingLong(Mark::reader))
+                    .toList()) {
+                LocalDateTime time = marks.remove(mark);
+                if (time == null) {
+                    continue;
+                }
+                size.decrementAndGet();
+                taken.add(mark);
+                times.add(time);
+                if (taken.size() == batchSize) {
+                    batches.add(new Batch(entry.getKey(), taken, times));
+                    taken = new ArrayList<>();
+                    times = new ArrayList<>();
+                }
+            }
+            if (!taken.isEmpty()) {
+                batches.add(new Batch(entry.getKey(), taken, times));
+            }
+        }
+        return batches;
+    }
+
+    private Uni<Integer> write(Batch batch) {
+        String sql = String.format("UPDATE %s r SET reading_time = m.reading_time " +
+                "FROM unnest($1::bigint[], $2::uuid[], $3::timestamp[]) AS m(reader, entity_id, reading_time) " +
+                "WHERE r.reader = m.reader AND r.entity_id = m.entity_id " +
+                "AND (r.reading_time IS NULL OR r.reading_time < m.reading_time)", batch.table());
+        Tuple params = Tuple.of(
+                batch.marks().stream().map(Mark::reader).toArray(Long[]::new),
+                batch.marks().stream().map(Mark::entity).toArray(UUID[]::new),
+                batch.times().toArray(LocalDateTime[]::new));
+        return client.preparedQuery(sql)
+                .execute(params)
+                .onItem().transform(rows -> {
+                    written.increment(rows.rowCount());
+                    return rows.rowCount();
+                })
+                .onFailure().recoverWithItem(failure -> {
+                    failed.increment(batch.marks().size());
+                    LOGGER.warn("Read marks for {} are not written, requeued: {}", batch.table(), failure.getMessage());
+                    requeue(batch);
+                    return 0;
+                });
+    }
+
+    private void requeue(Batch batch) {
+        Map<Mark, LocalDateTime> marks = pending.computeIfAbsent(batch.table(), k -> new ConcurrentHashMap<>());
+        for (int i = 0; i < batch.marks().size(); i++) {
+            Mark mark = batch.marks().get(i);
+            LocalDateTime time = batch.times().get(i);
+            LocalDateTime current = marks.putIfAbsent(mark, time);
+            if (current == null) {
+                if (size.incrementAndGet() > maxPending) {
+                    marks.remove(mark, time);
+                    size.decrementAndGet();
+                    dropped.increment();
+                }
+            } else if (current.isBefore(time)) {
+                marks.replace(mark, current, time);
+            }
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package io.kneo.core.server;
 
 import io.kneo.core.controller.*;
+import io.kneo.core.repository.nosql.TranslationRepository;
+import io.kneo.core.repository.rls.ReadMarkBuffer;
 import io.kneo.core.server.security.GlobalErrorHandler;
 import io.quarkus.runtime.ShutdownEvent;
 import io.quarkus.runtime.StartupEvent;
 import io.smallrye.mutiny.Uni;
 import io.vertx.ext.web.Router;
+import io.vertx.mutiny.core.Vertx;
 import io.vertx.mutiny.pgclient.PgPool;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.event.Observes;
@@ -23,9 +26,22 @@ public class ApplicationInit {
     @ConfigProperty(name = "quarkus.datasource.reactive.url")
     String jdbcUrl;
 
+    @Inject
+    @ConfigProperty(name = "kneo.translations.reload-interval", defaultValue = "300")
+    long translationsReloadInterval;
+
     @Inject
     PgPool client;
 
+    @Inject
+    Vertx vertx;
+
+    @Inject
+    TranslationRepository translationRepository;
+
+    @Inject
+    ReadMarkBuffer readMarkBuffer;
+
     @Inject
     protected Router router;
 
@@ -48,6 +64,10 @@ public class ApplicationInit {
         LOGGER.info("The application is starting...{}", EnvConst.APP_ID);
         router.route().failureHandler(new GlobalErrorHandler());
         setupRoutes();
+        reloadTranslations();
+        if (translationsReloadInterval > 0) {
+            vertx.setPeriodic(translationsReloadInterval * 1000, id -> reloadTranslations());
+        }
 
         if (EnvConst.DEV_MODE) {
             LOGGER.info(EnvConst.APP_ID + "'s dev mode enabled");
@@ -66,6 +86,19 @@ public class ApplicationInit {
 
     protected void onStop(@Observes ShutdownEvent ev) {
         LOGGER.info("The application is stopping...");
+        readMarkBuffer.drain();
+    }
+
+    protected void reloadTranslations() {
+        translationRepository.reload()
+                .subscribe().with(
+                        changed -> {
+                            if (changed) {
+                                LOGGER.info("Translations reloaded");
+                            }
+                        },
+                        failure -> LOGGER.warn("Translations reload failed: {}", failure.getMessage())
+                );
     }
 
     protected void logRegisteredRoutes() {
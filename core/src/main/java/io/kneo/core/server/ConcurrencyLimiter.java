@@ -0,0 +1,183 @@
+package io.kneo.core.server;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.quarkus.vertx.web.RouteFilter;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Admits API requests up to a concurrency limit per route group and rejects the rest with 503 at once,
+ * before they queue for a database connection. Every limit follows the observed latency the gradient way:
+ * it shrinks while recent requests are slower than the long-term average and grows back while they are not.
+ * Bulk requests are admitted only while interactive reads have headroom. Runs as a route filter ahead of the user
+ * lookup, so it covers annotated routes as well as the ones registered on the router.
+ */
+@ApplicationScoped
+public class ConcurrencyLimiter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrencyLimiter.class);
+    private static final String RETRY_AFTER = "Retry-After";
+    private static final String API_PREFIX = "/api/";
+
+    public enum Group {READ, WRITE, BULK}
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "kneo.limiter.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "kneo.limiter.initial-limit", defaultValue = "20")
+    int initialLimit;
+
+    @ConfigProperty(name = "kneo.limiter.min-limit", defaultValue = "4")
+    int minLimit;
+
+    @ConfigProperty(name = "kneo.limiter.max-limit", defaultValue = "200")
+    int maxLimit;
+
+    @ConfigProperty(name = "kneo.limiter.rtt-tolerance", defaultValue = "1.5")
+    double rttTolerance;
+
+    @ConfigProperty(name = "kneo.limiter.smoothing", defaultValue = "0.2")
+    double smoothing;
+
+    @ConfigProperty(name = "kneo.limiter.backoff", defaultValue = "0.9")
+    double backoff;
+
+    @ConfigProperty(name = "kneo.limiter.bulk-headroom", defaultValue = "0.5")
+    double bulkHeadroom;
+
+    @ConfigProperty(name = "kneo.limiter.bulk-path", defaultValue = ".*/batch(/.*)?")
+    String bulkPath;
+
+    @ConfigProperty(name = "kneo.limiter.retry-after", defaultValue = "1")
+    int retryAfter;
+
+    private final Map<Group, Limit> limits = new EnumMap<>(Group.class);
+    private final Map<Group, Counter> rejected = new EnumMap<>(Group.class);
+    private Pattern bulkPattern;
+
+    @PostConstruct
+    void init() {
+        bulkPattern = Pattern.compile(bulkPath);
+        for (Group group : Group.values()) {
+            Limit limit = new Limit();
+            limits.put(group, limit);
+            Tags tags = Tags.of("group", group.name().toLowerCase());
+            registry.gauge("kneo.limiter.limit", tags, limit, l -> l.limit);
+            registry.gauge("kneo.limiter.in_flight", tags, limit.inFlight);
+            rejected.put(group, registry.counter("kneo.limiter.rejected", tags));
+        }
+    }
+
+    @RouteFilter(95)
+    void limit(RoutingContext rc) {
+        if (!enabled || !rc.request().path().startsWith(API_PREFIX)) {
+            rc.next();
+            return;
+        }
+        Group group = classify(rc.request());
+        Limit limit = limits.get(group);
+        if ((group == Group.BULK && !limits.get(Group.READ).hasHeadroom(bulkHeadroom)) || !limit.tryAcquire()) {
+            reject(rc, group);
+            return;
+        }
+        long start = System.nanoTime();
+        rc.addEndHandler(ar -> limit.release(System.nanoTime() - start, ar.failed() || isOverloaded(rc.response().getStatusCode())));
+        rc.next();
+    }
+
+    public int getLimit(Group group) {
+        return (int) limits.get(group).limit;
+    }
+
+    public int getInFlight(Group group) {
+        return limits.get(group).inFlight.get();
+    }
+
+    Limit limitOf(Group group) {
+        return limits.get(group);
+    }
+
+    private Group classify(HttpServerRequest request) {
+        if (bulkPattern.matcher(request.path()).matches()) {
+            return Group.BULK;
+        }
+        HttpMethod method = request.method();
+        return method == HttpMethod.GET || method == HttpMethod.HEAD || method == HttpMethod.OPTIONS ? Group.READ : Group.WRITE;
+    }
+
+    private static boolean isOverloaded(int statusCode) {
+        return statusCode == 503 || statusCode == 504;
+    }
+
+    private void reject(RoutingContext rc, Group group) {
+        rejected.get(group).increment();
+        LOGGER.debug("Concurrency limit of {} requests reached, rejecting {}", group, rc.request().path());
+        rc.response()
+                .setStatusCode(503)
+                .putHeader(RETRY_AFTER, String.valueOf(retryAfter))
+                .end();
+    }
+
+    final class Limit {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile double limit = initialLimit;
+        private double longRtt;
+        private double shortRtt;
+
+        boolean tryAcquire() {
+            while (true) {
+                int current = inFlight.get();
+                if (current >= (int) limit) {
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        boolean hasHeadroom(double share) {
+            return inFlight.get() < limit * share;
+        }
+
+        synchronized void release(long rtt, boolean failed) {
+            int current = inFlight.getAndDecrement();
+            if (failed) {
+                limit = Math.max(minLimit, limit * backoff);
+                return;
+            }
+            if (longRtt == 0) {
+                longRtt = rtt;
+                shortRtt = rtt;
+                return;
+            }
+            shortRtt = shortRtt * 0.9 + rtt * 0.1;
+            longRtt = longRtt * 0.998 + rtt * 0.002;
+            if (longRtt / shortRtt > 2) {
+                longRtt *= 0.95;
+            }
+            if (current < limit / 2) {
+                return;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / shortRtt));
+            double next = limit * gradient + Math.sqrt(limit);
+            limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - smoothing) + next * smoothing));
+        }
+    }
+}
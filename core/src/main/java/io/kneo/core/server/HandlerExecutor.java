@@ -0,0 +1,123 @@
+package io.kneo.core.server;
+
+import io.kneo.core.server.cnst.ExecutionMode;
+import io.vertx.core.Handler;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@ApplicationScoped
+public class HandlerExecutor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HandlerExecutor.class);
+    private static final String RETRY_AFTER = "Retry-After";
+
+    @ConfigProperty(name = "kneo.handler.virtual-threads.max-concurrency", defaultValue = "256")
+    int maxConcurrency;
+
+    @ConfigProperty(name = "kneo.handler.virtual-threads.max-waiting", defaultValue = "1024")
+    int maxWaiting;
+
+    @ConfigProperty(name = "kneo.handler.virtual-threads.acquire-timeout", defaultValue = "5000")
+    long acquireTimeoutMs;
+
+    /**
+     * Forces one mode for every wrapped handler, regardless of {@code @RouteExecution}. Used to compare the modes
+     * on the same build, see {@code ci_cd/bench_handler_modes.sh}.
+     */
+    @ConfigProperty(name = "kneo.handler.execution-mode")
+    Optional<ExecutionMode> forcedMode;
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("kneo-vt-", 0).factory());
+    private final AtomicInteger waiting = new AtomicInteger();
+    private volatile Semaphore permits;
+
+    public Handler<RoutingContext> wrap(ExecutionMode mode, Handler<RoutingContext> handler) {
+        return switch (forcedMode.orElse(mode)) {
+            case EVENT_LOOP -> handler;
+            case WORKER -> rc -> rc.vertx().executeBlocking(() -> {
+                        handler.handle(rc);
+                        return null;
+                    }, false)
+                    .onFailure(rc::fail);
+            case VIRTUAL_THREAD -> rc -> dispatch(rc, handler);
+        };
+    }
+
+    /**
+     * Runs the handler on a virtual thread. The permit is held until the response ends, not until the handler
+     * returns, so handlers that subscribe to a Uni and return at once are bounded as well.
+     */
+    private void dispatch(RoutingContext rc, Handler<RoutingContext> handler) {
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            reject(rc);
+            return;
+        }
+        executor.execute(() -> {
+            Semaphore semaphore = getPermits();
+            try {
+                boolean acquired = semaphore.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+                waiting.decrementAndGet();
+                if (!acquired) {
+                    reject(rc);
+                    return;
+                }
+                rc.addEndHandler(ended -> semaphore.release());
+                handler.handle(rc);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rc.fail(e);
+            } catch (Exception e) {
+                rc.fail(e);
+            }
+        });
+    }
+
+    public int getInFlight() {
+        Semaphore semaphore = permits;
+        return semaphore == null ? 0 : maxConcurrency - semaphore.availablePermits();
+    }
+
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    private Semaphore getPermits() {
+        Semaphore semaphore = permits;
+        if (semaphore == null) {
+            synchronized (this) {
+                if (permits == null) {
+                    permits = new Semaphore(maxConcurrency);
+                }
+                semaphore = permits;
+            }
+        }
+        return semaphore;
+    }
+
+    private void reject(RoutingContext rc) {
+        LOGGER.warn("Virtual thread limit reached, rejecting {}", rc.request().path());
+        if (!rc.response().ended()) {
+            rc.response()
+                    .setStatusCode(503)
+                    .putHeader(RETRY_AFTER, "1")
+                    .end();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,5 @@
+package io.kneo.core.server.cnst;
+
+public enum ExecutionMode {
+    EVENT_LOOP, WORKER, VIRTUAL_THREAD
+}
@@ -4,8 +4,10 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
 import io.quarkus.jackson.ObjectMapperCustomizer;
 import jakarta.inject.Singleton;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,6 +18,9 @@ import java.time.ZonedDateTime;
 public class MapperCustomizer implements ObjectMapperCustomizer {
     private static final Logger LOGGER = LoggerFactory.getLogger(MapperCustomizer.class);
 
+    @ConfigProperty(name = "kneo.json.blackbird.enabled", defaultValue = "true")
+    boolean blackbirdEnabled;
+
     @Override
     public void customize(ObjectMapper objectMapper) {
         objectMapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
@@ -26,5 +31,10 @@ public class MapperCustomizer implements ObjectMapperCustomizer {
         javaTimeModule.addSerializer(ZonedDateTime.class, new CustomZonedDateTimeSerializer());
 
         objectMapper.registerModule(javaTimeModule);
+
+        if (blackbirdEnabled) {
+            LOGGER.info("register Blackbird accessors");
+            objectMapper.registerModule(new BlackbirdModule());
+        }
     }
 }
@@ -0,0 +1,60 @@
+package io.kneo.core.server.security;
+
+import io.kneo.core.model.user.IUser;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@ApplicationScoped
+public class AuthenticatedUserCache {
+
+    @ConfigProperty(name = "kneo.auth.user-cache.default-ttl", defaultValue = "60")
+    long defaultTtlSeconds;
+
+    @ConfigProperty(name = "kneo.auth.user-cache.max-size", defaultValue = "10000")
+    int maxSize;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private record Entry(IUser user, long expiresAt) {
+    }
+
+    public IUser get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.user;
+    }
+
+    public void put(String key, IUser user, Long expiresAtEpochSeconds) {
+        long now = System.currentTimeMillis();
+        long expiresAt = expiresAtEpochSeconds != null && expiresAtEpochSeconds > 0
+                ? expiresAtEpochSeconds * 1000
+                : now + defaultTtlSeconds * 1000;
+        if (expiresAt <= now) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evictExpired(now);
+            if (entries.size() >= maxSize) {
+                entries.clear();
+            }
+        }
+        entries.put(key, new Entry(user, expiresAt));
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    private void evictExpired(long now) {
+        entries.entrySet().removeIf(e -> e.getValue().expiresAt <= now);
+    }
+}
@@ -2,6 +2,8 @@ package io.kneo.core.server.security;
 
 import io.kneo.core.repository.exception.DocumentHasNotFoundException;
 import io.kneo.core.repository.exception.DocumentModificationAccessException;
+import io.kneo.core.repository.exception.DocumentModificationConflictException;
+import io.kneo.core.repository.exception.IdempotencyKeyReuseException;
 import io.kneo.core.repository.exception.UserNotFoundException;
 import io.vertx.core.Handler;
 import io.vertx.core.json.Json;
@@ -26,6 +28,8 @@ public class GlobalErrorHandler implements Handler<RoutingContext> {
             DocumentHasNotFoundException.class, new ErrorResponse(404, "error", false),
             UserNotFoundException.class, new ErrorResponse(403, "error", false),
             DocumentModificationAccessException.class, new ErrorResponse(404, "error", false),
+            DocumentModificationConflictException.class, new ErrorResponse(409, "Document has been modified by another user", false),
+            IdempotencyKeyReuseException.class, new ErrorResponse(422, "Idempotency-Key has been used for a different request", false),
             ConnectException.class, new ErrorResponse(500, "API server error", true),
             PgException.class, new ErrorResponse(500, "API server database error", true),
             NoSuchElementException.class, new ErrorResponse(500, "Internal server error", true)
@@ -0,0 +1,106 @@
+package io.kneo.core.server.security;
+
+import io.kneo.core.model.user.IUser;
+import io.kneo.core.model.user.UndefinedUser;
+import io.kneo.core.server.Environment;
+import io.kneo.core.service.UserService;
+import io.quarkus.vertx.http.runtime.security.QuarkusHttpUser;
+import io.quarkus.vertx.web.RouteFilter;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.Json;
+import io.vertx.ext.auth.User;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.jwt.JsonWebToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Map;
+
+@ApplicationScoped
+public class UserContextFilter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserContextFilter.class);
+    public static final String USER_KEY = "kneo.user";
+    private static final String API_PREFIX = "/api/";
+    private static final String USER_NAME = "username";
+    private static final String BEARER = "Bearer ";
+    private static final String JSON_TYPE = "application/json";
+
+    @Inject
+    UserService userService;
+
+    @Inject
+    AuthenticatedUserCache cache;
+
+    @RouteFilter(90)
+    void filter(RoutingContext rc) {
+        String path = rc.request().path();
+        if (!path.startsWith(API_PREFIX) || rc.request().method() == HttpMethod.OPTIONS || isPublic(path)) {
+            rc.next();
+            return;
+        }
+
+        User vertxUser = rc.user();
+        String username = vertxUser == null ? null : vertxUser.principal().getString(USER_NAME);
+        if (username == null || username.isEmpty()) {
+            unauthorized(rc, "Authentication required");
+            return;
+        }
+
+        String cacheKey = resolveCacheKey(rc, username);
+        IUser cached = cache.get(cacheKey);
+        if (cached != null) {
+            rc.put(USER_KEY, cached);
+            rc.next();
+            return;
+        }
+
+        userService.findByLogin(username)
+                .subscribe().with(
+                        user -> {
+                            if (user == null || user instanceof UndefinedUser) {
+                                unauthorized(rc, "User is not registered");
+                                return;
+                            }
+                            cache.put(cacheKey, user, resolveExpiration(vertxUser));
+                            rc.put(USER_KEY, user);
+                            rc.next();
+                        },
+                        failure -> {
+                            LOGGER.warn("Failed to resolve user \"{}\": {}", username, failure.getMessage());
+                            rc.fail(failure);
+                        }
+                );
+    }
+
+    private static boolean isPublic(String path) {
+        String[] parts = path.split("/", 5);
+        return parts.length > 3 && Arrays.asList(Environment.publicModules).contains(parts[3]);
+    }
+
+    private static String resolveCacheKey(RoutingContext rc, String username) {
+        String authorization = rc.request().getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.startsWith(BEARER)) {
+            return authorization.substring(BEARER.length());
+        }
+        return USER_NAME + ":" + username;
+    }
+
+    private static Long resolveExpiration(User vertxUser) {
+        if (vertxUser instanceof QuarkusHttpUser quarkusUser
+                && quarkusUser.getSecurityIdentity().getPrincipal() instanceof JsonWebToken jwt) {
+            return jwt.getExpirationTime();
+        }
+        return null;
+    }
+
+    private static void unauthorized(RoutingContext rc, String message) {
+        rc.response()
+                .setStatusCode(401)
+                .putHeader(HttpHeaders.CONTENT_TYPE, JSON_TYPE)
+                .end(Json.encode(Map.of("error", message)));
+    }
+}
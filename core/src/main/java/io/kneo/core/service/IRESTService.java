@@ -18,4 +18,12 @@ public interface IRESTService<V> {
     Uni<V> getDTOByIdentifier(String  identifier);
 
     Uni<V> upsert(String id, V dto, IUser user, LanguageCode code);
+
+    default Uni<String> getVersion(UUID id, IUser user) {
+        return Uni.createFrom().nullItem();
+    }
+
+    default Uni<String> getWatermark(IUser user) {
+        return Uni.createFrom().nullItem();
+    }
 }
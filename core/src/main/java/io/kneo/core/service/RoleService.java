@@ -1,6 +1,7 @@
 package io.kneo.core.service;
 
 
+import io.kneo.core.dto.actions.ActionBoxCache;
 import io.kneo.core.dto.document.RoleDTO;
 import io.kneo.core.localization.LanguageCode;
 import io.kneo.core.model.user.AnonymousUser;
@@ -82,7 +83,8 @@ public class RoleService extends AbstractService<Role, RoleDTO> {
                 .setLocalizedName(dto.getLocalizedName())
                 .setLocalizedDescription(dto.getLocalizedDescription())
                 .build();
-        return repository.insert(doc, AnonymousUser.ID);
+        return repository.insert(doc, AnonymousUser.ID)
+                .invoke(ActionBoxCache::invalidate);
     }
 
     public Uni<Integer> update(String id, RoleDTO dto) {
@@ -92,11 +94,13 @@ public class RoleService extends AbstractService<Role, RoleDTO> {
                 .setLocalizedName(dto.getLocalizedName())
                 .build();
         assert repository != null;
-        return repository.update(doc, AnonymousUser.ID);
+        return repository.update(doc, AnonymousUser.ID)
+                .invoke(ActionBoxCache::invalidate);
     }
 
     public Uni<Integer> delete(String id) {
         assert repository != null;
-        return repository.delete(UUID.fromString(id));
+        return repository.delete(UUID.fromString(id))
+                .invoke(ActionBoxCache::invalidate);
     }
 }
\ No newline at end of file
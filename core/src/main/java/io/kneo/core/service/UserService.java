@@ -10,6 +10,7 @@ import io.kneo.core.model.user.User;
 import io.kneo.core.repository.ModuleRepository;
 import io.kneo.core.repository.RoleRepository;
 import io.kneo.core.repository.UserRepository;
+import io.kneo.core.server.security.AuthenticatedUserCache;
 import io.kneo.core.service.exception.ServiceException;
 import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
@@ -36,6 +37,9 @@ public class UserService {
     @Inject
     private ModuleRepository moduleRepository;
 
+    @Inject
+    private AuthenticatedUserCache authenticatedUserCache;
+
     public Uni<List<IUser>> getAll() {
         return repository.getAll();
     }
@@ -93,7 +97,8 @@ public class UserService {
         }).onItem().transformToUni(modules -> {
             try {
                 user.setModules(getAllValidReferences(modules, dto.getModules()));
-                return repository.insert(user);
+                return repository.insert(user)
+                        .onItem().invoke(id -> authenticatedUserCache.invalidateAll());
             } catch (Exception e) {
                 return Uni.createFrom().failure(e);
             }
@@ -106,7 +111,8 @@ public class UserService {
                 .setEmail(userDTO.getEmail())
                 .build();
 
-        return repository.insert(user);
+        return repository.insert(user)
+                .onItem().invoke(newId -> authenticatedUserCache.invalidateAll());
     }
 
     private <T extends SimpleReferenceEntity> List<T> getAllValidReferences(List<T> allAvailable, List<String> provided) {
@@ -121,6 +127,7 @@ public class UserService {
 
     public Uni<Long> delete(String id) {
         assert repository != null;
-        return repository.delete(Long.valueOf(id));
+        return repository.delete(Long.valueOf(id))
+                .onItem().invoke(count -> authenticatedUserCache.invalidateAll());
     }
 }
@@ -5,7 +5,6 @@ import io.kneo.core.model.user.User;
 import io.kneo.core.service.messaging.email.MailAgent;
 import io.kneo.core.service.messaging.exception.MsgException;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -16,13 +15,10 @@ public class MessagingHelper {
     public static void sendInAnyWay(User recipient, String msg, IDataEntity entityForLink, String subjectText) throws MsgException {
         String msgTemplate = "generic_message";
 
-        List<String> recipients = new ArrayList<>();
-        String email = recipient.getEmail();
-        if (email != null) {
-            recipients.add(email);
+        if (recipient.getEmail() != null) {
             MailAgent ma = new MailAgent();
 
-            ma.sendMessage(recipients, subjectText,msg);
+            ma.sendMessage(List.of(recipient), subjectText, msg);
         }
     }
 
@@ -7,6 +7,7 @@ import com.sendgrid.SendGrid;
 import com.sendgrid.helpers.mail.Mail;
 import com.sendgrid.helpers.mail.objects.Content;
 import com.sendgrid.helpers.mail.objects.Email;
+import io.kneo.core.model.user.User;
 import io.kneo.core.server.Environment;
 import io.kneo.core.service.messaging.MessageAgent;
 import io.kneo.core.service.messaging.exception.MsgException;
@@ -19,6 +20,7 @@ import org.jboss.logging.Logger;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -47,31 +49,34 @@ public class MailAgent extends MessageAgent {
     }
 
 
-    public CompletableFuture<Void> sendMessage(List<String> recipients, String subject, String message) throws MsgException {
-        LOGGER.info("Sending message \"" + StringUtils.abbreviate(subject, 64) + "\", to " + recipients.toString());
-        String htmlContent = templateService.renderEmail("Dear user");
-        return CompletableFuture.runAsync(() -> {
-            Email from = new Email(developerEmail);
-            Email to = new Email("justaidajam@gmail.com");
-            Content content = new Content("text/html", htmlContent);
-            Mail mail = new Mail(from, subject, to, content);
-            SendGrid sg = new SendGrid(sendgridApiKey);
-            Request request = new Request();
-            try {
-                request.setMethod(Method.POST);
-                request.setEndpoint("mail/send");
-                request.setBody(mail.build());
-                Response response = sg.api(request);
-                LOGGER.info(response.getStatusCode());
-                LOGGER.debug(response.getBody());
-                LOGGER.debug(response.getHeaders());
-            } catch (IOException ex) {
-                LOGGER.error(ex.getMessage());
-            }
-        });
+    public CompletableFuture<Void> sendMessage(List<User> recipients, String subject, String message) throws MsgException {
+        List<User> addressed = recipients.stream().filter(user -> user.getEmail() != null).toList();
+        LOGGER.info("Sending message \"" + StringUtils.abbreviate(subject, 64) + "\", to " +
+                addressed.stream().map(User::getLogin).toList());
+        return templateService.renderBatch(TemplateService.BASIC_EMAIL, addressed,
+                        user -> Map.of("name", user.getLogin()))
+                .subscribeAsCompletionStage()
+                .thenAccept(emails -> emails.forEach(email -> send(email.email(), subject, email.content())));
     }
 
-
-
+    private void send(String recipient, String subject, String htmlContent) {
+        Email from = new Email(developerEmail);
+        Email to = new Email(recipient);
+        Content content = new Content("text/html", htmlContent);
+        Mail mail = new Mail(from, subject, to, content);
+        SendGrid sg = new SendGrid(sendgridApiKey);
+        Request request = new Request();
+        try {
+            request.setMethod(Method.POST);
+            request.setEndpoint("mail/send");
+            request.setBody(mail.build());
+            Response response = sg.api(request);
+            LOGGER.info(response.getStatusCode());
+            LOGGER.debug(response.getBody());
+            LOGGER.debug(response.getHeaders());
+        } catch (IOException ex) {
+            LOGGER.error(ex.getMessage());
+        }
+    }
 
 }
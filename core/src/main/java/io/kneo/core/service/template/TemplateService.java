@@ -1,22 +1,111 @@
 package io.kneo.core.service.template;
 
+import io.kneo.core.localization.LanguageCode;
+import io.kneo.core.model.user.User;
 import io.quarkus.qute.Engine;
 import io.quarkus.qute.Template;
+import io.quarkus.qute.TemplateInstance;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 @ApplicationScoped
 public class TemplateService {
+    public static final String BASIC_EMAIL = "basic_email";
+    public static final String REGISTRATION_EMAIL = "registration_email";
+
     @Inject
     Engine engine;
 
+    @ConfigProperty(name = "kneo.templates.batch-chunk-size", defaultValue = "200")
+    int batchChunkSize;
+
+    private final Map<String, CompiledTemplate> compiled = new ConcurrentHashMap<>();
+
+    public record RenderedEmail(String email, LanguageCode language, String content) {}
+
+    private record CompiledTemplate(Template template, Map<String, Object> constants) {
+        String render(Map<String, Object> data) {
+            TemplateInstance instance = template.instance();
+            constants.forEach(instance::data);
+            data.forEach(instance::data);
+            return instance.render();
+        }
+    }
+
     public String renderEmail(String name) {
-        Template template = engine.getTemplate("basic_email");
-        return template.data("name", name).render();
+        return renderEmail(name, LanguageCode.ENG);
+    }
+
+    public String renderEmail(String name, LanguageCode language) {
+        return render(BASIC_EMAIL, language, Map.of("name", name));
     }
 
     public String renderRegistrationEmail(int confirmationCode) {
-        Template template = engine.getTemplate("registration_email");
-        return template.data("confirmation_code", confirmationCode).render();
+        return renderRegistrationEmail(confirmationCode, LanguageCode.ENG);
+    }
+
+    public String renderRegistrationEmail(int confirmationCode, LanguageCode language) {
+        return render(REGISTRATION_EMAIL, language, Map.of("confirmation_code", confirmationCode));
+    }
+
+    public String render(String name, LanguageCode language, Map<String, Object> data) {
+        return resolve(name, language).render(data);
+    }
+
+    public Uni<List<RenderedEmail>> renderBatch(String name, List<User> recipients, Function<User, Map<String, Object>> dataProvider) {
+        if (recipients.isEmpty()) {
+            return Uni.createFrom().item(List.of());
+        }
+        List<Uni<List<RenderedEmail>>> chunks = new ArrayList<>();
+        for (int from = 0; from < recipients.size(); from += batchChunkSize) {
+            List<User> chunk = recipients.subList(from, Math.min(from + batchChunkSize, recipients.size()));
+            chunks.add(Uni.createFrom().item(() -> renderChunk(name, chunk, dataProvider))
+                    .runSubscriptionOn(Infrastructure.getDefaultWorkerPool()));
+        }
+        return Uni.join().all(chunks).andFailFast()
+                .onItem().transform(results -> {
+                    List<RenderedEmail> rendered = new ArrayList<>(recipients.size());
+                    results.forEach(rendered::addAll);
+                    return rendered;
+                });
+    }
+
+    public static LanguageCode languageOf(User user) {
+        Integer code = user.getDefaultLang();
+        LanguageCode language = code == null ? LanguageCode.UNKNOWN : LanguageCode.getType(code);
+        return language == LanguageCode.UNKNOWN ? LanguageCode.ENG : language;
+    }
+
+    private List<RenderedEmail> renderChunk(String name, List<User> recipients, Function<User, Map<String, Object>> dataProvider) {
+        List<RenderedEmail> rendered = new ArrayList<>(recipients.size());
+        for (User user : recipients) {
+            LanguageCode language = languageOf(user);
+            rendered.add(new RenderedEmail(user.getEmail(), language, resolve(name, language).render(dataProvider.apply(user))));
+        }
+        return rendered;
+    }
+
+    private CompiledTemplate resolve(String name, LanguageCode language) {
+        return compiled.computeIfAbsent(name + "_" + language.getAlternateCode(), key -> {
+            Template template = engine.getTemplate(key);
+            LanguageCode used = language;
+            if (template == null) {
+                template = engine.getTemplate(name);
+                used = LanguageCode.ENG;
+            }
+            if (template == null) {
+                throw new IllegalArgumentException("Template \"" + name + "\" is not found");
+            }
+            return new CompiledTemplate(template, Map.of("lang", used.getAlternateCode()));
+        });
     }
 }
@@ -0,0 +1,43 @@
+package io.kneo.core.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+class MalformedBodyTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AbstractController<Object, Object> controller = new AbstractController<>(null) {
+    };
+
+    @Test
+    void mappingErrorNamesTheFieldOnly() {
+        IOException e = Assertions.assertThrows(IOException.class,
+                () -> mapper.readValue("{\"items\":[{\"count\":\"secret-input\"}]}", Probe.class));
+
+        String message = controller.malformedBody("Probe", e).getMessage();
+
+        Assertions.assertEquals("Malformed Probe at items[0].count", message);
+    }
+
+    @Test
+    void syntaxErrorDoesNotEchoTheInput() {
+        IOException e = Assertions.assertThrows(IOException.class,
+                () -> mapper.readValue("{\"items\": secret-input", Probe.class));
+
+        String message = controller.malformedBody("Probe", e).getMessage();
+
+        Assertions.assertEquals("Malformed Probe", message);
+        Assertions.assertFalse(message.contains("secret-input"));
+    }
+
+    static class Probe {
+        public List<Item> items;
+    }
+
+    static class Item {
+        public int count;
+    }
+}
@@ -0,0 +1,31 @@
+package io.kneo.core.dto.actions;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+class CachedActionBoxTest {
+    private final ObjectMapper mapper = new ObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    @Test
+    void bufferIsEncodedByTheGivenMapper() throws Exception {
+        ActionBox actions = new ActionBox();
+
+        String cached = CachedActionBox.of(actions).getBuffer(mapper).toString();
+
+        Assertions.assertEquals(mapper.writeValueAsString(actions), cached);
+        Assertions.assertFalse(cached.contains("caption"));
+    }
+
+    @Test
+    void embeddedBoxMatchesTheEnclosingMapper() throws Exception {
+        ActionBox actions = new ActionBox();
+
+        String page = mapper.writeValueAsString(Map.of("actions", CachedActionBox.of(actions)));
+
+        Assertions.assertEquals(mapper.writeValueAsString(Map.of("actions", actions)), page);
+    }
+}
@@ -0,0 +1,85 @@
+package io.kneo.core.localization;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+
+class LocalizedTextTest {
+
+    @Test
+    void parseReadsLanguagesAndSkipsNullsAndNestedValues() {
+        LocalizedText text = LocalizedText.parse("{\"ENG\":\"Task\",\"rus\":\"Задача\",\"POR\":null,\"DEU\":{\"x\":1}}"
+                .getBytes(StandardCharsets.UTF_8));
+        Assertions.assertEquals("Task", text.get(LanguageCode.ENG));
+        Assertions.assertEquals("Задача", text.get(LanguageCode.RUS));
+        Assertions.assertNull(text.get(LanguageCode.POR));
+        Assertions.assertNull(text.get(LanguageCode.DEU));
+    }
+
+    @Test
+    void unknownLanguageGoesToUnknown() {
+        LocalizedText text = LocalizedText.parse("{\"XXX\":\"value\"}".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertEquals("value", text.get(LanguageCode.UNKNOWN));
+    }
+
+    @Test
+    void emptySourcesGiveEmpty() {
+        Assertions.assertSame(LocalizedText.EMPTY, LocalizedText.parse("{}".getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertSame(LocalizedText.EMPTY, LocalizedText.parse("[]".getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertSame(LocalizedText.EMPTY, LocalizedText.from((Object) null));
+        Assertions.assertSame(LocalizedText.EMPTY, LocalizedText.of(Map.of()));
+        Assertions.assertTrue(LocalizedText.EMPTY.isEmpty());
+    }
+
+    @Test
+    void columnValuesOfAllKindsAreEqual() {
+        String json = "{\"ENG\":\"Label\",\"KAZ\":\"Белгі\"}";
+        LocalizedText fromString = LocalizedText.from((Object) json);
+        LocalizedText fromBuffer = LocalizedText.from((Object) Buffer.buffer(json));
+        LocalizedText fromJson = LocalizedText.from((Object) new JsonObject(json));
+        EnumMap<LanguageCode, String> map = new EnumMap<>(LanguageCode.class);
+        map.put(LanguageCode.ENG, "Label");
+        map.put(LanguageCode.KAZ, "Белгі");
+
+        Assertions.assertEquals(fromString, fromBuffer);
+        Assertions.assertEquals(fromString, fromJson);
+        Assertions.assertEquals(fromString, LocalizedText.of(map));
+        Assertions.assertEquals(fromString.hashCode(), LocalizedText.of(map).hashCode());
+        Assertions.assertEquals(map, fromString.toEnumMap());
+        Assertions.assertEquals(new JsonObject(json), fromString.toJsonObject());
+    }
+
+    @Test
+    void unsupportedColumnValueIsRejected() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> LocalizedText.from((Object) 42));
+    }
+
+    @Test
+    void withReturnsCopy() {
+        LocalizedText original = LocalizedText.of(Map.of(LanguageCode.ENG, "Open"));
+        LocalizedText changed = original.with(LanguageCode.POR, "Aberto");
+
+        Assertions.assertNull(original.get(LanguageCode.POR));
+        Assertions.assertEquals("Aberto", changed.get(LanguageCode.POR));
+        Assertions.assertEquals("Open", changed.get(LanguageCode.ENG));
+    }
+
+    @Test
+    void getOrDefaultTreatsBlankAsMissing() {
+        LocalizedText text = LocalizedText.of(Map.of(LanguageCode.ENG, ""));
+        Assertions.assertEquals("fallback", text.getOrDefault(LanguageCode.ENG, "fallback"));
+        Assertions.assertEquals("fallback", text.getOrDefault(LanguageCode.RUS, "fallback"));
+    }
+
+    @Test
+    void equalValuesShareOneString() {
+        LocalizedText first = LocalizedText.parse("{\"ENG\":\"Shared value\"}".getBytes(StandardCharsets.UTF_8));
+        LocalizedText second = LocalizedText.parse("{\"ENG\":\"Shared value\"}".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertSame(first.get(LanguageCode.ENG), second.get(LanguageCode.ENG));
+    }
+}
@@ -0,0 +1,68 @@
+package io.kneo.core.localization;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TranslationCatalogTest {
+
+    @Test
+    void registeredKeyFallsBackToEnglishThenDefault() {
+        int id = TranslationCatalog.key("catalog_test_registered", "Default text");
+        TranslationCatalog.install(TranslationCatalog.builder()
+                .put("catalog_test_registered", LanguageCode.ENG, "English text")
+                .put("catalog_test_registered", LanguageCode.POR, "Texto")
+                .build());
+
+        Assertions.assertEquals("Texto", TranslationCatalog.get(id, LanguageCode.POR));
+        Assertions.assertEquals("English text", TranslationCatalog.get(id, LanguageCode.RUS));
+
+        TranslationCatalog.install(TranslationCatalog.builder().build());
+        Assertions.assertEquals("Default text", TranslationCatalog.get(id, LanguageCode.POR));
+        Assertions.assertNull(TranslationCatalog.find("catalog_test_registered", LanguageCode.POR));
+    }
+
+    @Test
+    void unregisteredKeywordLivesOnlyInItsCatalog() {
+        TranslationCatalog.install(TranslationCatalog.builder()
+                .put("catalog_test_loaded", LanguageCode.ENG, "Loaded")
+                .build());
+
+        Assertions.assertTrue(TranslationCatalog.contains("catalog_test_loaded"));
+        Assertions.assertEquals("Loaded", TranslationCatalog.get("catalog_test_loaded", LanguageCode.KAZ));
+        Assertions.assertEquals(-1, TranslationCatalog.idOf("catalog_test_loaded"));
+
+        TranslationCatalog.install(TranslationCatalog.builder().build());
+        Assertions.assertFalse(TranslationCatalog.contains("catalog_test_loaded"));
+        Assertions.assertEquals("catalog_test_loaded", TranslationCatalog.get("catalog_test_loaded", LanguageCode.ENG));
+    }
+
+    @Test
+    void keyRegisteredAfterLoadStillFindsLoadedWord() {
+        TranslationCatalog.install(TranslationCatalog.builder()
+                .put("catalog_test_late", LanguageCode.RUS, "Поздно")
+                .build());
+        int id = TranslationCatalog.key("catalog_test_late", "Late");
+
+        Assertions.assertEquals("Поздно", TranslationCatalog.get(id, LanguageCode.RUS));
+        Assertions.assertEquals("Late", TranslationCatalog.get(id, LanguageCode.ENG));
+    }
+
+    @Test
+    void builderCountsDistinctEntriesAndSkipsEmpty() {
+        TranslationCatalog catalog = TranslationCatalog.builder()
+                .put("catalog_test_size", LanguageCode.ENG, "One")
+                .put("catalog_test_size", LanguageCode.ENG, "One again")
+                .put("catalog_test_size", LanguageCode.POR, "Um")
+                .put("catalog_test_size", LanguageCode.RUS, "")
+                .put("catalog_test_size", LanguageCode.DEU, null)
+                .build();
+        Assertions.assertEquals(2, catalog.size());
+    }
+
+    @Test
+    void installBumpsVersion() {
+        long before = TranslationCatalog.version();
+        TranslationCatalog.install(TranslationCatalog.builder().build());
+        Assertions.assertTrue(TranslationCatalog.version() > before);
+    }
+}
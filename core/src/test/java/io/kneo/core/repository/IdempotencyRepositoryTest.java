@@ -0,0 +1,118 @@
+package io.kneo.core.repository;
+
+import io.kneo.core.repository.exception.IdempotencyKeyReuseException;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.PreparedQuery;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowIterator;
+import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.Tuple;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+class IdempotencyRepositoryTest {
+    private static final byte[] HASH = "request".getBytes(StandardCharsets.UTF_8);
+
+    private IdempotencyRepository repository;
+    private PreparedQuery<RowSet<Row>> query;
+    private final AtomicInteger calls = new AtomicInteger();
+    private final CompletableFuture<IdempotencyRepository.StoredResponse> response = new CompletableFuture<>();
+    private final Supplier<Uni<IdempotencyRepository.StoredResponse>> action = () -> {
+        calls.incrementAndGet();
+        return Uni.createFrom().completionStage(response);
+    };
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        PgPool client = Mockito.mock(PgPool.class);
+        query = Mockito.mock(PreparedQuery.class);
+        Mockito.when(client.preparedQuery(Mockito.anyString())).thenReturn(query);
+        RowSet<Row> empty = rowSet(null);
+        Mockito.when(query.execute(Mockito.any(Tuple.class))).thenReturn(Uni.createFrom().item(empty));
+
+        repository = new IdempotencyRepository();
+        repository.client = client;
+        repository.ttl = 86400;
+        repository.cacheSize = 100;
+    }
+
+    @Test
+    void concurrentRequestsRunTheActionOnce() {
+        UniAssertSubscriber<IdempotencyRepository.StoredResponse> first = execute(HASH);
+        UniAssertSubscriber<IdempotencyRepository.StoredResponse> second = execute(HASH);
+        Assertions.assertEquals(1, calls.get());
+
+        response.complete(new IdempotencyRepository.StoredResponse(201, Buffer.buffer("{}"), false));
+
+        IdempotencyRepository.StoredResponse original = first.assertCompleted().getItem();
+        IdempotencyRepository.StoredResponse replayed = second.assertCompleted().getItem();
+        Assertions.assertEquals(201, original.statusCode());
+        Assertions.assertFalse(original.replayed());
+        Assertions.assertEquals(201, replayed.statusCode());
+        Assertions.assertTrue(replayed.replayed());
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    void completedResponseIsReplayedFromMemory() {
+        response.complete(new IdempotencyRepository.StoredResponse(200, Buffer.buffer("{\"id\":1}"), false));
+        execute(HASH).assertCompleted();
+
+        IdempotencyRepository.StoredResponse replayed = execute(HASH).assertCompleted().getItem();
+
+        Assertions.assertTrue(replayed.replayed());
+        Assertions.assertEquals("{\"id\":1}", replayed.body().toString());
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    void keyReusedForAnotherRequestIsRejected() {
+        response.complete(new IdempotencyRepository.StoredResponse(200, Buffer.buffer("{}"), false));
+        execute(HASH).assertCompleted();
+
+        execute("other".getBytes(StandardCharsets.UTF_8)).assertFailedWith(IdempotencyKeyReuseException.class);
+    }
+
+    @Test
+    void storedResponseIsReplayedWithoutRunningTheAction() {
+        Row row = Mockito.mock(Row.class);
+        Mockito.when(row.getBuffer("request_hash")).thenReturn(io.vertx.mutiny.core.buffer.Buffer.buffer(HASH));
+        Mockito.when(row.getInteger("status")).thenReturn(201);
+        Mockito.when(row.getBuffer("body")).thenReturn(io.vertx.mutiny.core.buffer.Buffer.buffer("{}"));
+        Mockito.when(row.getLocalDateTime("reg_date")).thenReturn(ZonedDateTime.now().toLocalDateTime());
+        RowSet<Row> stored = rowSet(row);
+        Mockito.when(query.execute(Mockito.any(Tuple.class))).thenReturn(Uni.createFrom().item(stored));
+
+        IdempotencyRepository.StoredResponse replayed = execute(HASH).assertCompleted().getItem();
+
+        Assertions.assertEquals(201, replayed.statusCode());
+        Assertions.assertTrue(replayed.replayed());
+        Assertions.assertEquals(0, calls.get());
+    }
+
+    private UniAssertSubscriber<IdempotencyRepository.StoredResponse> execute(byte[] hash) {
+        return repository.execute(1L, "key-1", hash, action).subscribe().withSubscriber(UniAssertSubscriber.create());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RowSet<Row> rowSet(Row row) {
+        RowIterator<Row> iterator = Mockito.mock(RowIterator.class);
+        Mockito.when(iterator.hasNext()).thenReturn(row != null);
+        Mockito.when(iterator.next()).thenReturn(row);
+        RowSet<Row> rows = Mockito.mock(RowSet.class);
+        Mockito.when(rows.iterator()).thenReturn(iterator);
+        return rows;
+    }
+}
@@ -0,0 +1,81 @@
+package io.kneo.core.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.kneo.core.dto.AbstractDTO;
+import io.kneo.core.repository.table.EntityData;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+@QuarkusTest
+@QuarkusTestResource(DatabaseResource.class)
+class JsonProjectionTest {
+    private static final String TABLE = "json_projection_probe";
+    private static final UUID ID = UUID.randomUUID();
+    private static final LocalDateTime REG_DATE = LocalDateTime.of(2024, 3, 5, 7, 9, 41);
+    private static final LocalDateTime LAST_MOD_DATE = LocalDateTime.of(2024, 11, 23, 18, 4, 2);
+
+    @Inject
+    PgPool client;
+
+    @Inject
+    ObjectMapper mapper;
+
+    @BeforeEach
+    void setUp() {
+        client.query("CREATE TABLE IF NOT EXISTS " + TABLE + " (id uuid PRIMARY KEY, author int8, reg_date timestamp, " +
+                "last_mod_user int8, last_mod_date timestamp)").execute().await().indefinitely();
+        client.query("DELETE FROM " + TABLE).execute().await().indefinitely();
+        client.preparedQuery("INSERT INTO " + TABLE + " VALUES ($1, 1, $2, 2, $3)")
+                .execute(Tuple.of(ID, REG_DATE, LAST_MOD_DATE)).await().indefinitely();
+    }
+
+    @Test
+    void defaultFieldsMatchDtoSerialization() throws Exception {
+        JsonObject fromSql = client.query("SELECT json_build_object(" + AsyncRepository.jsonDefaultFields("m") + ") AS doc FROM " + TABLE + " m")
+                .execute().await().indefinitely()
+                .iterator().next().getJsonObject("doc");
+
+        assertSameDefaultFields(fromDto(), fromSql);
+    }
+
+    @Test
+    void listEntriesMatchDtoSerialization() throws Exception {
+        AsyncRepository repository = new AsyncRepository(client, mapper, null);
+        JsonArray entries = new JsonArray(repository.getAllAsJson(new EntityData(TABLE),
+                "json_build_object(" + AsyncRepository.jsonDefaultFields("m") + ")", 10, 0, null).await().indefinitely());
+
+        Assertions.assertEquals(1, entries.size());
+        assertSameDefaultFields(fromDto(), entries.getJsonObject(0));
+    }
+
+    private JsonObject fromDto() throws Exception {
+        ProbeDTO dto = new ProbeDTO();
+        dto.setId(ID);
+        dto.setAuthor("test1");
+        dto.setRegDate(REG_DATE.atZone(ZoneId.systemDefault()));
+        dto.setLastModifier("test2");
+        dto.setLastModifiedDate(LAST_MOD_DATE.atZone(ZoneId.systemDefault()));
+        return new JsonObject(mapper.writeValueAsString(dto));
+    }
+
+    private static void assertSameDefaultFields(JsonObject expected, JsonObject actual) {
+        for (String field : new String[]{"id", "author", "regDate", "lastModifier", "lastModifiedDate"}) {
+            Assertions.assertEquals(expected.getValue(field), actual.getValue(field), field);
+        }
+    }
+
+    static class ProbeDTO extends AbstractDTO {
+    }
+}
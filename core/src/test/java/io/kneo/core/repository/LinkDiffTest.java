@@ -0,0 +1,23 @@
+package io.kneo.core.repository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+class LinkDiffTest {
+
+    @Test
+    void noneIsEmpty() {
+        Assertions.assertTrue(LinkDiff.NONE.isEmpty());
+        Assertions.assertTrue(new LinkDiff(List.of(), List.of()).isEmpty());
+    }
+
+    @Test
+    void addedOrRemovedIsNotEmpty() {
+        UUID id = UUID.randomUUID();
+        Assertions.assertFalse(new LinkDiff(List.of(id), List.of()).isEmpty());
+        Assertions.assertFalse(new LinkDiff(List.of(), List.of(id)).isEmpty());
+    }
+}
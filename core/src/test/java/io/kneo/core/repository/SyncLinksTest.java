@@ -0,0 +1,23 @@
+package io.kneo.core.repository;
+
+import io.vertx.mutiny.sqlclient.SqlClient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.UUID;
+
+class SyncLinksTest {
+
+    @Test
+    void nullTargetsLeaveLinksUntouched() {
+        SqlClient tx = Mockito.mock(SqlClient.class);
+        AsyncRepository repository = new AsyncRepository(null, null, null);
+
+        LinkDiff diff = repository.syncLinks(tx, "links", "id", "label_id", UUID.randomUUID(), null)
+                .await().indefinitely();
+
+        Assertions.assertSame(LinkDiff.NONE, diff);
+        Mockito.verifyNoInteractions(tx);
+    }
+}
@@ -0,0 +1,109 @@
+package io.kneo.core.repository.rls;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.PreparedQuery;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.Tuple;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.UUID;
+
+class ReadMarkBufferTest {
+    private static final String TABLE = "prj__task_readers";
+
+    private ReadMarkBuffer buffer;
+    private PreparedQuery<RowSet<Row>> query;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        PgPool client = Mockito.mock(PgPool.class);
+        query = Mockito.mock(PreparedQuery.class);
+        Mockito.when(client.preparedQuery(Mockito.anyString())).thenReturn(query);
+        Mockito.doAnswer(invocation -> {
+            Tuple params = invocation.getArgument(0);
+            return Uni.createFrom().item(rowSet(((Object[]) params.getValue(0)).length));
+        }).when(query).execute(Mockito.any(Tuple.class));
+
+        buffer = new ReadMarkBuffer();
+        buffer.client = client;
+        buffer.registry = new SimpleMeterRegistry();
+        buffer.batchSize = 1000;
+        buffer.maxPending = 100000;
+        buffer.init();
+    }
+
+    @Test
+    void repeatedMarksCollapseIntoOne() {
+        UUID task = UUID.randomUUID();
+        buffer.mark(TABLE, 1, task);
+        buffer.mark(TABLE, 1, task);
+        buffer.mark(TABLE, 2, task);
+
+        Assertions.assertEquals(2, buffer.flush().await().indefinitely());
+        Assertions.assertEquals(2, writtenMarks());
+        Assertions.assertEquals(1.0, buffer.registry.counter("kneo.rls.read_marks.coalesced").count());
+        Assertions.assertEquals(0, buffer.flush().await().indefinitely());
+    }
+
+    @Test
+    void marksAreWrittenInBatchesPerTable() {
+        for (int i = 0; i < 3; i++) {
+            buffer.mark(TABLE, i, UUID.randomUUID());
+        }
+        buffer.mark("prj__project_readers", 1, UUID.randomUUID());
+        buffer.batchSize = 2;
+
+        Assertions.assertEquals(4, buffer.flush().await().indefinitely());
+        Mockito.verify(query, Mockito.times(3)).execute(Mockito.any(Tuple.class));
+    }
+
+    @Test
+    void newMarksAreDroppedOverMaxPending() {
+        buffer.maxPending = 1;
+        UUID task = UUID.randomUUID();
+        buffer.mark(TABLE, 1, task);
+        buffer.mark(TABLE, 2, task);
+        buffer.mark(TABLE, 1, task);
+
+        Assertions.assertEquals(1.0, buffer.registry.counter("kneo.rls.read_marks.dropped").count());
+        Assertions.assertEquals(1.0, buffer.registry.counter("kneo.rls.read_marks.coalesced").count());
+        Assertions.assertEquals(1, buffer.flush().await().indefinitely());
+    }
+
+    @Test
+    void failedBatchIsRequeued() {
+        RowSet<Row> written = rowSet(1);
+        Mockito.doReturn(Uni.createFrom().failure(new IllegalStateException("connection lost")))
+                .doReturn(Uni.createFrom().item(written))
+                .when(query).execute(Mockito.any(Tuple.class));
+        buffer.mark(TABLE, 1, UUID.randomUUID());
+
+        Assertions.assertEquals(0, buffer.flush().await().indefinitely());
+        Assertions.assertEquals(1, buffer.flush().await().indefinitely());
+        Assertions.assertEquals(1.0, buffer.registry.counter("kneo.rls.read_marks.failed").count());
+    }
+
+    private int writtenMarks() {
+        ArgumentCaptor<Tuple> captor = ArgumentCaptor.forClass(Tuple.class);
+        Mockito.verify(query).execute(captor.capture());
+        Object[] readers = (Object[]) captor.getValue().getValue(0);
+        Object[] entities = (Object[]) captor.getValue().getValue(1);
+        Assertions.assertEquals(readers.length, entities.length);
+        return readers.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RowSet<Row> rowSet(int rowCount) {
+        RowSet<Row> rows = Mockito.mock(RowSet.class);
+        Mockito.when(rows.rowCount()).thenReturn(rowCount);
+        return rows;
+    }
+}
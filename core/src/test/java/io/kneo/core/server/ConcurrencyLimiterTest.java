@@ -0,0 +1,163 @@
+package io.kneo.core.server;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.web.RoutingContext;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import static io.kneo.core.server.ConcurrencyLimiter.Group.BULK;
+import static io.kneo.core.server.ConcurrencyLimiter.Group.READ;
+
+class ConcurrencyLimiterTest {
+    private static final long RTT = 1_000_000;
+
+    private ConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new ConcurrencyLimiter();
+        limiter.registry = new SimpleMeterRegistry();
+        limiter.enabled = true;
+        limiter.initialLimit = 20;
+        limiter.minLimit = 4;
+        limiter.maxLimit = 200;
+        limiter.rttTolerance = 1.5;
+        limiter.smoothing = 0.2;
+        limiter.backoff = 0.9;
+        limiter.bulkHeadroom = 0.5;
+        limiter.bulkPath = ".*/batch(/.*)?";
+        limiter.retryAfter = 1;
+    }
+
+    @Test
+    void rejectsOverLimitWith503() {
+        limiter.initialLimit = 2;
+        limiter.init();
+        RoutingContext first = request(HttpMethod.GET, "/api/tasks");
+        RoutingContext second = request(HttpMethod.GET, "/api/tasks");
+        RoutingContext third = request(HttpMethod.GET, "/api/tasks");
+
+        limiter.limit(first);
+        limiter.limit(second);
+        limiter.limit(third);
+
+        Mockito.verify(first).next();
+        Mockito.verify(second).next();
+        Mockito.verify(third, Mockito.never()).next();
+        Mockito.verify(third.response()).setStatusCode(503);
+        Mockito.verify(third.response()).putHeader("Retry-After", "1");
+        Assertions.assertEquals(2, limiter.getInFlight(READ));
+    }
+
+    @Test
+    void endOfRequestFreesSlot() {
+        limiter.init();
+        RoutingContext rc = request(HttpMethod.GET, "/api/tasks");
+
+        limiter.limit(rc);
+        Assertions.assertEquals(1, limiter.getInFlight(READ));
+        endHandlerOf(rc).handle(Future.succeededFuture());
+
+        Assertions.assertEquals(0, limiter.getInFlight(READ));
+    }
+
+    @Test
+    void nonApiPathsAreNotLimited() {
+        limiter.initialLimit = 0;
+        limiter.init();
+        RoutingContext rc = request(HttpMethod.GET, "/health");
+
+        limiter.limit(rc);
+
+        Mockito.verify(rc).next();
+        Mockito.verify(rc, Mockito.never()).addEndHandler(Mockito.any());
+    }
+
+    @Test
+    void bulkWaitsForReadHeadroom() {
+        limiter.initialLimit = 2;
+        limiter.init();
+        limiter.limitOf(READ).tryAcquire();
+        RoutingContext rc = request(HttpMethod.POST, "/api/consumings/batch");
+
+        limiter.limit(rc);
+
+        Mockito.verify(rc, Mockito.never()).next();
+        Mockito.verify(rc.response()).setStatusCode(503);
+        Assertions.assertEquals(0, limiter.getInFlight(BULK));
+    }
+
+    @Test
+    void limitGrowsWhileLatencyIsSteady() {
+        limiter.init();
+        ConcurrencyLimiter.Limit limit = limiter.limitOf(READ);
+        for (int i = 0; i < 15; i++) {
+            limit.tryAcquire();
+        }
+        for (int i = 0; i < 5; i++) {
+            limit.release(RTT, false);
+        }
+        Assertions.assertTrue(limiter.getLimit(READ) > 20);
+    }
+
+    @Test
+    void limitShrinksWhenLatencyRises() {
+        limiter.init();
+        ConcurrencyLimiter.Limit limit = limiter.limitOf(READ);
+        for (int i = 0; i < 15; i++) {
+            limit.tryAcquire();
+        }
+        limit.release(RTT, false);
+        limit.release(RTT * 100, false);
+        Assertions.assertTrue(limiter.getLimit(READ) < 20);
+    }
+
+    @Test
+    void limitStaysWithinBounds() {
+        limiter.maxLimit = 22;
+        limiter.init();
+        ConcurrencyLimiter.Limit limit = limiter.limitOf(READ);
+        for (int i = 0; i < 500; i++) {
+            while (limit.tryAcquire()) {
+                // fill up to the current limit
+            }
+            limit.release(RTT, false);
+        }
+        Assertions.assertEquals(22, limiter.getLimit(READ));
+
+        while (limiter.getInFlight(READ) > 0) {
+            limit.release(RTT, true);
+        }
+        Assertions.assertEquals(4, limiter.getLimit(READ));
+    }
+
+    private static RoutingContext request(HttpMethod method, String path) {
+        HttpServerRequest request = Mockito.mock(HttpServerRequest.class);
+        Mockito.when(request.method()).thenReturn(method);
+        Mockito.when(request.path()).thenReturn(path);
+        HttpServerResponse response = Mockito.mock(HttpServerResponse.class);
+        Mockito.when(response.setStatusCode(Mockito.anyInt())).thenReturn(response);
+        Mockito.when(response.putHeader(Mockito.anyString(), Mockito.anyString())).thenReturn(response);
+        Mockito.when(response.getStatusCode()).thenReturn(200);
+        RoutingContext rc = Mockito.mock(RoutingContext.class);
+        Mockito.when(rc.request()).thenReturn(request);
+        Mockito.when(rc.response()).thenReturn(response);
+        return rc;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Handler<AsyncResult<Void>> endHandlerOf(RoutingContext rc) {
+        ArgumentCaptor<Handler<AsyncResult<Void>>> captor = ArgumentCaptor.forClass(Handler.class);
+        Mockito.verify(rc).addEndHandler(captor.capture());
+        return captor.getValue();
+    }
+}
@@ -10,15 +10,17 @@ import io.kneo.core.localization.LanguageCode;
 import io.kneo.core.service.UserService;
 import io.kneo.core.util.RuntimeUtil;
 import io.kneo.officeframe.dto.DepartmentDTO;
+import io.kneo.officeframe.dto.DepartmentNodeDTO;
 import io.kneo.officeframe.model.Department;
 import io.kneo.officeframe.service.DepartmentService;
+import io.smallrye.mutiny.Uni;
 import io.vertx.core.http.HttpMethod;
-import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
+import java.util.List;
 import java.util.UUID;
 
 import static io.kneo.core.util.RuntimeUtil.countMaxPage;
@@ -41,12 +43,19 @@ public class DepartmentController extends AbstractSecuredController<Department,
     public void setupRoutes(Router router) {
         router.route(HttpMethod.GET, "/api/:org/departments").handler(this::get);
         router.route(HttpMethod.GET, "/api/:org/departments/only/member_of/:primary_org").handler(this::getDepartmentsOfOrg);
+        router.route(HttpMethod.GET, "/api/:org/departments/chart/:primary_org").handler(this::getOrgChart);
         router.route(HttpMethod.GET, "/api/:org/departments/:id").handler(this::getById);
-        router.route(HttpMethod.POST, "/api/:org/departments").handler(this::upsert);
+        router.route(HttpMethod.GET, "/api/:org/departments/:id/subtree").handler(this::getSubtree);
+        router.route(HttpMethod.GET, "/api/:org/departments/:id/ancestors").handler(this::getAncestors);
+        router.route(HttpMethod.POST, "/api/:org/departments/:id?").handler(this::upsert);
         router.route(HttpMethod.DELETE, "/api/:org/departments/:id").handler(this::delete);
     }
 
     private void get(RoutingContext rc) {
+        conditional(rc, service.getWatermark(null), this::renderAll);
+    }
+
+    private void renderAll(RoutingContext rc) {
         int page = Integer.parseInt(rc.request().getParam("page", "0"));
         int size = Integer.parseInt(rc.request().getParam("size", "10"));
         service.getAllCount()
@@ -65,7 +74,7 @@ public class DepartmentController extends AbstractSecuredController<Department,
                             });
                 })
                 .subscribe().with(
-                        viewPage -> rc.response().setStatusCode(200).end(JsonObject.mapFrom(viewPage).encode()),
+                        viewPage -> sendConditionalJson(rc, viewPage),
                         rc::fail
                 );
     }
@@ -83,12 +92,51 @@ public class DepartmentController extends AbstractSecuredController<Department,
                     return viewPage;
                 })
                 .subscribe().with(
-                        viewPage -> rc.response().setStatusCode(200).end(JsonObject.mapFrom(viewPage).encode()),
+                        viewPage -> sendConditionalJson(rc, viewPage),
+                        rc::fail
+                );
+    }
+
+    private void getOrgChart(RoutingContext rc) {
+        service.getOrgChart(rc.pathParam("primary_org"), resolveLanguage(rc))
+                .onItem().transform(roots -> {
+                    ViewPage viewPage = new ViewPage();
+                    View<DepartmentNodeDTO> dtoEntries = new View<>(roots, roots.size(), 1, 1, roots.size());
+                    viewPage.addPayload(PayloadType.VIEW_DATA, dtoEntries);
+                    return viewPage;
+                })
+                .subscribe().with(
+                        viewPage -> sendConditionalJson(rc, viewPage),
+                        rc::fail
+                );
+    }
+
+    private void getSubtree(RoutingContext rc) {
+        sendDepartments(rc, service.getSubtree(rc.pathParam("id"), resolveLanguage(rc)));
+    }
+
+    private void getAncestors(RoutingContext rc) {
+        sendDepartments(rc, service.getAncestors(rc.pathParam("id"), resolveLanguage(rc)));
+    }
+
+    private void sendDepartments(RoutingContext rc, Uni<List<DepartmentDTO>> departments) {
+        departments.onItem().transform(dtoList -> {
+                    ViewPage viewPage = new ViewPage();
+                    View<DepartmentDTO> dtoEntries = new View<>(dtoList, dtoList.size(), 1, 1, dtoList.size());
+                    viewPage.addPayload(PayloadType.VIEW_DATA, dtoEntries);
+                    return viewPage;
+                })
+                .subscribe().with(
+                        viewPage -> sendConditionalJson(rc, viewPage),
                         rc::fail
                 );
     }
 
     private void getById(RoutingContext rc) {
+        conditional(rc, service.getVersion(UUID.fromString(rc.pathParam("id")), null), this::renderById);
+    }
+
+    private void renderById(RoutingContext rc) {
         FormPage page = new FormPage();
         page.addPayload(PayloadType.CONTEXT_ACTIONS, new ActionBox());
 
@@ -98,14 +146,14 @@ public class DepartmentController extends AbstractSecuredController<Department,
                     return page;
                 })
                 .subscribe().with(
-                        formPage -> rc.response().setStatusCode(200).end(JsonObject.mapFrom(formPage).encode()),
+                        formPage -> sendConditionalJson(rc, formPage),
                         rc::fail
                 );
 
     }
 
     private void upsert(RoutingContext rc)  {
-        upsert(service, rc.pathParam("id"), rc);
+        upsert(service, DepartmentDTO.class, rc.pathParam("id"), rc);
     }
 
     private void delete(RoutingContext rc) {
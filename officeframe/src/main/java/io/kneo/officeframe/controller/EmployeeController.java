@@ -14,7 +14,6 @@ import io.kneo.officeframe.dto.EmployeeDTO;
 import io.kneo.officeframe.model.Employee;
 import io.kneo.officeframe.service.EmployeeService;
 import io.vertx.core.http.HttpMethod;
-import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -41,12 +40,17 @@ public class EmployeeController extends AbstractSecuredController<Employee, Empl
     public void setupRoutes(Router router) {
         router.route(HttpMethod.GET, "/api/:org/employees").handler(this::get);
         router.route(HttpMethod.GET, "/api/:org/employees/search/:keyword").handler(this::search);
+        router.route(HttpMethod.GET, "/api/:org/employees/only/under/:department").handler(this::getUnderDepartment);
         router.route(HttpMethod.GET, "/api/:org/employees/:id").handler(this::getById);
         router.route(HttpMethod.POST, "/api/:org/employees/:id?").handler(this::upsert);
         router.route(HttpMethod.DELETE, "/api/:org/employees/:id").handler(this::delete);
     }
 
     private void get(RoutingContext rc) {
+        conditional(rc, service.getWatermark(null), this::renderAll);
+    }
+
+    private void renderAll(RoutingContext rc) {
         int page = Integer.parseInt(rc.request().getParam("page", "0"));
         int size = Integer.parseInt(rc.request().getParam("size", "10"));
         service.getAllCount()
@@ -58,14 +62,14 @@ public class EmployeeController extends AbstractSecuredController<Employee, Empl
                     return service.getAll(size, offset, languageCode)
                             .onItem().transform(dtoList -> {
                                 ViewPage viewPage = new ViewPage();
-                                viewPage.addPayload(PayloadType.CONTEXT_ACTIONS, ActionsFactory.getDefaultViewActions(languageCode));
+                                viewPage.addPayload(PayloadType.CONTEXT_ACTIONS, ActionsFactory.getCachedDefaultViewActions(languageCode));
                                 View<EmployeeDTO> dtoEntries = new View<>(dtoList, count, pageNum, maxPage, size);
                                 viewPage.addPayload(PayloadType.VIEW_DATA, dtoEntries);
                                 return viewPage;
                             });
                 })
                 .subscribe().with(
-                        viewPage -> rc.response().setStatusCode(200).end(JsonObject.mapFrom(viewPage).encode()),
+                        viewPage -> sendConditionalJson(rc, viewPage),
                         rc::fail
                 );
     }
@@ -83,12 +87,30 @@ public class EmployeeController extends AbstractSecuredController<Employee, Empl
                     return viewPage;
                 })
                 .subscribe().with(
-                        page -> rc.response().setStatusCode(200).end(JsonObject.mapFrom(page).encode()),
+                        page -> sendConditionalJson(rc, page),
+                        rc::fail
+                );
+    }
+
+    private void getUnderDepartment(RoutingContext rc) {
+        service.getUnderDepartment(rc.pathParam("department"), resolveLanguage(rc))
+                .onItem().transform(dtoList -> {
+                    ViewPage viewPage = new ViewPage();
+                    View<EmployeeDTO> dtoEntries = new View<>(dtoList, dtoList.size(), 1, 1, dtoList.size());
+                    viewPage.addPayload(PayloadType.VIEW_DATA, dtoEntries);
+                    return viewPage;
+                })
+                .subscribe().with(
+                        page -> sendConditionalJson(rc, page),
                         rc::fail
                 );
     }
 
     private void getById(RoutingContext rc) {
+        conditional(rc, service.getVersion(UUID.fromString(rc.pathParam("id")), null), this::renderById);
+    }
+
+    private void renderById(RoutingContext rc) {
         FormPage page = new FormPage();
         page.addPayload(PayloadType.CONTEXT_ACTIONS, new ActionBox());
         service.getDTO(UUID.fromString(rc.pathParam("id")), getUser(rc), resolveLanguage(rc))
@@ -97,22 +119,19 @@ public class EmployeeController extends AbstractSecuredController<Employee, Empl
                     return page;
                 })
                 .subscribe().with(
-                        formPage -> rc.response().setStatusCode(200).end(JsonObject.mapFrom(formPage).encode()),
+                        formPage -> sendConditionalJson(rc, formPage),
                         rc::fail
                 );
     }
 
     private void upsert(RoutingContext rc) {
-        JsonObject jsonObject = rc.body().asJsonObject();
-        EmployeeDTO dto = jsonObject.mapTo(EmployeeDTO.class);
+        EmployeeDTO dto = readBody(rc, EmployeeDTO.class);
         String id = rc.pathParam("id");
         service.upsert(id, dto, getUser(rc), resolveLanguage(rc))
                 .subscribe().with(
                         doc -> {
                             int statusCode = (id == null || id.isEmpty()) ? 201 : 200;
-                            rc.response()
-                                    .setStatusCode(statusCode)
-                                    .end(JsonObject.mapFrom(doc).encode());
+                            sendJson(rc, statusCode, doc);
                         },
                         rc::fail
                 );
@@ -122,7 +141,7 @@ public class EmployeeController extends AbstractSecuredController<Employee, Empl
         String id = rc.pathParam("id");
         service.delete(id, getUser(rc))
                 .subscribe().with(
-                        count -> rc.response().setStatusCode(200).end(JsonObject.mapFrom(count).encode()),
+                        count -> sendJson(rc, 200, count),
                         rc::fail
                 );
     }
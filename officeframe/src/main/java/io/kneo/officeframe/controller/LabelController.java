@@ -8,12 +8,10 @@ import io.kneo.core.dto.view.View;
 import io.kneo.core.dto.view.ViewPage;
 import io.kneo.core.localization.LanguageCode;
 import io.kneo.core.service.UserService;
-import io.kneo.core.util.RuntimeUtil;
 import io.kneo.officeframe.dto.LabelDTO;
 import io.kneo.officeframe.model.Label;
 import io.kneo.officeframe.service.LabelService;
 import io.vertx.core.http.HttpMethod;
-import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -21,7 +19,6 @@ import jakarta.inject.Inject;
 
 import java.util.UUID;
 
-import static io.kneo.core.util.RuntimeUtil.countMaxPage;
 
 @ApplicationScoped
 public class LabelController extends AbstractSecuredController<Label, LabelDTO> {
@@ -48,27 +45,11 @@ public class LabelController extends AbstractSecuredController<Label, LabelDTO>
     }
 
     private void getAll(RoutingContext rc) {
-        int page = Integer.parseInt(rc.request().getParam("page", "0"));
-        int size = Integer.parseInt(rc.request().getParam("size", "10"));
-        service.getAllCount()
-                .onItem().transformToUni(count -> {
-                    int maxPage = countMaxPage(count, size);
-                    int pageNum = (page == 0) ? 1 : page;
-                    int offset = RuntimeUtil.calcStartEntry(pageNum, size);
-                    LanguageCode languageCode = resolveLanguage(rc);
-                    return service.getAll(size, offset, languageCode)
-                            .onItem().transform(dtoList -> {
-                                ViewPage viewPage = new ViewPage();
-                                viewPage.addPayload(PayloadType.CONTEXT_ACTIONS, new ActionBox());
-                                View<LabelDTO> dtoEntries = new View<>(dtoList, count, pageNum, maxPage, size);
-                                viewPage.addPayload(PayloadType.VIEW_DATA, dtoEntries);
-                                return viewPage;
-                            });
-                })
-                .subscribe().with(
-                        viewPage -> rc.response().setStatusCode(200).end(JsonObject.mapFrom(viewPage).encode()),
-                        rc::fail
-                );
+        conditional(rc, service.getWatermark(null), this::renderAll);
+    }
+
+    private void renderAll(RoutingContext rc) {
+        sendViewPage(rc, service.getAllCount(), service::getAllAsJson, new ActionBox());
     }
 
     private void getLabelsOfCategory(RoutingContext rc) {
@@ -84,12 +65,16 @@ public class LabelController extends AbstractSecuredController<Label, LabelDTO>
                     return viewPage;
                 })
                 .subscribe().with(
-                        viewPage -> rc.response().setStatusCode(200).end(JsonObject.mapFrom(viewPage).encode()),
+                        viewPage -> sendConditionalJson(rc, viewPage),
                         rc::fail
                 );
     }
 
-    private void get(RoutingContext rc)  {
+    private void get(RoutingContext rc) {
+        conditional(rc, service.getVersion(UUID.fromString(rc.pathParam("id")), null), this::renderById);
+    }
+
+    private void renderById(RoutingContext rc) {
         FormPage page = new FormPage();
         page.addPayload(PayloadType.CONTEXT_ACTIONS, new ActionBox());
         service.getDTO(UUID.fromString(rc.pathParam("id")), getUser(rc), resolveLanguage(rc))
@@ -98,7 +83,7 @@ public class LabelController extends AbstractSecuredController<Label, LabelDTO>
                     return page;
                 })
                 .subscribe().with(
-                        formPage -> rc.response().setStatusCode(200).end(JsonObject.mapFrom(formPage).encode()),
+                        formPage -> sendConditionalJson(rc, formPage),
                         rc::fail
                 );
     }
@@ -112,18 +97,17 @@ public class LabelController extends AbstractSecuredController<Label, LabelDTO>
                     return page;
                 })
                 .subscribe().with(
-                        formPage -> rc.response().setStatusCode(200).end(JsonObject.mapFrom(formPage).encode()),
+                        formPage -> sendConditionalJson(rc, formPage),
                         rc::fail
                 );
     }
 
     private void upsert(RoutingContext rc) {
-        JsonObject jsonObject = rc.body().asJsonObject();
-        LabelDTO dto = jsonObject.mapTo(LabelDTO.class);
+        LabelDTO dto = readBody(rc, LabelDTO.class);
         String id = rc.pathParam("id");
         service.upsert(id, dto, getUser(rc), resolveLanguage(rc))
                 .subscribe().with(
-                        label -> rc.response().setStatusCode(200).end(JsonObject.mapFrom(label).encode()),
+                        label -> sendJson(rc, 200, label),
                         rc::fail
                 );
     }
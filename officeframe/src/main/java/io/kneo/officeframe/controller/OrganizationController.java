@@ -14,7 +14,6 @@ import io.kneo.officeframe.dto.OrganizationDTO;
 import io.kneo.officeframe.model.Organization;
 import io.kneo.officeframe.service.OrganizationService;
 import io.vertx.core.http.HttpMethod;
-import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -48,6 +47,10 @@ public class OrganizationController extends AbstractSecuredController<Organizati
     }
 
     private void get(RoutingContext rc) {
+        conditional(rc, service.getWatermark(null), this::renderAll);
+    }
+
+    private void renderAll(RoutingContext rc) {
         int page = Integer.parseInt(rc.request().getParam("page", "0"));
         int size = Integer.parseInt(rc.request().getParam("size", "10"));
         service.getAllCount()
@@ -59,14 +62,14 @@ public class OrganizationController extends AbstractSecuredController<Organizati
                     return service.getAll(size, offset, languageCode)
                             .onItem().transform(dtoList -> {
                                 ViewPage viewPage = new ViewPage();
-                                viewPage.addPayload(PayloadType.CONTEXT_ACTIONS, ActionsFactory.getDefaultViewActions(languageCode));
+                                viewPage.addPayload(PayloadType.CONTEXT_ACTIONS, ActionsFactory.getCachedDefaultViewActions(languageCode));
                                 View<OrganizationDTO> dtoEntries = new View<>(dtoList, count, pageNum, maxPage, size);
                                 viewPage.addPayload(PayloadType.VIEW_DATA, dtoEntries);
                                 return viewPage;
                             });
                 })
                 .subscribe().with(
-                        viewPage -> rc.response().setStatusCode(200).end(JsonObject.mapFrom(viewPage).encode()),
+                        viewPage -> sendConditionalJson(rc, viewPage),
                         rc::fail
                 );
     }
@@ -77,7 +80,7 @@ public class OrganizationController extends AbstractSecuredController<Organizati
         service.getPrimary(languageCode)
                 .onItem().transform(dtoList -> {
                     ViewPage viewPage = new ViewPage();
-                    viewPage.addPayload(PayloadType.CONTEXT_ACTIONS, ActionsFactory.getDefaultViewActions(languageCode));
+                    viewPage.addPayload(PayloadType.CONTEXT_ACTIONS, ActionsFactory.getCachedDefaultViewActions(languageCode));
                     int pageNum = 1;
                     int pageSize = dtoList.size();
                     int count = dtoList.size();
@@ -86,12 +89,16 @@ public class OrganizationController extends AbstractSecuredController<Organizati
                     return viewPage;
                 })
                 .subscribe().with(
-                        viewPage -> rc.response().setStatusCode(200).end(JsonObject.mapFrom(viewPage).encode()),
+                        viewPage -> sendConditionalJson(rc, viewPage),
                         rc::fail
                 );
     }
 
-    private void getById(RoutingContext rc)  {
+    private void getById(RoutingContext rc) {
+        conditional(rc, service.getVersion(UUID.fromString(rc.pathParam("id")), null), this::renderById);
+    }
+
+    private void renderById(RoutingContext rc) {
         FormPage page = new FormPage();
         page.addPayload(PayloadType.CONTEXT_ACTIONS, new ActionBox());
         service.getDTO(UUID.fromString(rc.pathParam("id")), getUser(rc), resolveLanguage(rc))
@@ -100,20 +107,19 @@ public class OrganizationController extends AbstractSecuredController<Organizati
                     return page;
                 })
                 .subscribe().with(
-                        formPage -> rc.response().setStatusCode(200).end(JsonObject.mapFrom(formPage).encode()),
+                        formPage -> sendConditionalJson(rc, formPage),
                         rc::fail
                 );
     }
 
     private void upsert(RoutingContext rc)  {
-        JsonObject jsonObject = rc.body().asJsonObject();
-        OrganizationDTO dto = jsonObject.mapTo(OrganizationDTO.class);
+        OrganizationDTO dto = readBody(rc, OrganizationDTO.class);
         String id = rc.pathParam("id");
         service.upsert(id, dto, getUser(rc), LanguageCode.ENG)
                 .subscribe().with(
                         organization -> {
                             int statusCode = id.isEmpty() ? 201 : 200;
-                            rc.response().setStatusCode(statusCode).end(JsonObject.mapFrom(organization).encode());
+                            sendJson(rc, statusCode, organization);
                         },
                         rc::fail
                 );
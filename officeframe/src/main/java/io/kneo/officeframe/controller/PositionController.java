@@ -1,6 +1,7 @@
 package io.kneo.officeframe.controller;
 
 import io.kneo.core.controller.AbstractSecuredController;
+import io.kneo.core.dto.actions.ActionsFactory;
 import io.kneo.core.repository.exception.UserNotFoundException;
 import io.kneo.core.service.UserService;
 import io.kneo.officeframe.dto.PositionDTO;
@@ -36,7 +37,8 @@ public class PositionController extends AbstractSecuredController<Position, Posi
     }
 
     private void get(RoutingContext rc) {
-        getAll(service, rc);
+        conditional(rc, service.getWatermark(null), ctx -> sendViewPage(ctx, service.getAllCount(), service::getAllAsJson,
+                ActionsFactory.getCachedDefaultViewActions(resolveLanguage(ctx))));
     }
 
     private void getOne(RoutingContext rc) {
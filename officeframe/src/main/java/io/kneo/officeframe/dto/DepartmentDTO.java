@@ -8,6 +8,8 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.SuperBuilder;
 
+import java.util.UUID;
+
 @JsonInclude(JsonInclude.Include.NON_NULL)
 @Setter
 @Getter
@@ -16,5 +18,7 @@ import lombok.experimental.SuperBuilder;
 public class DepartmentDTO extends AbstractReferenceDTO {
     @Positive(message = "{employee.rank.invalid}")
     int rank = 999;
-
+    UUID type;
+    UUID organization;
+    UUID leadDepartment;
 }
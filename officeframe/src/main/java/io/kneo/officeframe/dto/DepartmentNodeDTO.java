@@ -0,0 +1,21 @@
+package io.kneo.officeframe.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.kneo.core.localization.LanguageCode;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.UUID;
+
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@Getter
+@Builder
+public class DepartmentNodeDTO {
+    private UUID id;
+    private String identifier;
+    private EnumMap<LanguageCode, String> localizedName;
+    private int rank;
+    private List<DepartmentNodeDTO> children;
+}
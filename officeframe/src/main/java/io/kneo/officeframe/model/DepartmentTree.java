@@ -0,0 +1,71 @@
+package io.kneo.officeframe.model;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+@Getter
+public final class DepartmentTree {
+    private final UUID organization;
+    private final List<Node> roots;
+    private final int size;
+    private final Map<UUID, Node> index;
+
+    public record Node(Department department, int depth, List<Node> children) {}
+
+    private DepartmentTree(UUID organization, List<Node> roots, Map<UUID, Node> index) {
+        this.organization = organization;
+        this.roots = roots;
+        this.size = index.size();
+        this.index = index;
+    }
+
+    public static DepartmentTree of(UUID organization, List<Department> departments) {
+        Map<UUID, Department> byId = new LinkedHashMap<>();
+        departments.forEach(department -> byId.put(department.getId(), department));
+        Map<UUID, List<Department>> childrenOf = new HashMap<>();
+        List<Department> tops = new ArrayList<>();
+        for (Department department : departments) {
+            UUID lead = department.getLeadDepartment();
+            if (lead == null || !byId.containsKey(lead)) {
+                tops.add(department);
+            } else {
+                childrenOf.computeIfAbsent(lead, k -> new ArrayList<>()).add(department);
+            }
+        }
+        Map<UUID, Node> index = new HashMap<>();
+        Set<UUID> visited = new HashSet<>();
+        List<Node> roots = new ArrayList<>(tops.size());
+        for (Department top : tops) {
+            roots.add(build(top, 0, childrenOf, index, visited));
+        }
+        return new DepartmentTree(organization, List.copyOf(roots), Collections.unmodifiableMap(index));
+    }
+
+    public Optional<Node> find(UUID id) {
+        return Optional.ofNullable(index.get(id));
+    }
+
+    private static Node build(Department department, int depth, Map<UUID, List<Department>> childrenOf,
+                              Map<UUID, Node> index, Set<UUID> visited) {
+        visited.add(department.getId());
+        List<Node> children = new ArrayList<>();
+        for (Department child : childrenOf.getOrDefault(department.getId(), List.of())) {
+            if (!visited.contains(child.getId())) {
+                children.add(build(child, depth + 1, childrenOf, index, visited));
+            }
+        }
+        Node node = new Node(department, depth, List.copyOf(children));
+        index.put(department.getId(), node);
+        return node;
+    }
+}
@@ -11,14 +11,20 @@ import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import io.vertx.mutiny.pgclient.PgPool;
 import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.SqlClient;
 import io.vertx.mutiny.sqlclient.Tuple;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
 import static io.kneo.officeframe.repository.table.OfficeFrameNameResolver.DEPARTMENT;
+import static io.kneo.officeframe.repository.table.OfficeFrameNameResolver.DEPARTMENT_CLOSURE_TABLE_NAME;
 
 @ApplicationScoped
 public class DepartmentRepository extends AsyncRepository {
@@ -46,6 +52,14 @@ public class DepartmentRepository extends AsyncRepository {
         return getAllCount(entityData.getTableName());
     }
 
+    public Uni<String> getVersion(UUID uuid) {
+        return getVersion(uuid, entityData, null);
+    }
+
+    public Uni<String> getWatermark() {
+        return getWatermark(entityData, null);
+    }
+
     public Uni<List<Department>> getOfOrg(UUID orgId) {
         String sql = String.format("SELECT * FROM %s WHERE organization_id=$1 ORDER BY rank", entityData.getTableName());
         return client.preparedQuery(sql)
@@ -59,6 +73,11 @@ public class DepartmentRepository extends AsyncRepository {
         return findById(uuid, entityData, this::from);
     }
 
+    public static String jsonReferenceById(String idExpression) {
+        return String.format("(SELECT json_build_object('id', dep.id, 'identifier', dep.identifier, 'localizedName', dep.loc_name) " +
+                "FROM %s dep WHERE dep.id = %s)", entityData.getTableName(), idExpression);
+    }
+
     private Department from(Row row) {
         Department doc = new Department();
         setDefaultFields(doc, row);
@@ -71,12 +90,122 @@ public class DepartmentRepository extends AsyncRepository {
         return doc;
     }
 
+    public Uni<List<Department>> getSubtree(UUID id) {
+        String sql = String.format("SELECT d.* FROM %s c JOIN %s d ON d.id = c.descendant_id " +
+                "WHERE c.ancestor_id = $1 ORDER BY c.depth, d.rank", DEPARTMENT_CLOSURE_TABLE_NAME, entityData.getTableName());
+        return client.preparedQuery(sql)
+                .execute(Tuple.of(id))
+                .onItem().transformToMulti(rows -> Multi.createFrom().iterable(rows))
+                .onItem().transform(this::from)
+                .collect().asList();
+    }
+
+    public Uni<List<Department>> getAncestors(UUID id) {
+        String sql = String.format("SELECT d.* FROM %s c JOIN %s d ON d.id = c.ancestor_id " +
+                "WHERE c.descendant_id = $1 AND c.depth > 0 ORDER BY c.depth DESC", DEPARTMENT_CLOSURE_TABLE_NAME, entityData.getTableName());
+        return client.preparedQuery(sql)
+                .execute(Tuple.of(id))
+                .onItem().transformToMulti(rows -> Multi.createFrom().iterable(rows))
+                .onItem().transform(this::from)
+                .collect().asList();
+    }
+
+    public static String subtreeCondition(String column, String departmentIdExpression) {
+        return String.format("%s IN (SELECT descendant_id FROM %s WHERE ancestor_id = %s)",
+                column, DEPARTMENT_CLOSURE_TABLE_NAME, departmentIdExpression);
+    }
+
     public Uni<Department> insert(Department doc, IUser user) {
-        return null;
+        LocalDateTime nowTime = ZonedDateTime.now().toLocalDateTime();
+        String sql = String.format("WITH ins AS (INSERT INTO %s (author, reg_date, last_mod_user, last_mod_date, identifier, " +
+                        "type_id, organization_id, lead_department_id, rank, loc_name) " +
+                        "VALUES ($1, $2, $1, $2, $3, $4, $5, $6, $7, $8) RETURNING *), " +
+                        "cl AS (INSERT INTO %s (ancestor_id, descendant_id, depth) " +
+                        "SELECT ins.id, ins.id, 0 FROM ins " +
+                        "UNION ALL SELECT c.ancestor_id, ins.id, c.depth + 1 FROM ins JOIN %s c ON c.descendant_id = ins.lead_department_id) " +
+                        "SELECT * FROM ins",
+                entityData.getTableName(), DEPARTMENT_CLOSURE_TABLE_NAME, DEPARTMENT_CLOSURE_TABLE_NAME);
+        Tuple params = Tuple.tuple()
+                .addLong(user.getId())
+                .addLocalDateTime(nowTime)
+                .addString(doc.getIdentifier())
+                .addUUID(doc.getType())
+                .addUUID(doc.getOrganization())
+                .addUUID(doc.getLeadDepartment())
+                .addInteger(doc.getRank())
+                .addJsonObject(doc.getLocalizedText().toJsonObject());
+        return client.preparedQuery(sql)
+                .execute(params)
+                .onItem().transform(rows -> from(rows.iterator().next()));
     }
 
-    public Uni<Department> update(UUID uuid, Department doc, IUser user) {
-        return null;
+    public Uni<Department> update(UUID id, Department doc, IUser user) {
+        LocalDateTime nowTime = ZonedDateTime.now().toLocalDateTime();
+        String sql = String.format("UPDATE %s d SET last_mod_user = $2, last_mod_date = $3, identifier = $4, type_id = $5, " +
+                        "organization_id = $6, lead_department_id = $7, rank = $8, loc_name = $9 " +
+                        "FROM (SELECT lead_department_id AS old_lead FROM %s WHERE id = $1) o " +
+                        "WHERE d.id = $1 RETURNING d.*, o.old_lead",
+                entityData.getTableName(), entityData.getTableName());
+        Tuple params = Tuple.tuple()
+                .addUUID(id)
+                .addLong(user.getId())
+                .addLocalDateTime(nowTime)
+                .addString(doc.getIdentifier())
+                .addUUID(doc.getType())
+                .addUUID(doc.getOrganization())
+                .addUUID(doc.getLeadDepartment())
+                .addInteger(doc.getRank())
+                .addJsonObject(doc.getLocalizedText().toJsonObject());
+        return client.withTransaction(tx -> checkNotInSubtree(tx, id, doc.getLeadDepartment())
+                .onItem().transformToUni(ignored -> tx.preparedQuery(sql).execute(params))
+                .onItem().transformToUni(rows -> {
+                    if (rows.rowCount() == 0) {
+                        return Uni.createFrom().failure(new DocumentHasNotFoundException(id));
+                    }
+                    Row row = rows.iterator().next();
+                    Department updated = from(row);
+                    if (Objects.equals(row.getUUID("old_lead"), updated.getLeadDepartment())) {
+                        return Uni.createFrom().item(updated);
+                    }
+                    return moveSubtree(tx, id, updated.getLeadDepartment()).replaceWith(updated);
+                }));
+    }
+
+    public Uni<Integer> rebuildHierarchy() {
+        String delete = String.format("DELETE FROM %s", DEPARTMENT_CLOSURE_TABLE_NAME);
+        String insert = String.format("INSERT INTO %s (ancestor_id, descendant_id, depth) " +
+                        "WITH RECURSIVE tree AS (SELECT id AS ancestor_id, id AS descendant_id, 0 AS depth FROM %s " +
+                        "UNION ALL SELECT tree.ancestor_id, d.id, tree.depth + 1 FROM tree JOIN %s d ON d.lead_department_id = tree.descendant_id) " +
+                        "SELECT ancestor_id, descendant_id, depth FROM tree",
+                DEPARTMENT_CLOSURE_TABLE_NAME, entityData.getTableName(), entityData.getTableName());
+        return client.withTransaction(tx -> tx.query(delete).execute()
+                .onItem().transformToUni(ignored -> tx.query(insert).execute())
+                .onItem().transform(RowSet::rowCount));
+    }
+
+    private Uni<Void> checkNotInSubtree(SqlClient tx, UUID id, UUID newLead) {
+        if (newLead == null) {
+            return Uni.createFrom().voidItem();
+        }
+        String sql = String.format("SELECT 1 FROM %s WHERE ancestor_id = $1 AND descendant_id = $2", DEPARTMENT_CLOSURE_TABLE_NAME);
+        return tx.preparedQuery(sql)
+                .execute(Tuple.of(id, newLead))
+                .onItem().transformToUni(rows -> rows.rowCount() > 0
+                        ? Uni.createFrom().failure(new IllegalArgumentException("Department can not be moved under its own subtree"))
+                        : Uni.createFrom().voidItem());
+    }
+
+    private Uni<Void> moveSubtree(SqlClient tx, UUID id, UUID newLead) {
+        String detach = String.format("DELETE FROM %1$s WHERE descendant_id IN (SELECT descendant_id FROM %1$s WHERE ancestor_id = $1) " +
+                "AND ancestor_id IN (SELECT ancestor_id FROM %1$s WHERE descendant_id = $1 AND ancestor_id <> $1)", DEPARTMENT_CLOSURE_TABLE_NAME);
+        String attach = String.format("INSERT INTO %1$s (ancestor_id, descendant_id, depth) " +
+                "SELECT sup.ancestor_id, sub.descendant_id, sup.depth + sub.depth + 1 FROM %1$s sup CROSS JOIN %1$s sub " +
+                "WHERE sup.descendant_id = $2 AND sub.ancestor_id = $1", DEPARTMENT_CLOSURE_TABLE_NAME);
+        Uni<Void> detached = tx.preparedQuery(detach).execute(Tuple.of(id)).replaceWithVoid();
+        if (newLead == null) {
+            return detached;
+        }
+        return detached.onItem().transformToUni(ignored -> tx.preparedQuery(attach).execute(Tuple.of(id, newLead)).replaceWithVoid());
     }
 
     public Uni<Integer> delete(UUID id) {
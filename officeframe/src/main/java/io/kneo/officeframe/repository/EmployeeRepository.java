@@ -1,8 +1,6 @@
 package io.kneo.officeframe.repository;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.kneo.core.localization.LanguageCode;
 import io.kneo.core.model.user.IUser;
 import io.kneo.core.model.user.SuperUser;
 import io.kneo.core.repository.AsyncRepository;
@@ -12,7 +10,6 @@ import io.kneo.officeframe.model.Employee;
 import io.kneo.officeframe.repository.table.OfficeFrameNameResolver;
 import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
-import io.vertx.core.json.JsonObject;
 import io.vertx.mutiny.pgclient.PgPool;
 import io.vertx.mutiny.sqlclient.Row;
 import io.vertx.mutiny.sqlclient.Tuple;
@@ -51,6 +48,14 @@ public class EmployeeRepository extends AsyncRepository {
         return getAllCount(entityData.getTableName());
     }
 
+    public Uni<String> getVersion(UUID uuid) {
+        return getVersion(uuid, entityData, null, true);
+    }
+
+    public Uni<String> getWatermark() {
+        return getWatermark(entityData, null);
+    }
+
     public Uni<List<Employee>> search(String keyword) {
         String query = String.format(
                 "(SELECT 0 as id, id as uuid, name, phone, NULL as email FROM %s WHERE textsearch @@ to_tsquery('english', '%s')) " +
@@ -65,6 +70,16 @@ public class EmployeeRepository extends AsyncRepository {
                 .collect().asList();
     }
 
+    public Uni<List<Employee>> getUnderDepartment(UUID departmentId) {
+        String sql = String.format("SELECT * FROM %s e WHERE %s ORDER BY e.rank", entityData.getTableName(),
+                DepartmentRepository.subtreeCondition("e.department_id", "$1"));
+        return client.preparedQuery(sql)
+                .execute(Tuple.of(departmentId))
+                .onItem().transformToMulti(rows -> Multi.createFrom().iterable(rows))
+                .onItem().transform(this::from)
+                .collect().asList();
+    }
+
     public Uni<Employee> getById(UUID uuid) {
         return findById(uuid, entityData, this::from);
     }
@@ -82,11 +97,33 @@ public class EmployeeRepository extends AsyncRepository {
                 });
     }
 
+    public Uni<List<Employee>> getByUserIds(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Uni.createFrom().item(List.of());
+        }
+        return client.preparedQuery(String.format("SELECT * FROM %s se WHERE se.user_id = ANY($1)", entityData.getTableName()))
+                .execute(Tuple.of(userIds.toArray(new Long[0])))
+                .onItem().transformToMulti(rows -> Multi.createFrom().iterable(rows))
+                .onItem().transform(this::from)
+                .collect().asList();
+    }
+
 
     public Uni<Employee> getByIdentifier(String identifier) {
         return null;
     }
 
+    public static String jsonByUserId(String userIdExpression) {
+        return String.format("(SELECT json_build_object(%s, 'version', e.version, 'userId', e.user_id, 'phone', e.phone, 'rank', e.rank, " +
+                        "'localizedName', e.loc_name, 'position', %s, 'dep', %s, 'org', %s) FROM %s e WHERE e.user_id = %s LIMIT 1)",
+                jsonDefaultFields("e"),
+                PositionRepository.jsonById("e.position_id"),
+                DepartmentRepository.jsonReferenceById("e.department_id"),
+                OrganizationRepository.jsonReferenceById("e.organization_id"),
+                entityData.getTableName(),
+                userIdExpression);
+    }
+
     private Employee from(Row row) {
         Employee doc = new Employee();
         setDefaultFields(doc, row);
@@ -121,7 +158,7 @@ public class EmployeeRepository extends AsyncRepository {
         String sql = String.format("INSERT INTO %s " +
                 "(reg_date, author, last_mod_date, last_mod_user, status, birth_date, name, " +
                 "department_id, organization_id, position_id, user_id, rank, loc_name, phone) " +
-                "VALUES($1, $2, $3, $4, $5, $6, $7, $8, $9, $10, $11, $12, $13, $14) RETURNING id", entityData.getTableName());
+                "VALUES($1, $2, $3, $4, $5, $6, $7, $8, $9, $10, $11, $12, $13, $14) RETURNING *", entityData.getTableName());
         Tuple params = Tuple.of(nowTime, user.getId(), nowTime, user.getId());
         Tuple allParams = params
                 .addInteger(doc.getStatus())
@@ -131,27 +168,25 @@ public class EmployeeRepository extends AsyncRepository {
                 .addUUID(doc.getPosition())
                 .addLong(doc.getUserId())
                 .addInteger(doc.getRank())
-                .addJsonObject(getLocalizedName(doc.getLocalizedName()))
+                .addJsonObject(doc.getLocalizedText().toJsonObject())
                 .addString(doc.getPhone());
 
-        return client.withTransaction(tx -> tx.preparedQuery(sql)
+        return client.preparedQuery(sql)
                 .execute(allParams)
-                .onItem().transformToUni(result -> {
-                    UUID id = result.iterator().next().getUUID("id");
-                    return getById(id);
-                })
+                .onItem().transform(result -> from(result.iterator().next()))
                 .onFailure().recoverWithUni(throwable -> {
                     LOGGER.error(throwable.getMessage());
                     return Uni.createFrom().failure(new RuntimeException(String.format("Failed to insert to %s", EMPLOYEE), throwable));
-                }));
+                });
     }
 
     public Uni<Employee> update(UUID id, Employee doc, IUser user) {
         LocalDateTime nowTime = ZonedDateTime.now().toLocalDateTime();
-        String sql = String.format("UPDATE %s SET reg_date=$1, author=$2, last_mod_date=$3, last_mod_user=$4, " +
-                "status=$5, birth_date=$6, department_id=$7, organization_id=$8, position_id=$9, " +
-                "user_id=$10, rank=$11, loc_name=$12, phone=$13 WHERE id=$14", entityData.getTableName());
-        Tuple params = Tuple.of(nowTime, user.getId(), nowTime, user.getId())
+        String sql = String.format("UPDATE %s m SET last_mod_date=$1, last_mod_user=$2, " +
+                "status=$3, birth_date=$4, department_id=$5, organization_id=$6, position_id=$7, " +
+                "user_id=$8, rank=$9, loc_name=$10, phone=$11, version=m.version + 1 " +
+                "WHERE m.id=$12 AND ($13::bigint IS NULL OR m.version = $13) RETURNING m.*", entityData.getTableName());
+        Tuple params = Tuple.of(nowTime, user.getId())
                 .addInteger(doc.getStatus())
                 .addLocalDate(doc.getBirthDate())
                 .addUUID(doc.getDepartment())
@@ -159,22 +194,23 @@ public class EmployeeRepository extends AsyncRepository {
                 .addUUID(doc.getPosition())
                 .addLong(doc.getUserId())
                 .addInteger(doc.getRank())
-                .addJsonObject(getLocalizedName(doc.getLocalizedName()))
+                .addJsonObject(doc.getLocalizedText().toJsonObject())
                 .addString(doc.getPhone());
-        params.addUUID(id);
-        return client.withTransaction(tx -> tx.preparedQuery(sql)
+        params.addUUID(id)
+                .addLong(doc.getVersion());
+        return client.preparedQuery(sql)
                 .execute(params)
-                .onItem().transformToUni(result -> {
-                    if (result.rowCount() > 0) {
-                        return getById(id);
-                    } else {
-                        return Uni.createFrom().nullItem();
-                    }
-                })
                 .onFailure().recoverWithUni(throwable -> {
                     LOGGER.error(throwable.getMessage());
                     return Uni.createFrom().failure(new RuntimeException(String.format("Failed to update %s", EMPLOYEE), throwable));
-                }));
+                })
+                .onItem().transformToUni(result -> {
+                    var iterator = result.iterator();
+                    if (!iterator.hasNext()) {
+                        return resolveUpdateFailure(id, doc.getVersion(), entityData, user);
+                    }
+                    return Uni.createFrom().item(from(iterator.next()));
+                });
     }
 
 
@@ -220,12 +256,4 @@ public class EmployeeRepository extends AsyncRepository {
                 }));
     }
 
-    private JsonObject getLocalizedName(EnumMap<LanguageCode, String> localizedName) {
-        try {
-            return new JsonObject(mapper.writeValueAsString(localizedName));
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
 }
@@ -9,6 +9,7 @@ import io.kneo.officeframe.model.Label;
 import io.kneo.officeframe.repository.table.OfficeFrameNameResolver;
 import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
 import io.vertx.mutiny.pgclient.PgPool;
 import io.vertx.mutiny.sqlclient.Row;
@@ -46,10 +47,22 @@ public class LabelRepository extends AsyncRepository {
                 .collect().asList();
     }
 
+    public Uni<Buffer> getAllAsJson(final int limit, final int offset) {
+        return getAllAsJson(entityData, jsonOf("m"), limit, offset, null);
+    }
+
     public Uni<Integer> getAllCount() {
         return getAllCount(entityData.getTableName());
     }
 
+    public Uni<String> getVersion(UUID uuid) {
+        return getVersion(uuid, entityData, null);
+    }
+
+    public Uni<String> getWatermark() {
+        return getWatermark(entityData, null);
+    }
+
     public Uni<List<Label>> getOfCategory(String categoryName) {
         String sql = String.format("SELECT * FROM %s WHERE category=$1", entityData.getTableName());
         return client.preparedQuery(sql)
@@ -87,6 +100,16 @@ public class LabelRepository extends AsyncRepository {
                 });
     }
 
+    public static String jsonForDocument(String labelTable, String idExpression) {
+        return String.format("(SELECT COALESCE(json_agg(%s), '[]'::json) FROM %s ptl JOIN %s rl ON ptl.label_id = rl.id WHERE ptl.id = %s)",
+                jsonOf("rl"), labelTable, entityData.getTableName(), idExpression);
+    }
+
+    private static String jsonOf(String alias) {
+        return String.format("json_build_object(%s, 'identifier', %2$s.identifier, 'localizedName', %2$s.loc_name, " +
+                "'category', %2$s.category, 'parent', %2$s.parent, 'color', %2$s.color, 'hidden', %2$s.hidden)", jsonDefaultFields(alias), alias);
+    }
+
     private Label from(Row row) {
         Label doc = new Label();
         setDefaultFields(doc, row);
@@ -101,10 +124,10 @@ public class LabelRepository extends AsyncRepository {
 
     public Uni<Label> insert(Label doc, IUser user) {
         String sql = String.format("INSERT INTO %s (id, author, reg_date, last_mod_user, last_mod_date, identifier, color, category, parent, hidden, loc_name) " +
-                        "VALUES ($1, $2, $3, $4, $5, $6, $7, $8, $9, $10, $11) RETURNING id",
+                        "VALUES ($1, $2, $3, $4, $5, $6, $7, $8, $9, $10, $11) RETURNING *",
                 entityData.getTableName());
 
-        JsonObject localizedNameJson = JsonObject.mapFrom(doc.getLocalizedName());
+        JsonObject localizedNameJson = doc.getLocalizedText().toJsonObject();
         LocalDateTime now = LocalDateTime.now();
         UUID id = UUID.randomUUID();
 
@@ -122,14 +145,11 @@ public class LabelRepository extends AsyncRepository {
 
         return client.preparedQuery(sql)
                 .execute(params)
-                .onItem().transformToUni(result -> {
-                    UUID generatedId = result.iterator().next().getUUID("id");
-                    return findById(generatedId);
-                });
+                .onItem().transform(result -> from(result.iterator().next()));
     }
 
     public Uni<Label> update(UUID id, Label doc, IUser user) {
-        String sql = String.format("UPDATE %s SET %s=$1, %s=$2, %s=$3, %s=$4, %s=$5, %s=$6, %s=$7, %s=$8 WHERE id=$9",
+        String sql = String.format("UPDATE %s SET %s=$1, %s=$2, %s=$3, %s=$4, %s=$5, %s=$6, %s=$7, %s=$8 WHERE id=$9 RETURNING *",
                 entityData.getTableName(),
                 COLUMN_LAST_MOD_USER,
                 COLUMN_LAST_MOD_DATE,
@@ -140,7 +160,7 @@ public class LabelRepository extends AsyncRepository {
                 "hidden",
                 COLUMN_LOCALIZED_NAME);
 
-        JsonObject localizedNameJson = JsonObject.mapFrom(doc.getLocalizedName());
+        JsonObject localizedNameJson = doc.getLocalizedText().toJsonObject();
         LocalDateTime now = LocalDateTime.now();
 
         Tuple params = Tuple.of(user.getId())
@@ -156,10 +176,11 @@ public class LabelRepository extends AsyncRepository {
         return client.preparedQuery(sql)
                 .execute(params)
                 .onItem().transformToUni(rowSet -> {
-                    if (rowSet.rowCount() == 0) {
+                    var iterator = rowSet.iterator();
+                    if (!iterator.hasNext()) {
                         return Uni.createFrom().failure(new DocumentHasNotFoundException(id));
                     }
-                    return findById(id);
+                    return Uni.createFrom().item(from(iterator.next()));
                 });
     }
 
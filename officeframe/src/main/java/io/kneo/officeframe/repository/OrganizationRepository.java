@@ -1,7 +1,6 @@
 package io.kneo.officeframe.repository;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.kneo.core.localization.LanguageCode;
 import io.kneo.core.model.user.IUser;
 import io.kneo.core.repository.AsyncRepository;
 import io.kneo.core.repository.exception.DocumentHasNotFoundException;
@@ -19,7 +18,6 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
 import java.time.LocalDateTime;
-import java.util.EnumMap;
 import java.util.List;
 import java.util.UUID;
 
@@ -53,6 +51,14 @@ public class OrganizationRepository extends AsyncRepository {
         return getAllCount(entityData.getTableName());
     }
 
+    public Uni<String> getVersion(UUID uuid) {
+        return getVersion(uuid, entityData, null);
+    }
+
+    public Uni<String> getWatermark() {
+        return getWatermark(entityData, null);
+    }
+
     public Uni<List<Organization>> getAllPrimary() {
         String sql = String.format("SELECT * FROM %s t WHERE t.is_primary = true ORDER BY rank", entityData.getTableName());
         return client.query(sql)
@@ -62,7 +68,8 @@ public class OrganizationRepository extends AsyncRepository {
     }
 
     public Uni<Organization> findById(UUID uuid) {
-        return client.preparedQuery(String.format("SELECT * FROM %s WHERE id = $1", entityData.getTableName()))
+        return client.preparedQuery(String.format("SELECT o.*, ARRAY(SELECT ol.label_id FROM %s ol WHERE ol.id = o.id) AS labels " +
+                        "FROM %s o WHERE o.id = $1", entityData.getLabelsName(), entityData.getTableName()))
                 .execute(Tuple.of(uuid))
                 .onItem().transform(RowSet::iterator)
                 .onItem().transform(iterator -> {
@@ -109,7 +116,7 @@ public class OrganizationRepository extends AsyncRepository {
                 COLUMN_RANK,
                 COLUMN_LOCALIZED_NAME);
 
-        JsonObject localizedNameJson = JsonObject.mapFrom(doc.getLocalizedName());
+        JsonObject localizedNameJson = doc.getLocalizedText().toJsonObject();
         LocalDateTime now = LocalDateTime.now();
 
         Tuple params = Tuple.of(user.getId(), now, user.getId(), now)
@@ -119,13 +126,11 @@ public class OrganizationRepository extends AsyncRepository {
                 .addInteger(doc.getRank())
                 .addJsonObject(localizedNameJson);
 
-        return client.preparedQuery(sql)
-                .execute(params)
-                .onItem().transformToUni(result -> {
-                    UUID id = result.iterator().next().getUUID("id");
-                    return findById(id).onItem()
-                            .transform(optionalOrg -> optionalOrg);
-                });
+        return client.withTransaction(tx -> tx.preparedQuery(sql)
+                        .execute(params)
+                        .onItem().transform(result -> result.iterator().next().getUUID("id"))
+                        .onItem().call(id -> syncLinks(tx, entityData.getLabelsName(), "id", "label_id", id, doc.getLabels())))
+                .onItem().transformToUni(this::findById);
     }
 
     public Uni<Organization> update(UUID id, Organization doc, IUser user) {
@@ -139,7 +144,7 @@ public class OrganizationRepository extends AsyncRepository {
                 COLUMN_RANK,
                 COLUMN_LOCALIZED_NAME);
 
-        JsonObject localizedNameJson = JsonObject.mapFrom(doc.getLocalizedName());
+        JsonObject localizedNameJson = doc.getLocalizedText().toJsonObject();
         LocalDateTime now = LocalDateTime.now();
 
         Tuple params = Tuple.of(user.getId(), now)
@@ -150,15 +155,15 @@ public class OrganizationRepository extends AsyncRepository {
                 .addJsonObject(localizedNameJson)
                 .addUUID(id);
 
-        return client.preparedQuery(sql)
-                .execute(params)
-                .onItem().transformToUni(rowSet -> {
-                    if (rowSet.rowCount() == 0) {
-                        return Uni.createFrom().failure(new DocumentHasNotFoundException(id));
-                    }
-                    return findById(id);
-                })
-                .onItem().transform(organization -> organization);
+        return client.withTransaction(tx -> tx.preparedQuery(sql)
+                        .execute(params)
+                        .onItem().transformToUni(rowSet -> {
+                            if (rowSet.rowCount() == 0) {
+                                return Uni.createFrom().failure(new DocumentHasNotFoundException(id));
+                            }
+                            return syncLinks(tx, entityData.getLabelsName(), "id", "label_id", id, doc.getLabels());
+                        }))
+                .onItem().transformToUni(ignored -> findById(id));
     }
 
     public Uni<Integer> delete(UUID id) {
@@ -173,6 +178,11 @@ public class OrganizationRepository extends AsyncRepository {
                 });
     }
 
+    public static String jsonReferenceById(String idExpression) {
+        return String.format("(SELECT json_build_object('id', org.id, 'identifier', org.identifier, 'localizedName', org.loc_name) " +
+                "FROM %s org WHERE org.id = %s)", entityData.getTableName(), idExpression);
+    }
+
     private Organization from(Row row) {
         Organization doc = new Organization();
         setDefaultFields(doc, row);
@@ -180,14 +190,12 @@ public class OrganizationRepository extends AsyncRepository {
         doc.setOrgCategory(row.getUUID(COLUMN_ORG_CATEGORY_ID));
         doc.setBizID(row.getString(COLUMN_BIZ_ID));
         doc.setRank(row.getInteger(COLUMN_RANK));
-
-        JsonObject localizedNameJson = row.getJsonObject(COLUMN_LOCALIZED_NAME);
-        if (localizedNameJson != null) {
-            EnumMap<LanguageCode, String> localizedName = new EnumMap<>(LanguageCode.class);
-            localizedNameJson.getMap().forEach((key, value) -> localizedName.put(LanguageCode.valueOf(key), (String) value));
-            doc.setLocalizedName(localizedName);
+        if (row.getColumnIndex("labels") != -1) {
+            doc.setLabels(List.of(row.getArrayOfUUIDs("labels")));
         }
 
+        setLocalizedNames(doc, row);
+
         return doc;
     }
 }
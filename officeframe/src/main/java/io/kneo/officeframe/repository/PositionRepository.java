@@ -7,6 +7,7 @@ import io.kneo.officeframe.model.Position;
 import io.kneo.officeframe.repository.table.OfficeFrameNameResolver;
 import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.mutiny.pgclient.PgPool;
 import io.vertx.mutiny.sqlclient.Row;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -38,14 +39,35 @@ public class PositionRepository extends AsyncRepository {
                 .onItem().transform(this::from).collect().asList();
     }
 
+    public Uni<Buffer> getAllAsJson(final int limit, final int offset) {
+        return getAllAsJson(entityData, jsonOf("m"), limit, offset, null);
+    }
+
     public Uni<Integer> getAllCount() {
         return getAllCount(entityData.getTableName());
     }
 
+    public Uni<String> getVersion(UUID uuid) {
+        return getVersion(uuid, entityData, null);
+    }
+
+    public Uni<String> getWatermark() {
+        return getWatermark(entityData, null);
+    }
+
     public Uni<Position> findById(UUID uuid) {
         return findById(uuid, entityData, this::from);
     }
 
+    public static String jsonById(String idExpression) {
+        return String.format("(SELECT %s FROM %s pos WHERE pos.id = %s)", jsonOf("pos"), entityData.getTableName(), idExpression);
+    }
+
+    private static String jsonOf(String alias) {
+        return String.format("json_build_object(%s, 'identifier', %2$s.identifier, 'localizedName', %2$s.loc_name)",
+                jsonDefaultFields(alias), alias);
+    }
+
     private Position from(Row row) {
         Position doc = new Position();
         doc.setId(row.getUUID("id"));
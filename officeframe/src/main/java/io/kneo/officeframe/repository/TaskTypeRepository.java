@@ -8,6 +8,7 @@ import io.kneo.officeframe.model.TaskType;
 import io.kneo.officeframe.repository.table.OfficeFrameNameResolver;
 import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.mutiny.pgclient.PgPool;
 import io.vertx.mutiny.sqlclient.Row;
 import io.vertx.mutiny.sqlclient.RowSet;
@@ -40,10 +41,22 @@ public class TaskTypeRepository extends AsyncRepository {
                 .onItem().transform(this::from).collect().asList();
     }
 
+    public Uni<Buffer> getAllAsJson(final int limit, final int offset) {
+        return getAllAsJson(entityData, jsonOf("m"), limit, offset, null);
+    }
+
     public Uni<Integer> getAllCount() {
         return getAllCount(entityData.getTableName());
     }
 
+    public Uni<String> getVersion(UUID uuid) {
+        return getVersion(uuid, entityData, null);
+    }
+
+    public Uni<String> getWatermark() {
+        return getWatermark(entityData, null);
+    }
+
     public Uni<TaskType> findById(UUID uuid) {
         return findById(uuid, entityData, this::from);
     }
@@ -59,6 +72,15 @@ public class TaskTypeRepository extends AsyncRepository {
                 .onItem().transform(iterator -> iterator.hasNext() ? Optional.of(from(iterator.next())) : Optional.empty());
     }
 
+    public static String jsonById(String idExpression) {
+        return String.format("(SELECT %s FROM %s tt WHERE tt.id = %s)", jsonOf("tt"), entityData.getTableName(), idExpression);
+    }
+
+    private static String jsonOf(String alias) {
+        return String.format("json_build_object(%s, 'identifier', %2$s.identifier, 'localizedName', %2$s.loc_name)",
+                jsonDefaultFields(alias), alias);
+    }
+
     private TaskType from(Row row) {
         TaskType doc = new TaskType();
         setDefaultFields(doc, row);
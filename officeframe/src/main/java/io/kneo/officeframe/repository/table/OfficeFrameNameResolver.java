@@ -13,16 +13,19 @@ public class OfficeFrameNameResolver extends TableNameResolver {
     public static final String ORG_CATEGORY = "org_category";
 
     private static final String ORGANIZATION_TABLE_NAME = "__organizations";
+    private static final String ORGANIZATION_LABELS_TABLE_NAME = "__organization_labels";
     private static final String EMPLOYEE_TABLE_NAME = "__employees";
     private static final String DEPARTMENT_TABLE_NAME = "__departments";
     private static final String LABEL_TABLE_NAME = "__labels";
     private static final String POSITION_TABLE_NAME = "__positions";
     private static final String TASK_TYPE_TABLE_NAME = "__task_types";
     private static final String ORG_CATEGORY_TABLE_NAME = "__org_categories";
+    public static final String DEPARTMENT_CLOSURE_TABLE_NAME = String.join(".", DEFAULT_SCHEMA, "__department_closure");
 
     public EntityData getEntityNames(String type) {
         return switch (type) {
-            case ORGANIZATION -> new EntityData(String.join(".", DEFAULT_SCHEMA, ORGANIZATION_TABLE_NAME));
+            case ORGANIZATION -> new EntityData(String.join(".", DEFAULT_SCHEMA, ORGANIZATION_TABLE_NAME), null,
+                    String.join(".", DEFAULT_SCHEMA, ORGANIZATION_LABELS_TABLE_NAME));
             case EMPLOYEE -> new EntityData(String.join(".", DEFAULT_SCHEMA, EMPLOYEE_TABLE_NAME));
             case DEPARTMENT -> new EntityData(String.join(".", DEFAULT_SCHEMA, DEPARTMENT_TABLE_NAME));
             case LABEL -> new EntityData(String.join(".", DEFAULT_SCHEMA, LABEL_TABLE_NAME));
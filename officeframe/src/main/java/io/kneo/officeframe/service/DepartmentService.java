@@ -9,19 +9,26 @@ import io.kneo.core.service.AbstractService;
 import io.kneo.core.service.IRESTService;
 import io.kneo.core.service.UserService;
 import io.kneo.officeframe.dto.DepartmentDTO;
+import io.kneo.officeframe.dto.DepartmentNodeDTO;
 import io.kneo.officeframe.model.Department;
+import io.kneo.officeframe.model.DepartmentTree;
 import io.kneo.officeframe.repository.DepartmentRepository;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class DepartmentService extends AbstractService<Department, DepartmentDTO> implements IRESTService<DepartmentDTO> {
     private final DepartmentRepository repository;
+    private final Map<UUID, DepartmentTree> trees = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
 
     @Inject
     public DepartmentService(UserRepository userRepository, UserService userService, DepartmentRepository repository) {
@@ -49,11 +56,64 @@ public class DepartmentService extends AbstractService<Department, DepartmentDTO
                 });
     }
 
+    public Uni<List<DepartmentDTO>> getSubtree(String id, LanguageCode languageCode) {
+        return repository.getSubtree(UUID.fromString(id)).chain(this::mapToDTOs);
+    }
+
+    public Uni<List<DepartmentDTO>> getAncestors(String id, LanguageCode languageCode) {
+        return repository.getAncestors(UUID.fromString(id)).chain(this::mapToDTOs);
+    }
+
+    public Uni<DepartmentTree> getTree(UUID orgId) {
+        DepartmentTree tree = trees.get(orgId);
+        if (tree != null) {
+            return Uni.createFrom().item(tree);
+        }
+        long loadedAt = generation.get();
+        return repository.getOfOrg(orgId)
+                .onItem().transform(list -> DepartmentTree.of(orgId, list))
+                .invoke(built -> cacheTree(orgId, built, loadedAt));
+    }
+
+    private void cacheTree(UUID orgId, DepartmentTree tree, long loadedAt) {
+        if (generation.get() != loadedAt) {
+            return;
+        }
+        trees.put(orgId, tree);
+        if (generation.get() != loadedAt) {
+            trees.remove(orgId, tree);
+        }
+    }
+
+    private void invalidateTrees() {
+        generation.incrementAndGet();
+        trees.clear();
+    }
+
+    public Uni<List<DepartmentNodeDTO>> getOrgChart(String orgId, LanguageCode languageCode) {
+        return getTree(UUID.fromString(orgId))
+                .onItem().transform(tree -> tree.getRoots().stream().map(this::mapToNode).toList());
+    }
+
+    public Uni<Integer> rebuildHierarchy() {
+        return repository.rebuildHierarchy().invoke(this::invalidateTrees);
+    }
+
     @Override
     public Uni<Integer> getAllCount() {
         return repository.getAllCount();
     }
 
+    @Override
+    public Uni<String> getVersion(UUID id, IUser user) {
+        return repository.getVersion(id);
+    }
+
+    @Override
+    public Uni<String> getWatermark(IUser user) {
+        return repository.getWatermark();
+    }
+
     public Uni<Department> get(UUID uuid) {
         return repository.findById(uuid);
     }
@@ -74,22 +134,40 @@ public class DepartmentService extends AbstractService<Department, DepartmentDTO
 
     public Uni<DepartmentDTO> upsert(String id, DepartmentDTO dto, IUser user, LanguageCode code) {
         Department doc = buildEntity(dto);
-        if (id == null) {
-            return map(repository.insert(doc, AnonymousUser.build()));
+        if (id == null || id.isEmpty()) {
+            return map(repository.insert(doc, AnonymousUser.build()).invoke(this::invalidateTrees));
         } else {
-            return map(repository.update(UUID.fromString(id), doc, user));
+            return map(repository.update(UUID.fromString(id), doc, user).invoke(this::invalidateTrees));
         }
     }
 
     @Override
     public Uni<Integer> delete(String id, IUser user) throws DocumentModificationAccessException {
-        return repository.delete(UUID.fromString(id));
+        return repository.delete(UUID.fromString(id)).invoke(this::invalidateTrees);
     }
 
     private Uni<DepartmentDTO> map(Uni<Department> uniDepartment) {
         return uniDepartment.chain(this::mapToDTO);
     }
 
+    private Uni<List<DepartmentDTO>> mapToDTOs(List<Department> list) {
+        if (list.isEmpty()) {
+            return Uni.createFrom().item(List.of());
+        }
+        return Uni.join().all(list.stream().map(this::mapToDTO).collect(Collectors.toList())).andFailFast();
+    }
+
+    private DepartmentNodeDTO mapToNode(DepartmentTree.Node node) {
+        Department department = node.department();
+        return DepartmentNodeDTO.builder()
+                .id(department.getId())
+                .identifier(department.getIdentifier())
+                .localizedName(department.getLocalizedName())
+                .rank(department.getRank())
+                .children(node.children().stream().map(this::mapToNode).toList())
+                .build();
+    }
+
     private Uni<DepartmentDTO> mapToDTO(Department department) {
         return Uni.combine().all().unis(
                 userRepository.getUserName(department.getAuthor()),
@@ -103,6 +181,9 @@ public class DepartmentService extends AbstractService<Department, DepartmentDTO
                         .lastModifiedDate(department.getLastModifiedDate())
                         .identifier(department.getIdentifier())
                         .rank(department.getRank())
+                        .type(department.getType())
+                        .organization(department.getOrganization())
+                        .leadDepartment(department.getLeadDepartment())
                         .localizedName(department.getLocalizedName())
                         .build()
         );
@@ -112,6 +193,9 @@ public class DepartmentService extends AbstractService<Department, DepartmentDTO
         Department department = new Department();
         department.setIdentifier(dto.getIdentifier());
         department.setRank(dto.getRank());
+        department.setType(dto.getType());
+        department.setOrganization(dto.getOrganization());
+        department.setLeadDepartment(dto.getLeadDepartment());
         department.setLocalizedName(dto.getLocalizedName());
         return department;
     }
@@ -20,7 +20,9 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 @ApplicationScoped
@@ -85,12 +87,34 @@ public class EmployeeService extends AbstractService<Employee, EmployeeDTO> impl
                 ).andFailFast());
     }
 
+    public Uni<List<EmployeeDTO>> getUnderDepartment(String departmentId, LanguageCode languageCode) {
+        assert repository != null;
+        return repository.getUnderDepartment(UUID.fromString(departmentId))
+                .chain(employees -> employees.isEmpty()
+                        ? Uni.createFrom().item(List.<EmployeeDTO>of())
+                        : Uni.join().all(
+                        employees.stream()
+                                .map(this::mapToDTO)
+                                .collect(Collectors.toList())
+                ).andFailFast());
+    }
+
     @Override
     public Uni<Integer> getAllCount() {
         assert repository != null;
         return repository.getAllCount();
     }
 
+    @Override
+    public Uni<String> getVersion(UUID id, IUser user) {
+        return repository.getVersion(id);
+    }
+
+    @Override
+    public Uni<String> getWatermark(IUser user) {
+        return repository.getWatermark();
+    }
+
     @Override
     public Uni<EmployeeDTO> getDTOByIdentifier(String identifier) {
         assert repository != null;
@@ -102,6 +126,18 @@ public class EmployeeService extends AbstractService<Employee, EmployeeDTO> impl
         return repository.getByUserId(id);
     }
 
+    public Uni<Map<Long, EmployeeDTO>> getBriefsByUserIds(Collection<Long> userIds) {
+        assert repository != null;
+        return repository.getByUserIds(userIds)
+                .onItem().transform(employees -> employees.stream()
+                        .collect(Collectors.toMap(Employee::getUserId, doc -> EmployeeDTO.builder()
+                                .id(doc.getId())
+                                .userId(doc.getUserId())
+                                .identifier(doc.getIdentifier())
+                                .localizedName(doc.getLocalizedName())
+                                .build(), (first, second) -> first)));
+    }
+
     @Override
     public Uni<EmployeeDTO> getDTO(UUID id, IUser user, LanguageCode language) {
         Uni<Employee> uni;
@@ -132,6 +168,7 @@ public class EmployeeService extends AbstractService<Employee, EmployeeDTO> impl
         doc.setRoles(null);
         doc.setRank(dto.getRank());
         doc.setBirthDate(dto.getBirthDate());
+        doc.setVersion(dto.getVersion());
 
         assert repository != null;
         if (id == null) {
@@ -163,6 +200,7 @@ public class EmployeeService extends AbstractService<Employee, EmployeeDTO> impl
                     .regDate(doc.getRegDate())
                     .lastModifier(tuple.getItem2())
                     .lastModifiedDate(doc.getLastModifiedDate())
+                    .version(doc.getVersion())
                     .phone(doc.getPhone())
                     .rank(doc.getRank())
                     .position(tuple.getItem3())
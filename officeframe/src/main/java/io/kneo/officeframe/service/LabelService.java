@@ -11,6 +11,7 @@ import io.kneo.officeframe.dto.LabelDTO;
 import io.kneo.officeframe.model.Label;
 import io.kneo.officeframe.repository.LabelRepository;
 import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
@@ -37,10 +38,24 @@ public class LabelService extends AbstractService<Label, LabelDTO> implements IR
                 ).andFailFast());
     }
 
+    public Uni<Buffer> getAllAsJson(final int limit, final int offset) {
+        return repository.getAllAsJson(limit, offset);
+    }
+
     public Uni<Integer> getAllCount() {
         return repository.getAllCount();
     }
 
+    @Override
+    public Uni<String> getVersion(UUID id, IUser user) {
+        return repository.getVersion(id);
+    }
+
+    @Override
+    public Uni<String> getWatermark(IUser user) {
+        return repository.getWatermark();
+    }
+
     public Uni<List<LabelDTO>> getOfCategory(String categoryName, LanguageCode languageCode) {
         return repository.getOfCategory(categoryName)
                 .chain(labels -> Uni.join().all(
@@ -11,6 +11,7 @@ import io.kneo.officeframe.model.OrgCategory;
 import io.kneo.officeframe.model.Position;
 import io.kneo.officeframe.repository.OrgCategoryRepository;
 import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
@@ -38,12 +39,26 @@ public class OrgCategoryService extends AbstractService<OrgCategory, OrgCategory
                 ).andFailFast());
     }
 
+    public Uni<Buffer> getAllAsJson(final int limit, final int offset) {
+        return repository.getAllAsJson(limit, offset);
+    }
+
     @Override
     @SuppressWarnings("ConstantConditions")
     public Uni<Integer> getAllCount() {
         return repository.getAllCount();
     }
 
+    @Override
+    public Uni<String> getVersion(UUID id, IUser user) {
+        return repository.getVersion(id);
+    }
+
+    @Override
+    public Uni<String> getWatermark(IUser user) {
+        return repository.getWatermark();
+    }
+
     @Override
     public Uni<OrgCategoryDTO> getDTOByIdentifier(String identifier) {
         return Uni.createFrom().item(null);
@@ -49,6 +49,16 @@ public class OrganizationService extends AbstractService<Organization, Organizat
         return repository.getAllCount();
     }
 
+    @Override
+    public Uni<String> getVersion(UUID id, IUser user) {
+        return repository.getVersion(id);
+    }
+
+    @Override
+    public Uni<String> getWatermark(IUser user) {
+        return repository.getWatermark();
+    }
+
     public Uni<List<OrganizationDTO>> getPrimary(LanguageCode languageCode) {
         return repository.getAllPrimary()
                 .chain(list -> Uni.join().all(
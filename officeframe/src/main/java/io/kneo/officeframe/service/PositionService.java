@@ -11,6 +11,7 @@ import io.kneo.officeframe.dto.PositionDTO;
 import io.kneo.officeframe.model.Position;
 import io.kneo.officeframe.repository.PositionRepository;
 import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
 import jakarta.enterprise.context.ApplicationScoped;
 
 import java.util.List;
@@ -35,11 +36,25 @@ public class PositionService extends AbstractService<Position, PositionDTO> impl
                 ).andFailFast());
     }
 
+    public Uni<Buffer> getAllAsJson(final int limit, final int offset) {
+        return repository.getAllAsJson(limit, offset);
+    }
+
     @Override
     public Uni<Integer> getAllCount() {
         return repository.getAllCount();
     }
 
+    @Override
+    public Uni<String> getVersion(UUID id, IUser user) {
+        return repository.getVersion(id);
+    }
+
+    @Override
+    public Uni<String> getWatermark(IUser user) {
+        return repository.getWatermark();
+    }
+
     @Override
     public Uni<PositionDTO> getDTOByIdentifier(String identifier) {
         return null;
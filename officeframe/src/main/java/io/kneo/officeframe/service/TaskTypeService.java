@@ -11,6 +11,7 @@ import io.kneo.officeframe.dto.TaskTypeDTO;
 import io.kneo.officeframe.model.TaskType;
 import io.kneo.officeframe.repository.TaskTypeRepository;
 import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
@@ -43,10 +44,24 @@ public class TaskTypeService extends AbstractService<TaskType, TaskTypeDTO> impl
         return repository.findByIdentifier(identifier).chain(this::mapToDTO);
     }
 
+    public Uni<Buffer> getAllAsJson(final int limit, final int offset) {
+        return repository.getAllAsJson(limit, offset);
+    }
+
     public Uni<Integer> getAllCount() {
         return repository.getAllCount();
     }
 
+    @Override
+    public Uni<String> getVersion(UUID id, IUser user) {
+        return repository.getVersion(id);
+    }
+
+    @Override
+    public Uni<String> getWatermark(IUser user) {
+        return repository.getWatermark();
+    }
+
     public Uni<TaskType> getById(UUID uuid) {
         return repository.findById(uuid);
     }
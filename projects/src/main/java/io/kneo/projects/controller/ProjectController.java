@@ -2,6 +2,7 @@ package io.kneo.projects.controller;
 
 import io.kneo.core.controller.AbstractSecuredController;
 import io.kneo.core.dto.actions.ActionBox;
+import io.kneo.core.dto.actions.CachedActionBox;
 import io.kneo.core.dto.cnst.PayloadType;
 import io.kneo.core.dto.form.FormPage;
 import io.kneo.core.dto.view.View;
@@ -15,10 +16,10 @@ import io.kneo.projects.dto.ProjectDTO;
 import io.kneo.projects.dto.actions.ProjectActionsFactory;
 import io.kneo.projects.model.Project;
 import io.kneo.projects.service.ProjectService;
+import io.kneo.projects.service.TaskService;
 import io.quarkus.vertx.web.Route;
 import io.quarkus.vertx.web.RouteBase;
 import io.smallrye.mutiny.Uni;
-import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.RoutingContext;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.inject.Inject;
@@ -33,6 +34,9 @@ public class ProjectController extends AbstractSecuredController<Project, Projec
     @Inject
     ProjectService service;
 
+    @Inject
+    TaskService taskService;
+
     public ProjectController(UserService userService) {
         super(userService);
     }
@@ -58,10 +62,10 @@ public class ProjectController extends AbstractSecuredController<Project, Projec
                     View<ProjectDTO> dtoEntries = new View<>(projects, count, page, maxPage, size);
                     viewPage.addPayload(PayloadType.VIEW_DATA, dtoEntries);
 
-                    ActionBox actions = ProjectActionsFactory.getViewActions(user.getActivatedRoles());
+                    CachedActionBox actions = ProjectActionsFactory.getCachedViewActions(user.getActivatedRoles(), resolveLanguage(rc));
                     viewPage.addPayload(PayloadType.CONTEXT_ACTIONS, actions);
 
-                    rc.response().setStatusCode(200).end(JsonObject.mapFrom(viewPage).encode());
+                    sendJson(rc, 200, viewPage);
                 },
                 failure -> {
                     LOGGER.error("Error processing request: ", failure);
@@ -77,7 +81,7 @@ public class ProjectController extends AbstractSecuredController<Project, Projec
                 projects -> {
                     ViewPage viewPage = new ViewPage();
                     viewPage.addPayload(PayloadType.VIEW_DATA, projects);
-                    rc.response().setStatusCode(200).end(JsonObject.mapFrom(viewPage).encode());
+                    sendJson(rc, 200, viewPage);
                 },
                 failure -> {
                     LOGGER.error("Error processing request: ", failure);
@@ -96,7 +100,7 @@ public class ProjectController extends AbstractSecuredController<Project, Projec
                     FormPage page = new FormPage();
                     page.addPayload(PayloadType.DOC_DATA, project);
                     page.addPayload(PayloadType.CONTEXT_ACTIONS, new ActionBox());
-                    rc.response().setStatusCode(200).end(JsonObject.mapFrom(page).encode());
+                    sendJson(rc, 200, page);
                 },
                 failure -> {
                     if (failure instanceof DocumentHasNotFoundException) {
@@ -109,11 +113,19 @@ public class ProjectController extends AbstractSecuredController<Project, Projec
         );
     }
 
+    @Route(path = "/:id/rollup", methods = Route.HttpMethod.GET, produces = "application/json")
+    public void getRollup(RoutingContext rc) {
+        UUID id = UUID.fromString(rc.pathParam("id"));
+        taskService.getProjectRollup(id, getUser(rc)).subscribe().with(
+                rollup -> sendJson(rc, 200, rollup),
+                rc::fail
+        );
+    }
+
     @Route(path = "/:id", methods = Route.HttpMethod.POST, consumes = "application/json", produces = "application/json")
     public void upsert(RoutingContext rc) {
         String id = rc.pathParam("id");
-        JsonObject jsonObject = rc.body().asJsonObject();
-        ProjectDTO dto = jsonObject.mapTo(ProjectDTO.class);
+        ProjectDTO dto = readBody(rc, ProjectDTO.class);
         service.upsert(id, dto, getUser(rc), resolveLanguage(rc))
                 .subscribe().with(
                         createdProjectId -> rc.response().setStatusCode(200).end(createdProjectId.toString()),
@@ -1,9 +1,8 @@
 package io.kneo.projects.controller;
 
 import io.kneo.core.controller.AbstractSecuredController;
-import io.kneo.core.dto.actions.ActionBox;
+import io.kneo.core.dto.actions.CachedActionBox;
 import io.kneo.core.dto.cnst.PayloadType;
-import io.kneo.core.dto.form.FormPage;
 import io.kneo.core.dto.view.View;
 import io.kneo.core.dto.view.ViewPage;
 import io.kneo.core.localization.LanguageCode;
@@ -18,7 +17,7 @@ import io.kneo.projects.model.Task;
 import io.kneo.projects.service.TaskService;
 import io.quarkus.vertx.web.Route;
 import io.quarkus.vertx.web.RouteBase;
-import io.vertx.core.json.JsonObject;
+import io.smallrye.mutiny.Uni;
 import io.vertx.ext.web.RoutingContext;
 import jakarta.inject.Inject;
 
@@ -28,6 +27,7 @@ import static io.kneo.core.util.RuntimeUtil.countMaxPage;
 
 @RouteBase(path = "/api/:org/tasks")
 public final class TaskController extends AbstractSecuredController<Task, TaskDTO> {
+    private static final int MAX_BOARD_COLUMN_SIZE = 100;
     TaskService service;
 
     @Inject
@@ -46,10 +46,17 @@ public final class TaskController extends AbstractSecuredController<Task, TaskDT
                 .assignee(rc.request().getParam("assignee"))
                 .startDate(rc.request().getParam("startDate"))
                 .endDate(rc.request().getParam("endDate"))
+                .labels(rc.request().getParam("labels"))
+                .archived(Boolean.parseBoolean(rc.request().getParam("archived")))
                 .build();
 
         IUser user = getUser(rc);
+        // archived pages are read from the archive table, which the watermark does not cover
+        Uni<String> watermark = filter.isArchived() ? Uni.createFrom().nullItem() : service.getWatermark(user);
+        conditional(rc, watermark, ctx -> renderAll(ctx, page, size, filter, user));
+    }
 
+    private void renderAll(RoutingContext rc, int page, int size, TaskFilter filter, IUser user) {
         service.getAllCount(user, filter)
                 .onItem().transformToUni(count -> {
                     int maxPage = countMaxPage(count, size);
@@ -59,46 +66,70 @@ public final class TaskController extends AbstractSecuredController<Task, TaskDT
                     return service.getAll(size, offset, user, filter)
                             .onItem().transform(dtoList -> {
                                 ViewPage viewPage = new ViewPage();
-                                viewPage.addPayload(PayloadType.CONTEXT_ACTIONS, TaskActionsFactory.getViewActions(languageCode));
+                                viewPage.addPayload(PayloadType.CONTEXT_ACTIONS, TaskActionsFactory.getCachedViewActions(languageCode));
                                 View<TaskDTO> dtoEntries = new View<>(dtoList, count, pageNum, maxPage, size);
                                 viewPage.addPayload(PayloadType.VIEW_DATA, dtoEntries);
                                 return viewPage;
                             });
                 })
                 .subscribe().with(
-                        viewPage -> rc.response().setStatusCode(200).end(JsonObject.mapFrom(viewPage).encode()),
+                        viewPage -> sendConditionalJson(rc, viewPage),
                         rc::fail
                 );
     }
 
+    @Route(path = "/board/:project", methods = Route.HttpMethod.GET, produces = "application/json")
+    public void getBoard(RoutingContext rc) throws UserNotFoundException {
+        UUID projectId = UUID.fromString(rc.pathParam("project"));
+        int limit = Math.min(Math.max(Integer.parseInt(rc.request().getParam("limit", "20")), 1), MAX_BOARD_COLUMN_SIZE);
+        IUser user = getUser(rc);
+        conditional(rc, service.getBoardWatermark(projectId, user), (ctx, watermark) -> service.getBoard(projectId, limit, watermark, user, resolveLanguage(ctx))
+                .subscribe().with(
+                        board -> sendJson(ctx, 200, board),
+                        ctx::fail
+                ));
+    }
+
     @Route(path = "/:id", methods = Route.HttpMethod.GET, produces = "application/json")
     public void getById(RoutingContext rc) throws UserNotFoundException {
-        FormPage page = new FormPage();
-        page.addPayload(PayloadType.CONTEXT_ACTIONS, new ActionBox());
-        service.getDTO(UUID.fromString(rc.pathParam("id")), getUser(rc), resolveLanguage(rc))
-                .onItem().transform(dto -> {
-                    page.addPayload(PayloadType.DOC_DATA, dto);
-                    return page;
-                })
+        UUID id = UUID.fromString(rc.pathParam("id"));
+        IUser user = getUser(rc);
+        conditional(rc, service.getVersion(id, user), ctx -> renderById(ctx, id, user));
+    }
+
+    private void renderById(RoutingContext rc, UUID id, IUser user) {
+        service.getDocument(id, user)
+                .subscribe().with(
+                        doc -> sendConditional(rc, toFormPageBuffer(CachedActionBox.EMPTY, doc)),
+                        rc::fail
+                );
+    }
+
+    @Route(path = "/:id/tree", methods = Route.HttpMethod.GET, produces = "application/json")
+    public void getTree(RoutingContext rc) throws UserNotFoundException {
+        UUID id = UUID.fromString(rc.pathParam("id"));
+        service.getTree(id, getUser(rc))
                 .subscribe().with(
-                        formPage -> rc.response().setStatusCode(200).end(JsonObject.mapFrom(formPage).encode()),
+                        tree -> sendJson(rc, 200, tree),
+                        rc::fail
+                );
+    }
+
+    @Route(path = "/:id/rollup", methods = Route.HttpMethod.GET, produces = "application/json")
+    public void getRollup(RoutingContext rc) throws UserNotFoundException {
+        UUID id = UUID.fromString(rc.pathParam("id"));
+        service.getRollup(id, getUser(rc))
+                .subscribe().with(
+                        rollup -> sendJson(rc, 200, rollup),
                         rc::fail
                 );
     }
 
     @Route(path = "/:id?", methods = Route.HttpMethod.POST, consumes = "application/json", produces = "application/json")
     public void upsert(RoutingContext rc) {
-        JsonObject jsonObject = rc.body().asJsonObject();
-        TaskDTO dto = jsonObject.mapTo(TaskDTO.class);
+        TaskDTO dto = readBody(rc, TaskDTO.class);
         String id = rc.pathParam("id");
-        service.upsert(id, dto, getUser(rc), resolveLanguage(rc))
-                .subscribe()
-                .with(task -> {
-                            int statusCode = id.isEmpty() ? 201 : 200;
-                            rc.response().setStatusCode(statusCode).end(JsonObject.mapFrom(task).encode());
-                        },
-                        rc::fail
-                );
+        idempotent(rc, id.isEmpty() ? 201 : 200, () -> service.upsert(id, dto, getUser(rc), resolveLanguage(rc)));
     }
 
     @Route(path = "/:id", methods = Route.HttpMethod.DELETE, produces = "application/json")
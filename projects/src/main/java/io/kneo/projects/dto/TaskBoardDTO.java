@@ -0,0 +1,20 @@
+package io.kneo.projects.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.kneo.projects.model.cnst.TaskStatus;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.UUID;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Getter
+@Builder
+public class TaskBoardDTO {
+    private UUID project;
+    private String watermark;
+    private List<Column> columns;
+
+    public record Column(TaskStatus status, int count, List<TaskDTO> tasks) {}
+}
@@ -58,8 +58,11 @@ public class TaskDTO extends AbstractDTO {
     int priority;
     @JsonView(Views.DetailView.class)
     private String cancellationComment;
+    /**
+     * Null when the field is omitted, which leaves the task's labels untouched; an empty list clears them.
+     */
     @JsonView(Views.DetailView.class)
-    List<LabelDTO> labels = new ArrayList<>();
+    List<LabelDTO> labels;
     @JsonView(Views.DetailView.class)
     List<RLSDTO> rls = new ArrayList<>();
 
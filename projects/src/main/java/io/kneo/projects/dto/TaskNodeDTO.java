@@ -0,0 +1,27 @@
+package io.kneo.projects.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@Getter
+@Builder
+public class TaskNodeDTO {
+    private UUID id;
+    private String regNumber;
+    private String title;
+    private Long assignee;
+    private int status;
+    private int priority;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd.MM.yyyy")
+    private LocalDate targetDate;
+    private int depth;
+    private TaskRollupDTO rollup;
+    private List<TaskNodeDTO> children;
+}
@@ -0,0 +1,31 @@
+package io.kneo.projects.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.kneo.projects.model.TaskRollup;
+import io.kneo.projects.model.cnst.TaskStatus;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Getter
+@Builder
+public class TaskRollupDTO {
+    private Map<TaskStatus, Integer> counts;
+    private int total;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd.MM.yyyy")
+    private LocalDate maxTargetDate;
+    private int percentDone;
+
+    public static TaskRollupDTO of(TaskRollup rollup) {
+        return TaskRollupDTO.builder()
+                .counts(rollup.getCounts())
+                .total(rollup.getTotal())
+                .maxTargetDate(rollup.getMaxTargetDate())
+                .percentDone(rollup.getPercentDone())
+                .build();
+    }
+}
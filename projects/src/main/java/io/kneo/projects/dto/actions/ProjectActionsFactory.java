@@ -1,16 +1,19 @@
 package io.kneo.projects.dto.actions;
 
 import io.kneo.core.dto.actions.ActionsFactory;
+import io.kneo.core.dto.actions.CachedActionBox;
 import io.kneo.core.dto.actions.ActionBox;
+import io.kneo.core.dto.actions.ActionBoxCache;
 import io.kneo.core.localization.LanguageCode;
 import io.kneo.core.model.user.IRole;
 
 import java.util.List;
 
 public class ProjectActionsFactory {
+    private static final String MODULE = "projects";
 
-    public static ActionBox getViewActions(List<IRole> activatedRoles) {
-        ActionBox actions = ActionsFactory.getDefaultViewActions(LanguageCode.ENG);
+    public static ActionBox getViewActions(List<IRole> activatedRoles, LanguageCode lang) {
+        ActionBox actions = ActionsFactory.getDefaultViewActions(lang);
         /*Action action = new Action();
         action.setIsOn(RunMode.ON);
         action.setCaption("new_project");
@@ -18,4 +21,7 @@ public class ProjectActionsFactory {
         return actions;
     }
 
+    public static CachedActionBox getCachedViewActions(List<IRole> activatedRoles, LanguageCode lang) {
+        return ActionBoxCache.get(MODULE, "project_view", lang, activatedRoles, () -> getViewActions(activatedRoles, lang));
+    }
 }
@@ -2,11 +2,15 @@ package io.kneo.projects.dto.actions;
 
 import io.kneo.core.dto.actions.Action;
 import io.kneo.core.dto.actions.ActionBox;
+import io.kneo.core.dto.actions.ActionBoxCache;
 import io.kneo.core.dto.actions.ActionsFactory;
+import io.kneo.core.dto.actions.CachedActionBox;
 import io.kneo.core.dto.cnst.RunMode;
 import io.kneo.core.localization.LanguageCode;
 
 public class TaskActionsFactory {
+    private static final String MODULE = "projects";
+
     public static ActionBox getViewActions(LanguageCode lang) {
         ActionBox actions = ActionsFactory.getDefaultViewActions(lang);
         Action action = new Action();
@@ -16,4 +20,7 @@ public class TaskActionsFactory {
         return actions;
     }
 
+    public static CachedActionBox getCachedViewActions(LanguageCode lang) {
+        return ActionBoxCache.get(MODULE, "task_view", lang, () -> getViewActions(lang));
+    }
 }
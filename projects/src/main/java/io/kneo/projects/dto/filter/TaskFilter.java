@@ -17,4 +17,6 @@ public class TaskFilter {
     private String assignee;
     private String startDate;
     private String endDate;
+    private String labels;
+    private boolean archived;
 }
\ No newline at end of file
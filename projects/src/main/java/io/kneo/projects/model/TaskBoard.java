@@ -0,0 +1,47 @@
+package io.kneo.projects.model;
+
+import io.kneo.projects.model.cnst.TaskStatus;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+@Getter
+public final class TaskBoard {
+    private final Map<TaskStatus, Column> columns;
+
+    public record Entry(Task task, int statusCount) {}
+
+    public record Column(TaskStatus status, int count, List<Task> tasks) {}
+
+    private TaskBoard(Map<TaskStatus, Column> columns) {
+        this.columns = columns;
+    }
+
+    public static TaskBoard of(List<Entry> entries) {
+        Map<TaskStatus, Integer> counts = new EnumMap<>(TaskStatus.class);
+        Map<TaskStatus, List<Task>> tasks = new EnumMap<>(TaskStatus.class);
+        for (Entry entry : entries) {
+            TaskStatus status = TaskStatus.getType(entry.task().getStatus());
+            counts.put(status, entry.statusCount());
+            tasks.computeIfAbsent(status, k -> new ArrayList<>()).add(entry.task());
+        }
+        Map<TaskStatus, Column> columns = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.getActualValues()) {
+            columns.put(status, new Column(status, counts.getOrDefault(status, 0), List.copyOf(tasks.getOrDefault(status, List.of()))));
+        }
+        if (counts.containsKey(TaskStatus.UNKNOWN)) {
+            columns.put(TaskStatus.UNKNOWN, new Column(TaskStatus.UNKNOWN, counts.get(TaskStatus.UNKNOWN), List.copyOf(tasks.get(TaskStatus.UNKNOWN))));
+        }
+        return new TaskBoard(Collections.unmodifiableMap(columns));
+    }
+
+    public List<Task> getTasks() {
+        List<Task> all = new ArrayList<>();
+        columns.values().forEach(column -> all.addAll(column.tasks()));
+        return all;
+    }
+}
@@ -0,0 +1,51 @@
+package io.kneo.projects.model;
+
+import io.kneo.projects.model.cnst.TaskStatus;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Getter
+public final class TaskRollup {
+    public static final TaskRollup EMPTY = new TaskRollup(new EnumMap<>(TaskStatus.class), 0, null);
+
+    private final Map<TaskStatus, Integer> counts;
+    private final int total;
+    private final LocalDate maxTargetDate;
+
+    private TaskRollup(EnumMap<TaskStatus, Integer> counts, int total, LocalDate maxTargetDate) {
+        this.counts = Collections.unmodifiableMap(counts);
+        this.total = total;
+        this.maxTargetDate = maxTargetDate;
+    }
+
+    public static TaskRollup of(Integer[] statuses, Integer[] counts, LocalDate maxTargetDate) {
+        if (statuses == null || statuses.length == 0) {
+            return EMPTY;
+        }
+        EnumMap<TaskStatus, Integer> byStatus = new EnumMap<>(TaskStatus.class);
+        int total = 0;
+        for (int i = 0; i < statuses.length; i++) {
+            int count = counts[i];
+            if (count > 0) {
+                byStatus.merge(TaskStatus.getType(statuses[i]), count, Integer::sum);
+                total += count;
+            }
+        }
+        return new TaskRollup(byStatus, total, maxTargetDate);
+    }
+
+    public int getCount(TaskStatus status) {
+        return counts.getOrDefault(status, 0);
+    }
+
+    public int getPercentDone() {
+        if (total == 0) {
+            return 0;
+        }
+        return (getCount(TaskStatus.COMPLETED) + getCount(TaskStatus.MERGED)) * 100 / total;
+    }
+}
@@ -0,0 +1,48 @@
+package io.kneo.projects.model;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Getter
+public final class TaskTree {
+    private final Node root;
+    private final int size;
+
+    public record Entry(Task task, int depth, TaskRollup rollup) {}
+
+    public record Node(Task task, int depth, TaskRollup rollup, List<Node> children) {}
+
+    private TaskTree(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    public static TaskTree of(UUID rootId, List<Entry> entries) {
+        Map<UUID, List<Entry>> childrenOf = new HashMap<>();
+        Entry top = null;
+        for (Entry entry : entries) {
+            if (entry.task().getId().equals(rootId)) {
+                top = entry;
+            } else {
+                childrenOf.computeIfAbsent(entry.task().getParent(), k -> new ArrayList<>()).add(entry);
+            }
+        }
+        if (top == null) {
+            return null;
+        }
+        return new TaskTree(build(top, childrenOf), entries.size());
+    }
+
+    private static Node build(Entry entry, Map<UUID, List<Entry>> childrenOf) {
+        List<Node> children = new ArrayList<>();
+        for (Entry child : childrenOf.getOrDefault(entry.task().getId(), List.of())) {
+            children.add(build(child, childrenOf));
+        }
+        return new Node(entry.task(), entry.depth(), entry.rollup(), List.copyOf(children));
+    }
+}
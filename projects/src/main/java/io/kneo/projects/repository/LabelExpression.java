@@ -0,0 +1,157 @@
+package io.kneo.projects.repository;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Boolean label query such as {@code bug AND backend AND NOT wontfix}. NOT binds tighter than AND,
+ * AND tighter than OR, parentheses group.
+ */
+final class LabelExpression {
+    private final Node root;
+    private final Set<String> identifiers;
+
+    private sealed interface Node permits Label, Not, And, Or {}
+
+    private record Label(String identifier) implements Node {}
+
+    private record Not(Node operand) implements Node {}
+
+    private record And(Node left, Node right) implements Node {}
+
+    private record Or(Node left, Node right) implements Node {}
+
+    private LabelExpression(Node root, Set<String> identifiers) {
+        this.root = root;
+        this.identifiers = identifiers;
+    }
+
+    static LabelExpression parse(String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("Label expression is empty");
+        }
+        Parser parser = new Parser(tokenize(expression));
+        Node root = parser.or();
+        if (parser.position < parser.tokens.size()) {
+            throw new IllegalArgumentException("Unexpected \"" + parser.tokens.get(parser.position) + "\" in label expression");
+        }
+        return new LabelExpression(root, parser.identifiers);
+    }
+
+    Set<String> identifiers() {
+        return identifiers;
+    }
+
+    BitSet evaluate(Function<String, BitSet> labels, BitSet universe) {
+        BitSet result = evaluate(root, labels, universe);
+        result.and(universe);
+        return result;
+    }
+
+    private static BitSet evaluate(Node node, Function<String, BitSet> labels, BitSet universe) {
+        return switch (node) {
+            case Label label -> (BitSet) labels.apply(label.identifier()).clone();
+            case Not not -> {
+                BitSet result = (BitSet) universe.clone();
+                result.andNot(evaluate(not.operand(), labels, universe));
+                yield result;
+            }
+            case And and -> {
+                BitSet result = evaluate(and.left(), labels, universe);
+                result.and(evaluate(and.right(), labels, universe));
+                yield result;
+            }
+            case Or or -> {
+                BitSet result = evaluate(or.left(), labels, universe);
+                result.or(evaluate(or.right(), labels, universe));
+                yield result;
+            }
+        };
+    }
+
+    private static List<String> tokenize(String expression) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (char c : expression.toCharArray()) {
+            if (c == '(' || c == ')' || Character.isWhitespace(c)) {
+                if (!current.isEmpty()) {
+                    tokens.add(current.toString());
+                    current.setLength(0);
+                }
+                if (!Character.isWhitespace(c)) {
+                    tokens.add(String.valueOf(c));
+                }
+            } else {
+                current.append(c);
+            }
+        }
+        if (!current.isEmpty()) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    private static class Parser {
+        private final List<String> tokens;
+        private final Set<String> identifiers = new LinkedHashSet<>();
+        private int position;
+
+        Parser(List<String> tokens) {
+            this.tokens = tokens;
+        }
+
+        Node or() {
+            Node node = and();
+            while (accept("OR")) {
+                node = new Or(node, and());
+            }
+            return node;
+        }
+
+        Node and() {
+            Node node = not();
+            while (accept("AND")) {
+                node = new And(node, not());
+            }
+            return node;
+        }
+
+        Node not() {
+            if (accept("NOT")) {
+                return new Not(not());
+            }
+            if (accept("(")) {
+                Node node = or();
+                if (!accept(")")) {
+                    throw new IllegalArgumentException("Missing \")\" in label expression");
+                }
+                return node;
+            }
+            if (position >= tokens.size()) {
+                throw new IllegalArgumentException("Label expression ends unexpectedly");
+            }
+            String token = tokens.get(position++);
+            if (token.equals(")") || isOperator(token)) {
+                throw new IllegalArgumentException("Unexpected \"" + token + "\" in label expression");
+            }
+            identifiers.add(token);
+            return new Label(token);
+        }
+
+        private boolean accept(String token) {
+            if (position < tokens.size() && tokens.get(position).equalsIgnoreCase(token)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private static boolean isOperator(String token) {
+            return token.equalsIgnoreCase("AND") || token.equalsIgnoreCase("OR") || token.equalsIgnoreCase("NOT");
+        }
+    }
+}
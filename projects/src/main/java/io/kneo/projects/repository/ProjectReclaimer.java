@@ -0,0 +1,223 @@
+package io.kneo.projects.repository;
+
+import io.kneo.core.repository.table.EntityData;
+import io.kneo.projects.repository.table.ProjectNameResolver;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.SqlClient;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+import static io.kneo.projects.repository.table.ProjectNameResolver.PROJECT;
+import static io.kneo.projects.repository.table.ProjectNameResolver.TASK;
+import static io.kneo.projects.repository.table.ProjectNameResolver.TASK_ARCHIVE;
+import static io.kneo.projects.repository.table.ProjectNameResolver.TASK_ROLLUP_TABLE_NAME;
+
+/**
+ * Removes soft-deleted projects together with their live and archived tasks, reader rows, label links and roll-ups.
+ * Tasks go leaves first in bounded batches with a pause between them, so no transaction holds many locks.
+ * With an archive directory every batch is appended to a gzipped NDJSON file of the project before it is deleted.
+ */
+@ApplicationScoped
+public class ProjectReclaimer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProjectReclaimer.class);
+    private static final EntityData projectData = ProjectNameResolver.create().getEntityNames(PROJECT);
+    private static final EntityData taskData = ProjectNameResolver.create().getEntityNames(TASK);
+    private static final EntityData archiveData = ProjectNameResolver.create().getEntityNames(TASK_ARCHIVE);
+
+    @Inject
+    PgPool client;
+
+    @Inject
+    Vertx vertx;
+
+    @Inject
+    TaskLabelIndex labelIndex;
+
+    @ConfigProperty(name = "kneo.projects.reclaim.interval", defaultValue = "60")
+    long interval;
+
+    @ConfigProperty(name = "kneo.projects.reclaim.batch-size", defaultValue = "500")
+    int batchSize;
+
+    @ConfigProperty(name = "kneo.projects.reclaim.pause", defaultValue = "200")
+    long pause;
+
+    @ConfigProperty(name = "kneo.projects.reclaim.archive-dir")
+    Optional<String> archiveDir;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    void onStart(@Observes StartupEvent ev) {
+        if (interval > 0) {
+            vertx.setPeriodic(interval * 1000, id -> reclaim().subscribe().with(
+                    count -> {
+                        if (count > 0) {
+                            LOGGER.info("Reclaimed {} deleted projects", count);
+                        }
+                    },
+                    failure -> LOGGER.warn("Project reclamation failed: {}", failure.getMessage())
+            ));
+        }
+    }
+
+    public Uni<Integer> reclaim() {
+        if (!running.compareAndSet(false, true)) {
+            return Uni.createFrom().item(0);
+        }
+        String sql = String.format("SELECT id FROM %s WHERE deleted_at IS NOT NULL ORDER BY deleted_at", projectData.getTableName());
+        return client.query(sql)
+                .execute()
+                .onItem().transformToUni(rows -> {
+                    List<UUID> projects = new ArrayList<>();
+                    rows.forEach(row -> projects.add(row.getUUID("id")));
+                    return reclaimProjects(projects, 0);
+                })
+                .onTermination().invoke(() -> running.set(false));
+    }
+
+    private Uni<Integer> reclaimProjects(List<UUID> projects, int done) {
+        if (done == projects.size()) {
+            return Uni.createFrom().item(done);
+        }
+        UUID project = projects.get(done);
+        return detachForeignChildren(project)
+                .onItem().transformToUni(ignored -> reclaimTasks(project, taskData, 0))
+                .onItem().transformToUni(live -> reclaimTasks(project, archiveData, live))
+                .onItem().transformToUni(tasks -> removeProject(project)
+                        .onItem().invoke(() -> LOGGER.info("Project {} is reclaimed, {} tasks removed", project, tasks)))
+                .onItem().transformToUni(ignored -> reclaimProjects(projects, done + 1));
+    }
+
+    private Uni<Void> detachForeignChildren(UUID project) {
+        String owned = String.format("SELECT id FROM %s WHERE project_id = $1 UNION ALL SELECT id FROM %s WHERE project_id = $1",
+                taskData.getTableName(), archiveData.getTableName());
+        String live = String.format("UPDATE %s SET parent_id = NULL WHERE project_id <> $1 AND parent_id IN (%s)", taskData.getTableName(), owned);
+        String archived = String.format("UPDATE %s SET parent_id = NULL WHERE project_id <> $1 AND parent_id IN (%s)", archiveData.getTableName(), owned);
+        return client.preparedQuery(live).execute(Tuple.of(project))
+                .onItem().transformToUni(ignored -> client.preparedQuery(archived).execute(Tuple.of(project)))
+                .replaceWithVoid();
+    }
+
+    private Uni<Integer> reclaimTasks(UUID project, EntityData data, int total) {
+        return client.withTransaction(tx -> removeTaskBatch(tx, project, data))
+                .onItem().transformToUni(removed -> {
+                    if (removed.isEmpty()) {
+                        return Uni.createFrom().item(total);
+                    }
+                    removed.forEach(labelIndex::remove);
+                    return Uni.createFrom().voidItem()
+                            .onItem().delayIt().by(Duration.ofMillis(pause))
+                            .onItem().transformToUni(ignored -> reclaimTasks(project, data, total + removed.size()));
+                });
+    }
+
+    private Uni<List<UUID>> removeTaskBatch(SqlClient tx, UUID project, EntityData data) {
+        String sql = String.format("SELECT t.id FROM %1$s t WHERE t.project_id = $1 " +
+                "AND NOT EXISTS (SELECT 1 FROM %1$s c WHERE c.parent_id = t.id) LIMIT $2 FOR UPDATE SKIP LOCKED", data.getTableName());
+        return tx.preparedQuery(sql)
+                .execute(Tuple.of(project, batchSize))
+                .onItem().transform(rows -> {
+                    List<UUID> ids = new ArrayList<>();
+                    rows.forEach(row -> ids.add(row.getUUID("id")));
+                    return ids;
+                })
+                .onItem().call(ids -> {
+                    if (ids.isEmpty()) {
+                        return Uni.createFrom().voidItem();
+                    }
+                    UUID[] batch = ids.toArray(new UUID[0]);
+                    return archiveTasks(tx, project, data, batch)
+                            .onItem().transformToUni(ignored -> deleteAll(tx, batch,
+                                    String.format("DELETE FROM %s WHERE entity_id = ANY($1)", data.getRlsName()),
+                                    String.format("DELETE FROM %s WHERE id = ANY($1)", data.getLabelsName()),
+                                    String.format("DELETE FROM %s WHERE owner_id = ANY($1)", TASK_ROLLUP_TABLE_NAME),
+                                    String.format("DELETE FROM %s WHERE id = ANY($1)", data.getTableName())));
+                });
+    }
+
+    private Uni<Void> removeProject(UUID project) {
+        UUID[] ids = {project};
+        return client.withTransaction(tx -> archiveProject(tx, project)
+                .onItem().transformToUni(ignored -> deleteAll(tx, ids,
+                        String.format("DELETE FROM %s WHERE entity_id = ANY($1)", projectData.getRlsName()),
+                        String.format("DELETE FROM %s WHERE owner_id = ANY($1)", TASK_ROLLUP_TABLE_NAME),
+                        String.format("DELETE FROM %s WHERE id = ANY($1) AND deleted_at IS NOT NULL", projectData.getTableName()))));
+    }
+
+    private Uni<Void> deleteAll(SqlClient tx, UUID[] ids, String... statements) {
+        Uni<Void> chain = Uni.createFrom().voidItem();
+        for (String statement : statements) {
+            chain = chain.onItem().transformToUni(ignored -> tx.preparedQuery(statement).execute(Tuple.of(ids)).replaceWithVoid());
+        }
+        return chain;
+    }
+
+    private Uni<Void> archiveTasks(SqlClient tx, UUID project, EntityData data, UUID[] ids) {
+        if (archiveDir.isEmpty()) {
+            return Uni.createFrom().voidItem();
+        }
+        String sql = String.format("SELECT json_build_object('task', row_to_json(t), " +
+                        "'readers', (SELECT json_agg(r) FROM %2$s r WHERE r.entity_id = t.id), " +
+                        "'labels', (SELECT json_agg(l.label_id) FROM %3$s l WHERE l.id = t.id))::text AS doc " +
+                        "FROM %1$s t WHERE t.id = ANY($1)",
+                data.getTableName(), data.getRlsName(), data.getLabelsName());
+        return tx.preparedQuery(sql)
+                .execute(Tuple.of(ids))
+                .onItem().transformToUni(rows -> append(project, rows));
+    }
+
+    private Uni<Void> archiveProject(SqlClient tx, UUID project) {
+        if (archiveDir.isEmpty()) {
+            return Uni.createFrom().voidItem();
+        }
+        String sql = String.format("SELECT json_build_object('project', row_to_json(p), " +
+                        "'readers', (SELECT json_agg(r) FROM %2$s r WHERE r.entity_id = p.id))::text AS doc " +
+                        "FROM %1$s p WHERE p.id = $1",
+                projectData.getTableName(), projectData.getRlsName());
+        return tx.preparedQuery(sql)
+                .execute(Tuple.of(project))
+                .onItem().transformToUni(rows -> append(project, rows));
+    }
+
+    private Uni<Void> append(UUID project, Iterable<Row> rows) {
+        List<String> lines = new ArrayList<>();
+        rows.forEach(row -> lines.add(row.getString("doc")));
+        Path file = Path.of(archiveDir.orElseThrow(), "project-" + project + ".ndjson.gz");
+        return vertx.executeBlocking(Uni.createFrom().item(() -> {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+                for (String line : lines) {
+                    out.write(line.getBytes(StandardCharsets.UTF_8));
+                    out.write('\n');
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        })).replaceWithVoid();
+    }
+}
@@ -9,6 +9,7 @@ import io.kneo.core.repository.exception.DocumentHasNotFoundException;
 import io.kneo.core.repository.exception.DocumentModificationAccessException;
 import io.kneo.core.repository.rls.RLSRepository;
 import io.kneo.core.repository.table.EntityData;
+import io.kneo.officeframe.repository.EmployeeRepository;
 import io.kneo.projects.model.Project;
 import io.kneo.projects.model.cnst.ProjectStatusType;
 import io.kneo.projects.repository.table.ProjectNameResolver;
@@ -34,42 +35,50 @@ import static io.kneo.projects.repository.table.ProjectNameResolver.PROJECT;
 public class ProjectRepository extends AsyncRepository {
     private static final EntityData entityData = ProjectNameResolver.create().getEntityNames(PROJECT);
 
+    private final TaskLabelIndex labelIndex;
+
     @Inject
-    public ProjectRepository(PgPool client, ObjectMapper mapper, RLSRepository rlsRepository) {
+    public ProjectRepository(PgPool client, ObjectMapper mapper, RLSRepository rlsRepository, TaskLabelIndex labelIndex) {
         super(client, mapper, rlsRepository);
+        this.labelIndex = labelIndex;
     }
 
     public Uni<List<Project>> getAll(final int limit, final int offset, final IUser user) {
-        String sql = "SELECT * FROM prj__projects p, prj__project_readers ppr WHERE p.id = ppr.entity_id AND ppr.reader = " + user.getId();
+        String sql = "SELECT * FROM prj__projects p, prj__project_readers ppr WHERE p.id = ppr.entity_id AND p.deleted_at IS NULL AND ppr.reader = " + user.getId();
         if (limit > 0) {
             sql += String.format(" LIMIT %s OFFSET %s", limit, offset);
         }
-        return client.query(sql)
-                .execute()
+        String query = sql;
+        return read(user.getId(), db -> db.query(query)
+                .execute())
                 .onItem().transformToMulti(rows -> Multi.createFrom().iterable(rows))
                 .onItem().transform(this::from)
                 .collect().asList();
     }
 
     public Uni<Integer> getAllCount(IUser user) {
-        return getAllCount(user.getId(), entityData.getTableName(), entityData.getRlsName());
+        String sql = String.format("SELECT count(m.id) FROM %s as m, %s as acl WHERE m.id = acl.entity_id AND acl.reader = $1 " +
+                "AND m.deleted_at IS NULL", entityData.getTableName(), entityData.getRlsName());
+        return read(user.getId(), db -> db.preparedQuery(sql)
+                .execute(Tuple.of(user.getId())))
+                .onItem().transform(rows -> rows.iterator().next().getInteger(0));
     }
 
     public Uni<List<Project>> search(String keyword) {
         String query = String.format(
-                "SELECT * FROM %s WHERE textsearch @@ to_tsquery('english', '%s')",
+                "SELECT * FROM %s WHERE deleted_at IS NULL AND textsearch @@ to_tsquery('english', '%s')",
                 entityData.getTableName(),
                 keyword
         );
-        return client.query(query)
-                .execute()
+        return read(null, db -> db.query(query)
+                .execute())
                 .onItem().transformToMulti(rows -> Multi.createFrom().iterable(rows))
                 .onItem().transform(this::from)
                 .collect().asList();
     }
 
     public Uni<List<Project>> searchByCondition(String cond) {
-        String query = String.format("SELECT * FROM %s WHERE %s ", entityData.getTableName(), cond);
+        String query = String.format("SELECT * FROM %s WHERE deleted_at IS NULL AND (%s) ", entityData.getTableName(), cond);
         return client.query(query)
                 .execute()
                 .onItem().transformToMulti(rows -> Multi.createFrom().iterable(rows))
@@ -77,10 +86,15 @@ public class ProjectRepository extends AsyncRepository {
                 .collect().asList();
     }
 
+    public void markRead(UUID uuid, long userID) {
+        rlsRepository.markRead(entityData.getRlsName(), userID, uuid);
+    }
+
     public Uni<Project> findById(UUID uuid, Long userID) {
-        return client.preparedQuery(String.format("SELECT theTable.*, rls.* FROM %s theTable JOIN %s rls ON theTable.id = rls.entity_id " +
-                        "WHERE rls.reader = $1 AND theTable.id = $2", entityData.getTableName(), entityData.getRlsName()))
-                .execute(Tuple.of(userID, uuid))
+        String sql = String.format("SELECT theTable.*, rls.* FROM %s theTable JOIN %s rls ON theTable.id = rls.entity_id " +
+                "WHERE rls.reader = $1 AND theTable.id = $2 AND theTable.deleted_at IS NULL", entityData.getTableName(), entityData.getRlsName());
+        return read(userID, db -> db.preparedQuery(sql)
+                .execute(Tuple.of(userID, uuid)))
                 .onItem().transform(RowSet::iterator)
                 .onItem().transform(iterator -> {
                     if (iterator.hasNext()) {
@@ -94,8 +108,8 @@ public class ProjectRepository extends AsyncRepository {
 
 
     public Uni<List<RLS>> getAllReaders(UUID uuid) {
-        return client.preparedQuery("SELECT reader, reading_time, can_edit, can_delete FROM prj__projects p, prj__project_readers ppr WHERE p.id = ppr.entity_id AND p.id = $1")
-                .execute(Tuple.of(uuid))
+        return read(null, db -> db.preparedQuery("SELECT reader, reading_time, can_edit, can_delete FROM prj__projects p, prj__project_readers ppr WHERE p.id = ppr.entity_id AND p.id = $1")
+                .execute(Tuple.of(uuid)))
                 .onItem().transformToMulti(rows -> Multi.createFrom().iterable(rows))
                 .onItem().transform(row -> new RLS(
                         Optional.ofNullable(row.getLocalDateTime("reading_time"))
@@ -107,6 +121,26 @@ public class ProjectRepository extends AsyncRepository {
                 .collect().asList();
     }
 
+    /**
+     * Predicate that drops rows of soft-deleted projects, the lookup goes through the small partial index on deleted projects.
+     */
+    public static String notDeleted(String projectIdExpression) {
+        return String.format("NOT EXISTS (SELECT 1 FROM %s dp WHERE dp.id = %s AND dp.deleted_at IS NOT NULL)",
+                entityData.getTableName(), projectIdExpression);
+    }
+
+    public static String jsonById(String idExpression) {
+        return String.format("(SELECT json_build_object(%s, 'name', p.name, 'status', p.status, 'finishDate', p.finish_date::date, " +
+                        "'primaryLang', %s, 'manager', %s, 'coder', %s, 'tester', %s) FROM %s p WHERE p.id = %s)",
+                jsonDefaultFields("p"),
+                jsonLanguageCode("p.primary_lang"),
+                EmployeeRepository.jsonByUserId("p.manager"),
+                EmployeeRepository.jsonByUserId("p.programmer"),
+                EmployeeRepository.jsonByUserId("p.tester"),
+                entityData.getTableName(),
+                idExpression);
+    }
+
     private Project from(Row row) {
         Project doc = new Project();
         setDefaultFields(doc, row);
@@ -125,9 +159,11 @@ public class ProjectRepository extends AsyncRepository {
 
     public Uni<Project> insert(Project doc, Long user) {
         LocalDateTime nowTime = ZonedDateTime.now().toLocalDateTime();
-        String sql = String.format("INSERT INTO %s" +
+        String sql = String.format("WITH ins AS (INSERT INTO %s" +
                 "(reg_date, author, last_mod_date, last_mod_user, name, status, finish_date, primary_lang, manager, programmer, tester)" +
-                "VALUES($1, $2, $3, $4, $5, $6, $7, $8, $9, $10, $11) RETURNING id;", entityData.getTableName());
+                "VALUES($1, $2, $3, $4, $5, $6, $7, $8, $9, $10, $11) RETURNING *), " +
+                "acl AS (INSERT INTO %s(reader, entity_id, can_edit, can_delete) SELECT $2, ins.id, 1, 1 FROM ins) " +
+                "SELECT * FROM ins;", entityData.getTableName(), entityData.getRlsName());
 
         Tuple params = Tuple.of(nowTime, user, nowTime, user);
         Tuple allParams = params
@@ -139,65 +175,60 @@ public class ProjectRepository extends AsyncRepository {
                 .addLong(doc.getCoder())
                 .addLong(doc.getTester());
 
-        String readersSql = String.format("INSERT INTO %s(reader, entity_id, can_edit, can_delete) VALUES($1, $2, $3, $4)", entityData.getRlsName());
-
-        return client.withTransaction(tx -> {
-            return tx.preparedQuery(sql)
-                    .execute(allParams)
-                    .onItem().transform(result -> result.iterator().next().getUUID("id"))
-                    .onFailure().recoverWithUni(t ->
-                            Uni.createFrom().failure(t))
-                    .onItem().transformToUni(id -> {
-                        return tx.preparedQuery(readersSql)
-                                .execute(Tuple.of(user, id, 1, 1))
-                                .onItem().ignore().andContinueWithNull()
-                                .onFailure().recoverWithUni(t ->
-                                        Uni.createFrom().failure(t))
-                                .onItem().transform(unused -> id);
-                    });
-        }).onItem().transformToUni(id -> findById(id, user)
-                .onItem().transform(project -> project));
+        return client.preparedQuery(sql)
+                .execute(allParams)
+                .onItem().transform(rows -> from(rows.iterator().next()));
     }
 
     public Uni<Project> update(UUID id, Project doc, IUser user) {
-        return rlsRepository.findById(entityData.getRlsName(), user.getId(), id)
-                .onItem().transformToUni(permissions -> {
-                    if (permissions[0]) {
-                        LocalDateTime nowTime = ZonedDateTime.now().toLocalDateTime();
-                        String sql = String.format("UPDATE %s " +
-                                "SET last_mod_date=$1, last_mod_user=$2, name=$3, status=$4, finish_date=$5, " +
-                                "primary_lang=$6, manager=$7, programmer=$8, " +
-                                "tester=$9 WHERE id=$10;", entityData.getTableName());
-                        Tuple baseParams = Tuple.of(nowTime, user);
-                        Tuple allParams = baseParams
-                                .addString(doc.getName())
-                                .addString(doc.getStatus().toString())
-                                .addLocalDateTime(doc.getFinishDate().atStartOfDay())
-                                .addInteger(doc.getPrimaryLang().getCode())
-                                .addLong(doc.getManager())
-                                .addLong(doc.getCoder())
-                                .addLong(doc.getTester())
-                                .addUUID(id);
-
-                        return client.withTransaction(tx -> tx.preparedQuery(sql)
-                                .execute(allParams)
-                                .onItem().transformToUni(rowSet -> {
-                                    int rowCount = rowSet.rowCount();
-                                    if (rowCount == 0) {
-                                        return Uni.createFrom().failure(new DocumentHasNotFoundException(id));
-                                    }
-                                    return findById(id, user.getId())
-                                            .onItem().transform(project -> project);
-                                })
-                                .onFailure().recoverWithUni(t -> Uni.createFrom().failure(t)));
-                    } else {
-                        return Uni.createFrom().failure(new DocumentModificationAccessException("User does not have edit permission", user.getUserName(), id));
+        LocalDateTime nowTime = ZonedDateTime.now().toLocalDateTime();
+        String sql = String.format("UPDATE %s m " +
+                "SET last_mod_date=$1, last_mod_user=$2, name=$3, status=$4, finish_date=$5, " +
+                "primary_lang=$6, manager=$7, programmer=$8, tester=$9, version=m.version + 1 " +
+                "FROM %s acl WHERE m.id=$10 AND acl.entity_id = m.id AND acl.reader = $2 AND acl.can_edit::int = 1 " +
+                "AND ($11::bigint IS NULL OR m.version = $11) RETURNING m.*;", entityData.getTableName(), entityData.getRlsName());
+        Tuple baseParams = Tuple.of(nowTime, user.getId());
+        Tuple allParams = baseParams
+                .addString(doc.getName())
+                .addString(doc.getStatus().toString())
+                .addLocalDateTime(doc.getFinishDate().atStartOfDay())
+                .addInteger(doc.getPrimaryLang().getCode())
+                .addLong(doc.getManager())
+                .addLong(doc.getCoder())
+                .addLong(doc.getTester())
+                .addUUID(id)
+                .addLong(doc.getVersion());
+
+        return client.preparedQuery(sql)
+                .execute(allParams)
+                .onItem().transformToUni(rowSet -> {
+                    var iterator = rowSet.iterator();
+                    if (!iterator.hasNext()) {
+                        return resolveUpdateFailure(id, doc.getVersion(), entityData, user);
                     }
+                    return Uni.createFrom().item(from(iterator.next()));
                 });
     }
 
+    /**
+     * Marks the project as deleted, its tasks and reader rows are removed later by {@link ProjectReclaimer}.
+     */
     public Uni<Integer> delete(UUID uuid, IUser user) {
-        return delete(uuid, entityData, user);
+        return rlsRepository.findById(entityData.getRlsName(), user.getId(), uuid)
+                .onItem().transformToUni(permissions -> {
+                    if (!permissions[1]) {
+                        return Uni.createFrom().failure(new DocumentModificationAccessException("User does not have delete permission", user.getUserName(), uuid));
+                    }
+                    LocalDateTime nowTime = ZonedDateTime.now().toLocalDateTime();
+                    String sql = String.format("UPDATE %s SET deleted_at = $1, last_mod_date = $1, last_mod_user = $2 " +
+                            "WHERE id = $3 AND deleted_at IS NULL", entityData.getTableName());
+                    return client.preparedQuery(sql)
+                            .execute(Tuple.of(nowTime, user.getId(), uuid))
+                            .onItem().transformToUni(rowSet -> rowSet.rowCount() == 0
+                                    ? Uni.createFrom().failure(new DocumentHasNotFoundException(uuid))
+                                    : Uni.createFrom().item(rowSet.rowCount()))
+                            .call(ignored -> labelIndex.removeProject(uuid));
+                });
     }
 
 
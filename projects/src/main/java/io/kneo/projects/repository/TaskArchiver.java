@@ -0,0 +1,78 @@
+package io.kneo.projects.repository;
+
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.core.Vertx;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Periodically moves tasks closed for more than the configured number of days to the archive tables.
+ */
+@ApplicationScoped
+public class TaskArchiver {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskArchiver.class);
+
+    @Inject
+    TaskRepository repository;
+
+    @Inject
+    Vertx vertx;
+
+    @ConfigProperty(name = "kneo.tasks.archive.interval", defaultValue = "3600")
+    long interval;
+
+    @ConfigProperty(name = "kneo.tasks.archive.after-days", defaultValue = "90")
+    int afterDays;
+
+    @ConfigProperty(name = "kneo.tasks.archive.batch-size", defaultValue = "500")
+    int batchSize;
+
+    @ConfigProperty(name = "kneo.tasks.archive.pause", defaultValue = "200")
+    long pause;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    void onStart(@Observes StartupEvent ev) {
+        if (interval > 0) {
+            vertx.setPeriodic(interval * 1000, id -> archive().subscribe().with(
+                    count -> {
+                        if (count > 0) {
+                            LOGGER.info("Archived {} closed tasks", count);
+                        }
+                    },
+                    failure -> LOGGER.warn("Task archiving failed: {}", failure.getMessage())
+            ));
+        }
+    }
+
+    public Uni<Integer> archive() {
+        if (!running.compareAndSet(false, true)) {
+            return Uni.createFrom().item(0);
+        }
+        LocalDateTime closedBefore = ZonedDateTime.now().toLocalDateTime().minusDays(afterDays);
+        return archive(closedBefore, 0)
+                .onTermination().invoke(() -> running.set(false));
+    }
+
+    private Uni<Integer> archive(LocalDateTime closedBefore, int total) {
+        return repository.archiveClosed(closedBefore, batchSize)
+                .onItem().transformToUni(moved -> {
+                    if (moved.isEmpty()) {
+                        return Uni.createFrom().item(total);
+                    }
+                    return Uni.createFrom().voidItem()
+                            .onItem().delayIt().by(Duration.ofMillis(pause))
+                            .onItem().transformToUni(ignored -> archive(closedBefore, total + moved.size()));
+                });
+    }
+}
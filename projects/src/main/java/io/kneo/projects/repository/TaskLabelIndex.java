@@ -0,0 +1,255 @@
+package io.kneo.projects.repository;
+
+import io.kneo.core.repository.table.EntityData;
+import io.kneo.officeframe.repository.table.OfficeFrameNameResolver;
+import io.kneo.projects.repository.table.ProjectNameResolver;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.kneo.officeframe.repository.table.OfficeFrameNameResolver.LABEL;
+import static io.kneo.projects.repository.table.ProjectNameResolver.TASK;
+
+@ApplicationScoped
+public class TaskLabelIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskLabelIndex.class);
+    private static final EntityData taskData = ProjectNameResolver.create().getEntityNames(TASK);
+    private static final EntityData labelData = OfficeFrameNameResolver.create().getEntityNames(LABEL);
+
+    @Inject
+    PgPool client;
+
+    @ConfigProperty(name = "kneo.tasks.label-index.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "kneo.tasks.label-index.readers-ttl", defaultValue = "30")
+    long readersTtl;
+
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final List<UUID> tasks = new ArrayList<>();
+    private final Map<UUID, BitSet> byLabel = new HashMap<>();
+    private final Map<UUID, Set<UUID>> labelsOfTask = new HashMap<>();
+    private final Map<String, UUID> labelIds = new ConcurrentHashMap<>();
+    private final Map<Long, Readable> readers = new ConcurrentHashMap<>();
+    private final List<Runnable> pending = new ArrayList<>();
+    private int builds;
+    private volatile boolean ready;
+
+    private record Readable(BitSet bits, long expiresAt) {}
+
+    void onStart(@Observes StartupEvent ev) {
+        if (enabled) {
+            build().subscribe().with(
+                    size -> LOGGER.info("Task label index is built, {} tasks", size),
+                    failure -> LOGGER.warn("Task label index build failed: {}", failure.getMessage())
+            );
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Loads the index from the database. Changes made while the load runs are recorded and replayed over the loaded
+     * state, so none of them is lost to a snapshot taken before it. Tasks of deleted projects are left out.
+     */
+    public Uni<Integer> build() {
+        String tasksSql = String.format("SELECT t.id FROM %s t WHERE %s ORDER BY t.reg_date",
+                taskData.getTableName(), ProjectRepository.notDeleted("t.project_id"));
+        String linksSql = String.format("SELECT l.id, l.label_id FROM %s l JOIN %s t ON t.id = l.id WHERE %s",
+                taskData.getLabelsName(), taskData.getTableName(), ProjectRepository.notDeleted("t.project_id"));
+        String labelsSql = String.format("SELECT id, identifier FROM %s", labelData.getTableName());
+        return client.query(tasksSql).execute()
+                .onItem().transformToUni(taskRows -> client.query(linksSql).execute()
+                        .onItem().transformToUni(linkRows -> client.query(labelsSql).execute()
+                                .onItem().transform(labelRows -> {
+                                    synchronized (this) {
+                                        ordinals.clear();
+                                        tasks.clear();
+                                        byLabel.clear();
+                                        labelsOfTask.clear();
+                                        readers.clear();
+                                        for (Row row : taskRows) {
+                                            ordinalOf(row.getUUID("id"));
+                                        }
+                                        for (Row row : linkRows) {
+                                            add(row.getUUID("id"), row.getUUID("label_id"));
+                                        }
+                                        for (Row row : labelRows) {
+                                            labelIds.put(row.getString("identifier"), row.getUUID("id"));
+                                        }
+                                        pending.forEach(Runnable::run);
+                                        ready = true;
+                                        return tasks.size();
+                                    }
+                                })))
+                .onSubscription().invoke(() -> {
+                    synchronized (this) {
+                        builds++;
+                    }
+                })
+                .onTermination().invoke(() -> {
+                    synchronized (this) {
+                        if (--builds == 0) {
+                            pending.clear();
+                        }
+                    }
+                });
+    }
+
+    public synchronized void put(UUID task, Collection<UUID> labels) {
+        if (builds > 0) {
+            List<UUID> copy = List.copyOf(labels);
+            pending.add(() -> apply(task, copy));
+        }
+        if (ready) {
+            apply(task, labels);
+        }
+    }
+
+    public synchronized void remove(UUID task) {
+        if (builds > 0) {
+            pending.add(() -> discard(task));
+        }
+        discard(task);
+    }
+
+    /**
+     * Drops the tasks of a project that has just been deleted.
+     */
+    public Uni<Void> removeProject(UUID project) {
+        String sql = String.format("SELECT id FROM %s WHERE project_id = $1", taskData.getTableName());
+        return client.preparedQuery(sql)
+                .execute(Tuple.of(project))
+                .onItem().invoke(rows -> rows.forEach(row -> remove(row.getUUID("id"))))
+                .replaceWithVoid();
+    }
+
+    private void apply(UUID task, Collection<UUID> labels) {
+        Set<UUID> previous = labelsOfTask.remove(task);
+        int ordinal = ordinalOf(task);
+        if (previous != null) {
+            previous.forEach(label -> byLabel.get(label).clear(ordinal));
+        }
+        labels.forEach(label -> add(task, label));
+    }
+
+    private void discard(UUID task) {
+        Integer ordinal = ordinals.get(task);
+        if (ordinal == null) {
+            return;
+        }
+        Set<UUID> previous = labelsOfTask.remove(task);
+        if (previous != null) {
+            previous.forEach(label -> byLabel.get(label).clear(ordinal));
+        }
+        readers.values().forEach(readable -> readable.bits().clear(ordinal));
+    }
+
+    public void grant(long reader, UUID task) {
+        Readable readable = readers.get(reader);
+        if (readable != null) {
+            synchronized (this) {
+                readable.bits().set(ordinalOf(task));
+            }
+        }
+    }
+
+    public Uni<List<UUID>> query(String expression, long reader) {
+        LabelExpression parsed = LabelExpression.parse(expression);
+        Uni<Void> built = ready ? Uni.createFrom().voidItem() : build().replaceWithVoid();
+        return built.onItem().transformToUni(ignored -> resolveLabels(parsed.identifiers()))
+                .onItem().transformToUni(ignored -> readable(reader))
+                .onItem().transform(readable -> {
+                    synchronized (this) {
+                        BitSet result = parsed.evaluate(this::bitsOf, readable);
+                        List<UUID> ids = new ArrayList<>(result.cardinality());
+                        for (int i = result.nextSetBit(0); i >= 0; i = result.nextSetBit(i + 1)) {
+                            ids.add(tasks.get(i));
+                        }
+                        return ids;
+                    }
+                });
+    }
+
+    private BitSet bitsOf(String identifier) {
+        UUID label = labelIds.get(identifier);
+        if (label == null) {
+            try {
+                label = UUID.fromString(identifier);
+            } catch (IllegalArgumentException e) {
+                return new BitSet();
+            }
+        }
+        BitSet bits = byLabel.get(label);
+        return bits == null ? new BitSet() : bits;
+    }
+
+    private Uni<Void> resolveLabels(Set<String> identifiers) {
+        List<String> unknown = identifiers.stream().filter(identifier -> !labelIds.containsKey(identifier)).toList();
+        if (unknown.isEmpty()) {
+            return Uni.createFrom().voidItem();
+        }
+        String sql = String.format("SELECT id, identifier FROM %s WHERE identifier = ANY($1)", labelData.getTableName());
+        return client.preparedQuery(sql)
+                .execute(Tuple.of(unknown.toArray(new String[0])))
+                .onItem().invoke(rows -> rows.forEach(row -> labelIds.put(row.getString("identifier"), row.getUUID("id"))))
+                .replaceWithVoid();
+    }
+
+    private Uni<BitSet> readable(long reader) {
+        Readable cached = readers.get(reader);
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            return Uni.createFrom().item(cached.bits());
+        }
+        String sql = String.format("SELECT acl.entity_id FROM %s acl JOIN %s t ON t.id = acl.entity_id WHERE acl.reader = $1 AND %s",
+                taskData.getRlsName(), taskData.getTableName(), ProjectRepository.notDeleted("t.project_id"));
+        return client.preparedQuery(sql)
+                .execute(Tuple.of(reader))
+                .onItem().transform(rows -> {
+                    synchronized (this) {
+                        BitSet bits = new BitSet(tasks.size());
+                        for (Row row : rows) {
+                            bits.set(ordinalOf(row.getUUID("entity_id")));
+                        }
+                        readers.put(reader, new Readable(bits, System.currentTimeMillis() + readersTtl * 1000));
+                        return bits;
+                    }
+                });
+    }
+
+    private void add(UUID task, UUID label) {
+        byLabel.computeIfAbsent(label, k -> new BitSet()).set(ordinalOf(task));
+        labelsOfTask.computeIfAbsent(task, k -> new HashSet<>()).add(label);
+    }
+
+    private int ordinalOf(UUID task) {
+        Integer ordinal = ordinals.get(task);
+        if (ordinal == null) {
+            ordinal = tasks.size();
+            tasks.add(task);
+            ordinals.put(task, ordinal);
+        }
+        return ordinal;
+    }
+}
@@ -7,53 +7,156 @@ import io.kneo.core.repository.exception.DocumentHasNotFoundException;
 import io.kneo.core.repository.exception.DocumentModificationAccessException;
 import io.kneo.core.repository.rls.RLSRepository;
 import io.kneo.core.repository.table.EntityData;
+import io.kneo.officeframe.repository.EmployeeRepository;
+import io.kneo.officeframe.repository.LabelRepository;
+import io.kneo.officeframe.repository.TaskTypeRepository;
 import io.kneo.projects.model.Task;
+import io.kneo.projects.model.TaskBoard;
+import io.kneo.projects.model.TaskRollup;
+import io.kneo.projects.model.TaskTree;
+import io.kneo.projects.model.cnst.TaskStatus;
 import io.kneo.projects.repository.table.ProjectNameResolver;
 import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.mutiny.pgclient.PgPool;
 import io.vertx.mutiny.sqlclient.Row;
 import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.SqlClient;
 import io.vertx.mutiny.sqlclient.Tuple;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
 import static io.kneo.projects.repository.table.ProjectNameResolver.TASK;
+import static io.kneo.projects.repository.table.ProjectNameResolver.TASK_ARCHIVE;
+import static io.kneo.projects.repository.table.ProjectNameResolver.TASK_ROLLUP_TABLE_NAME;
 
 @ApplicationScoped
 public class TaskRepository extends AsyncRepository {
     private static final EntityData entityData = ProjectNameResolver.create().getEntityNames(TASK);
+    private static final EntityData archiveData = ProjectNameResolver.create().getEntityNames(TASK_ARCHIVE);
 
     private static final String BASE_REQUEST = """
             SELECT pt.*, ptr.*  FROM prj__tasks pt JOIN prj__task_readers ptr ON pt.id = ptr.entity_id\s""";
 
+    private static final String LIVE_PROJECT = ProjectRepository.notDeleted("pt.project_id");
+
+    private static final String TASK_COLUMNS = "id, reg_date, author, last_mod_date, last_mod_user, assignee, body, target_date, " +
+            "priority, start_date, status, title, parent_id, project_id, task_type_id, reg_number, status_date, cancel_comment, version";
+    private static final String READER_COLUMNS = "reader, entity_id, reading_time, can_edit, can_delete";
+    private static final String LABEL_COLUMNS = "id, label_id";
+
+    private static final String ROLLUP_COLUMNS = "rl.rollup_statuses, rl.rollup_counts, rl.rollup_target_date";
+
+    private final TaskLabelIndex labelIndex;
+
     @Inject
-    public TaskRepository(PgPool client, ObjectMapper mapper, RLSRepository rlsRepository) {
+    public TaskRepository(PgPool client, ObjectMapper mapper, RLSRepository rlsRepository, TaskLabelIndex labelIndex) {
         super(client, mapper, rlsRepository);
+        this.labelIndex = labelIndex;
     }
 
 
     public Uni<List<Task>> getAll(final int limit, final int offset, final long userID) {
-        String sql = BASE_REQUEST + "WHERE ptr.reader = " + userID;
+        String sql = BASE_REQUEST + "WHERE ptr.reader = " + userID + " AND " + LIVE_PROJECT;
         if (limit > 0) {
             sql += String.format(" LIMIT %s OFFSET %s", limit, offset);
         }
-        return client.query(sql)
-                .execute()
+        String query = sql;
+        return read(userID, db -> db.query(query)
+                .execute())
+                .onItem().transformToMulti(rows -> Multi.createFrom().iterable(rows))
+                .onItem().transform(this::from)
+                .collect().asList();
+    }
+
+    public Uni<List<Task>> getAllArchived(final int limit, final int offset, final long userID) {
+        String sql = String.format("SELECT pt.*, ptr.* FROM %s pt JOIN %s ptr ON pt.id = ptr.entity_id WHERE ptr.reader = $1 AND %s " +
+                "ORDER BY pt.status_date DESC", archiveData.getTableName(), archiveData.getRlsName(), LIVE_PROJECT);
+        if (limit > 0) {
+            sql += String.format(" LIMIT %s OFFSET %s", limit, offset);
+        }
+        String query = sql;
+        return read(userID, db -> db.preparedQuery(query)
+                .execute(Tuple.of(userID)))
                 .onItem().transformToMulti(rows -> Multi.createFrom().iterable(rows))
                 .onItem().transform(this::from)
                 .collect().asList();
     }
 
+    public Uni<Integer> getArchivedCount(long userID) {
+        String sql = String.format("SELECT count(pt.id) FROM %s pt JOIN %s ptr ON pt.id = ptr.entity_id WHERE ptr.reader = $1 AND %s",
+                archiveData.getTableName(), archiveData.getRlsName(), LIVE_PROJECT);
+        return read(userID, db -> db.preparedQuery(sql)
+                .execute(Tuple.of(userID)))
+                .onItem().transform(rows -> rows.iterator().next().getInteger(0));
+    }
+
+    public Uni<List<Task>> getByIds(List<UUID> ids, long userID) {
+        if (ids.isEmpty()) {
+            return Uni.createFrom().item(List.of());
+        }
+        return read(userID, db -> db.preparedQuery(BASE_REQUEST + "WHERE ptr.reader = $1 AND pt.id = ANY($2) AND " + LIVE_PROJECT + " ORDER BY pt.reg_date")
+                .execute(Tuple.of(userID, ids.toArray(new UUID[0]))))
+                .onItem().transformToMulti(rows -> Multi.createFrom().iterable(rows))
+                .onItem().transform(this::from)
+                .collect().asList();
+    }
+
+    public Uni<List<UUID>> findByLabels(String expression, long userID) {
+        return labelIndex.query(expression, userID);
+    }
+
     public Uni<Integer> getAllCount(long userID) {
-        return getAllCount(userID, entityData.getTableName(), entityData.getRlsName());
+        String sql = String.format("SELECT count(pt.id) FROM %s pt JOIN %s ptr ON pt.id = ptr.entity_id WHERE ptr.reader = $1 AND %s",
+                entityData.getTableName(), entityData.getRlsName(), LIVE_PROJECT);
+        return read(userID, db -> db.preparedQuery(sql)
+                .execute(Tuple.of(userID)))
+                .onItem().transform(rows -> rows.iterator().next().getInteger(0));
+    }
+
+    public Uni<String> getVersion(UUID uuid, long userID) {
+        return getVersion(uuid, entityData, userID, true);
+    }
+
+    public Uni<String> getWatermark(long userID) {
+        return getWatermark(entityData, userID);
+    }
+
+    public Uni<List<TaskBoard.Entry>> getBoard(UUID projectId, Long userID, int limit) {
+        String sql = String.format("SELECT * FROM (SELECT pt.*, " +
+                        "row_number() OVER (PARTITION BY pt.status ORDER BY pt.priority DESC, pt.target_date NULLS LAST, pt.reg_date) AS rn, " +
+                        "count(*) OVER (PARTITION BY pt.status) AS status_count " +
+                        "FROM %s pt JOIN %s acl ON acl.entity_id = pt.id WHERE acl.reader = $1 AND pt.project_id = $2 AND %s) b " +
+                        "WHERE b.rn <= $3 ORDER BY b.status, b.rn",
+                entityData.getTableName(), entityData.getRlsName(), LIVE_PROJECT);
+        return read(userID, db -> db.preparedQuery(sql)
+                .execute(Tuple.of(userID, projectId, limit)))
+                .onItem().transformToMulti(rows -> Multi.createFrom().iterable(rows))
+                .onItem().transform(row -> new TaskBoard.Entry(from(row), row.getLong("status_count").intValue()))
+                .collect().asList();
+    }
+
+    public Uni<String> getBoardWatermark(UUID projectId, Long userID) {
+        String sql = String.format("SELECT count(pt.id) AS cnt, max(pt.%s) AS watermark FROM %s pt JOIN %s acl ON acl.entity_id = pt.id " +
+                "WHERE acl.reader = $1 AND pt.project_id = $2 AND %s", COLUMN_LAST_MOD_DATE, entityData.getTableName(), entityData.getRlsName(), LIVE_PROJECT);
+        return read(userID, db -> db.preparedQuery(sql)
+                .execute(Tuple.of(userID, projectId)))
+                .onItem().transform(rows -> {
+                    Row row = rows.iterator().next();
+                    LocalDateTime watermark = row.getLocalDateTime("watermark");
+                    long millis = watermark == null ? 0 : watermark.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                    return entityData.getTableName() + ":" + projectId + ":" + row.getLong("cnt") + ":" + millis + ":" + userID;
+                });
     }
 
     public Uni<List<Task>> searchByCondition(String cond) {
@@ -66,20 +169,55 @@ public class TaskRepository extends AsyncRepository {
     }
 
     public Uni<Task> findById(UUID uuid, Long userID) {
-        return client.preparedQuery( String.format("SELECT pt.*, ptr.*  FROM %s pt JOIN %s ptr ON pt.id = ptr.entity_id " +
-                        "WHERE ptr.reader = $1 AND pt.id = $2", entityData.getTableName(), entityData.getRlsName()))
-                .execute(Tuple.of(userID, uuid))
-                .onItem().transform(RowSet::iterator)
-                .onItem().transform(iterator -> {
-                    if (iterator.hasNext()) {
-                        return from(iterator.next());
-                    } else {
+        return findById(entityData, uuid, userID)
+                .onItem().ifNull().switchTo(() -> findById(archiveData, uuid, userID))
+                .onItem().invoke(task -> {
+                    if (task == null) {
                         LOGGER.warn(String.format("No %s found with id: " + uuid, entityData.getTableName()));
-                        return null;
                     }
                 });
     }
 
+    private Uni<Task> findById(EntityData data, UUID uuid, Long userID) {
+        String sql = String.format("SELECT pt.*, ptr.*  FROM %s pt JOIN %s ptr ON pt.id = ptr.entity_id " +
+                "WHERE ptr.reader = $1 AND pt.id = $2", data.getTableName(), data.getRlsName());
+        return read(userID, db -> db.preparedQuery(sql)
+                .execute(Tuple.of(userID, uuid)))
+                .onItem().transform(RowSet::iterator)
+                .onItem().transform(iterator -> iterator.hasNext() ? from(iterator.next()) : null);
+    }
+
+
+    public void markRead(UUID uuid, long userID) {
+        rlsRepository.markRead(entityData.getRlsName(), userID, uuid);
+    }
+
+    public Uni<Buffer> findDocumentById(UUID uuid, Long userID) {
+        return findDocumentById(entityData, uuid, userID)
+                .onItem().ifNull().switchTo(() -> findDocumentById(archiveData, uuid, userID))
+                .onItem().ifNull().failWith(() -> new DocumentHasNotFoundException(uuid));
+    }
+
+    private Uni<Buffer> findDocumentById(EntityData data, UUID uuid, Long userID) {
+        String sql = String.format("SELECT json_strip_nulls(json_build_object(%s, 'version', t.version, 'regNumber', t.reg_number, " +
+                        "'title', t.title, 'body', t.body, 'startDate', to_char(t.start_date, 'DD.MM.YYYY'), " +
+                        "'targetDate', to_char(t.target_date, 'DD.MM.YYYY'), 'status', t.status, 'priority', t.priority, " +
+                        "'cancellationComment', t.cancel_comment, 'assignee', %s, 'taskType', %s, 'project', %s, 'labels', %s))::text AS doc " +
+                        "FROM %s t JOIN %s acl ON t.id = acl.entity_id WHERE acl.reader = $1 AND t.id = $2",
+                jsonDefaultFields("t"),
+                EmployeeRepository.jsonByUserId("t.assignee"),
+                TaskTypeRepository.jsonById("t.task_type_id"),
+                ProjectRepository.jsonById("t.project_id"),
+                LabelRepository.jsonForDocument(data.getLabelsName(), "t.id"),
+                data.getTableName(),
+                data.getRlsName());
+        return read(userID, db -> db.preparedQuery(sql)
+                .execute(Tuple.of(userID, uuid)))
+                .onItem().transform(rows -> {
+                    var iterator = rows.iterator();
+                    return iterator.hasNext() ? Buffer.buffer(iterator.next().getString("doc")) : null;
+                });
+    }
 
     private Task from(Row row) {
         Task doc = new Task();
@@ -107,20 +245,21 @@ public class TaskRepository extends AsyncRepository {
 
     public Uni<Task> insert(Task doc, IUser user) {
         LocalDateTime nowTime = ZonedDateTime.now().toLocalDateTime();
-        String sql = String.format("INSERT INTO %s" +
+        String sql = String.format("WITH ins AS (INSERT INTO %s" +
                 "(reg_date, author, last_mod_date, last_mod_user, assignee, body, target_date, priority, start_date, status, title, parent_id, project_id, task_type_id, reg_number, status_date, cancel_comment)" +
-                "VALUES($1, $2, $3, $4, $5, $6, $7, $8, $9, $10, $11, $12, $13, $14, $15, $16, $17) RETURNING id;", entityData.getTableName());
-        Tuple params = Tuple.of(nowTime, user, nowTime, user);
-        Tuple allParams = params
-                .addLong(doc.getAssignee())
+                "VALUES($1, $2, $3, $4, $5, $6, $7, $8, $9, $10, $11, $12, $13, $14, $15, $16, $17) RETURNING *), " +
+                "acl AS (INSERT INTO %s(reader, entity_id, can_edit, can_delete) SELECT $2, ins.id, 1, 1 FROM ins), " +
+                "lbl AS (INSERT INTO %s(id, label_id) SELECT DISTINCT ins.id, l.label_id FROM ins, unnest($18::uuid[]) AS l(label_id)) " +
+                "SELECT * FROM ins;", entityData.getTableName(), entityData.getRlsName(), entityData.getLabelsName());
+        Tuple params = Tuple.of(nowTime, user.getId(), nowTime, user.getId());
+        params.addLong(doc.getAssignee())
                 .addString(doc.getBody());
         if (doc.getTargetDate() != null) {
-            allParams.addLocalDate(doc.getTargetDate());
+            params.addLocalDate(doc.getTargetDate());
         } else {
-            allParams.addLocalDateTime(null);
+            params.addLocalDateTime(null);
         }
-        allParams = params
-                .addInteger(doc.getPriority())
+        params.addInteger(doc.getPriority())
                 .addLocalDate(doc.getStartDate())
                 .addInteger(doc.getStatus())
                 .addString(doc.getTitle())
@@ -129,124 +268,274 @@ public class TaskRepository extends AsyncRepository {
                 .addUUID(doc.getTaskType())
                 .addString(doc.getRegNumber())
                 .addLocalDate(doc.getStartDate())
-                .addString(doc.getCancellationComment());
-        String readersSql = String.format("INSERT INTO %s(reader, entity_id, can_edit, can_delete) VALUES($1, $2, $3, $4)", entityData.getRlsName());
-        String labelsSql = "INSERT INTO prj__task_labels(id, label_id) VALUES($1, $2)";
-        Tuple finalAllParams = allParams;
-        return client.withTransaction(tx -> {
-            return tx.preparedQuery(sql)
-                    .execute(finalAllParams)
-                    .onItem().transform(result -> result.iterator().next().getUUID("id"))
-                    .onFailure().recoverWithUni(t ->
-                            Uni.createFrom().failure(t))
-                    .onItem().transformToUni(id -> {
-                        return tx.preparedQuery(readersSql)
-                                .execute(Tuple.of(user, id, 1, 1))
-                                .onItem().ignore().andContinueWithNull()
-                                .onFailure().recoverWithUni(t ->
-                                        Uni.createFrom().failure(t))
-                                .onItem().transform(unused -> id);
-                    })
-                    .onItem().transformToUni(id -> {
-                        if (doc.getLabels().isEmpty()) {
-                            return Uni.createFrom().item(id);
-                        }
-                        List<Uni<UUID>> unis = new ArrayList<>();
-                        for (UUID label : doc.getLabels()) {
-                            Uni<UUID> uni = tx.preparedQuery(labelsSql)
-                                    .execute(Tuple.of(id, label))
-                                    .onItem().ignore().andContinueWithNull()
-                                    .onFailure().recoverWithUni(t ->
-                                            Uni.createFrom().failure(t))
-                                    .onItem().transform(unused -> label);
-                            unis.add(uni);
-                        }
-                        return Uni.combine().all().unis(unis).with(l -> id);
-                    });
-        }).onItem().transformToUni(id -> findById(id, user.getId())
-                .onItem().transform(task -> task));
+                .addString(doc.getCancellationComment())
+                .addArrayOfUUID(doc.getLabels() == null ? new UUID[0] : doc.getLabels().toArray(new UUID[0]));
+        return client.withTransaction(tx -> tx.preparedQuery(sql)
+                .execute(params)
+                .onItem().transform(rows -> from(rows.iterator().next()))
+                .onItem().call(task -> addToRollups(tx, task.getParent(), task.getProject(), task.getStatus(), task.getTargetDate())))
+                .onItem().invoke(task -> {
+                    labelIndex.grant(user.getId(), task.getId());
+                    labelIndex.put(task.getId(), doc.getLabels() == null ? List.of() : doc.getLabels());
+                });
     }
 
     public Uni<Task> update(UUID id, Task doc, IUser user) {
-        return rlsRepository.findById(entityData.getRlsName(), user.getId(), id)
+        LocalDateTime nowTime = ZonedDateTime.now().toLocalDateTime();
+        String sql = String.format("UPDATE %s m SET assignee=$1, body=$2, target_date=$3, priority=$4, " +
+                "start_date=$5, status=$6, title=$7, parent_id=$8, project_id=$9, task_type_id=$10, " +
+                "status_date=$11, cancel_comment=$12, last_mod_date=$13, last_mod_user=$14, version=m.version + 1 " +
+                "FROM %s acl, (SELECT id, parent_id, project_id, status, target_date FROM %s WHERE id = $15 FOR UPDATE) o " +
+                "WHERE m.id=$15 AND o.id = m.id AND acl.entity_id = m.id AND acl.reader = $14 AND acl.can_edit::int = 1 " +
+                "AND ($16::bigint IS NULL OR m.version = $16) " +
+                "RETURNING m.*, o.parent_id AS old_parent_id, o.project_id AS old_project_id, o.status AS old_status, o.target_date AS old_target_date;",
+                entityData.getTableName(), entityData.getRlsName(), entityData.getTableName());
+
+        Tuple params = Tuple.of(doc.getAssignee(), doc.getBody());
+
+        if (doc.getTargetDate() != null) {
+            params.addLocalDate(doc.getTargetDate());
+        } else {
+            params.addLocalDateTime(null);
+        }
+
+        params.addInteger(doc.getPriority());
+        if (doc.getStartDate() != null) {
+            params.addLocalDate(doc.getStartDate());
+        } else {
+            params.addLocalDateTime(null);
+        }
+
+        params.addInteger(doc.getStatus())
+                .addString(doc.getTitle())
+                .addUUID(doc.getParent())
+                .addUUID(doc.getProject())
+                .addUUID(doc.getTaskType())
+                .addLocalDateTime(nowTime)
+                .addString(doc.getCancellationComment())
+                .addLocalDateTime(nowTime)
+                .addLong(user.getId())
+                .addUUID(id)
+                .addLong(doc.getVersion());
+
+        return client.withTransaction(tx -> checkNotInSubtree(tx, id, doc.getParent())
+                .onItem().transformToUni(ignored -> tx.preparedQuery(sql).execute(params))
+                .onItem().transformToUni(rowSet -> {
+                    var iterator = rowSet.iterator();
+                    if (!iterator.hasNext()) {
+                        return resolveUpdateFailure(id, doc.getVersion(), entityData, user);
+                    }
+                    Row row = iterator.next();
+                    Task task = from(row);
+                    return moveInRollups(tx, row, task).replaceWith(task);
+                })
+                .onItem().call(task -> syncLinks(tx, entityData.getLabelsName(), "id", "label_id", id, doc.getLabels())))
+                .onItem().invoke(task -> {
+                    if (doc.getLabels() != null) {
+                        labelIndex.put(id, doc.getLabels());
+                    }
+                });
+    }
+
+    public Uni<Integer> delete(UUID uuid, IUser user) {
+        return rlsRepository.findById(entityData.getRlsName(), user.getId(), uuid)
                 .onItem().transformToUni(permissions -> {
-                    if (permissions[0]) {
-                        LocalDateTime nowTime = ZonedDateTime.now().toLocalDateTime();
-                        String sql = String.format("UPDATE %s SET assignee=$1, body=$2, target_date=$3, priority=$4, " +
-                                "start_date=$5, status=$6, title=$7, parent_id=$8, project_id=$9, task_type_id=$10, " +
-                                "status_date=$11, cancel_comment=$12, last_mod_date=$13, last_mod_user=$14 " +
-                                "WHERE id=$15;", entityData.getTableName());
-
-                        Tuple params = Tuple.of(doc.getAssignee(), doc.getBody());
-
-                        if (doc.getTargetDate() != null) {
-                            params.addLocalDate(doc.getTargetDate());
-                        } else {
-                            params.addLocalDateTime(null);
-                        }
-
-                        params.addInteger(doc.getPriority());
-                        if (doc.getStartDate() != null) {
-                            params.addLocalDate(doc.getStartDate());
-                        } else {
-                            params.addLocalDateTime(null);
-                        }
-
-                        params.addInteger(doc.getStatus())
-                                .addString(doc.getTitle())
-                                .addUUID(doc.getParent())
-                                .addUUID(doc.getProject())
-                                .addUUID(doc.getTaskType())
-                                .addLocalDateTime(nowTime)
-                                .addString(doc.getCancellationComment())
-                                .addLocalDateTime(nowTime)
-                                .addLong(user.getId())
-                                .addUUID(id);
-
-                        return client.withTransaction(tx -> tx.preparedQuery(sql)
-                                        .execute(params)
-                                        .onItem().transformToUni(rowSet -> {
-                                            int rowCount = rowSet.rowCount();
-                                            if (rowCount == 0) {
-                                                return Uni.createFrom().failure(new DocumentHasNotFoundException(id));
-                                            }
-                                            if (!doc.getLabels().isEmpty()) {
-                                                String deleteLabelsSql = "DELETE FROM prj__task_labels WHERE id=$1";
-                                                Uni<Void> deleteLabelsUni = tx.preparedQuery(deleteLabelsSql)
-                                                        .execute(Tuple.of(id))
-                                                        .onItem().ignore().andContinueWithNull();
-
-                                                List<Uni<Void>> labelInsertUnis = new ArrayList<>();
-                                                for (UUID label : doc.getLabels()) {
-                                                    String labelsSql = "INSERT INTO prj__task_labels(id, label_id) VALUES($1, $2)";
-                                                    Uni<Void> labelInsertUni = tx.preparedQuery(labelsSql)
-                                                            .execute(Tuple.of(id, label))
-                                                            .onItem().ignore().andContinueWithNull();
-                                                    labelInsertUnis.add(labelInsertUni);
-                                                }
-
-                                                return deleteLabelsUni.flatMap(ignored ->
-                                                        Uni.combine().all().unis(labelInsertUnis).discardItems()
-                                                ).map(ignored -> rowCount);
-                                            } else {
-                                                return Uni.createFrom().item(rowCount);
-                                            }
-                                        })
-                                        .onFailure().recoverWithUni(t ->
-                                                Uni.createFrom().failure(t)))
-                                .onItem().transformToUni(rowCount -> findById(id, user.getId())
-                                        .onItem().transform(task -> task));
-                    } else {
-                        return Uni.createFrom()
-                                .failure(new DocumentModificationAccessException("User does not have edit permission", user.getUserName(), id));
+                    if (!permissions[1]) {
+                        return Uni.createFrom().failure(new DocumentModificationAccessException("User does not have delete permission", user.getUserName(), uuid));
                     }
+                    String sql = String.format("DELETE FROM %s WHERE id=$1 RETURNING parent_id, project_id, status, target_date", entityData.getTableName());
+                    String dropOwned = String.format("DELETE FROM %s WHERE owner_id=$1", TASK_ROLLUP_TABLE_NAME);
+                    return client.withTransaction(tx -> tx.preparedQuery(sql)
+                            .execute(Tuple.of(uuid))
+                            .onItem().transformToUni(rows -> {
+                                if (rows.rowCount() == 0) {
+                                    return Uni.createFrom().failure(new DocumentHasNotFoundException(uuid));
+                                }
+                                Row row = rows.iterator().next();
+                                return removeFromRollups(tx, row.getUUID("parent_id"), row.getUUID("project_id"),
+                                        row.getInteger("status"), row.getLocalDate("target_date"))
+                                        .onItem().transformToUni(ignored -> tx.preparedQuery(dropOwned).execute(Tuple.of(uuid)))
+                                        .replaceWith(rows.rowCount());
+                            }))
+                            .onItem().invoke(() -> labelIndex.remove(uuid));
                 });
     }
 
+    /**
+     * Moves a batch of tasks closed before the cutoff, with their reader rows and label links, to the archive tables.
+     * Only tasks without live children are taken, so parents follow in later batches. Archived tasks stay counted
+     * in the roll-ups of their parent and project, and the roll-ups they own are kept for their archived subtree.
+     */
+    public Uni<List<UUID>> archiveClosed(LocalDateTime closedBefore, int limit) {
+        String select = String.format("SELECT t.id FROM %1$s t WHERE t.status_date < $1 " +
+                        "AND (t.status = ANY($2) OR t.cancel_comment IS NOT NULL) " +
+                        "AND NOT EXISTS (SELECT 1 FROM %1$s c WHERE c.parent_id = t.id) " +
+                        "ORDER BY t.status_date LIMIT $3 FOR UPDATE SKIP LOCKED",
+                entityData.getTableName());
+        Integer[] closed = {TaskStatus.COMPLETED.getCode(), TaskStatus.MERGED.getCode()};
+        return client.withTransaction(tx -> tx.preparedQuery(select)
+                .execute(Tuple.of(closedBefore, closed, limit))
+                .onItem().transform(rows -> {
+                    List<UUID> ids = new ArrayList<>();
+                    rows.forEach(row -> ids.add(row.getUUID("id")));
+                    return ids;
+                })
+                .onItem().call(ids -> {
+                    if (ids.isEmpty()) {
+                        return Uni.createFrom().voidItem();
+                    }
+                    Tuple batch = Tuple.of(ids.toArray(new UUID[0]));
+                    List<String> statements = List.of(
+                            copy(archiveData.getTableName(), entityData.getTableName(), TASK_COLUMNS, "id"),
+                            copy(archiveData.getRlsName(), entityData.getRlsName(), READER_COLUMNS, "entity_id"),
+                            copy(archiveData.getLabelsName(), entityData.getLabelsName(), LABEL_COLUMNS, "id"),
+                            String.format("DELETE FROM %s WHERE entity_id = ANY($1)", entityData.getRlsName()),
+                            String.format("DELETE FROM %s WHERE id = ANY($1)", entityData.getLabelsName()),
+                            String.format("DELETE FROM %s WHERE id = ANY($1)", entityData.getTableName()));
+                    Uni<Void> chain = Uni.createFrom().voidItem();
+                    for (String statement : statements) {
+                        chain = chain.onItem().transformToUni(ignored -> tx.preparedQuery(statement).execute(batch).replaceWithVoid());
+                    }
+                    return chain;
+                }))
+                .onItem().invoke(ids -> ids.forEach(labelIndex::remove));
+    }
 
+    public Uni<List<TaskTree.Entry>> getSubtree(UUID rootId, Long userID) {
+        String sql = String.format("WITH RECURSIVE tree AS (" +
+                        "SELECT t.id, 0 AS depth, ARRAY[t.id] AS path FROM %1$s t " +
+                        "JOIN %2$s acl ON acl.entity_id = t.id AND acl.reader = $1 WHERE t.id = $2 " +
+                        "UNION ALL SELECT c.id, tree.depth + 1, tree.path || c.id FROM tree " +
+                        "JOIN %1$s c ON c.parent_id = tree.id " +
+                        "JOIN %2$s acl ON acl.entity_id = c.id AND acl.reader = $1 WHERE c.id <> ALL(tree.path)) " +
+                        "SELECT pt.*, tree.depth, %3$s FROM tree JOIN %1$s pt ON pt.id = tree.id %4$s " +
+                        "ORDER BY tree.depth, pt.reg_date",
+                entityData.getTableName(), entityData.getRlsName(), ROLLUP_COLUMNS, rollupJoin("pt.id"));
+        return read(userID, db -> db.preparedQuery(sql)
+                .execute(Tuple.of(userID, rootId)))
+                .onItem().transformToMulti(rows -> Multi.createFrom().iterable(rows))
+                .onItem().transform(row -> new TaskTree.Entry(from(row), row.getInteger("depth"), rollupFrom(row)))
+                .collect().asList();
+    }
 
-    public Uni<Integer> delete(UUID uuid, IUser user) {
-        return delete(uuid, entityData, user);
+    public Uni<TaskRollup> getTaskRollup(UUID id, Long userID) {
+        return findRollup(id, entityData.getRlsName(), userID)
+                .onItem().ifNull().switchTo(() -> findRollup(id, archiveData.getRlsName(), userID))
+                .onItem().ifNull().failWith(() -> new DocumentHasNotFoundException(id));
+    }
+
+    public Uni<TaskRollup> getRollup(UUID ownerId, String rlsTable, Long userID) {
+        return findRollup(ownerId, rlsTable, userID)
+                .onItem().ifNull().failWith(() -> new DocumentHasNotFoundException(ownerId));
+    }
+
+    private Uni<TaskRollup> findRollup(UUID ownerId, String rlsTable, Long userID) {
+        String sql = String.format("SELECT %s FROM %s acl %s WHERE acl.entity_id = $2 AND acl.reader = $1",
+                ROLLUP_COLUMNS, rlsTable, rollupJoin("acl.entity_id"));
+        return read(userID, db -> db.preparedQuery(sql)
+                .execute(Tuple.of(userID, ownerId)))
+                .onItem().transform(RowSet::iterator)
+                .onItem().transform(iterator -> iterator.hasNext() ? rollupFrom(iterator.next()) : null);
+    }
+
+    public Uni<Integer> rebuildRollups() {
+        String delete = String.format("DELETE FROM %s", TASK_ROLLUP_TABLE_NAME);
+        String insert = String.format("INSERT INTO %1$s (owner_id, status, cnt, max_target_date) " +
+                        "SELECT owner_id, status, count(*), max(target_date) FROM (" +
+                        "SELECT parent_id AS owner_id, status, target_date FROM %2$s WHERE parent_id IS NOT NULL " +
+                        "UNION ALL SELECT project_id, status, target_date FROM %2$s WHERE project_id IS NOT NULL " +
+                        "UNION ALL SELECT parent_id, status, target_date FROM %3$s WHERE parent_id IS NOT NULL " +
+                        "UNION ALL SELECT project_id, status, target_date FROM %3$s WHERE project_id IS NOT NULL) s " +
+                        "GROUP BY owner_id, status",
+                TASK_ROLLUP_TABLE_NAME, entityData.getTableName(), archiveData.getTableName());
+        return client.withTransaction(tx -> tx.query(delete).execute()
+                .onItem().transformToUni(ignored -> tx.query(insert).execute())
+                .onItem().transform(RowSet::rowCount));
+    }
+
+    private Uni<Void> checkNotInSubtree(SqlClient tx, UUID id, UUID newParent) {
+        if (newParent == null) {
+            return Uni.createFrom().voidItem();
+        }
+        if (newParent.equals(id)) {
+            return Uni.createFrom().failure(new IllegalArgumentException("Task can not be its own parent"));
+        }
+        String sql = String.format("WITH RECURSIVE up AS (SELECT parent_id FROM %1$s WHERE id = $2 " +
+                "UNION SELECT t.parent_id FROM up JOIN %1$s t ON t.id = up.parent_id) " +
+                "SELECT 1 FROM up WHERE parent_id = $1", entityData.getTableName());
+        return tx.preparedQuery(sql)
+                .execute(Tuple.of(id, newParent))
+                .onItem().transformToUni(rows -> rows.rowCount() > 0
+                        ? Uni.createFrom().failure(new IllegalArgumentException("Task can not be moved under its own subtree"))
+                        : Uni.createFrom().voidItem());
+    }
+
+    private Uni<Void> moveInRollups(SqlClient tx, Row row, Task task) {
+        UUID oldParent = row.getUUID("old_parent_id");
+        UUID oldProject = row.getUUID("old_project_id");
+        int oldStatus = row.getInteger("old_status");
+        LocalDate oldTargetDate = row.getLocalDate("old_target_date");
+        if (Objects.equals(oldParent, task.getParent()) && Objects.equals(oldProject, task.getProject())
+                && oldStatus == task.getStatus() && Objects.equals(oldTargetDate, task.getTargetDate())) {
+            return Uni.createFrom().voidItem();
+        }
+        return removeFromRollups(tx, oldParent, oldProject, oldStatus, oldTargetDate)
+                .onItem().transformToUni(ignored -> addToRollups(tx, task.getParent(), task.getProject(), task.getStatus(), task.getTargetDate()));
+    }
+
+    private Uni<Void> addToRollups(SqlClient tx, UUID parent, UUID project, int status, LocalDate targetDate) {
+        UUID[] owners = owners(parent, project);
+        if (owners.length == 0) {
+            return Uni.createFrom().voidItem();
+        }
+        String sql = String.format("INSERT INTO %1$s (owner_id, status, cnt, max_target_date) " +
+                "SELECT o.owner_id, $2, 1, $3 FROM unnest($1::uuid[]) AS o(owner_id) " +
+                "ON CONFLICT (owner_id, status) DO UPDATE SET cnt = %1$s.cnt + 1, " +
+                "max_target_date = GREATEST(%1$s.max_target_date, EXCLUDED.max_target_date)", TASK_ROLLUP_TABLE_NAME);
+        return tx.preparedQuery(sql)
+                .execute(Tuple.of(owners, status).addLocalDate(targetDate))
+                .replaceWithVoid();
+    }
+
+    private Uni<Void> removeFromRollups(SqlClient tx, UUID parent, UUID project, int status, LocalDate targetDate) {
+        UUID[] owners = owners(parent, project);
+        if (owners.length == 0) {
+            return Uni.createFrom().voidItem();
+        }
+        String sql = String.format("UPDATE %1$s r SET cnt = GREATEST(r.cnt - 1, 0), " +
+                "max_target_date = CASE WHEN $3::date IS NULL OR r.max_target_date > $3::date THEN r.max_target_date " +
+                "ELSE (SELECT max(t.target_date) FROM (" +
+                "SELECT target_date FROM %2$s WHERE parent_id = r.owner_id AND status = r.status " +
+                "UNION ALL SELECT target_date FROM %2$s WHERE project_id = r.owner_id AND status = r.status " +
+                "UNION ALL SELECT target_date FROM %3$s WHERE parent_id = r.owner_id AND status = r.status " +
+                "UNION ALL SELECT target_date FROM %3$s WHERE project_id = r.owner_id AND status = r.status) t) END " +
+                "WHERE r.owner_id = ANY($1::uuid[]) AND r.status = $2",
+                TASK_ROLLUP_TABLE_NAME, entityData.getTableName(), archiveData.getTableName());
+        return tx.preparedQuery(sql)
+                .execute(Tuple.of(owners, status).addLocalDate(targetDate))
+                .replaceWithVoid();
+    }
+
+    private static String copy(String target, String source, String columns, String idColumn) {
+        return String.format("INSERT INTO %1$s (%3$s) SELECT %3$s FROM %2$s WHERE %4$s = ANY($1)", target, source, columns, idColumn);
+    }
+
+    private static UUID[] owners(UUID parent, UUID project) {
+        if (parent == null) {
+            return project == null ? new UUID[0] : new UUID[]{project};
+        }
+        return project == null ? new UUID[]{parent} : new UUID[]{parent, project};
+    }
+
+    private static String rollupJoin(String ownerExpression) {
+        return String.format("LEFT JOIN LATERAL (SELECT array_agg(r.status) AS rollup_statuses, array_agg(r.cnt) AS rollup_counts, " +
+                "max(r.max_target_date) AS rollup_target_date FROM %s r WHERE r.owner_id = %s AND r.cnt > 0) rl ON TRUE",
+                TASK_ROLLUP_TABLE_NAME, ownerExpression);
+    }
+
+    private static TaskRollup rollupFrom(Row row) {
+        return TaskRollup.of(row.getArrayOfIntegers("rollup_statuses"), row.getArrayOfIntegers("rollup_counts"),
+                row.getLocalDate("rollup_target_date"));
     }
 
 }
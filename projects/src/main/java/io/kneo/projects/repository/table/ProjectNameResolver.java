@@ -6,16 +6,22 @@ import io.kneo.core.repository.table.TableNameResolver;
 public class ProjectNameResolver extends TableNameResolver {
     public static final String PROJECT = "project";
     public static final String TASK = "task";
+    public static final String TASK_ARCHIVE = "task_archive";
     private static final String PROJECT_TABLE_NAME = "prj__projects";
     private static final String PROJECT_ACCESS_TABLE_NAME = "prj__project_readers";
     private static final String TASK_TABLE_NAME = "prj__tasks";
     private static final String TASK_ACCESS_TABLE_NAME = "prj__task_readers";
     private static final String TASK_LABELS = "prj__task_labels";
+    private static final String TASK_ARCHIVE_TABLE_NAME = "prj__tasks_archive";
+    private static final String TASK_ARCHIVE_ACCESS_TABLE_NAME = "prj__task_readers_archive";
+    private static final String TASK_ARCHIVE_LABELS = "prj__task_labels_archive";
+    public static final String TASK_ROLLUP_TABLE_NAME = "prj__task_rollups";
 
     public EntityData getEntityNames(String type) {
         return switch (type) {
             case PROJECT -> new EntityData(PROJECT_TABLE_NAME, PROJECT_ACCESS_TABLE_NAME);
             case TASK -> new EntityData(TASK_TABLE_NAME, TASK_ACCESS_TABLE_NAME, TASK_LABELS);
+            case TASK_ARCHIVE -> new EntityData(TASK_ARCHIVE_TABLE_NAME, TASK_ARCHIVE_ACCESS_TABLE_NAME, TASK_ARCHIVE_LABELS);
             default -> super.getEntityNames(type);
         };
     }
@@ -74,7 +74,12 @@ public class ProjectService extends AbstractService<Project, ProjectDTO> {
     @Override
     public Uni<ProjectDTO> getDTO(UUID uuid, IUser user, LanguageCode code) {
         assert repository != null;
-        Uni<Project> projectUni = repository.findById(uuid, user.getId());
+        Uni<Project> projectUni = repository.findById(uuid, user.getId())
+                .onItem().invoke(project -> {
+                    if (project != null) {
+                        repository.markRead(uuid, user.getId());
+                    }
+                });
         return projectUni.onItem().transformToUni(this::map);
     }
 
@@ -121,6 +126,7 @@ public class ProjectService extends AbstractService<Project, ProjectDTO> {
                         .coder(tuple.getItem2())
                         .tester(tuple.getItem3())
                         .primaryLang(project.getPrimaryLang())
+                        .version(project.getVersion())
                         .build());
     }
 
@@ -131,6 +137,7 @@ public class ProjectService extends AbstractService<Project, ProjectDTO> {
         doc.setStartDate(dto.getStartDate());
         doc.setFinishDate(dto.getFinishDate());
         doc.setPrimaryLang(dto.getPrimaryLang());
+        doc.setVersion(dto.getVersion());
         doc.setManager(userService.resolveIdentifier(dto.getManager().getIdentifier()).await().atMost(TIMEOUT));
         doc.setCoder(userService.resolveIdentifier(dto.getCoder().getIdentifier()).await().atMost(TIMEOUT));
         doc.setTester(userService.resolveIdentifier(dto.getTester().getIdentifier()).await().atMost(TIMEOUT));
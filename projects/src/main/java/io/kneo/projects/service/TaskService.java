@@ -16,25 +16,37 @@ import io.kneo.officeframe.service.EmployeeService;
 import io.kneo.officeframe.service.LabelService;
 import io.kneo.officeframe.service.TaskTypeService;
 import io.kneo.projects.dto.ProjectDTO;
+import io.kneo.projects.dto.TaskBoardDTO;
 import io.kneo.projects.dto.TaskDTO;
+import io.kneo.projects.dto.TaskNodeDTO;
+import io.kneo.projects.dto.TaskRollupDTO;
 import io.kneo.projects.dto.filter.TaskFilter;
 import io.kneo.projects.model.Project;
 import io.kneo.projects.model.Task;
+import io.kneo.projects.model.TaskBoard;
+import io.kneo.projects.model.TaskRollup;
+import io.kneo.projects.model.TaskTree;
 import io.kneo.projects.repository.TaskRepository;
 import io.kneo.projects.repository.table.ProjectNameResolver;
 import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import static io.kneo.projects.repository.table.ProjectNameResolver.PROJECT;
 import static io.kneo.projects.repository.table.ProjectNameResolver.TASK;
 
 @ApplicationScoped
 public class TaskService extends AbstractService<Task, TaskDTO> {
     private static final EntityData entityData = ProjectNameResolver.create().getEntityNames(TASK);
+    private static final EntityData projectEntityData = ProjectNameResolver.create().getEntityNames(PROJECT);
     private final TaskRepository repository;
     private final EmployeeService employeeService;
     private final LabelService labelService;
@@ -62,10 +74,23 @@ public class TaskService extends AbstractService<Task, TaskDTO> {
 
     public Uni<List<TaskDTO>> getAll(final int limit, final int offset, final IUser user, TaskFilter filters) {
         assert repository != null;
-        Uni<List<Task>> taskUni = repository.getAll(limit, offset, user.getId());
+        Uni<List<Task>> taskUni;
+        if (isArchived(filters)) {
+            taskUni = repository.getAllArchived(limit, offset, user.getId());
+        } else if (hasLabels(filters)) {
+            taskUni = repository.findByLabels(filters.getLabels(), user.getId())
+                    .onItem().transformToUni(ids -> {
+                        int from = Math.min(offset, ids.size());
+                        int to = limit > 0 ? Math.min(from + limit, ids.size()) : ids.size();
+                        return repository.getByIds(ids.subList(from, to), user.getId());
+                    });
+        } else {
+            taskUni = repository.getAll(limit, offset, user.getId());
+        }
         return taskUni
-                .onItem().transformToUni(taskList ->
-                        Uni.combine().all().unis(
+                .onItem().transformToUni(taskList -> taskList.isEmpty()
+                        ? Uni.createFrom().item(List.<TaskDTO>of())
+                        : Uni.combine().all().unis(
                                 taskList.stream()
                                         .map(doc -> {
                                             assert employeeService != null;
@@ -93,13 +118,54 @@ public class TaskService extends AbstractService<Task, TaskDTO> {
 
     public Uni<Integer> getAllCount(final IUser user, TaskFilter filters) {
         assert repository != null;
+        if (isArchived(filters)) {
+            return repository.getArchivedCount(user.getId());
+        }
+        if (hasLabels(filters)) {
+            return repository.findByLabels(filters.getLabels(), user.getId()).onItem().transform(List::size);
+        }
         return repository.getAllCount(user.getId());
     }
 
+    private static boolean isArchived(TaskFilter filters) {
+        if (filters == null || !filters.isArchived()) {
+            return false;
+        }
+        if (hasLabels(filters)) {
+            throw new IllegalArgumentException("Label filter is not supported for archived tasks");
+        }
+        return true;
+    }
+
+    private static boolean hasLabels(TaskFilter filters) {
+        return filters != null && filters.getLabels() != null && !filters.getLabels().isBlank();
+    }
+
+    public Uni<Buffer> getDocument(UUID uuid, IUser user) {
+        assert repository != null;
+        return repository.findDocumentById(uuid, user.getId())
+                .onItem().invoke(doc -> repository.markRead(uuid, user.getId()));
+    }
+
+    public Uni<String> getVersion(UUID uuid, IUser user) {
+        assert repository != null;
+        return repository.getVersion(uuid, user.getId());
+    }
+
+    public Uni<String> getWatermark(IUser user) {
+        assert repository != null;
+        return repository.getWatermark(user.getId());
+    }
+
     @Override
     public Uni<TaskDTO> getDTO(UUID uuid, IUser user, LanguageCode code) {
         assert repository != null;
-        Uni<Task> taskUni = repository.findById(uuid, user.getId());
+        Uni<Task> taskUni = repository.findById(uuid, user.getId())
+                .onItem().invoke(task -> {
+                    if (task != null) {
+                        repository.markRead(uuid, user.getId());
+                    }
+                });
         return map(taskUni, user, code);
     }
 
@@ -114,7 +180,7 @@ public class TaskService extends AbstractService<Task, TaskDTO> {
         Uni<Employee> assigneeUni = employeeService.getByUserId(dto.getAssignee().getUserId());
         Uni<TaskType> taskTypeUni = taskTypeService.getByIdentifier(dto.getTaskType().getIdentifier());
 
-        List<UUID> labelIds = dto.getLabels().stream()
+        List<UUID> labelIds = dto.getLabels() == null ? null : dto.getLabels().stream()
                 .map(LabelDTO::getId)
                 .collect(Collectors.toList());
 
@@ -125,6 +191,10 @@ public class TaskService extends AbstractService<Task, TaskDTO> {
         doc.setPriority(dto.getPriority());
         doc.setTargetDate(dto.getTargetDate());
         doc.setTitle(dto.getTitle());
+        doc.setVersion(dto.getVersion());
+        if (dto.getParent() != null) {
+            doc.setParent(dto.getParent().getId());
+        }
 
         assert repository != null;
         return Uni.combine().all().unis(projectUni, assigneeUni, taskTypeUni).asTuple().onItem().transformToUni(tuple -> {
@@ -150,12 +220,108 @@ public class TaskService extends AbstractService<Task, TaskDTO> {
     }
 
 
+    public Uni<TaskBoardDTO> getBoard(UUID projectId, int limit, String watermark, IUser user, LanguageCode code) {
+        assert repository != null;
+        assert employeeService != null;
+        assert taskTypeService != null;
+        return repository.getBoard(projectId, user.getId(), limit)
+                .onItem().transform(TaskBoard::of)
+                .onItem().transformToUni(board -> {
+                    List<Task> tasks = board.getTasks();
+                    Set<Long> assignees = tasks.stream().map(Task::getAssignee).filter(Objects::nonNull).collect(Collectors.toSet());
+                    List<UUID> taskTypeIds = tasks.stream().map(Task::getTaskType).filter(Objects::nonNull).distinct().toList();
+                    Uni<Map<Long, EmployeeDTO>> assigneesUni = employeeService.getBriefsByUserIds(assignees);
+                    Uni<List<TaskTypeDTO>> taskTypesUni = taskTypeIds.isEmpty()
+                            ? Uni.createFrom().item(List.of())
+                            : Uni.join().all(taskTypeIds.stream()
+                            .map(id -> taskTypeService.getDTO(id, user, code))
+                            .collect(Collectors.toList())).andFailFast();
+                    return Uni.combine().all().unis(assigneesUni, taskTypesUni)
+                            .asTuple().onItem().transform(tuple -> {
+                                Map<Long, EmployeeDTO> employees = tuple.getItem1();
+                                Map<UUID, TaskTypeDTO> taskTypes = tuple.getItem2().stream()
+                                        .collect(Collectors.toMap(TaskTypeDTO::getId, t -> t, (first, second) -> first));
+                                List<TaskBoardDTO.Column> columns = board.getColumns().values().stream()
+                                        .map(column -> new TaskBoardDTO.Column(column.status(), column.count(), column.tasks().stream()
+                                                .map(task -> TaskDTO.builder()
+                                                        .id(task.getId())
+                                                        .regNumber(task.getRegNumber())
+                                                        .title(task.getTitle())
+                                                        .status(task.getStatus())
+                                                        .priority(task.getPriority())
+                                                        .startDate(task.getStartDate())
+                                                        .targetDate(task.getTargetDate())
+                                                        .lastModifiedDate(task.getLastModifiedDate())
+                                                        .assignee(task.getAssignee() == null ? null : employees.get(task.getAssignee()))
+                                                        .taskType(taskTypes.get(task.getTaskType()))
+                                                        .build())
+                                                .toList()))
+                                        .toList();
+                                return TaskBoardDTO.builder()
+                                        .project(projectId)
+                                        .watermark(watermark)
+                                        .columns(columns)
+                                        .build();
+                            });
+                });
+    }
+
+    public Uni<String> getBoardWatermark(UUID projectId, IUser user) {
+        assert repository != null;
+        return repository.getBoardWatermark(projectId, user.getId());
+    }
+
+    public Uni<TaskNodeDTO> getTree(UUID uuid, IUser user) {
+        assert repository != null;
+        return repository.getSubtree(uuid, user.getId())
+                .onItem().transformToUni(entries -> {
+                    TaskTree tree = TaskTree.of(uuid, entries);
+                    if (tree == null) {
+                        return Uni.createFrom().failure(new DocumentHasNotFoundException(uuid));
+                    }
+                    return Uni.createFrom().item(toNode(tree.getRoot()));
+                });
+    }
+
+    public Uni<TaskRollupDTO> getRollup(UUID uuid, IUser user) {
+        assert repository != null;
+        return repository.getTaskRollup(uuid, user.getId())
+                .onItem().transform(TaskRollupDTO::of);
+    }
+
+    public Uni<TaskRollupDTO> getProjectRollup(UUID projectId, IUser user) {
+        assert repository != null;
+        return repository.getRollup(projectId, projectEntityData.getRlsName(), user.getId())
+                .onItem().transform(TaskRollupDTO::of);
+    }
+
+    public Uni<Integer> rebuildRollups() {
+        assert repository != null;
+        return repository.rebuildRollups();
+    }
+
     public Uni<Integer> delete(String id, IUser user) {
         UUID uuid = UUID.fromString(id);
         assert repository != null;
         return repository.delete(uuid, user);
     }
 
+    private static TaskNodeDTO toNode(TaskTree.Node node) {
+        Task task = node.task();
+        return TaskNodeDTO.builder()
+                .id(task.getId())
+                .regNumber(task.getRegNumber())
+                .title(task.getTitle())
+                .assignee(task.getAssignee())
+                .status(task.getStatus())
+                .priority(task.getPriority())
+                .targetDate(task.getTargetDate())
+                .depth(node.depth())
+                .rollup(node.rollup() == TaskRollup.EMPTY ? null : TaskRollupDTO.of(node.rollup()))
+                .children(node.children().stream().map(TaskService::toNode).toList())
+                .build();
+    }
+
     private Uni<TaskDTO> map(Uni<Task> taskUni, IUser user, LanguageCode code) {
         assert projectService != null;
         assert taskTypeService != null;
@@ -182,6 +348,7 @@ public class TaskService extends AbstractService<Task, TaskDTO> {
                         .title(task.getTitle())
                         .lastModifier(userRepository.getUserName(task.getLastModifier()).await().atMost(TIMEOUT))
                         .lastModifiedDate(task.getLastModifiedDate())
+                        .version(task.getVersion())
                         .regNumber(task.getRegNumber())
                         .startDate(task.getStartDate())
                         .targetDate(task.getTargetDate())
@@ -0,0 +1,24 @@
+package io.kneo.projects.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TaskDTOTest {
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void omittedLabelsStayNull() throws Exception {
+        TaskDTO dto = mapper.readValue("{\"title\":\"t\"}", TaskDTO.class);
+
+        Assertions.assertNull(dto.getLabels());
+    }
+
+    @Test
+    void emptyLabelsClear() throws Exception {
+        TaskDTO dto = mapper.readValue("{\"title\":\"t\",\"labels\":[]}", TaskDTO.class);
+
+        Assertions.assertNotNull(dto.getLabels());
+        Assertions.assertTrue(dto.getLabels().isEmpty());
+    }
+}
@@ -0,0 +1,173 @@
+package io.kneo.projects.repository;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.PreparedQuery;
+import io.vertx.mutiny.sqlclient.Query;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowIterator;
+import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.Tuple;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+class TaskLabelIndexTest {
+    private static final long READER = 7;
+
+    private final UUID bug = UUID.randomUUID();
+    private final UUID ui = UUID.randomUUID();
+    private final UUID first = UUID.randomUUID();
+    private final UUID second = UUID.randomUUID();
+    private final UUID third = UUID.randomUUID();
+    private final List<String> queries = new ArrayList<>();
+
+    private TaskLabelIndex index;
+    private PgPool client;
+    private Uni<RowSet<Row>> labels;
+
+    @BeforeEach
+    void setUp() {
+        labels = Uni.createFrom().item(rows(List.of(label(bug, "bug"), label(ui, "ui"))));
+        client = Mockito.mock(PgPool.class);
+        Mockito.when(client.query(Mockito.anyString())).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            queries.add(sql);
+            return query(sql);
+        });
+        Mockito.when(client.preparedQuery(Mockito.anyString())).thenAnswer(invocation -> preparedQuery(invocation.getArgument(0)));
+
+        index = new TaskLabelIndex();
+        index.client = client;
+        index.readersTtl = 30;
+    }
+
+    @Test
+    void queryEvaluatesExpressionOverReadableTasks() {
+        index.build().await().indefinitely();
+
+        Assertions.assertEquals(List.of(first, second), index.query("bug", READER).await().indefinitely());
+        Assertions.assertEquals(List.of(first), index.query("bug AND NOT ui", READER).await().indefinitely());
+        Assertions.assertEquals(List.of(third), index.query("NOT bug", READER).await().indefinitely());
+    }
+
+    @Test
+    void buildSkipsTasksOfDeletedProjects() {
+        index.build().await().indefinitely();
+
+        Assertions.assertEquals(3, queries.size());
+        Assertions.assertTrue(queries.get(0).contains("deleted_at IS NOT NULL"));
+        Assertions.assertTrue(queries.get(1).contains("deleted_at IS NOT NULL"));
+    }
+
+    @Test
+    void changesDuringBuildAreKept() {
+        CompletableFuture<RowSet<Row>> loaded = new CompletableFuture<>();
+        RowSet<Row> labelRows = rows(List.of(label(bug, "bug"), label(ui, "ui")));
+        labels = Uni.createFrom().completionStage(loaded);
+        CompletableFuture<Integer> built = index.build().subscribeAsCompletionStage();
+
+        index.put(third, List.of(ui));
+        index.remove(first);
+        loaded.complete(labelRows);
+
+        Assertions.assertEquals(3, built.join());
+        Assertions.assertEquals(List.of(second, third), index.query("ui", READER).await().indefinitely());
+        Assertions.assertEquals(List.of(second), index.query("bug", READER).await().indefinitely());
+    }
+
+    @Test
+    void putReplacesLabels() {
+        index.build().await().indefinitely();
+
+        index.put(first, List.of(ui));
+
+        Assertions.assertEquals(List.of(second), index.query("bug", READER).await().indefinitely());
+        Assertions.assertEquals(List.of(first, second), index.query("ui", READER).await().indefinitely());
+    }
+
+    @Test
+    void removedProjectTasksLeaveTheIndex() {
+        index.build().await().indefinitely();
+        Assertions.assertEquals(List.of(first, second), index.query("bug", READER).await().indefinitely());
+
+        index.removeProject(UUID.randomUUID()).await().indefinitely();
+
+        Assertions.assertEquals(List.of(), index.query("bug", READER).await().indefinitely());
+        Assertions.assertEquals(List.of(third), index.query("NOT ui", READER).await().indefinitely());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Query<RowSet<Row>> query(String sql) {
+        Query<RowSet<Row>> query = Mockito.mock(Query.class);
+        if (sql.contains("label_id")) {
+            RowSet<Row> links = rows(List.of(link(first, bug), link(second, bug), link(second, ui)));
+            Mockito.when(query.execute()).thenReturn(Uni.createFrom().item(links));
+        } else if (sql.contains("identifier")) {
+            Mockito.when(query.execute()).thenReturn(labels);
+        } else {
+            RowSet<Row> tasks = rows(List.of(row(Map.of("id", first)), row(Map.of("id", second)), row(Map.of("id", third))));
+            Mockito.when(query.execute()).thenReturn(Uni.createFrom().item(tasks));
+        }
+        return query;
+    }
+
+    @SuppressWarnings("unchecked")
+    private PreparedQuery<RowSet<Row>> preparedQuery(String sql) {
+        PreparedQuery<RowSet<Row>> query = Mockito.mock(PreparedQuery.class);
+        RowSet<Row> result;
+        if (sql.contains("reader")) {
+            result = rows(List.of(row(Map.of("entity_id", first)), row(Map.of("entity_id", second)), row(Map.of("entity_id", third))));
+        } else if (sql.contains("project_id")) {
+            result = rows(List.of(row(Map.of("id", first)), row(Map.of("id", second))));
+        } else {
+            result = rows(List.of());
+        }
+        Mockito.when(query.execute(Mockito.any(Tuple.class))).thenReturn(Uni.createFrom().item(result));
+        return query;
+    }
+
+    private static Row link(UUID task, UUID label) {
+        return row(Map.of("id", task, "label_id", label));
+    }
+
+    private static Row label(UUID id, String identifier) {
+        Row row = row(Map.of("id", id));
+        Mockito.when(row.getString("identifier")).thenReturn(identifier);
+        return row;
+    }
+
+    private static Row row(Map<String, UUID> values) {
+        Row row = Mockito.mock(Row.class);
+        values.forEach((column, value) -> Mockito.when(row.getUUID(column)).thenReturn(value));
+        return row;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RowSet<Row> rows(List<Row> list) {
+        RowSet<Row> rows = Mockito.mock(RowSet.class);
+        Mockito.when(rows.iterator()).thenAnswer(invocation -> iterator(list.iterator()));
+        Mockito.doAnswer(invocation -> {
+            list.forEach(invocation.<Consumer<Row>>getArgument(0));
+            return null;
+        }).when(rows).forEach(Mockito.any());
+        return rows;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RowIterator<Row> iterator(Iterator<Row> source) {
+        RowIterator<Row> iterator = Mockito.mock(RowIterator.class);
+        Mockito.when(iterator.hasNext()).thenAnswer(invocation -> source.hasNext());
+        Mockito.when(iterator.next()).thenAnswer(invocation -> source.next());
+        return iterator;
+    }
+}
@@ -1,6 +1,8 @@
 package io.kneo.qtracker.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import io.kneo.core.controller.AbstractSecuredController;
+import io.kneo.core.controller.RouteExecution;
 import io.kneo.core.dto.actions.ActionBox;
 import io.kneo.core.dto.cnst.PayloadType;
 import io.kneo.core.dto.form.FormPage;
@@ -8,24 +10,25 @@ import io.kneo.core.dto.view.View;
 import io.kneo.core.dto.view.ViewPage;
 import io.kneo.core.model.user.IUser;
 import io.kneo.core.service.UserService;
-import io.kneo.core.util.RuntimeUtil;
 import io.kneo.qtracker.dto.ConsumingDTO;
 import io.kneo.qtracker.dto.actions.ConsumingActionsFactory;
+import io.kneo.qtracker.dto.cnst.MessengerType;
 import io.kneo.qtracker.model.Consuming;
 import io.kneo.qtracker.service.ConsumingService;
-import io.smallrye.mutiny.Uni;
 import io.vertx.core.http.HttpMethod;
-import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
 @ApplicationScoped
+@RouteExecution
 public class ConsumingController extends AbstractSecuredController<Consuming, ConsumingDTO> {
+    private static final String NDJSON_TYPE = "application/x-ndjson";
 
     @Inject
     ConsumingService service;
@@ -39,40 +42,20 @@ public class ConsumingController extends AbstractSecuredController<Consuming, Co
     }
 
     public void setupRoutes(Router router) {
-        router.route(HttpMethod.GET, "/api/:org/consumings").handler(this::get);
-        router.route(HttpMethod.GET, "/api/:org/consumings/:messengerType/:userName").handler(this::getMine);
-        router.route(HttpMethod.GET, "/api/:org/consumings/:id").handler(this::getById);
-        router.route(HttpMethod.POST, "/api/:org/consumings/:id?").handler(this::upsert);
-        router.route(HttpMethod.POST, "/api/:org/consumings/add/:id?").handler(this::insertAndCalc);
-        router.route(HttpMethod.DELETE, "/api/:org/consumings/:id").handler(this::delete);
+        router.route(HttpMethod.GET, "/api/:org/consumings").handler(handler(this::get));
+        router.route(HttpMethod.GET, "/api/:org/consumings/:messengerType/:userName").handler(handler(this::getMine));
+        router.route(HttpMethod.POST, "/api/:org/consumings/batch/:messengerType/:userName").handler(handler(this::ingest));
+        router.route(HttpMethod.GET, "/api/:org/consumings/:id").handler(handler(this::getById));
+        router.route(HttpMethod.POST, "/api/:org/consumings/:id?").handler(handler(this::upsert));
+        router.route(HttpMethod.POST, "/api/:org/consumings/add/:id?").handler(handler(this::insertAndCalc));
+        router.route(HttpMethod.DELETE, "/api/:org/consumings/:id").handler(handler(this::delete));
     }
 
     private void get(RoutingContext rc) {
-        int page = Integer.parseInt(rc.request().getParam("page", "1"));
-        int size = Integer.parseInt(rc.request().getParam("size", "10"));
         IUser user = getUser(rc);
-
-        Uni.combine().all().unis(
-                service.getAllCount(user),
-                service.getAll(size, (page - 1) * size, user)
-        ).asTuple().subscribe().with(
-                tuple -> {
-                    int count = tuple.getItem1();
-                    List<ConsumingDTO> consumings = tuple.getItem2();
-
-                    int maxPage = RuntimeUtil.countMaxPage(count, size);
-
-                    ViewPage viewPage = new ViewPage();
-                    View<ConsumingDTO> dtoEntries = new View<>(consumings, count, page, maxPage, size);
-                    viewPage.addPayload(PayloadType.VIEW_DATA, dtoEntries);
-
-                    ActionBox actions = ConsumingActionsFactory.getViewActions(user.getActivatedRoles());
-                    viewPage.addPayload(PayloadType.CONTEXT_ACTIONS, actions);
-
-                    rc.response().setStatusCode(200).end(JsonObject.mapFrom(viewPage).encode());
-                },
-                rc::fail
-        );
+        conditional(rc, service.getWatermark(user), ctx -> sendViewPage(ctx, service.getAllCount(user),
+                (size, offset) -> service.getAllAsJson(size, offset, user),
+                ConsumingActionsFactory.getCachedViewActions(user.getActivatedRoles(), resolveLanguage(ctx))));
     }
 
     private void getMine(RoutingContext rc) {
@@ -85,22 +68,28 @@ public class ConsumingController extends AbstractSecuredController<Consuming, Co
                             ViewPage viewPage = new ViewPage();
                             View<ConsumingDTO> dtoEntries = new View<>(consumings, count, 1, 1, count);
                             viewPage.addPayload(PayloadType.VIEW_DATA, dtoEntries);
-                            rc.response().setStatusCode(200).end(JsonObject.mapFrom(viewPage).encode());
+                            sendJson(rc, 200, viewPage);
                         },
                         rc::fail
                 );
     }
 
-    private void getById(RoutingContext rc)  {
+    private void getById(RoutingContext rc) {
+        UUID id = UUID.fromString(rc.pathParam("id"));
+        IUser user = getUser(rc);
+        conditional(rc, service.getVersion(id, user), ctx -> renderById(ctx, id, user));
+    }
+
+    private void renderById(RoutingContext rc, UUID id, IUser user) {
         FormPage page = new FormPage();
         page.addPayload(PayloadType.CONTEXT_ACTIONS, new ActionBox());
-        service.getDTO(UUID.fromString(rc.pathParam("id")), getUser(rc), resolveLanguage(rc))
+        service.getDTO(id, user, resolveLanguage(rc))
                 .onItem().transform(dto -> {
                     page.addPayload(PayloadType.DOC_DATA, dto);
                     return page;
                 })
                 .subscribe().with(
-                        formPage -> rc.response().setStatusCode(200).end(JsonObject.mapFrom(formPage).encode()),
+                        formPage -> sendConditionalJson(rc, formPage),
                         rc::fail
                 );
     }
@@ -109,34 +98,54 @@ public class ConsumingController extends AbstractSecuredController<Consuming, Co
         String id = rc.pathParam("id");
         IUser user = getUser(rc);
 
-        JsonObject jsonObject = rc.body().asJsonObject();
-        ConsumingDTO dto = jsonObject.mapTo(ConsumingDTO.class);
-        service.upsert(id, dto, user, resolveLanguage(rc))
-                .subscribe().with(
-                        doc -> {
-                            int statusCode = id == null ? 201 : 200;
-                            rc.response().setStatusCode(statusCode).end(JsonObject.mapFrom(doc).encode());
-                        },
-                        rc::fail
-                );
+        ConsumingDTO dto = readBody(rc, ConsumingDTO.class);
+        idempotent(rc, id == null ? 201 : 200, () -> service.upsert(id, dto, user, resolveLanguage(rc)));
     }
 
     private void insertAndCalc(RoutingContext rc)  {
         String id = rc.pathParam("id");
         IUser user = getUser(rc);
 
-        JsonObject jsonObject = rc.body().asJsonObject();
-        ConsumingDTO dto = jsonObject.mapTo(ConsumingDTO.class);
-        service.insertAndProcess(id, dto, user, resolveLanguage(rc))
+        ConsumingDTO dto = readBody(rc, ConsumingDTO.class);
+        idempotent(rc, id == null ? 201 : 200, () -> service.insertAndProcess(id, dto, user, resolveLanguage(rc)));
+    }
+
+    private void ingest(RoutingContext rc) {
+        MessengerType messengerType;
+        try {
+            messengerType = MessengerType.valueOf(rc.pathParam("messengerType").toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown messenger type: " + rc.pathParam("messengerType"));
+        }
+        service.ingest(readReports(rc), messengerType, rc.pathParam("userName"), getUser(rc))
                 .subscribe().with(
-                        doc -> {
-                            int statusCode = id == null ? 201 : 200;
-                            rc.response().setStatusCode(statusCode).end(JsonObject.mapFrom(doc).encode());
-                        },
+                        results -> sendJson(rc, 200, results),
                         rc::fail
                 );
     }
 
+    private List<ConsumingDTO> readReports(RoutingContext rc) {
+        String body = rc.body().asString();
+        if (body == null || body.isBlank()) {
+            throw new IllegalArgumentException("Request body is empty");
+        }
+        String contentType = rc.request().getHeader(CONTENT_TYPE);
+        try {
+            if (contentType != null && contentType.startsWith(NDJSON_TYPE)) {
+                List<ConsumingDTO> reports = new ArrayList<>();
+                for (String line : body.split("\\r?\\n")) {
+                    if (!line.isBlank()) {
+                        reports.add(mapper.readValue(line, ConsumingDTO.class));
+                    }
+                }
+                return reports;
+            }
+            return mapper.readValue(body, mapper.getTypeFactory().constructCollectionType(List.class, ConsumingDTO.class));
+        } catch (JsonProcessingException e) {
+            throw malformedBody(ConsumingDTO.class.getSimpleName(), e);
+        }
+    }
+
     private void delete(RoutingContext rc)  {
         service.delete(rc.pathParam("id"), getUser(rc))
                 .subscribe().with(
@@ -2,6 +2,7 @@ package io.kneo.qtracker.controller;
 
 import io.kneo.core.controller.AbstractSecuredController;
 import io.kneo.core.dto.actions.ActionBox;
+import io.kneo.core.dto.actions.CachedActionBox;
 import io.kneo.core.dto.cnst.PayloadType;
 import io.kneo.core.dto.form.FormPage;
 import io.kneo.core.dto.view.View;
@@ -16,7 +17,6 @@ import io.kneo.qtracker.model.Owner;
 import io.kneo.qtracker.service.OwnerService;
 import io.smallrye.mutiny.Uni;
 import io.vertx.core.http.HttpMethod;
-import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -66,10 +66,10 @@ public class OwnerController extends AbstractSecuredController<Owner, OwnerDTO>
                     View<OwnerDTO> dtoEntries = new View<>(owners, count, page, maxPage, size);
                     viewPage.addPayload(PayloadType.VIEW_DATA, dtoEntries);
 
-                    ActionBox actions = OwnerActionsFactory.getViewActions(user.getActivatedRoles());
+                    CachedActionBox actions = OwnerActionsFactory.getCachedViewActions(user.getActivatedRoles(), resolveLanguage(rc));
                     viewPage.addPayload(PayloadType.CONTEXT_ACTIONS, actions);
 
-                    rc.response().setStatusCode(200).end(JsonObject.mapFrom(viewPage).encode());
+                    sendJson(rc, 200, viewPage);
                 },
                 rc::fail
         );
@@ -83,7 +83,7 @@ public class OwnerController extends AbstractSecuredController<Owner, OwnerDTO>
                 owner -> {
                     FormPage page = new FormPage();
                     page.addPayload(PayloadType.DOC_DATA, owner);
-                    rc.response().setStatusCode(200).end(JsonObject.mapFrom(page).encode());
+                    sendJson(rc, 200, page);
                 },
                 rc::fail
         );
@@ -98,7 +98,7 @@ public class OwnerController extends AbstractSecuredController<Owner, OwnerDTO>
                     FormPage page = new FormPage();
                     page.addPayload(PayloadType.DOC_DATA, owner);
                     page.addPayload(PayloadType.CONTEXT_ACTIONS, new ActionBox());
-                    rc.response().setStatusCode(200).end(JsonObject.mapFrom(page).encode());
+                    sendJson(rc, 200, page);
                 },
                 rc::fail
         );
@@ -107,16 +107,8 @@ public class OwnerController extends AbstractSecuredController<Owner, OwnerDTO>
     private void upsertMessengerUser(RoutingContext rc) {
         String id = rc.pathParam("id");
         String messengerType = rc.pathParam("messengerType");
-        JsonObject jsonObject = rc.body().asJsonObject();
-        OwnerDTO dto = jsonObject.mapTo(OwnerDTO.class);
-        service.upsert(id, dto, getUser(rc), LanguageCode.ENG)
-                .subscribe().with(
-                        doc -> {
-                            int statusCode = id == null ? 201 : 200;
-                            rc.response().setStatusCode(statusCode).end(JsonObject.mapFrom(doc).encode());
-                        },
-                        rc::fail
-                );
+        OwnerDTO dto = readBody(rc, OwnerDTO.class);
+        idempotent(rc, id == null ? 201 : 200, () -> service.upsert(id, dto, getUser(rc), LanguageCode.ENG));
     }
 
     private void delete(RoutingContext rc)  {
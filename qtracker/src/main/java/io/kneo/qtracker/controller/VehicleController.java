@@ -2,6 +2,7 @@ package io.kneo.qtracker.controller;
 
 import io.kneo.core.controller.AbstractSecuredController;
 import io.kneo.core.dto.actions.ActionBox;
+import io.kneo.core.dto.actions.CachedActionBox;
 import io.kneo.core.dto.cnst.PayloadType;
 import io.kneo.core.dto.form.FormPage;
 import io.kneo.core.dto.view.View;
@@ -17,7 +18,6 @@ import io.kneo.qtracker.model.Vehicle;
 import io.kneo.qtracker.service.VehicleService;
 import io.smallrye.mutiny.Uni;
 import io.vertx.core.http.HttpMethod;
-import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -67,10 +67,10 @@ public class VehicleController extends AbstractSecuredController<Vehicle, Vehicl
                     View<VehicleDTO> dtoEntries = new View<>(vehicles, count, page, maxPage, size);
                     viewPage.addPayload(PayloadType.VIEW_DATA, dtoEntries);
 
-                    ActionBox actions = VehicleActionsFactory.getViewActions(user.getActivatedRoles());
+                    CachedActionBox actions = VehicleActionsFactory.getCachedViewActions(user.getActivatedRoles(), resolveLanguage(rc));
                     viewPage.addPayload(PayloadType.CONTEXT_ACTIONS, actions);
 
-                    rc.response().setStatusCode(200).end(JsonObject.mapFrom(viewPage).encode());
+                    sendJson(rc, 200, viewPage);
                 },
                 failure -> {
                     LOGGER.error("Error processing request: ", failure);
@@ -88,7 +88,7 @@ public class VehicleController extends AbstractSecuredController<Vehicle, Vehicl
                     FormPage page = new FormPage();
                     page.addPayload(PayloadType.DOC_DATA, vehicle);
                     page.addPayload(PayloadType.CONTEXT_ACTIONS, new ActionBox());
-                    rc.response().setStatusCode(200).end(JsonObject.mapFrom(page).encode());
+                    sendJson(rc, 200, page);
                 },
                 failure -> {
                     if (failure instanceof DocumentHasNotFoundException) {
@@ -103,30 +103,14 @@ public class VehicleController extends AbstractSecuredController<Vehicle, Vehicl
 
     private void upsertFromMessenger(RoutingContext rc) {
         String id = rc.pathParam("id");
-        JsonObject jsonObject = rc.body().asJsonObject();
-        VehicleDTO dto = jsonObject.mapTo(VehicleDTO.class);
-        service.upsert(id, dto, getUser(rc), LanguageCode.ENG)
-                .subscribe().with(
-                        doc -> {
-                            int statusCode = id == null ? 201 : 200;
-                            rc.response().setStatusCode(statusCode).end(JsonObject.mapFrom(doc).encode());
-                        },
-                        rc::fail
-                );
+        VehicleDTO dto = readBody(rc, VehicleDTO.class);
+        idempotent(rc, id == null ? 201 : 200, () -> service.upsert(id, dto, getUser(rc), LanguageCode.ENG));
     }
 
     private void upsert(RoutingContext rc) {
         String id = rc.pathParam("id");
-        JsonObject jsonObject = rc.body().asJsonObject();
-        VehicleDTO dto = jsonObject.mapTo(VehicleDTO.class);
-        service.upsert(id, dto, getUser(rc), LanguageCode.ENG)
-                .subscribe().with(
-                        doc -> {
-                            int statusCode = id == null ? 201 : 200;
-                            rc.response().setStatusCode(statusCode).end(JsonObject.mapFrom(doc).encode());
-                        },
-                        rc::fail
-                );
+        VehicleDTO dto = readBody(rc, VehicleDTO.class);
+        idempotent(rc, id == null ? 201 : 200, () -> service.upsert(id, dto, getUser(rc), LanguageCode.ENG));
     }
 
     private void delete(RoutingContext rc) {
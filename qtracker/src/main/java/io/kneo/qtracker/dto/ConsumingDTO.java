@@ -23,6 +23,7 @@ public class ConsumingDTO extends AbstractDTO {
     private double lastCost;
     private List<ImageDTO> images;
     private Map<String, Object> addInfo;
+    private String idempotencyKey;
 
     public ConsumingDTO(String id) {
         this.id = UUID.fromString(id);
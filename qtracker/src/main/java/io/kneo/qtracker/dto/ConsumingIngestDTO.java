@@ -0,0 +1,29 @@
+package io.kneo.qtracker.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.UUID;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConsumingIngestDTO {
+    private String idempotencyKey;
+    private Outcome outcome;
+    private UUID id;
+    private UUID vehicleId;
+    private Double totalTrip;
+    private Double litersPerHundred;
+
+    public enum Outcome {
+        CREATED, DUPLICATE, REJECTED
+    }
+}
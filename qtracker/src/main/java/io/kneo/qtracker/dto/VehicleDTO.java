@@ -31,6 +31,7 @@ public class VehicleDTO extends AbstractDTO {
     private int fuelType;
     private int status;
     private OwnerDTO owner;
+    private ConsumingDTO lastConsuming;
 
     private EnumMap<LanguageCode, String> localizedName = new EnumMap<>(LanguageCode.class);
 
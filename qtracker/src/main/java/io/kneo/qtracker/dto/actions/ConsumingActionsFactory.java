@@ -1,16 +1,19 @@
 package io.kneo.qtracker.dto.actions;
 
 import io.kneo.core.dto.actions.ActionsFactory;
+import io.kneo.core.dto.actions.CachedActionBox;
 import io.kneo.core.dto.actions.ActionBox;
+import io.kneo.core.dto.actions.ActionBoxCache;
 import io.kneo.core.localization.LanguageCode;
 import io.kneo.core.model.user.IRole;
 
 import java.util.List;
 
 public class ConsumingActionsFactory {
+    private static final String MODULE = "qtracker";
 
-    public static ActionBox getViewActions(List<IRole> activatedRoles) {
-        ActionBox actions = ActionsFactory.getDefaultViewActions(LanguageCode.ENG);
+    public static ActionBox getViewActions(List<IRole> activatedRoles, LanguageCode lang) {
+        ActionBox actions = ActionsFactory.getDefaultViewActions(lang);
 
         // Example action
         /*
@@ -22,4 +25,8 @@ public class ConsumingActionsFactory {
 
         return actions;
     }
+
+    public static CachedActionBox getCachedViewActions(List<IRole> activatedRoles, LanguageCode lang) {
+        return ActionBoxCache.get(MODULE, "consuming_view", lang, activatedRoles, () -> getViewActions(activatedRoles, lang));
+    }
 }
@@ -1,16 +1,19 @@
 package io.kneo.qtracker.dto.actions;
 
 import io.kneo.core.dto.actions.ActionsFactory;
+import io.kneo.core.dto.actions.CachedActionBox;
 import io.kneo.core.dto.actions.ActionBox;
+import io.kneo.core.dto.actions.ActionBoxCache;
 import io.kneo.core.localization.LanguageCode;
 import io.kneo.core.model.user.IRole;
 
 import java.util.List;
 
 public class VehicleActionsFactory {
+    private static final String MODULE = "qtracker";
 
-    public static ActionBox getViewActions(List<IRole> activatedRoles) {
-        ActionBox actions = ActionsFactory.getDefaultViewActions(LanguageCode.ENG);
+    public static ActionBox getViewActions(List<IRole> activatedRoles, LanguageCode lang) {
+        ActionBox actions = ActionsFactory.getDefaultViewActions(lang);
 
         // Example action
         /*
@@ -23,4 +26,7 @@ public class VehicleActionsFactory {
         return actions;
     }
 
+    public static CachedActionBox getCachedViewActions(List<IRole> activatedRoles, LanguageCode lang) {
+        return ActionBoxCache.get(MODULE, "vehicle_view", lang, activatedRoles, () -> getViewActions(activatedRoles, lang));
+    }
 }
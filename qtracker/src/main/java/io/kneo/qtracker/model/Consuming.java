@@ -18,5 +18,5 @@ public class Consuming extends SecureDataEntity<UUID> {
     private double lastLiters;
     private double lastCost;
     private Map<String, Object> addInfo;
-
+    private String idempotencyKey;
 }
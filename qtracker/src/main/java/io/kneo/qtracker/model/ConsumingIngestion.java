@@ -0,0 +1,6 @@
+package io.kneo.qtracker.model;
+
+import java.util.UUID;
+
+public record ConsumingIngestion(String idempotencyKey, UUID id, UUID vehicleId, boolean duplicate,
+                                 Double totalTrip, Double litersPerHundred) {}
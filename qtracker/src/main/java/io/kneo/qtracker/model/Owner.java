@@ -1,6 +1,7 @@
 package io.kneo.qtracker.model;
 
 import io.kneo.core.localization.LanguageCode;
+import io.kneo.core.localization.LocalizedText;
 import io.kneo.core.model.SecureDataEntity;
 import io.kneo.core.server.Environment;
 import lombok.Getter;
@@ -9,6 +10,7 @@ import lombok.Setter;
 
 import java.time.LocalDate;
 import java.util.EnumMap;
+import java.util.Map;
 import java.util.UUID;
 
 @Setter
@@ -20,19 +22,21 @@ public class Owner extends SecureDataEntity<UUID> {
     private String email;
     private String telegramName;
     private String whatsappName;
-    private EnumMap<LanguageCode, String> localizedName = new EnumMap<>(LanguageCode.class);
+    private LocalizedText localizedText = LocalizedText.EMPTY;
     private String phone;
     private String country;
     private String currency;
     private LocalDate birthDate;
 
     public EnumMap<LanguageCode, String> getLocalizedName() {
+        EnumMap<LanguageCode, String> localizedName = localizedText.toEnumMap();
         for (LanguageCode code : Environment.AVAILABLE_LANGUAGES) {
-            if (!localizedName.containsKey(code)) {
-                localizedName.put(code, "");
-            }
+            localizedName.putIfAbsent(code, "");
         }
-
         return localizedName;
     }
+
+    public void setLocalizedName(Map<LanguageCode, String> localizedName) {
+        this.localizedText = LocalizedText.of(localizedName);
+    }
 }
@@ -0,0 +1,8 @@
+package io.kneo.qtracker.model;
+
+import java.util.List;
+
+public record OwnerAggregate(Owner owner, List<VehicleState> vehicles) {
+
+    public record VehicleState(Vehicle vehicle, Consuming latestConsuming) {}
+}
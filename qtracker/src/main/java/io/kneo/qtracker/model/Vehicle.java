@@ -1,6 +1,7 @@
 package io.kneo.qtracker.model;
 
 import io.kneo.core.localization.LanguageCode;
+import io.kneo.core.localization.LocalizedText;
 import io.kneo.core.model.SecureDataEntity;
 import io.kneo.core.server.Environment;
 import lombok.Getter;
@@ -8,6 +9,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.util.EnumMap;
+import java.util.Map;
 import java.util.UUID;
 
 @Setter
@@ -21,15 +23,17 @@ public class Vehicle extends SecureDataEntity<UUID> {
     private String model;
     private int fuelType;
     private int status;
-    private EnumMap<LanguageCode, String> localizedName = new EnumMap<>(LanguageCode.class);
+    private LocalizedText localizedText = LocalizedText.EMPTY;
 
     public EnumMap<LanguageCode, String> getLocalizedName() {
+        EnumMap<LanguageCode, String> localizedName = localizedText.toEnumMap();
         for (LanguageCode code : Environment.AVAILABLE_LANGUAGES) {
-            if (!localizedName.containsKey(code)) {
-                localizedName.put(code, "");
-            }
+            localizedName.putIfAbsent(code, "");
         }
-
         return localizedName;
     }
+
+    public void setLocalizedName(Map<LanguageCode, String> localizedName) {
+        this.localizedText = LocalizedText.of(localizedName);
+    }
 }
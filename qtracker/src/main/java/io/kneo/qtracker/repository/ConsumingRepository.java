@@ -3,13 +3,17 @@ package io.kneo.qtracker.repository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.kneo.core.model.user.IUser;
 import io.kneo.core.repository.AsyncRepository;
+import io.kneo.core.repository.exception.DocumentHasNotFoundException;
 import io.kneo.core.repository.rls.RLSRepository;
 import io.kneo.core.repository.table.EntityData;
+import io.kneo.qtracker.dto.cnst.MessengerType;
 import io.kneo.qtracker.model.Consuming;
+import io.kneo.qtracker.model.ConsumingIngestion;
 import io.kneo.qtracker.model.Image;
 import io.kneo.qtracker.repository.table.QTrackerNameResolver;
 import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
 import io.vertx.mutiny.pgclient.PgPool;
 import io.vertx.mutiny.sqlclient.Row;
@@ -19,12 +23,16 @@ import jakarta.inject.Inject;
 
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @ApplicationScoped
 public class ConsumingRepository extends AsyncRepository {
     private static final EntityData entityData = QTrackerNameResolver.create().getEntityNames(QTrackerNameResolver.CONSUMINGS);
+    private static final EntityData vehicleData = QTrackerNameResolver.create().getEntityNames(QTrackerNameResolver.VEHICLES);
+    private static final EntityData ownerData = QTrackerNameResolver.create().getEntityNames(QTrackerNameResolver.OWNERS);
 
     @Inject
     public ConsumingRepository(PgPool client, ObjectMapper mapper, RLSRepository rlsRepository) {
@@ -43,10 +51,23 @@ public class ConsumingRepository extends AsyncRepository {
                 .collect().asList();
     }
 
+    public Uni<Buffer> getAllAsJson(final int limit, final int offset, final IUser user) {
+        return getAllAsJson(entityData, "json_build_object('id', m.id, 'vehicleId', m.vehicle_id, 'totalKm', m.total_km, " +
+                "'lastLiters', m.last_liters, 'lastCost', m.last_cost)", limit, offset, user.getId());
+    }
+
     public Uni<Integer> getAllCount(IUser user) {
         return getAllCount(user.getId(), entityData.getTableName(), entityData.getRlsName());
     }
 
+    public Uni<String> getVersion(UUID id, IUser user) {
+        return getVersion(id, entityData, user.getId());
+    }
+
+    public Uni<String> getWatermark(IUser user) {
+        return getWatermark(entityData, user.getId());
+    }
+
     public Uni<List<Consuming>> getAllMine(final int limit, final int offset, final String telegramName, final IUser user) {
         String sql = """
         SELECT c.* 
@@ -72,7 +93,7 @@ public class ConsumingRepository extends AsyncRepository {
 
     public Uni<List<Consuming>> getLastTwo(UUID vehicleId,  final IUser user) {
         String sql = "SELECT * FROM " + entityData.getTableName() + " v, " + entityData.getRlsName() + " vr " +
-                "WHERE v.id = vr.entity_id AND vr.reader = $1 AND v.vehicle_id=$2 ORDER BY v.reg_date DESC";
+                "WHERE v.id = vr.entity_id AND vr.reader = $1 AND v.vehicle_id=$2 ORDER BY v.reg_date DESC, v.id DESC";
         sql += String.format(" LIMIT %s", 2);
 
         return client.preparedQuery(sql)
@@ -92,9 +113,11 @@ public class ConsumingRepository extends AsyncRepository {
 
     public Uni<Consuming> insert(Consuming consuming, IUser user, List<Image> images) {
         LocalDateTime nowTime = ZonedDateTime.now().toLocalDateTime();
-        String sql = String.format("INSERT INTO %s " +
+        String sql = String.format("WITH ins AS (INSERT INTO %s " +
                 "(reg_date, author, last_mod_date, last_mod_user, vehicle_id, status, total_km, last_liters, last_cost, event_date, add_info) " +
-                "VALUES ($1, $2, $3, $4, $5, $6, $7, $8, $9, $10, $11) RETURNING id;", entityData.getTableName());
+                "VALUES ($1, $2, $3, $4, $5, $6, $7, $8, $9, $10, $11) RETURNING *), " +
+                "acl AS (INSERT INTO %s(reader, entity_id, can_edit, can_delete) SELECT $2, ins.id, true, true FROM ins) " +
+                "SELECT * FROM ins;", entityData.getTableName(), entityData.getRlsName());
 
         JsonObject addInfoJson = new JsonObject(consuming.getAddInfo());
         Tuple params = Tuple.tuple();
@@ -110,50 +133,139 @@ public class ConsumingRepository extends AsyncRepository {
                 .addValue(nowTime)
                 .addJsonObject(addInfoJson);
 
-        String readersSql = String.format("INSERT INTO %s(reader, entity_id, can_edit, can_delete) VALUES($1, $2, $3, $4)", entityData.getRlsName());
-
-        return client.withTransaction(tx -> {
-            return tx.preparedQuery(sql)
-                    .execute(params)
-                    .onItem().transform(result -> result.iterator().next().getUUID("id"))
-                    .onFailure().recoverWithUni(t -> Uni.createFrom().failure(t))
-                    .onItem().transformToUni(id -> {
-                        return tx.preparedQuery(readersSql)
-                                .execute(Tuple.of(user.getId(), id, true, true))
-                                .onItem().ignore().andContinueWithNull()
-                                .onFailure().recoverWithUni(t -> Uni.createFrom().failure(t))
-                                .onItem().transformToUni(unused -> {
-                                    if (images != null && !images.isEmpty()) {
-                                        String imageSql = String.format("INSERT INTO %s (consuming_id, image_data, type, confidence, add_info, description, num_of_seq) " +
-                                                "VALUES ($1, $2, $3, $4, $5, $6, $7)", entityData.getFilesTableName());
-                                        Uni<Void> imagesInsertion = Uni.combine().all().unis(
-                                                images.stream().map(image -> {
-                                                    JsonObject imageAddInfoJson = new JsonObject(image.getAddInfo());
-                                                    Tuple imageParams = Tuple.of(
-                                                            id,
-                                                            image.getImageData(),
-                                                            image.getType(),
-                                                            image.getConfidence(),
-                                                            imageAddInfoJson,
-                                                            image.getDescription()
-                                                    );
-                                                    imageParams.addInteger(image.getNumOfSeq());
-                                                    return tx.preparedQuery(imageSql).execute(imageParams).onItem().ignore().andContinueWithNull();
-                                                }).toList()
-                                        ).with(unusedImages -> null);
-
-                                        return imagesInsertion.onItem().transform(unusedImages -> id);
-                                    }
-                                    return Uni.createFrom().item(id);
-                                });
-                    });
-        }).onItem().transformToUni(this::findById);
+        return client.withTransaction(tx -> tx.preparedQuery(sql)
+                .execute(params)
+                .onItem().transform(rows -> from(rows.iterator().next()))
+                .onItem().transformToUni(doc -> {
+                    if (images == null || images.isEmpty()) {
+                        return Uni.createFrom().item(doc);
+                    }
+                    String imageSql = String.format("INSERT INTO %s (consuming_id, image_data, type, confidence, add_info, description, num_of_seq) " +
+                            "VALUES ($1, $2, $3, $4, $5, $6, $7)", entityData.getFilesTableName());
+                    List<Tuple> imageParams = images.stream().map(image -> {
+                        Tuple imageTuple = Tuple.of(
+                                doc.getId(),
+                                image.getImageData(),
+                                image.getType(),
+                                image.getConfidence(),
+                                new JsonObject(image.getAddInfo()),
+                                image.getDescription()
+                        );
+                        return imageTuple.addInteger(image.getNumOfSeq());
+                    }).toList();
+                    return tx.preparedQuery(imageSql)
+                            .executeBatch(imageParams)
+                            .onItem().transform(unused -> doc);
+                }));
     }
 
 
+    /**
+     * Inserts a batch of reports for the vehicles of the owner known by the given messenger name in one statement.
+     * Reports without a vehicle go to the owner's latest vehicle, reports for foreign vehicles are skipped.
+     * A report whose idempotency key was already stored by the same author comes back as a duplicate of the stored row.
+     * Trip and consumption are computed with lag() over the batch and the last earlier report of every vehicle.
+     * Every row gets its own reg_date, one microsecond apart in input order, so later reads see the batch order.
+     */
+    public Uni<List<ConsumingIngestion>> ingest(List<Consuming> reports, Map<String, List<Image>> images,
+                                                MessengerType messengerType, String userName, IUser user) {
+        String nameColumn = messengerType == MessengerType.WHATSAPP ? "whatsapp_name" : "telegram_name";
+        String sql = """
+                WITH input AS (
+                    SELECT r.* FROM unnest($1::text[], $2::uuid[], $3::float8[], $4::float8[], $5::float8[], $6::jsonb[])
+                        WITH ORDINALITY AS r(idempotency_key, vehicle_id, total_km, last_liters, last_cost, add_info, ord)),
+                owner_vehicles AS (
+                    SELECT v.id, v.reg_date FROM %2$s v JOIN %3$s o ON v.owner_id = o.id WHERE o.%4$s = $7),
+                accepted AS (
+                    SELECT i.idempotency_key, i.total_km, i.last_liters, i.last_cost, i.add_info, i.ord,
+                           COALESCE(i.vehicle_id, (SELECT ov.id FROM owner_vehicles ov ORDER BY ov.reg_date DESC, ov.id DESC LIMIT 1)) AS vehicle_id
+                    FROM input i),
+                ins AS (
+                    INSERT INTO %1$s (reg_date, author, last_mod_date, last_mod_user, vehicle_id, status, total_km, last_liters,
+                                      last_cost, event_date, add_info, idempotency_key)
+                    SELECT a.reg_date, $9, a.reg_date, $9, a.vehicle_id, 0, a.total_km, a.last_liters, a.last_cost, a.reg_date,
+                           a.add_info, a.idempotency_key
+                    FROM (SELECT accepted.*, $8::timestamp + accepted.ord * interval '1 microsecond' AS reg_date FROM accepted) a WHERE a.vehicle_id IN (SELECT id FROM owner_vehicles) ORDER BY a.ord
+                    ON CONFLICT (author, idempotency_key) DO NOTHING
+                    RETURNING id, vehicle_id, total_km, last_liters, idempotency_key),
+                acl AS (
+                    INSERT INTO %5$s (reader, entity_id, can_edit, can_delete) SELECT $9, ins.id, true, true FROM ins),
+                existing AS (
+                    SELECT c.id, c.vehicle_id, c.total_km, c.last_liters, c.idempotency_key FROM %1$s c
+                    WHERE c.author = $9 AND c.idempotency_key IN (SELECT idempotency_key FROM accepted)),
+                batch AS (
+                    SELECT ins.*, false AS duplicate FROM ins
+                    UNION ALL
+                    SELECT e.*, true FROM existing e),
+                prev AS (
+                    SELECT DISTINCT ON (c.vehicle_id) c.vehicle_id, c.total_km FROM %1$s c
+                    WHERE c.vehicle_id IN (SELECT vehicle_id FROM accepted) AND c.id NOT IN (SELECT id FROM existing)
+                    ORDER BY c.vehicle_id, c.reg_date DESC, c.id DESC),
+                timeline AS (
+                    SELECT NULL::uuid AS id, p.vehicle_id, p.total_km, NULL::float8 AS last_liters, NULL::text AS idempotency_key,
+                           false AS duplicate, 0::bigint AS ord
+                    FROM prev p
+                    UNION ALL
+                    SELECT b.id, b.vehicle_id, b.total_km, b.last_liters, b.idempotency_key, b.duplicate, a.ord
+                    FROM batch b JOIN accepted a ON a.idempotency_key = b.idempotency_key),
+                deltas AS (
+                    SELECT t.*, t.total_km - lag(t.total_km) OVER (PARTITION BY t.vehicle_id ORDER BY t.ord) AS total_trip
+                    FROM timeline t)
+                SELECT d.id, d.vehicle_id, d.idempotency_key, d.duplicate,
+                       round(d.total_trip::numeric, 2)::float8 AS total_trip,
+                       CASE WHEN d.total_trip > 0 THEN round((d.last_liters / d.total_trip * 100)::numeric, 2)::float8 END AS liters_per_hundred
+                FROM deltas d WHERE d.id IS NOT NULL ORDER BY d.ord
+                """.formatted(entityData.getTableName(), vehicleData.getTableName(), ownerData.getTableName(),
+                nameColumn, entityData.getRlsName());
+
+        LocalDateTime nowTime = ZonedDateTime.now().toLocalDateTime();
+        Tuple params = Tuple.tuple()
+                .addArrayOfString(reports.stream().map(Consuming::getIdempotencyKey).toArray(String[]::new))
+                .addArrayOfUUID(reports.stream().map(Consuming::getVehicleId).toArray(UUID[]::new))
+                .addArrayOfDouble(reports.stream().map(Consuming::getTotalKm).toArray(Double[]::new))
+                .addArrayOfDouble(reports.stream().map(Consuming::getLastLiters).toArray(Double[]::new))
+                .addArrayOfDouble(reports.stream().map(Consuming::getLastCost).toArray(Double[]::new))
+                .addArrayOfJsonObject(reports.stream()
+                        .map(report -> report.getAddInfo() == null ? new JsonObject() : new JsonObject(report.getAddInfo()))
+                        .toArray(JsonObject[]::new))
+                .addString(userName)
+                .addValue(nowTime)
+                .addLong(user.getId());
+
+        return client.withTransaction(tx -> tx.preparedQuery(sql)
+                .execute(params)
+                .onItem().transform(rows -> {
+                    List<ConsumingIngestion> result = new ArrayList<>();
+                    for (Row row : rows) {
+                        result.add(new ConsumingIngestion(row.getString("idempotency_key"), row.getUUID("id"),
+                                row.getUUID("vehicle_id"), row.getBoolean("duplicate"),
+                                row.getDouble("total_trip"), row.getDouble("liters_per_hundred")));
+                    }
+                    return result;
+                })
+                .onItem().call(result -> {
+                    List<Tuple> imageParams = new ArrayList<>();
+                    for (ConsumingIngestion ingestion : result) {
+                        if (!ingestion.duplicate()) {
+                            for (Image image : images.getOrDefault(ingestion.idempotencyKey(), List.of())) {
+                                imageParams.add(Tuple.of(ingestion.id(), image.getImageData(), image.getType(),
+                                        image.getConfidence(), new JsonObject(image.getAddInfo()), image.getDescription())
+                                        .addInteger(image.getNumOfSeq()));
+                            }
+                        }
+                    }
+                    if (imageParams.isEmpty()) {
+                        return Uni.createFrom().voidItem();
+                    }
+                    String imageSql = String.format("INSERT INTO %s (consuming_id, image_data, type, confidence, add_info, description, num_of_seq) " +
+                            "VALUES ($1, $2, $3, $4, $5, $6, $7)", entityData.getFilesTableName());
+                    return tx.preparedQuery(imageSql).executeBatch(imageParams).replaceWithVoid();
+                }));
+    }
+
     public Uni<Consuming> update(UUID id, Consuming consuming, IUser user) {
         LocalDateTime nowTime = ZonedDateTime.now().toLocalDateTime();
-        String sql = String.format("UPDATE %s SET last_mod_user = $1, last_mod_date = $2, total_km = $3, last_liters = $4, last_cost = $5 WHERE id = $6;", entityData.getTableName());
+        String sql = String.format("UPDATE %s SET last_mod_user = $1, last_mod_date = $2, total_km = $3, last_liters = $4, last_cost = $5 WHERE id = $6 RETURNING *;", entityData.getTableName());
         Tuple params = Tuple.tuple();
         params.addValue(user.getId())
                 .addValue(nowTime)
@@ -164,7 +276,13 @@ public class ConsumingRepository extends AsyncRepository {
 
         return client.preparedQuery(sql)
                 .execute(params)
-                .onItem().transformToUni(updated -> findById(id));
+                .onItem().transformToUni(rows -> {
+                    var iterator = rows.iterator();
+                    if (!iterator.hasNext()) {
+                        return Uni.createFrom().failure(new DocumentHasNotFoundException(id));
+                    }
+                    return Uni.createFrom().item(from(iterator.next()));
+                });
     }
 
     public Uni<Integer> delete(UUID uuid, IUser user) {
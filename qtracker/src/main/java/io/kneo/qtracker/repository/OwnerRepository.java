@@ -1,11 +1,9 @@
 package io.kneo.qtracker.repository;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.kneo.core.localization.LanguageCode;
 import io.kneo.core.model.user.IUser;
 import io.kneo.core.repository.AsyncRepository;
 import io.kneo.core.repository.exception.DocumentHasNotFoundException;
-import io.kneo.core.repository.exception.DocumentModificationAccessException;
 import io.kneo.core.repository.rls.RLSRepository;
 import io.kneo.core.repository.table.EntityData;
 import io.kneo.qtracker.model.Owner;
@@ -22,7 +20,6 @@ import jakarta.inject.Inject;
 
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
-import java.util.EnumMap;
 import java.util.List;
 import java.util.UUID;
 
@@ -72,11 +69,13 @@ public class OwnerRepository extends AsyncRepository {
     public Uni<Owner> insert(Owner doc, IUser user) {
         LocalDateTime nowTime = ZonedDateTime.now().toLocalDateTime();
 
-        String sql = String.format("INSERT INTO %s " +
+        String sql = String.format("WITH ins AS (INSERT INTO %s " +
                 "(reg_date, author, last_mod_date, last_mod_user, email, telegram_name, whatsapp_name, loc_name, phone, country, currency, status) " +
-                "VALUES ($1, $2, $3, $4, $5, $6, $7, $8, $9, $10, $11, $12) RETURNING id;", entityData.getTableName());
+                "VALUES ($1, $2, $3, $4, $5, $6, $7, $8, $9, $10, $11, $12) RETURNING *), " +
+                "acl AS (INSERT INTO %s(reader, entity_id, can_edit, can_delete) SELECT $2, ins.id, true, true FROM ins) " +
+                "SELECT * FROM ins;", entityData.getTableName(), entityData.getRlsName());
 
-        JsonObject localizedNameJson = JsonObject.mapFrom(doc.getLocalizedName());
+        JsonObject localizedNameJson = doc.getLocalizedText().toJsonObject();
         Tuple params = Tuple.of(
                 nowTime,
                 user.getId(),
@@ -94,60 +93,43 @@ public class OwnerRepository extends AsyncRepository {
                 addString(doc.getCurrency()).
                 addInteger(doc.getStatus());
 
-        String readersSql = String.format("INSERT INTO %s(reader, entity_id, can_edit, can_delete) VALUES($1, $2, $3, $4)", entityData.getRlsName());
-
-        return client.withTransaction(tx -> {
-            return tx.preparedQuery(sql)
-                    .execute(params)
-                    .onItem().transform(result -> result.iterator().next().getUUID("id"))
-                    .onFailure().recoverWithUni(t -> Uni.createFrom().failure(t))
-                    .onItem().transformToUni(id -> {
-                        return tx.preparedQuery(readersSql)
-                                .execute(Tuple.of(user.getId(), id, true, true))
-                                .onItem().ignore().andContinueWithNull()
-                                .onFailure().recoverWithUni(t -> Uni.createFrom().failure(t))
-                                .onItem().transform(unused -> id);
-                    });
-        }).onItem().transformToUni(id -> findById(id, user.getId()));
+        return client.preparedQuery(sql)
+                .execute(params)
+                .onItem().transform(rows -> from(rows.iterator().next()));
     }
 
     public Uni<Owner> update(UUID id, Owner doc, IUser user) {
-        return rlsRepository.findById(entityData.getRlsName(), user.getId(), id)
-                .onItem().transformToUni(permissions -> {
-                    if (permissions[0]) {
-                        LocalDateTime nowTime = ZonedDateTime.now().toLocalDateTime();
-
-                        String sql = String.format("UPDATE %s SET last_mod_user=$1, last_mod_date=$2, email=$3, telegram_name=$4," +
-                                "telegram_name=$5, loc_name=$6, phone=$7, country=$8, currency=$9, status=$10 WHERE id=$11;", entityData.getTableName());
-
-                        Tuple params = Tuple.of(
-                                user.getId(),
-                                nowTime
-                        );
-                        JsonObject localizedNameJson = JsonObject.mapFrom(doc.getLocalizedName());
-                        params.addString(doc.getEmail()).
-                                addString(doc.getTelegramName()).
-                                addString(doc.getWhatsappName()).
-                                addJsonObject(localizedNameJson).
-                                addString(doc.getPhone()).
-                                addString(doc.getCountry()).
-                                addString(doc.getCurrency()).
-                                addInteger(doc.getStatus()).
-                                addUUID(id);
-
-
-                        return client.withTransaction(tx -> tx.preparedQuery(sql)
-                                .execute(params)
-                                .onItem().transformToUni(rowSet -> {
-                                    if (rowSet.rowCount() == 0) {
-                                        return Uni.createFrom().failure(new DocumentHasNotFoundException(id));
-                                    }
-                                    return findById(id, user.getId());
-                                })
-                                .onFailure().recoverWithUni(t -> Uni.createFrom().failure(t)));
-                    } else {
-                        return Uni.createFrom().failure(new DocumentModificationAccessException("User does not have edit permission", user.getUserName(), id));
+        LocalDateTime nowTime = ZonedDateTime.now().toLocalDateTime();
+
+        String sql = String.format("UPDATE %s m SET last_mod_user=$1, last_mod_date=$2, email=$3, telegram_name=$4, " +
+                "whatsapp_name=$5, loc_name=$6, phone=$7, country=$8, currency=$9, status=$10, version=m.version + 1 " +
+                "FROM %s acl WHERE m.id=$11 AND acl.entity_id = m.id AND acl.reader = $1 AND acl.can_edit::int = 1 " +
+                "AND ($12::bigint IS NULL OR m.version = $12) RETURNING m.*;", entityData.getTableName(), entityData.getRlsName());
+
+        Tuple params = Tuple.of(
+                user.getId(),
+                nowTime
+        );
+        JsonObject localizedNameJson = doc.getLocalizedText().toJsonObject();
+        params.addString(doc.getEmail()).
+                addString(doc.getTelegramName()).
+                addString(doc.getWhatsappName()).
+                addJsonObject(localizedNameJson).
+                addString(doc.getPhone()).
+                addString(doc.getCountry()).
+                addString(doc.getCurrency()).
+                addInteger(doc.getStatus()).
+                addUUID(id).
+                addLong(doc.getVersion());
+
+        return client.preparedQuery(sql)
+                .execute(params)
+                .onItem().transformToUni(rowSet -> {
+                    var iterator = rowSet.iterator();
+                    if (!iterator.hasNext()) {
+                        return resolveUpdateFailure(id, doc.getVersion(), entityData, user);
                     }
+                    return Uni.createFrom().item(from(iterator.next()));
                 });
     }
 
@@ -164,12 +146,7 @@ public class OwnerRepository extends AsyncRepository {
         doc.setPhone(row.getString("phone"));
         doc.setCountry(row.getString("country"));
         doc.setCurrency(row.getString("currency"));
-        JsonObject localizedNameJson = row.getJsonObject(COLUMN_LOCALIZED_NAME);
-        if (localizedNameJson != null) {
-            EnumMap<LanguageCode, String> localizedName = new EnumMap<>(LanguageCode.class);
-            localizedNameJson.getMap().forEach((key, value) -> localizedName.put(LanguageCode.valueOf(key), (String) value));
-            doc.setLocalizedName(localizedName);
-        }
+        doc.setLocalizedText(getLocalizedText(row, COLUMN_LOCALIZED_NAME));
 
         return doc;
     }
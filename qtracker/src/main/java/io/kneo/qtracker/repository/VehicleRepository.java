@@ -1,13 +1,12 @@
 package io.kneo.qtracker.repository;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.kneo.core.localization.LanguageCode;
 import io.kneo.core.model.user.IUser;
 import io.kneo.core.repository.AsyncRepository;
-import io.kneo.core.repository.exception.DocumentHasNotFoundException;
-import io.kneo.core.repository.exception.DocumentModificationAccessException;
 import io.kneo.core.repository.rls.RLSRepository;
 import io.kneo.core.repository.table.EntityData;
+import io.kneo.qtracker.model.Consuming;
+import io.kneo.qtracker.model.OwnerAggregate;
 import io.kneo.qtracker.model.Vehicle;
 import io.kneo.qtracker.repository.table.QTrackerNameResolver;
 import io.smallrye.mutiny.Multi;
@@ -21,14 +20,15 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.util.EnumMap;
 import java.util.List;
 import java.util.UUID;
 
 @ApplicationScoped
 public class VehicleRepository extends AsyncRepository {
     private static final EntityData entityData = QTrackerNameResolver.create().getEntityNames(QTrackerNameResolver.VEHICLES);
+    private static final EntityData consumingData = QTrackerNameResolver.create().getEntityNames(QTrackerNameResolver.CONSUMINGS);
 
     @Inject
     public VehicleRepository(PgPool client, ObjectMapper mapper, RLSRepository rlsRepository) {
@@ -61,6 +61,19 @@ public class VehicleRepository extends AsyncRepository {
                 .collect().asList();
     }
 
+    public Uni<List<OwnerAggregate.VehicleState>> getOwnedByWithLatestConsuming(final UUID ownerId, final IUser user) {
+        String sql = String.format("SELECT v.*, c.id AS c_id, c.reg_date AS c_reg_date, c.total_km AS c_total_km, " +
+                        "c.last_liters AS c_last_liters, c.last_cost AS c_last_cost FROM %s v JOIN %s vr ON v.id = vr.entity_id " +
+                        "LEFT JOIN LATERAL (SELECT * FROM %s lc WHERE lc.vehicle_id = v.id ORDER BY lc.reg_date DESC, lc.id DESC LIMIT 1) c ON TRUE " +
+                        "WHERE v.owner_id = $1 AND vr.reader = $2 ORDER BY v.reg_date",
+                entityData.getTableName(), entityData.getRlsName(), consumingData.getTableName());
+        return client.preparedQuery(sql)
+                .execute(Tuple.of(ownerId, user.getId()))
+                .onItem().transformToMulti(rows -> Multi.createFrom().iterable(rows))
+                .onItem().transform(row -> new OwnerAggregate.VehicleState(from(row), latestConsumingFrom(row)))
+                .collect().asList();
+    }
+
     public Uni<Vehicle> findById(UUID uuid, Long userID) {
         String sql = "SELECT theTable.*, rls.* FROM " + entityData.getTableName() + " theTable " +
                 "JOIN " + entityData.getRlsName() + " rls ON theTable.id = rls.entity_id " +
@@ -83,11 +96,13 @@ public class VehicleRepository extends AsyncRepository {
     public Uni<Vehicle> insert(Vehicle doc, IUser user) {
         LocalDateTime nowTime = ZonedDateTime.now().toLocalDateTime();
 
-        String sql = String.format("INSERT INTO %s " +
+        String sql = String.format("WITH ins AS (INSERT INTO %s " +
                 "(reg_date, author, last_mod_date, last_mod_user, vin, vehicle_type, brand, model, fuel_type, owner_id, status, loc_name) " +
-                "VALUES ($1, $2, $3, $4, $5, $6, $7, $8, $9, $10, $11, $12) RETURNING id;", entityData.getTableName());
+                "VALUES ($1, $2, $3, $4, $5, $6, $7, $8, $9, $10, $11, $12) RETURNING *), " +
+                "acl AS (INSERT INTO %s(reader, entity_id, can_edit, can_delete) SELECT $2, ins.id, true, true FROM ins) " +
+                "SELECT * FROM ins;", entityData.getTableName(), entityData.getRlsName());
 
-        JsonObject localizedNameJson = JsonObject.mapFrom(doc.getLocalizedName());
+        JsonObject localizedNameJson = doc.getLocalizedText().toJsonObject();
         Tuple params = Tuple.tuple();
         params.addValue(nowTime)
                 .addValue(user.getId())
@@ -102,58 +117,42 @@ public class VehicleRepository extends AsyncRepository {
                 .addInteger(doc.getStatus())
                 .addJsonObject(localizedNameJson);
 
-        String readersSql = String.format("INSERT INTO %s(reader, entity_id, can_edit, can_delete) VALUES($1, $2, $3, $4)", entityData.getRlsName());
-
-        return client.withTransaction(tx -> {
-            return tx.preparedQuery(sql)
-                    .execute(params)
-                    .onItem().transform(result -> result.iterator().next().getUUID("id"))
-                    .onFailure().recoverWithUni(t -> Uni.createFrom().failure(t))
-                    .onItem().transformToUni(id -> {
-                        return tx.preparedQuery(readersSql)
-                                .execute(Tuple.of(user.getId(), id, true, true))
-                                .onItem().ignore().andContinueWithNull()
-                                .onFailure().recoverWithUni(t -> Uni.createFrom().failure(t))
-                                .onItem().transform(unused -> id);
-                    });
-        }).onItem().transformToUni(id -> findById(id, user.getId()));
+        return client.preparedQuery(sql)
+                .execute(params)
+                .onItem().transform(rows -> from(rows.iterator().next()));
     }
 
     public Uni<Vehicle> update(UUID id, Vehicle doc, IUser user) {
-        return rlsRepository.findById(entityData.getRlsName(), user.getId(), id)
-                .onItem().transformToUni(permissions -> {
-                    if (permissions[0]) {
-                        LocalDateTime nowTime = ZonedDateTime.now().toLocalDateTime();
-
-                        String sql = String.format("UPDATE %s SET last_mod_user=$1, last_mod_date=$2, vin=$3, " +
-                                "vehicle_type=$4, brand=$5, model=$6, fuel_type=$7, owner_id=$8, status=$9, loc_name=$10 WHERE id=$11;", entityData.getTableName());
-
-                        JsonObject localizedNameJson = JsonObject.mapFrom(doc.getLocalizedName());
-                        Tuple params = Tuple.tuple();
-                        params.addValue(user.getId())
-                                .addValue(nowTime)
-                                .addValue(doc.getVin())
-                                .addValue(doc.getVehicleType())
-                                .addValue(doc.getBrand())
-                                .addValue(doc.getModel())
-                                .addValue(doc.getFuelType())
-                                .addValue(doc.getOwnerId())
-                                .addValue(doc.getStatus())
-                                .addJsonObject(localizedNameJson)
-                                .addValue(id);
-
-                        return client.withTransaction(tx -> tx.preparedQuery(sql)
-                                .execute(params)
-                                .onItem().transformToUni(rowSet -> {
-                                    if (rowSet.rowCount() == 0) {
-                                        return Uni.createFrom().failure(new DocumentHasNotFoundException(id));
-                                    }
-                                    return findById(id, user.getId());
-                                })
-                                .onFailure().recoverWithUni(t -> Uni.createFrom().failure(t)));
-                    } else {
-                        return Uni.createFrom().failure(new DocumentModificationAccessException("User does not have edit permission", user.getUserName(), id));
+        LocalDateTime nowTime = ZonedDateTime.now().toLocalDateTime();
+
+        String sql = String.format("UPDATE %s m SET last_mod_user=$1, last_mod_date=$2, vin=$3, " +
+                "vehicle_type=$4, brand=$5, model=$6, fuel_type=$7, owner_id=$8, status=$9, loc_name=$10, version=m.version + 1 " +
+                "FROM %s acl WHERE m.id=$11 AND acl.entity_id = m.id AND acl.reader = $1 AND acl.can_edit::int = 1 " +
+                "AND ($12::bigint IS NULL OR m.version = $12) RETURNING m.*;", entityData.getTableName(), entityData.getRlsName());
+
+        JsonObject localizedNameJson = doc.getLocalizedText().toJsonObject();
+        Tuple params = Tuple.tuple();
+        params.addValue(user.getId())
+                .addValue(nowTime)
+                .addValue(doc.getVin())
+                .addValue(doc.getVehicleType())
+                .addValue(doc.getBrand())
+                .addValue(doc.getModel())
+                .addValue(doc.getFuelType())
+                .addValue(doc.getOwnerId())
+                .addValue(doc.getStatus())
+                .addJsonObject(localizedNameJson)
+                .addValue(id)
+                .addLong(doc.getVersion());
+
+        return client.preparedQuery(sql)
+                .execute(params)
+                .onItem().transformToUni(rowSet -> {
+                    var iterator = rowSet.iterator();
+                    if (!iterator.hasNext()) {
+                        return resolveUpdateFailure(id, doc.getVersion(), entityData, user);
                     }
+                    return Uni.createFrom().item(from(iterator.next()));
                 });
     }
 
@@ -161,6 +160,21 @@ public class VehicleRepository extends AsyncRepository {
         return delete(uuid, entityData, user);
     }
 
+    private static Consuming latestConsumingFrom(Row row) {
+        UUID id = row.getUUID("c_id");
+        if (id == null) {
+            return null;
+        }
+        Consuming doc = new Consuming();
+        doc.setId(id);
+        doc.setVehicleId(row.getUUID("id"));
+        doc.setRegDate(row.getLocalDateTime("c_reg_date").atZone(ZoneId.systemDefault()));
+        doc.setTotalKm(row.getDouble("c_total_km"));
+        doc.setLastLiters(row.getDouble("c_last_liters"));
+        doc.setLastCost(row.getDouble("c_last_cost"));
+        return doc;
+    }
+
     private Vehicle from(Row row) {
         Vehicle doc = new Vehicle();
         setDefaultFields(doc, row);
@@ -171,12 +185,7 @@ public class VehicleRepository extends AsyncRepository {
         doc.setFuelType(row.getInteger("fuel_type"));
         doc.setOwnerId(row.getUUID("owner_id"));
         doc.setStatus(row.getInteger("status"));
-        JsonObject localizedNameJson = row.getJsonObject(COLUMN_LOCALIZED_NAME);
-        if (localizedNameJson != null) {
-            EnumMap<LanguageCode, String> localizedName = new EnumMap<>(LanguageCode.class);
-            localizedNameJson.getMap().forEach((key, value) -> localizedName.put(LanguageCode.valueOf(key), (String) value));
-            doc.setLocalizedName(localizedName);
-        }
+        doc.setLocalizedText(getLocalizedText(row, COLUMN_LOCALIZED_NAME));
         return doc;
     }
 }
@@ -7,31 +7,49 @@ import io.kneo.core.service.AbstractService;
 import io.kneo.core.service.UserService;
 import io.kneo.qtracker.dto.ConsumingCalcDTO;
 import io.kneo.qtracker.dto.ConsumingDTO;
+import io.kneo.qtracker.dto.ConsumingIngestDTO;
+import io.kneo.qtracker.dto.cnst.MessengerType;
 import io.kneo.qtracker.model.Consuming;
+import io.kneo.qtracker.model.ConsumingIngestion;
 import io.kneo.qtracker.model.Image;
 import io.kneo.qtracker.repository.ConsumingRepository;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
 import io.smallrye.mutiny.tuples.Tuple2;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.validation.Validator;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class ConsumingService extends AbstractService<Consuming, ConsumingDTO> {
     private final ConsumingRepository repository;
+    private final OwnerAggregateCache ownerCache;
 
     Validator validator;
 
+    @ConfigProperty(name = "kneo.qtracker.ingest.chunk-size", defaultValue = "500")
+    int ingestChunkSize;
+
     @Inject
-    public ConsumingService(UserRepository userRepository, UserService userService, Validator validator, ConsumingRepository repository) {
+    public ConsumingService(UserRepository userRepository, UserService userService, Validator validator, ConsumingRepository repository,
+                            OwnerAggregateCache ownerCache) {
         super(userRepository, userService);
         this.validator = validator;
         this.repository = repository;
+        this.ownerCache = ownerCache;
     }
 
     public Uni<List<ConsumingDTO>> getAll(int limit, int offset, IUser user) {
@@ -49,11 +67,26 @@ public class ConsumingService extends AbstractService<Consuming, ConsumingDTO> {
                         .collect(Collectors.toList()));
     }
 
+    public Uni<Buffer> getAllAsJson(int limit, int offset, IUser user) {
+        assert repository != null;
+        return repository.getAllAsJson(limit, offset, user);
+    }
+
     public Uni<Integer> getAllCount(IUser user) {
         assert repository != null;
         return repository.getAllCount(user);
     }
 
+    public Uni<String> getVersion(UUID uuid, IUser user) {
+        assert repository != null;
+        return repository.getVersion(uuid, user);
+    }
+
+    public Uni<String> getWatermark(IUser user) {
+        assert repository != null;
+        return repository.getWatermark(user);
+    }
+
     public Uni<List<ConsumingDTO>> getAllMine(String telegramName, IUser user) {
         assert repository != null;
         Uni<List<Consuming>> uni = repository.getAllMine(100, 0, telegramName, user);
@@ -92,9 +125,15 @@ public class ConsumingService extends AbstractService<Consuming, ConsumingDTO> {
 
         if (id == null) {
             return repository.insert(consuming, user, images)
+                    .onItem().invoke(doc -> ownerCache.invalidateVehicle(doc.getVehicleId()))
                     .onItem().transformToUni(this::map);
         } else {
-            return repository.update(UUID.fromString(id), consuming, user)
+            UUID uuid = UUID.fromString(id);
+            return repository.update(uuid, consuming, user)
+                    .onItem().invoke(doc -> {
+                        ownerCache.invalidateConsuming(uuid);
+                        ownerCache.invalidateVehicle(doc.getVehicleId());
+                    })
                     .onItem().transformToUni(this::map);
         }
     }
@@ -106,9 +145,66 @@ public class ConsumingService extends AbstractService<Consuming, ConsumingDTO> {
         List<Image> images = entityTuple.getItem2();
 
         return repository.insert(consuming, user, images)
+                .onItem().invoke(doc -> ownerCache.invalidateVehicle(doc.getVehicleId()))
                 .onItem().transformToUni(v -> calcConsuming(v, user));
     }
 
+    public Uni<List<ConsumingIngestDTO>> ingest(List<ConsumingDTO> reports, MessengerType messengerType, String userName, IUser user) {
+        assert repository != null;
+        if (reports.isEmpty()) {
+            return Uni.createFrom().item(List.of());
+        }
+        List<String> keys = new ArrayList<>(reports.size());
+        Map<String, Consuming> unique = new LinkedHashMap<>();
+        Map<String, List<Image>> images = new HashMap<>();
+        for (ConsumingDTO dto : reports) {
+            Tuple2<Consuming, List<Image>> entityTuple = buildEntity(dto);
+            Consuming consuming = entityTuple.getItem1();
+            if (consuming.getIdempotencyKey() == null || consuming.getIdempotencyKey().isBlank()) {
+                consuming.setIdempotencyKey(UUID.randomUUID().toString());
+            }
+            keys.add(consuming.getIdempotencyKey());
+            if (unique.putIfAbsent(consuming.getIdempotencyKey(), consuming) == null && entityTuple.getItem2() != null) {
+                images.put(consuming.getIdempotencyKey(), entityTuple.getItem2());
+            }
+        }
+        List<Consuming> entities = new ArrayList<>(unique.values());
+        List<List<Consuming>> chunks = new ArrayList<>();
+        for (int i = 0; i < entities.size(); i += ingestChunkSize) {
+            chunks.add(entities.subList(i, Math.min(i + ingestChunkSize, entities.size())));
+        }
+        return Multi.createFrom().iterable(chunks)
+                .onItem().transformToUniAndConcatenate(chunk -> repository.ingest(chunk, images, messengerType, userName, user))
+                .onItem().invoke(ingested -> ingested.stream()
+                        .filter(ingestion -> !ingestion.duplicate())
+                        .map(ConsumingIngestion::vehicleId)
+                        .distinct()
+                        .forEach(ownerCache::invalidateVehicle))
+                .collect().in(HashMap<String, ConsumingIngestion>::new,
+                        (map, ingested) -> ingested.forEach(ingestion -> map.put(ingestion.idempotencyKey(), ingestion)))
+                .onItem().transform(ingested -> {
+                    Set<String> seen = new HashSet<>();
+                    return keys.stream().map(key -> {
+                        ConsumingIngestion ingestion = ingested.get(key);
+                        if (ingestion == null) {
+                            return ConsumingIngestDTO.builder()
+                                    .idempotencyKey(key)
+                                    .outcome(ConsumingIngestDTO.Outcome.REJECTED)
+                                    .build();
+                        }
+                        boolean duplicate = ingestion.duplicate() || !seen.add(key);
+                        return ConsumingIngestDTO.builder()
+                                .idempotencyKey(key)
+                                .outcome(duplicate ? ConsumingIngestDTO.Outcome.DUPLICATE : ConsumingIngestDTO.Outcome.CREATED)
+                                .id(ingestion.id())
+                                .vehicleId(ingestion.vehicleId())
+                                .totalTrip(ingestion.totalTrip())
+                                .litersPerHundred(ingestion.litersPerHundred())
+                                .build();
+                    }).toList();
+                });
+    }
+
     private Uni<ConsumingCalcDTO> calcConsuming(Consuming doc, IUser user) {
         return repository.getLastTwo(doc.getVehicleId(), user)
                 .map(records -> {
@@ -151,6 +247,7 @@ public class ConsumingService extends AbstractService<Consuming, ConsumingDTO> {
         consuming.setLastLiters(dto.getLastLiters());
         consuming.setLastCost(dto.getLastCost());
         consuming.setAddInfo(dto.getAddInfo());
+        consuming.setIdempotencyKey(dto.getIdempotencyKey());
 
         List<Image> images = null;
         if (dto.getImages() != null && !dto.getImages().isEmpty()) {
@@ -172,6 +269,8 @@ public class ConsumingService extends AbstractService<Consuming, ConsumingDTO> {
 
     public Uni<Integer> delete(String id, IUser user) {
         assert repository != null;
-        return repository.delete(UUID.fromString(id), user);
+        UUID uuid = UUID.fromString(id);
+        return repository.delete(uuid, user)
+                .onItem().invoke(() -> ownerCache.invalidateConsuming(uuid));
     }
 }
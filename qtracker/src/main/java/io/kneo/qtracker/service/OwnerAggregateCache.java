@@ -0,0 +1,71 @@
+package io.kneo.qtracker.service;
+
+import io.kneo.qtracker.dto.OwnerDTO;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@ApplicationScoped
+public class OwnerAggregateCache {
+
+    @ConfigProperty(name = "kneo.qtracker.owner-cache.ttl", defaultValue = "300")
+    long ttl;
+
+    @ConfigProperty(name = "kneo.qtracker.owner-cache.max-entries", defaultValue = "10000")
+    int maxEntries;
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    private record Key(String telegramName, long reader) {}
+
+    private record Entry(OwnerDTO owner, UUID ownerId, Set<UUID> vehicles, Set<UUID> consumings, long expiresAt) {}
+
+    public OwnerDTO get(String telegramName, long reader) {
+        Key key = new Key(telegramName, reader);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() < System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.owner();
+    }
+
+    public void put(String telegramName, long reader, OwnerDTO owner, Set<UUID> vehicles, Set<UUID> consumings) {
+        if (entries.size() >= maxEntries) {
+            entries.clear();
+        }
+        entries.put(new Key(telegramName, reader),
+                new Entry(owner, owner.getId(), vehicles, consumings, System.currentTimeMillis() + ttl * 1000));
+    }
+
+    public void invalidateTelegramName(String telegramName) {
+        if (telegramName != null) {
+            entries.keySet().removeIf(key -> key.telegramName().equals(telegramName));
+        }
+    }
+
+    public void invalidateOwner(UUID ownerId) {
+        if (ownerId != null) {
+            entries.values().removeIf(entry -> ownerId.equals(entry.ownerId()));
+        }
+    }
+
+    public void invalidateVehicle(UUID vehicleId) {
+        if (vehicleId != null) {
+            entries.values().removeIf(entry -> entry.vehicles().contains(vehicleId));
+        }
+    }
+
+    public void invalidateConsuming(UUID consumingId) {
+        if (consumingId != null) {
+            entries.values().removeIf(entry -> entry.consumings().contains(consumingId));
+        }
+    }
+}
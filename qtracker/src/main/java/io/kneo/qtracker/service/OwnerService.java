@@ -5,23 +5,35 @@ import io.kneo.core.model.user.IUser;
 import io.kneo.core.repository.UserRepository;
 import io.kneo.core.service.AbstractService;
 import io.kneo.core.service.UserService;
+import io.kneo.qtracker.dto.ConsumingDTO;
 import io.kneo.qtracker.dto.OwnerDTO;
 import io.kneo.qtracker.dto.VehicleDTO;
+import io.kneo.qtracker.model.Consuming;
 import io.kneo.qtracker.model.Owner;
+import io.kneo.qtracker.model.OwnerAggregate;
+import io.kneo.qtracker.model.Vehicle;
 import io.kneo.qtracker.repository.OwnerRepository;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.validation.Validator;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class OwnerService extends AbstractService<Owner, OwnerDTO> {
     private final OwnerRepository repository;
     private final VehicleService vehicleService;
+    private final OwnerAggregateCache ownerCache;
 
     Validator validator;
 
@@ -29,6 +41,7 @@ public class OwnerService extends AbstractService<Owner, OwnerDTO> {
         super(null, null);
         this.repository = null;
         this.vehicleService = null;
+        this.ownerCache = null;
     }
 
     @Inject
@@ -36,30 +49,34 @@ public class OwnerService extends AbstractService<Owner, OwnerDTO> {
                         UserService userService,
                         Validator validator,
                         OwnerRepository repository,
-                        VehicleService vehicleService) {
+                        VehicleService vehicleService,
+                        OwnerAggregateCache ownerCache) {
         super(userRepository, userService);
         this.validator = validator;
         this.repository = repository;
         this.vehicleService = vehicleService;
+        this.ownerCache = ownerCache;
     }
 
     public Uni<List<OwnerDTO>> getAll(final int limit, final int offset, final IUser user) {
         assert repository != null;
         Uni<List<Owner>> uni = repository.getAll(limit, offset, user);
         return uni
-                .onItem().transform(ownerList -> ownerList.stream()
-                        .map(owner -> OwnerDTO.builder()
-                                .id(owner.getId())
-                                .author(userRepository.getUserName(owner.getAuthor()))
-                                .regDate(owner.getRegDate())
-                                .lastModifier(userRepository.getUserName(owner.getLastModifier()))
-                                .lastModifiedDate(owner.getLastModifiedDate())
-                                .email(owner.getEmail())
-                                .telegramName(owner.getTelegramName())
-                                .whatsappName(owner.getWhatsappName())
-                                .phone(owner.getPhone())
-                                .build())
-                        .collect(Collectors.toList()));
+                .onItem().transformToUni(ownerList -> userNames(ownerList.stream()
+                        .flatMap(owner -> Stream.of(owner.getAuthor(), owner.getLastModifier())).toList())
+                        .onItem().transform(names -> ownerList.stream()
+                                .map(owner -> OwnerDTO.builder()
+                                        .id(owner.getId())
+                                        .author(names.get(owner.getAuthor()))
+                                        .regDate(owner.getRegDate())
+                                        .lastModifier(names.get(owner.getLastModifier()))
+                                        .lastModifiedDate(owner.getLastModifiedDate())
+                                        .email(owner.getEmail())
+                                        .telegramName(owner.getTelegramName())
+                                        .whatsappName(owner.getWhatsappName())
+                                        .phone(owner.getPhone())
+                                        .build())
+                                .collect(Collectors.toList())));
     }
 
     public Uni<Integer> getAllCount(final IUser user) {
@@ -92,22 +109,33 @@ public class OwnerService extends AbstractService<Owner, OwnerDTO> {
                     .onItem().transformToUni(ownerDTO -> {
                         return vehicleService.upsert(null, VehicleService.getTemporaryVehicle(ownerDTO), user, code)
                                 .replaceWith(ownerDTO);
-                    });
+                    })
+                    .onItem().invoke(() -> ownerCache.invalidateTelegramName(dto.getTelegramName()));
         } else {
-            return repository.update(UUID.fromString(id), buildEntity(dto), user)
+            UUID uuid = UUID.fromString(id);
+            return repository.update(uuid, buildEntity(dto), user)
+                    .onItem().invoke(() -> {
+                        ownerCache.invalidateOwner(uuid);
+                        ownerCache.invalidateTelegramName(dto.getTelegramName());
+                    })
                     .onItem().transformToUni(this::map);
         }
     }
 
 
     private Uni<OwnerDTO> map(Owner doc) {
-        return Uni.createFrom().item(() -> OwnerDTO.builder()
+        return userNames(List.of(doc.getAuthor(), doc.getLastModifier()))
+                .onItem().transform(names -> toDTO(doc, names));
+    }
+
+    private OwnerDTO toDTO(Owner doc, Map<Long, String> names) {
+        return OwnerDTO.builder()
                 .id(doc.getId())
-                .author(userRepository.getUserName(doc.getAuthor()))
+                .author(names.get(doc.getAuthor()))
                 .regDate(doc.getRegDate())
-                .lastModifier(userRepository.getUserName(doc.getLastModifier()))
+                .lastModifier(names.get(doc.getLastModifier()))
                 .lastModifiedDate(doc.getLastModifiedDate())
-                .localizedName(doc.getLocalizedName())
+                .version(doc.getVersion())
                 .email(doc.getEmail())
                 .telegramName(doc.getTelegramName())
                 .whatsappName(doc.getWhatsappName())
@@ -116,7 +144,22 @@ public class OwnerService extends AbstractService<Owner, OwnerDTO> {
                 .country(doc.getCountry())
                 .currency(doc.getCurrency())
                 .birthDate(doc.getBirthDate())
-                .build());
+                .build();
+    }
+
+    private Uni<Map<Long, String>> userNames(List<Long> userIds) {
+        List<Long> distinct = userIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinct.isEmpty()) {
+            return Uni.createFrom().item(Map.of());
+        }
+        return Uni.join().all(distinct.stream().map(userRepository::getUserName).toList()).andFailFast()
+                .onItem().transform(names -> {
+                    Map<Long, String> byId = new HashMap<>();
+                    for (int i = 0; i < distinct.size(); i++) {
+                        byId.put(distinct.get(i), names.get(i));
+                    }
+                    return byId;
+                });
     }
 
     private Owner buildEntity(OwnerDTO dto) {
@@ -129,12 +172,15 @@ public class OwnerService extends AbstractService<Owner, OwnerDTO> {
         doc.setCountry(dto.getCountry());
         doc.setCurrency(dto.getCurrency());
         doc.setBirthDate(dto.getBirthDate());
+        doc.setVersion(dto.getVersion());
         return doc;
     }
 
     public Uni<Integer> delete(String id, IUser user) {
         assert repository != null;
-        return repository.delete(UUID.fromString(id), user);
+        UUID uuid = UUID.fromString(id);
+        return repository.delete(uuid, user)
+                .onItem().invoke(() -> ownerCache.invalidateOwner(uuid));
     }
 
     public Uni<Owner> getByTelegramId(String id, IUser user, LanguageCode languageCode) {
@@ -145,24 +191,58 @@ public class OwnerService extends AbstractService<Owner, OwnerDTO> {
     public Uni<OwnerDTO> getDTOByTelegramId(String id, IUser user, LanguageCode languageCode) {
         assert repository != null;
         assert vehicleService != null;
-        Uni<Owner> ownerUni = repository.findByTelegramId(id, user.getId());
-        return ownerUni.onItem().transformToUni(owner -> {
-            Uni<OwnerDTO> ownerDTOUni = map(owner);
-            Uni<List<VehicleDTO>> vehiclesUni = vehicleService.getOwnedBy(owner.getId(), user)
-                    .onItem().transformToUni(vehicles -> {
-                        List<Uni<VehicleDTO>> vehicleDTOUnis = vehicles.stream()
-                                .map(vehicleService::map)
-                                .toList();
-                        return Uni.combine().all().unis(vehicleDTOUnis).with(results -> (List<VehicleDTO>) results);
+        OwnerDTO cached = ownerCache.get(id, user.getId());
+        if (cached != null) {
+            return Uni.createFrom().item(cached);
+        }
+        return repository.findByTelegramId(id, user.getId())
+                .onItem().transformToUni(owner -> vehicleService.getOwnedByWithLatestConsuming(owner.getId(), user)
+                        .onItem().transform(vehicles -> new OwnerAggregate(owner, vehicles)))
+                .onItem().transformToUni(aggregate -> {
+                    List<Long> userIds = new ArrayList<>();
+                    userIds.add(aggregate.owner().getAuthor());
+                    userIds.add(aggregate.owner().getLastModifier());
+                    aggregate.vehicles().forEach(state -> {
+                        userIds.add(state.vehicle().getAuthor());
+                        userIds.add(state.vehicle().getLastModifier());
+                    });
+                    return userNames(userIds).onItem().transform(names -> toDTO(aggregate, names));
+                })
+                .onItem().invoke(ownerDTO -> {
+                    Set<UUID> vehicleIds = new HashSet<>();
+                    Set<UUID> consumingIds = new HashSet<>();
+                    ownerDTO.getVehicles().forEach(vehicle -> {
+                        vehicleIds.add(vehicle.getId());
+                        if (vehicle.getLastConsuming() != null) {
+                            consumingIds.add(vehicle.getLastConsuming().getId());
+                        }
                     });
+                    ownerCache.put(id, user.getId(), ownerDTO, vehicleIds, consumingIds);
+                });
+    }
 
-            return ownerDTOUni.onItem().transformToUni(ownerDTO ->
-                    vehiclesUni.onItem().transform(vehicles -> {
-                        ownerDTO.setVehicles(vehicles);
-                        return ownerDTO;
-                    })
-            );
-        });
+    private OwnerDTO toDTO(OwnerAggregate aggregate, Map<Long, String> names) {
+        assert vehicleService != null;
+        OwnerDTO ownerDTO = toDTO(aggregate.owner(), names);
+        ownerDTO.setVehicles(aggregate.vehicles().stream()
+                .map(state -> {
+                    Vehicle vehicle = state.vehicle();
+                    VehicleDTO vehicleDTO = vehicleService.toDTO(vehicle, names.get(vehicle.getAuthor()), names.get(vehicle.getLastModifier()));
+                    Consuming latest = state.latestConsuming();
+                    if (latest != null) {
+                        vehicleDTO.setLastConsuming(ConsumingDTO.builder()
+                                .id(latest.getId())
+                                .regDate(latest.getRegDate())
+                                .vehicleId(latest.getVehicleId())
+                                .totalKm(latest.getTotalKm())
+                                .lastLiters(latest.getLastLiters())
+                                .lastCost(latest.getLastCost())
+                                .build());
+                    }
+                    return vehicleDTO;
+                })
+                .toList());
+        return ownerDTO;
     }
 
 }
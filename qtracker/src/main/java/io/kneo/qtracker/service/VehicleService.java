@@ -9,6 +9,7 @@ import io.kneo.core.service.UserService;
 import io.kneo.qtracker.dto.OwnerDTO;
 import io.kneo.qtracker.dto.VehicleDTO;
 import io.kneo.qtracker.model.Owner;
+import io.kneo.qtracker.model.OwnerAggregate;
 import io.kneo.qtracker.model.Vehicle;
 import io.kneo.qtracker.repository.VehicleRepository;
 import io.smallrye.mutiny.Uni;
@@ -25,6 +26,7 @@ import java.util.stream.Collectors;
 public class VehicleService extends AbstractService<Vehicle, VehicleDTO> {
     private final VehicleRepository repository;
     private final OwnerService ownerService;
+    private final OwnerAggregateCache ownerCache;
 
     Validator validator;
 
@@ -32,6 +34,7 @@ public class VehicleService extends AbstractService<Vehicle, VehicleDTO> {
         super(null, null);
         this.repository = null;
         this.ownerService = null;
+        this.ownerCache = null;
     }
 
     @Inject
@@ -39,11 +42,13 @@ public class VehicleService extends AbstractService<Vehicle, VehicleDTO> {
                           UserService userService,
                           Validator validator,
                           VehicleRepository repository,
-                          OwnerService ownerService) {
+                          OwnerService ownerService,
+                          OwnerAggregateCache ownerCache) {
         super(userRepository, userService);
         this.validator = validator;
         this.repository = repository;
         this.ownerService = ownerService;
+        this.ownerCache = ownerCache;
     }
 
     public Uni<List<VehicleDTO>> getAll(final int limit, final int offset, final IUser user) {
@@ -77,6 +82,11 @@ public class VehicleService extends AbstractService<Vehicle, VehicleDTO> {
         return repository.getOwnedBy(ownerId, user);
     }
 
+    public Uni<List<OwnerAggregate.VehicleState>> getOwnedByWithLatestConsuming(final UUID ownerId, final IUser user) {
+        assert repository != null;
+        return repository.getOwnedByWithLatestConsuming(ownerId, user);
+    }
+
     @Override
     public Uni<VehicleDTO> getDTO(UUID uuid, IUser user, LanguageCode code) {
         assert repository != null;
@@ -98,21 +108,32 @@ public class VehicleService extends AbstractService<Vehicle, VehicleDTO> {
         if (id == null) {
             return vehicleUni
                     .onItem().transformToUni(vehicle -> repository.insert(vehicle, user))
+                    .onItem().invoke(vehicle -> ownerCache.invalidateOwner(vehicle.getOwnerId()))
                     .onItem().transformToUni(this::map);
         } else {
+            UUID uuid = UUID.fromString(id);
             return vehicleUni
-                    .onItem().transformToUni(vehicle -> repository.update(UUID.fromString(id), vehicle, user))
+                    .onItem().transformToUni(vehicle -> repository.update(uuid, vehicle, user))
+                    .onItem().invoke(vehicle -> {
+                        ownerCache.invalidateVehicle(uuid);
+                        ownerCache.invalidateOwner(vehicle.getOwnerId());
+                    })
                     .onItem().transformToUni(this::map);
         }
     }
 
 
     public Uni<VehicleDTO> map(Vehicle doc) {
-        return Uni.createFrom().item(() -> VehicleDTO.builder()
+        return Uni.combine().all().unis(userRepository.getUserName(doc.getAuthor()), userRepository.getUserName(doc.getLastModifier()))
+                .asTuple().onItem().transform(names -> toDTO(doc, names.getItem1(), names.getItem2()));
+    }
+
+    VehicleDTO toDTO(Vehicle doc, String author, String lastModifier) {
+        return VehicleDTO.builder()
                 .id(doc.getId())
-                .author(userRepository.getUserName(doc.getAuthor()))
+                .author(author)
                 .regDate(doc.getRegDate())
-                .lastModifier(userRepository.getUserName(doc.getLastModifier()))
+                .lastModifier(lastModifier)
                 .lastModifiedDate(doc.getLastModifiedDate())
                 .localizedName(doc.getLocalizedName())
                 .vin(doc.getVin())
@@ -122,7 +143,8 @@ public class VehicleService extends AbstractService<Vehicle, VehicleDTO> {
                 .model(doc.getModel())
             //    .ownerId(doc.getOwnerId())
                 .status(doc.getStatus())
-                .build());
+                .version(doc.getVersion())
+                .build();
     }
 
     private Uni<Vehicle> buildEntity(VehicleDTO dto, IUser user, LanguageCode code) {
@@ -136,6 +158,7 @@ public class VehicleService extends AbstractService<Vehicle, VehicleDTO> {
         doc.setModel(dto.getModel());
         doc.setFuelType(dto.getFuelType());
         doc.setLocalizedName(dto.getLocalizedName());
+        doc.setVersion(dto.getVersion());
 
         return ownerUni.onItem().transform(owner -> {
             if (owner != null) {
@@ -147,7 +170,9 @@ public class VehicleService extends AbstractService<Vehicle, VehicleDTO> {
 
     public Uni<Integer> delete(String id, IUser user) {
         assert repository != null;
-        return repository.delete(UUID.fromString(id), user);
+        UUID uuid = UUID.fromString(id);
+        return repository.delete(uuid, user)
+                .onItem().invoke(() -> ownerCache.invalidateVehicle(uuid));
     }
 
     public static VehicleDTO getTemporaryVehicle(OwnerDTO ownerDTO) {